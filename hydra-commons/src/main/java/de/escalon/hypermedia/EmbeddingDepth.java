@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maximum depth up to which nested objects are embedded into a representation. The rendered resource has depth 0,
+ * every nested bean or collection member is one level deeper than the object holding it. Beyond the maximum depth,
+ * nested resources which have a self link are rendered as reference to the self link instead of being expanded,
+ * e.g. as <code>{"@id": "http://example.com/events/1"}</code> in json-ld. Nested objects without self link are always
+ * embedded.
+ * <p>
+ * The maximum depth may be restricted for particular types:
+ * <pre>
+ * EmbeddingDepth.of(2)
+ *         .withMaxDepth(Person.class, 0);
+ * </pre>
+ * Instances are immutable.
+ */
+public final class EmbeddingDepth {
+
+    /**
+     * Attribute key under which renderers expect the embedding depth, e.g. as serializer attribute.
+     */
+    public static final String KEY_EMBEDDING_DEPTH = "de.escalon.hypermedia.embedding-depth";
+
+    /**
+     * Embeds nested objects at any depth.
+     */
+    public static final EmbeddingDepth UNLIMITED = new EmbeddingDepth(Integer.MAX_VALUE,
+            Collections.<Class<?>, Integer>emptyMap());
+
+    private final int maxDepth;
+
+    private final Map<Class<?>, Integer> maxDepthByType;
+
+    private EmbeddingDepth(int maxDepth, Map<Class<?>, Integer> maxDepthByType) {
+        this.maxDepth = maxDepth;
+        this.maxDepthByType = maxDepthByType;
+    }
+
+    /**
+     * Creates embedding depth for all types.
+     *
+     * @param maxDepth
+     *         deepest level at which nested resources are embedded, 0 renders all nested resources as reference
+     * @return embedding depth
+     */
+    public static EmbeddingDepth of(int maxDepth) {
+        assertValidDepth(maxDepth);
+        return new EmbeddingDepth(maxDepth, Collections.<Class<?>, Integer>emptyMap());
+    }
+
+    /**
+     * Creates a copy of this embedding depth with a maximum depth for the given type and its subtypes.
+     *
+     * @param type
+     *         of nested objects, i.e. the content type of an EntityModel
+     * @param maxDepth
+     *         deepest level at which objects of the given type are embedded
+     * @return new embedding depth
+     */
+    public EmbeddingDepth withMaxDepth(Class<?> type, int maxDepth) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        assertValidDepth(maxDepth);
+        Map<Class<?>, Integer> byType = new LinkedHashMap<Class<?>, Integer>(maxDepthByType);
+        byType.put(type, maxDepth);
+        return new EmbeddingDepth(this.maxDepth, Collections.unmodifiableMap(byType));
+    }
+
+    /**
+     * Creates a copy of this embedding depth whose maximum depths do not exceed the given depth, e.g. to apply a
+     * smaller depth requested for a single response.
+     *
+     * @param maxDepth
+     *         upper limit of all maximum depths
+     * @return new embedding depth, or this if no maximum depth exceeds the given depth
+     */
+    public EmbeddingDepth limitedTo(int maxDepth) {
+        assertValidDepth(maxDepth);
+        boolean changed = this.maxDepth > maxDepth;
+        Map<Class<?>, Integer> byType = new LinkedHashMap<Class<?>, Integer>(maxDepthByType);
+        for (Map.Entry<Class<?>, Integer> entry : byType.entrySet()) {
+            if (entry.getValue() > maxDepth) {
+                entry.setValue(maxDepth);
+                changed = true;
+            }
+        }
+        return changed ? new EmbeddingDepth(Math.min(this.maxDepth, maxDepth),
+                Collections.unmodifiableMap(byType)) : this;
+    }
+
+    /**
+     * Gets the maximum depth for the given type. A depth configured for the type itself wins over a depth configured
+     * for a superclass, which wins over a depth configured for an interface.
+     *
+     * @param type
+     *         of nested object
+     * @return maximum depth
+     */
+    public int getMaxDepth(Class<?> type) {
+        if (maxDepthByType.isEmpty() || type == null) {
+            return maxDepth;
+        }
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            Integer ret = maxDepthByType.get(current);
+            if (ret != null) {
+                return ret;
+            }
+        }
+        for (Map.Entry<Class<?>, Integer> entry : maxDepthByType.entrySet()) {
+            if (entry.getKey()
+                    .isAssignableFrom(type)) {
+                return entry.getValue();
+            }
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Determines if an object of the given type is embedded at the given depth.
+     *
+     * @param type
+     *         of nested object
+     * @param depth
+     *         of nested object, 0 being the rendered resource
+     * @return true if the object should be expanded, false if it should be rendered as reference if possible
+     */
+    public boolean isEmbedded(Class<?> type, int depth) {
+        return depth <= getMaxDepth(type);
+    }
+
+    /**
+     * Determines if objects are embedded at any depth.
+     *
+     * @return true if nothing is rendered as reference
+     */
+    public boolean isUnlimited() {
+        if (maxDepth != Integer.MAX_VALUE) {
+            return false;
+        }
+        for (Integer typeDepth : maxDepthByType.values()) {
+            if (typeDepth != Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assertValidDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddingDepth{maxDepth=" + maxDepth + ", maxDepthByType=" + maxDepthByType + "}";
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the effort a renderer spends on a single response, so that an unexpectedly deep or large object graph
+ * cannot occupy a request thread indefinitely. A budget has three limits:
+ * <ul>
+ * <li>maximum depth: nested objects deeper than the maximum depth are not expanded, using the same depth as
+ * {@link EmbeddingDepth}</li>
+ * <li>maximum items: collections are truncated after the maximum number of items</li>
+ * <li>maximum time: once the time is up, nested objects are no longer expanded</li>
+ * </ul>
+ * Objects which are not expanded are rendered as reference to their self link or identifier if they have one, and
+ * omitted otherwise. The rendered resource itself is always rendered.
+ * <pre>
+ * RenderingBudget.UNLIMITED
+ *         .withMaxDepth(8)
+ *         .withMaxItems(1000)
+ *         .withMaxTime(2, TimeUnit.SECONDS);
+ * </pre>
+ * Instances are immutable. Renderers call {@link #start(RenderingBudgetListener)} for every response and consume the
+ * returned {@link Tracker}.
+ */
+public final class RenderingBudget {
+
+    /**
+     * Attribute key under which renderers expect the {@link Tracker} of the current response, e.g. as serializer
+     * attribute.
+     */
+    public static final String KEY_RENDERING_BUDGET = "de.escalon.hypermedia.rendering-budget";
+
+    /**
+     * Renders without limits.
+     */
+    public static final RenderingBudget UNLIMITED = new RenderingBudget(Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Long.MAX_VALUE);
+
+    /**
+     * Limits of a rendering budget.
+     */
+    public enum Limit {
+        DEPTH, ITEMS, TIME
+    }
+
+    private final int maxDepth;
+    private final int maxItems;
+    private final long maxTimeNanos;
+
+    private RenderingBudget(int maxDepth, int maxItems, long maxTimeNanos) {
+        this.maxDepth = maxDepth;
+        this.maxItems = maxItems;
+        this.maxTimeNanos = maxTimeNanos;
+    }
+
+    /**
+     * Creates a copy of this budget with the given maximum depth.
+     *
+     * @param maxDepth
+     *         deepest level at which nested objects are expanded, 0 expands only the rendered resource
+     * @return new budget
+     */
+    public RenderingBudget withMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative");
+        }
+        return new RenderingBudget(maxDepth, maxItems, maxTimeNanos);
+    }
+
+    /**
+     * Creates a copy of this budget with the given maximum number of items per collection.
+     *
+     * @param maxItems
+     *         maximum number of items rendered per collection
+     * @return new budget
+     */
+    public RenderingBudget withMaxItems(int maxItems) {
+        if (maxItems < 0) {
+            throw new IllegalArgumentException("maxItems must not be negative");
+        }
+        return new RenderingBudget(maxDepth, maxItems, maxTimeNanos);
+    }
+
+    /**
+     * Creates a copy of this budget with the given maximum rendering time per response.
+     *
+     * @param maxTime
+     *         maximum time
+     * @param unit
+     *         of maximum time
+     * @return new budget
+     */
+    public RenderingBudget withMaxTime(long maxTime, TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        if (maxTime <= 0) {
+            throw new IllegalArgumentException("maxTime must be positive");
+        }
+        return new RenderingBudget(maxDepth, maxItems, unit.toNanos(maxTime));
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Gets the maximum rendering time.
+     *
+     * @return maximum time in nanoseconds, {@link Long#MAX_VALUE} if unlimited
+     */
+    public long getMaxTimeNanos() {
+        return maxTimeNanos;
+    }
+
+    /**
+     * Determines if this budget has no limits, so that renderers need not track it.
+     *
+     * @return true if unlimited
+     */
+    public boolean isUnlimited() {
+        return maxDepth == Integer.MAX_VALUE && maxItems == Integer.MAX_VALUE && maxTimeNanos == Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts rendering a response with this budget. The time budget starts now.
+     *
+     * @param listener
+     *         to notify when a limit is exceeded, may be null
+     * @return tracker for a single response
+     */
+    public Tracker start(RenderingBudgetListener listener) {
+        return new Tracker(this, listener);
+    }
+
+    @Override
+    public String toString() {
+        return "RenderingBudget{maxDepth=" + maxDepth + ", maxItems=" + maxItems + ", maxTimeNanos="
+                + maxTimeNanos + "}";
+    }
+
+    /**
+     * Consumption of a budget while rendering a single response. Thread-safe, so that collection items may be
+     * rendered concurrently.
+     */
+    public static final class Tracker {
+
+        private final RenderingBudget budget;
+        private final RenderingBudgetListener listener;
+        private final long deadline;
+        private final AtomicInteger reported = new AtomicInteger();
+        private volatile boolean timeExceeded;
+
+        private Tracker(RenderingBudget budget, RenderingBudgetListener listener) {
+            this.budget = budget;
+            this.listener = listener;
+            this.deadline = budget.maxTimeNanos == Long.MAX_VALUE ? 0 : System.nanoTime() + budget.maxTimeNanos;
+        }
+
+        public RenderingBudget getBudget() {
+            return budget;
+        }
+
+        /**
+         * Determines if a nested object must not be expanded, because it is nested beyond the maximum depth or the
+         * time is up. The rendered resource at depth 0 is always expanded.
+         *
+         * @param resource
+         *         nested object
+         * @param depth
+         *         of nested object, 0 being the rendered resource
+         * @return true if the object should be rendered as reference if possible, or omitted
+         */
+        public boolean isExhausted(Object resource, int depth) {
+            if (depth == 0) {
+                return false;
+            }
+            if (depth > budget.maxDepth) {
+                report(Limit.DEPTH, resource, depth);
+                return true;
+            }
+            if (isTimeExceeded()) {
+                report(Limit.TIME, resource, depth);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Determines if the time budget is used up.
+         *
+         * @return true if rendering took longer than the maximum time
+         */
+        public boolean isTimeExceeded() {
+            if (timeExceeded) {
+                return true;
+            }
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                timeExceeded = true;
+            }
+            return timeExceeded;
+        }
+
+        /**
+         * Gets the items of a collection which may be rendered.
+         *
+         * @param items
+         *         of collection
+         * @param depth
+         *         of the collection items
+         * @return the given items, or the first items up to the maximum number of items
+         */
+        public <T> Collection<T> limit(Collection<T> items, int depth) {
+            int count = limit(items.size(), items, depth);
+            if (count == items.size()) {
+                return items;
+            }
+            List<T> ret = new ArrayList<T>(count);
+            Iterator<T> it = items.iterator();
+            while (ret.size() < count && it.hasNext()) {
+                ret.add(it.next());
+            }
+            return ret;
+        }
+
+        /**
+         * Gets the number of items of a collection or array which may be rendered.
+         *
+         * @param size
+         *         number of items
+         * @param items
+         *         collection or array
+         * @param depth
+         *         of the items
+         * @return the given size, or the maximum number of items if the size exceeds it
+         */
+        public int limit(int size, Object items, int depth) {
+            if (size <= budget.maxItems) {
+                return size;
+            }
+            report(Limit.ITEMS, items, depth);
+            return budget.maxItems;
+        }
+
+        private void report(Limit limit, Object resource, int depth) {
+            int bit = 1 << limit.ordinal();
+            int current;
+            do {
+                current = reported.get();
+                if ((current & bit) != 0) {
+                    return;
+                }
+            } while (!reported.compareAndSet(current, current | bit));
+            if (listener != null) {
+                listener.budgetExceeded(limit, resource == null ? null : resource.getClass(), depth);
+            }
+        }
+    }
+}
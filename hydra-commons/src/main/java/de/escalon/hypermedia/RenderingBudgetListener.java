@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+/**
+ * Is notified when a renderer exceeds a limit of its {@link RenderingBudget}, e.g. to log or count truncated
+ * responses. Called at most once per limit and response, possibly from a rendering thread other than the request
+ * thread. Implementations should return quickly and must not throw.
+ */
+public interface RenderingBudgetListener {
+
+    /**
+     * Called when a limit is exceeded for the first time while rendering a response.
+     *
+     * @param limit
+     *         which was exceeded
+     * @param resourceType
+     *         type of the object which was truncated or rendered as reference, may be null
+     * @param depth
+     *         nesting depth of that object, 0 being the rendered resource
+     */
+    void budgetExceeded(RenderingBudget.Limit limit, Class<?> resourceType, int depth);
+}
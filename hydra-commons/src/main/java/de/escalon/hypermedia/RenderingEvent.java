@@ -0,0 +1,72 @@
+package de.escalon.hypermedia;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class for JDK Flight Recorder events emitted by the hypermedia renderers. Subclasses mark a single rendering
+ * phase and begin an event only if their event type is enabled:
+ * <pre>
+ * SomePhaseEvent event = RenderingEvents.isAvailable() ? SomePhaseEvent.beginIfEnabled() : null;
+ * // render
+ * if (event != null) {
+ *     event.commit(resource, depth, itemCount);
+ * }
+ * </pre>
+ * If the event type is disabled, or the JVM does not ship {@code jdk.jfr}, no event is allocated and the attributes
+ * are never computed, so the instrumentation costs next to nothing in production.
+ */
+@Category({"Hypermedia", "Rendering"})
+@StackTrace(false)
+public abstract class RenderingEvent extends jdk.jfr.Event {
+
+    @Label("Resource Type")
+    @Description("Class of the rendered object")
+    String resourceType;
+
+    @Label("Depth")
+    @Description("Nesting depth at which the phase ran")
+    int depth;
+
+    @Label("Item Count")
+    @Description("Number of items handled by the phase")
+    int itemCount;
+
+    /**
+     * Ends the event and commits it with the given attributes, provided the event is enabled and passes the
+     * configured threshold.
+     *
+     * @param resource
+     *         rendered object, may be null
+     * @param depth
+     *         nesting depth
+     * @param itemCount
+     *         number of items handled
+     */
+    public void commit(Object resource, int depth, int itemCount) {
+        commit(resource == null ? null : resource.getClass(), depth, itemCount);
+    }
+
+    /**
+     * Ends the event and commits it with the given attributes, provided the event is enabled and passes the
+     * configured threshold.
+     *
+     * @param resourceType
+     *         type of the rendered object, may be null
+     * @param depth
+     *         nesting depth
+     * @param itemCount
+     *         number of items handled
+     */
+    public void commit(Class<?> resourceType, int depth, int itemCount) {
+        end();
+        if (shouldCommit()) {
+            this.resourceType = resourceType == null ? null : resourceType.getName();
+            this.depth = depth;
+            this.itemCount = itemCount;
+            commit();
+        }
+    }
+}
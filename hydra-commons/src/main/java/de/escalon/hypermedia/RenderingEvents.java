@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+/**
+ * Tells if the JDK Flight Recorder API is available. Renderers must check {@link #isAvailable()} before they touch a
+ * {@link RenderingEvent} subclass, since loading one fails with {@link NoClassDefFoundError} on a JRE without {@code
+ * jdk.jfr}.
+ */
+public final class RenderingEvents {
+
+    private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+    private RenderingEvents() {
+    }
+
+    /**
+     * Determines if rendering events can be used. The check is done once, when this class is initialized.
+     *
+     * @return true if {@code jdk.jfr} is present
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean isFlightRecorderPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, RenderingEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sparse fieldset selected by the client, e.g. {@code performer,workPerformed.name}. Nested properties are selected
+ * with a dot, a selected property without nested selection is rendered completely. Json-ld keywords and compact
+ * iris such as {@code hydra:member} are structural and always rendered, so that a selection on a collection applies
+ * to its members. Links and affordances are only rendered if their rel is selected explicitly.
+ * <p>
+ * The selection is passed to the serializers as serializer attribute {@link #KEY_FIELD_SELECTION}, e.g. {@code
+ * objectMapper.writer().withAttribute(FieldSelection.KEY_FIELD_SELECTION, FieldSelection.parse(fields))}.
+ */
+public final class FieldSelection {
+
+    public static final String KEY_FIELD_SELECTION = "de.escalon.hypermedia.field-selection";
+
+    /**
+     * Selects all properties.
+     */
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    /**
+     * Selected properties by name, null if all properties are selected.
+     */
+    private final Map<String, FieldSelection> selected;
+
+    private FieldSelection(Map<String, FieldSelection> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * Parses comma-separated property paths, e.g. {@code performer,workPerformed.name}.
+     *
+     * @param fields
+     *         property paths, may be null or empty
+     * @return selection, {@link #ALL} if no fields are given
+     */
+    public static FieldSelection parse(String fields) {
+        if (fields == null || fields.trim()
+                .isEmpty()) {
+            return ALL;
+        }
+        Map<String, Object> tree = new LinkedHashMap<String, Object>();
+        for (String path : fields.split(",")) {
+            Map<String, Object> node = tree;
+            String[] names = path.trim()
+                    .split("\\.");
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i].trim();
+                if (name.isEmpty()) {
+                    break;
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> child = (Map<String, Object>) node.get(name);
+                boolean last = i == names.length - 1;
+                if (child == null && !node.containsKey(name)) {
+                    child = last ? null : new LinkedHashMap<String, Object>();
+                    node.put(name, child);
+                } else if (child != null && last) {
+                    // plain property wins over nested selection of the same property
+                    node.put(name, null);
+                    child = null;
+                }
+                if (child == null) {
+                    break;
+                }
+                node = child;
+            }
+        }
+        return tree.isEmpty() ? ALL : toSelection(tree);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldSelection toSelection(Map<String, Object> tree) {
+        Map<String, FieldSelection> selected = new LinkedHashMap<String, FieldSelection>();
+        for (Map.Entry<String, Object> entry : tree.entrySet()) {
+            Object subtree = entry.getValue();
+            selected.put(entry.getKey(), subtree == null ? ALL : toSelection((Map<String, Object>) subtree));
+        }
+        return new FieldSelection(Collections.unmodifiableMap(selected));
+    }
+
+    /**
+     * Gets the selection which applies to the bean currently being serialized.
+     *
+     * @param serializerProvider
+     *         holding the selection as attribute
+     * @return current selection, {@link #ALL} if there is none
+     */
+    public static FieldSelection current(SerializerProvider serializerProvider) {
+        Object selection = serializerProvider.getAttribute(KEY_FIELD_SELECTION);
+        return selection instanceof FieldSelection ? (FieldSelection) selection : ALL;
+    }
+
+    /**
+     * Determines if all properties are selected.
+     *
+     * @return true if nothing is filtered
+     */
+    public boolean isAll() {
+        return selected == null;
+    }
+
+    /**
+     * Determines if the property with the given name is rendered.
+     *
+     * @param name
+     *         of property as it appears in the json output
+     * @return true if property is selected or structural
+     */
+    public boolean includes(String name) {
+        return selected == null || isStructural(name) || selected.containsKey(name);
+    }
+
+    /**
+     * Determines if the given name was selected explicitly, used for links and affordances.
+     *
+     * @param name
+     *         e.g. rel of a link
+     * @return true if all properties or the given name are selected
+     */
+    public boolean includesExplicitly(String name) {
+        return selected == null || selected.containsKey(name);
+    }
+
+    /**
+     * Gets the selection for the value of the given property.
+     *
+     * @param name
+     *         of property as it appears in the json output
+     * @return selection to apply to the property value
+     */
+    public FieldSelection select(String name) {
+        if (selected == null) {
+            return ALL;
+        }
+        FieldSelection ret = selected.get(name);
+        if (ret == null) {
+            // structural properties pass the selection on, e.g. to collection members
+            return isStructural(name) ? this : ALL;
+        }
+        return ret;
+    }
+
+    private static boolean isStructural(String name) {
+        return name.startsWith("@") || name.indexOf(':') > 0;
+    }
+
+    @Override
+    public String toString() {
+        return selected == null ? "*" : selected.toString();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+package de.escalon.hypermedia.hydra.serialize;
+
+/**
+ * Resolves the json-ld {@code @id} of a bean, so that beans beyond the maximum {@link
+ * de.escalon.hypermedia.EmbeddingDepth embedding depth} can be rendered as reference. Passed to the serializers as
+ * serializer attribute {@link #KEY_ID_RESOLVER}.
+ */
+public interface IdResolver {
+
+    String KEY_ID_RESOLVER = "de.escalon.hypermedia.id-resolver";
+
+    /**
+     * Gets the identifier of the given bean.
+     *
+     * @param bean
+     *         to identify
+     * @return identifier or null if the bean has no identifier and must be embedded
+     */
+    String getId(Object bean);
+}
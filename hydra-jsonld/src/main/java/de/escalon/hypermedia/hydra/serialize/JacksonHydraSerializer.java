@@ -16,6 +16,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.WritableTypeId;
 import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
@@ -27,12 +28,20 @@ import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
 import com.fasterxml.jackson.databind.ser.impl.WritableObjectId;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import com.fasterxml.jackson.databind.util.NameTransformer;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingEvents;
 import de.escalon.hypermedia.hydra.mapping.Expose;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -42,6 +51,25 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 
     public static final String KEY_LD_CONTEXT = "de.escalon.hypermedia.ld-context";
 
+    /**
+     * Attribute key of a mutable {@code Set<String>} of node identifiers which have already been written. If present,
+     * every identified node is written once and later occurrences are written as <code>{"@id": ...}</code>.
+     */
+    public static final String KEY_EMITTED_NODES = "de.escalon.hypermedia.emitted-nodes";
+
+    /**
+     * Attribute key of the url of a remote context. If present, the outermost bean references the remote context
+     * as <code>{"@context": url}</code> instead of defining its context inline, so the remote context must define the
+     * vocab and terms of the outermost bean. Nested beans still define differing contexts inline.
+     */
+    public static final String KEY_REMOTE_CONTEXT = "de.escalon.hypermedia.remote-context";
+
+    /**
+     * Property under which a node lists its properties whose items were truncated by the {@link RenderingBudget},
+     * e.g. <code>{"urn:escalon:hypermedia:truncated": ["hydra:member"]}</code>.
+     */
+    public static final String TRUNCATED_PROPERTIES = "urn:escalon:hypermedia:truncated";
+
     protected LdContextFactory ldContextFactory;
     private ProxyUnwrapper proxyUnwrapper;
 
@@ -153,6 +181,15 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 			serializerProvider.setAttribute(KEY_LD_CONTEXT, contextStack);
 		}
 
+		if (!isUnwrappingSerializer()
+				&& serializeAsReference(bean, jgen, serializerProvider, contextStack.size())) {
+			return;
+		}
+		if (!isUnwrappingSerializer()
+				&& serializeWithinBudget(bean, jgen, serializerProvider, contextStack.size())) {
+			return;
+		}
+
 		if ( withId ) {
 		// TODO FIXME The parent method _serializeWithObjectId is final: unable to put this code in an override
 		    objectId = serializerProvider.findObjectId( bean, _objectIdWriter.generator );
@@ -175,9 +212,16 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 			objectId.writeAsField( jgen, serializerProvider, _objectIdWriter );
 		}
 
+		SerializeContextEvent contextEvent = RenderingEvents.isAvailable()
+				? SerializeContextEvent.beginIfEnabled() : null;
+		int depth = contextStack.size();
 		serializeContext(bean, jgen, serializerProvider, contextStack);
+		if (contextEvent != null) {
+			LdContext currentContext = contextStack.peek();
+			contextEvent.commit(bean, depth, currentContext == null ? 0 : currentContext.terms.size());
+		}
 	    serializeType(bean, jgen, serializerProvider);
-	    serializeFields(bean, jgen, serializerProvider);
+	    serializeSelectedFields(bean, jgen, serializerProvider);
 
 
 		if (!isUnwrappingSerializer()) {
@@ -189,6 +233,149 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         }
     }
 
+    /**
+     * Writes the bean as <code>{"@id": ...}</code> if it is nested beyond the maximum {@link EmbeddingDepth} or has
+     * already been written. The identifier is resolved by the {@link IdResolver} attribute or taken from an {@code
+     * @id} property of the bean.
+     *
+     * @return true if the bean was written as reference
+     */
+    protected boolean serializeAsReference(Object bean, JsonGenerator jgen, SerializerProvider serializerProvider,
+                                           int depth) throws IOException {
+        if (!isReferenceable(serializerProvider, depth)) {
+            return false;
+        }
+        Object target = proxyUnwrapper == null ? bean : proxyUnwrapper.unwrapProxy(bean);
+        if (target == null) {
+            return false;
+        }
+        String id = findId(target, serializerProvider);
+        if (!isReference(serializerProvider, target.getClass(), depth, id)) {
+            return false;
+        }
+        writeReference(jgen, id);
+        return true;
+    }
+
+    /**
+     * Writes the bean as <code>{"@id": ...}</code>, or as empty node if it has no identifier, if the {@link
+     * RenderingBudget} of the response is exhausted at the given depth.
+     *
+     * @return true if the bean was written as reference or empty node
+     */
+    protected boolean serializeWithinBudget(Object bean, JsonGenerator jgen, SerializerProvider serializerProvider,
+                                            int depth) throws IOException {
+        if (!isExhausted(serializerProvider, bean, depth)) {
+            return false;
+        }
+        Object target = proxyUnwrapper == null ? bean : proxyUnwrapper.unwrapProxy(bean);
+        String id = target == null ? null : findId(target, serializerProvider);
+        if (id == null) {
+            jgen.writeStartObject();
+            jgen.writeEndObject();
+        } else {
+            writeReference(jgen, id);
+        }
+        return true;
+    }
+
+    /**
+     * Determines if the {@link RenderingBudget} of the response does not allow to expand a node at the given depth.
+     *
+     * @param serializerProvider
+     *         holding the {@link RenderingBudget.Tracker} as attribute
+     * @param bean
+     *         to write
+     * @param depth
+     *         of the node, 0 being the rendered resource
+     * @return true if the node must be written as reference or empty node
+     */
+    public static boolean isExhausted(SerializerProvider serializerProvider, Object bean, int depth) {
+        Object budget = serializerProvider.getAttribute(RenderingBudget.KEY_RENDERING_BUDGET);
+        return budget instanceof RenderingBudget.Tracker && ((RenderingBudget.Tracker) budget).isExhausted(bean,
+                depth);
+    }
+
+    /**
+     * Determines if a node at the given depth might be written as reference, so that its identifier must be resolved.
+     *
+     * @param serializerProvider
+     *         holding {@link EmbeddingDepth} and emitted nodes as attributes
+     * @param depth
+     *         of the node, 0 being the rendered resource
+     * @return false if the node is written in full anyway
+     */
+    public static boolean isReferenceable(SerializerProvider serializerProvider, int depth) {
+        return serializerProvider.getAttribute(KEY_EMITTED_NODES) instanceof Set
+                || (depth > 0 && serializerProvider.getAttribute(EmbeddingDepth.KEY_EMBEDDING_DEPTH)
+                instanceof EmbeddingDepth);
+    }
+
+    /**
+     * Determines if an identified node is written as reference, either because it is nested beyond the maximum
+     * {@link EmbeddingDepth} or because it has already been written. Records the node as written otherwise.
+     *
+     * @param serializerProvider
+     *         holding {@link EmbeddingDepth} and emitted nodes as attributes
+     * @param type
+     *         of the node
+     * @param depth
+     *         of the node, 0 being the rendered resource
+     * @param id
+     *         of the node, may be null
+     * @return true if the node must be written as reference
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean isReference(SerializerProvider serializerProvider, Class<?> type, int depth, String id) {
+        if (id == null) {
+            return false;
+        }
+        Object embeddingDepth = serializerProvider.getAttribute(EmbeddingDepth.KEY_EMBEDDING_DEPTH);
+        if (depth > 0 && embeddingDepth instanceof EmbeddingDepth
+                && !((EmbeddingDepth) embeddingDepth).isEmbedded(type, depth)) {
+            return true;
+        }
+        Object emittedNodes = serializerProvider.getAttribute(KEY_EMITTED_NODES);
+        return emittedNodes instanceof Set && !((Set<String>) emittedNodes).add(id);
+    }
+
+    /**
+     * Writes a node reference.
+     *
+     * @param jgen
+     *         to write to
+     * @param id
+     *         of referenced node
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void writeReference(JsonGenerator jgen, String id) throws IOException {
+        jgen.writeStartObject();
+        jgen.writeStringField(JsonLdKeywords.AT_ID, id);
+        jgen.writeEndObject();
+    }
+
+    private String findId(Object bean, SerializerProvider serializerProvider) throws IOException {
+        Object idResolver = serializerProvider.getAttribute(IdResolver.KEY_ID_RESOLVER);
+        if (idResolver instanceof IdResolver) {
+            String id = ((IdResolver) idResolver).getId(bean);
+            if (id != null) {
+                return id;
+            }
+        }
+        for (BeanPropertyWriter prop : _props) {
+            if (prop != null && JsonLdKeywords.AT_ID.equals(prop.getName())) {
+                try {
+                    Object id = prop.get(bean);
+                    return id == null ? null : id.toString();
+                } catch (Exception e) {
+                    wrapAndThrow(serializerProvider, e, bean, prop.getName());
+                }
+            }
+        }
+        return null;
+    }
+
     protected void serializeType(Object bean, JsonGenerator jgen, SerializerProvider provider) throws IOException {
         if (proxyUnwrapper != null) {
             bean = proxyUnwrapper.unwrapProxy(bean);
@@ -213,6 +400,142 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         jgen.writeStringField(JsonLdKeywords.AT_TYPE, val);
     }
 
+    /**
+     * Serializes the properties of the bean which belong to the current {@link FieldSelection}. Properties which are
+     * not selected are skipped before their getters are called. Selected properties are serialized with the nested
+     * selection for their value. Collection and array values are truncated to the maximum number of items of the
+     * {@link RenderingBudget}, and the names of truncated properties are listed as {@link #TRUNCATED_PROPERTIES}.
+     */
+    protected void serializeSelectedFields(Object bean, JsonGenerator jgen, SerializerProvider serializerProvider)
+            throws IOException {
+        FieldSelection selection = FieldSelection.current(serializerProvider);
+        RenderingBudget.Tracker itemBudget = getItemBudget(serializerProvider);
+        if ((selection.isAll() && itemBudget == null) || _propertyFilterId != null) {
+            serializeFields(bean, jgen, serializerProvider);
+            return;
+        }
+        List<String> truncated = null;
+        final BeanPropertyWriter[] props;
+        if (_filteredProps != null && serializerProvider.getActiveView() != null) {
+            props = _filteredProps;
+        } else {
+            props = _props;
+        }
+        for (BeanPropertyWriter prop : props) {
+            if (prop == null) {
+                continue;
+            }
+            try {
+                if (prop.isUnwrapping()) {
+                    // unwrapped properties, e.g. links, apply the selection to their own properties
+                    prop.serializeAsField(bean, jgen, serializerProvider);
+                    continue;
+                }
+                boolean truncatedField;
+                if (selection.isAll()) {
+                    truncatedField = serializeField(prop, bean, jgen, serializerProvider, itemBudget);
+                } else if (selection.includes(prop.getName())) {
+                    serializerProvider.setAttribute(FieldSelection.KEY_FIELD_SELECTION,
+                            selection.select(prop.getName()));
+                    try {
+                        truncatedField = serializeField(prop, bean, jgen, serializerProvider, itemBudget);
+                    } finally {
+                        serializerProvider.setAttribute(FieldSelection.KEY_FIELD_SELECTION, selection);
+                    }
+                } else {
+                    continue;
+                }
+                if (truncatedField) {
+                    if (truncated == null) {
+                        truncated = new ArrayList<String>();
+                    }
+                    truncated.add(prop.getName());
+                }
+            } catch (Exception e) {
+                wrapAndThrow(serializerProvider, e, bean, prop.getName());
+            }
+        }
+        if (_anyGetterWriter != null) {
+            try {
+                _anyGetterWriter.getAndSerialize(bean, jgen, serializerProvider);
+            } catch (Exception e) {
+                wrapAndThrow(serializerProvider, e, bean, "[anySetter]");
+            }
+        }
+        if (truncated != null) {
+            jgen.writeFieldName(TRUNCATED_PROPERTIES);
+            jgen.writeStartArray();
+            for (String name : truncated) {
+                jgen.writeString(name);
+            }
+            jgen.writeEndArray();
+        }
+    }
+
+    /**
+     * Serializes a property, its value is truncated if it is a collection or an array with more items than the
+     * budget allows.
+     *
+     * @param itemBudget
+     *         which limits the number of items, null if there is no limit
+     * @return true if items were left out
+     */
+    private boolean serializeField(BeanPropertyWriter prop, Object bean, JsonGenerator jgen,
+                                SerializerProvider serializerProvider, RenderingBudget.Tracker itemBudget)
+            throws Exception {
+        JavaType type = prop.getType();
+        if (itemBudget != null && type.isContainerType() && !type.isMapLikeType()) {
+            Object value = prop.get(bean);
+            @SuppressWarnings("unchecked")
+            Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(KEY_LD_CONTEXT);
+            // items are nested in the context of the bean
+            Object limited = limitItems(value, itemBudget, contextStack == null ? 0 : contextStack.size());
+            if (limited != value) {
+                JsonSerializer<Object> serializer = prop.getSerializer();
+                if (serializer == null) {
+                    serializer = serializerProvider.findValueSerializer(limited.getClass(), prop);
+                }
+                jgen.writeFieldName(prop.getSerializedName());
+                TypeSerializer typeSerializer = prop.getTypeSerializer();
+                if (typeSerializer == null) {
+                    serializer.serialize(limited, jgen, serializerProvider);
+                } else {
+                    serializer.serializeWithType(limited, jgen, serializerProvider, typeSerializer);
+                }
+                return true;
+            }
+        }
+        prop.serializeAsField(bean, jgen, serializerProvider);
+        return false;
+    }
+
+    private static Object limitItems(Object value, RenderingBudget.Tracker itemBudget, int depth) {
+        if (value instanceof Collection) {
+            Collection<?> items = (Collection<?>) value;
+            Collection<?> ret = itemBudget.limit(items, depth);
+            return ret != items && items instanceof Set ? new LinkedHashSet<Object>(ret) : ret;
+        } else if (value instanceof Object[]) {
+            Object[] items = (Object[]) value;
+            int count = itemBudget.limit(items.length, items, depth);
+            return count == items.length ? items : Arrays.copyOf(items, count);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the {@link RenderingBudget.Tracker} of the response if its budget limits the number of items.
+     *
+     * @return tracker or null
+     */
+    private static RenderingBudget.Tracker getItemBudget(SerializerProvider serializerProvider) {
+        Object budget = serializerProvider.getAttribute(RenderingBudget.KEY_RENDERING_BUDGET);
+        if (budget instanceof RenderingBudget.Tracker && ((RenderingBudget.Tracker) budget).getBudget()
+                .getMaxItems() != Integer.MAX_VALUE) {
+            return (RenderingBudget.Tracker) budget;
+        }
+        return null;
+    }
+
 	protected void serializeContext(Object bean, JsonGenerator jgen,
                                     SerializerProvider serializerProvider, Deque<LdContext> contextStack)
             throws IOException {
@@ -228,7 +551,8 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         final Class<?> mixInClass = mixinSource.findMixInClassFor(bean.getClass());
 
         final LdContext parentContext = contextStack.peek();
-        Map<String, Object> termsOfBean = ldContextFactory.getTerms(mixinSource, bean, mixInClass);
+        Map<String, Object> termsOfBean = ldContextFactory.getTerms(mixinSource, bean, mixInClass,
+                FieldSelection.current(serializerProvider));
         Map<String, Object> newTermsOfBean;
         if (parentContext != null) {
             newTermsOfBean = new LinkedHashMap<>();
@@ -251,7 +575,10 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         boolean mustWriteContext;
 		mustWriteContext = parentContext == null || !parentContext.contains(currentContext);
 
-        if (mustWriteContext) {
+        Object remoteContext = parentContext == null ? serializerProvider.getAttribute(KEY_REMOTE_CONTEXT) : null;
+        if (remoteContext != null) {
+            jgen.writeStringField("@context", remoteContext.toString());
+        } else if (mustWriteContext) {
             // begin context
             // default context: schema.org vocab or vocab package annotation
             jgen.writeObjectFieldStart("@context");
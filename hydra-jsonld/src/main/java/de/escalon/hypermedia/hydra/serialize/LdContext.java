@@ -18,6 +18,21 @@ public class LdContext {
         this.terms = Collections.unmodifiableMap(terms);
     }
 
+    /**
+     * Gets the definition of a term in this context or its parent contexts.
+     *
+     * @param term
+     *         to look up
+     * @return iri or compact iri, map for expanded term definitions, null if the term is not defined
+     */
+    public Object getTerm(String term) {
+        Object ret = terms.get(term);
+        if (ret == null && parentContext != null) {
+            ret = parentContext.getTerm(term);
+        }
+        return ret;
+    }
+
     public boolean contains(LdContext otherContext) {
         final boolean ret;
         if (!hasSameVocabAs(otherContext)) {
@@ -67,6 +67,25 @@ public class LdContextFactory {
     }
 
     public Map<String, Object> getTerms(MixinSource mixinSource, Object bean, Class<?> mixInClass) {
+        return getTerms(mixinSource, bean, mixInClass, FieldSelection.ALL);
+    }
+
+    /**
+     * Gets terms for given bean. Terms of properties which are not selected are omitted, without reading the
+     * property.
+     *
+     * @param mixinSource
+     *         to find mixins of nested context providers
+     * @param bean
+     *         to inspect for terms
+     * @param mixInClass
+     *         for bean which might define terms or has a context provider
+     * @param selection
+     *         of properties to be rendered
+     * @return terms
+     */
+    public Map<String, Object> getTerms(MixinSource mixinSource, Object bean, Class<?> mixInClass,
+                                        FieldSelection selection) {
 
         try {
 
@@ -88,13 +107,13 @@ public class LdContextFactory {
                         mixInClass);
 
                 if (nestedContextProviderFromMixin != null) {
-                    termsMap.putAll(getTerms(mixinSource, nestedContextProviderFromMixin, null));
+                    termsMap.putAll(getTerms(mixinSource, nestedContextProviderFromMixin, null, selection));
                 }
 
                 final Field[] fields = beanClass
                         .getDeclaredFields();
                 for (Field field : fields) {
-                    if (Modifier.isPublic(field.getModifiers())) {
+                    if (Modifier.isPublic(field.getModifiers()) && selection.includes(field.getName())) {
                         final Expose expose = field.getAnnotation(Expose.class);
                         if (Enum.class.isAssignableFrom(field.getType())) {
                             addEnumTerms(termsMap, expose, field.getName(), (Enum) field.get(bean));
@@ -110,7 +129,7 @@ public class LdContextFactory {
                 final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
                 for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
                     final Method method = propertyDescriptor.getReadMethod();
-                    if (method != null) {
+                    if (method != null && selection.includes(propertyDescriptor.getName())) {
                         final Expose expose = method.getAnnotation(Expose.class);
                         if (Enum.class.isAssignableFrom(method.getReturnType())) {
                             addEnumTerms(termsMap, expose, propertyDescriptor.getName(), (Enum) method.invoke(bean));
@@ -133,6 +152,41 @@ public class LdContextFactory {
         }
     }
 
+    /**
+     * Determines if vocab and terms of a bean depend on the bean instance rather than on its class. This is the case
+     * if the mixin has a context provider or if the bean has enum properties, whose current values are defined as
+     * terms.
+     *
+     * @param beanClass
+     *         to check
+     * @param mixInClass
+     *         of bean class, may be null
+     * @return true if vocab and terms must be resolved for each instance
+     */
+    public boolean hasInstanceDependentTerms(Class<?> beanClass, Class<?> mixInClass) {
+        if (mixInClass != null && getContextProvider(mixInClass) != null) {
+            return true;
+        }
+        for (Field field : beanClass.getDeclaredFields()) {
+            if (Modifier.isPublic(field.getModifiers()) && Enum.class.isAssignableFrom(field.getType())) {
+                return true;
+            }
+        }
+        try {
+            for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(beanClass)
+                    .getPropertyDescriptors()) {
+                Method method = propertyDescriptor.getReadMethod();
+                if (method != null && (Enum.class.isAssignableFrom(method.getReturnType())
+                        || returnsEnumCollection(method))) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return false;
+    }
+
 	private boolean returnsEnumCollection( Method method ) {
 		if ( Collection.class.isAssignableFrom( method.getReturnType() ) ) {
 			Type t = method.getGenericReturnType();
@@ -0,0 +1,33 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import de.escalon.hypermedia.RenderingEvent;
+import de.escalon.hypermedia.RenderingEvents;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Serialize JSON-LD Context&quot; rendering phase.
+ */
+@Name("de.escalon.hypermedia.SerializeContext")
+@Label("Serialize JSON-LD Context")
+@Description("Computes and writes the @context of a bean, item count is the number of terms in effect.")
+class SerializeContextEvent extends RenderingEvent {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(SerializeContextEvent.class);
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @return started event, null if the event type is disabled
+     */
+    static SerializeContextEvent beginIfEnabled() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        SerializeContextEvent event = new SerializeContextEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -28,6 +28,7 @@ import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import com.github.jsonldjava.core.JsonLdError;
 import com.jayway.jsonassert.JsonAssert;
+import de.escalon.hypermedia.RenderingBudget;
 import de.escalon.hypermedia.hydra.JsonLdTestUtils;
 import de.escalon.hypermedia.hydra.mapping.Expose;
 import de.escalon.hypermedia.hydra.mapping.Term;
@@ -40,7 +41,9 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
@@ -524,4 +527,93 @@ public class JacksonHydraSerializerTest {
 	}
 
 
+
+	public enum Status {
+		OPEN_NOW, CLOSED
+	}
+
+	public static class Address {
+		public String getCity() {
+			return "Berlin";
+		}
+
+		public String getStreet() {
+			return "Alexanderplatz";
+		}
+	}
+
+	public static class Shop {
+		int expensiveCalls;
+
+		public String getName() {
+			return "Corner Shop";
+		}
+
+		public Status getStatus() {
+			return Status.OPEN_NOW;
+		}
+
+		public Address getAddress() {
+			return new Address();
+		}
+
+		public String getInventory() {
+			expensiveCalls++;
+			return "everything";
+		}
+	}
+
+	@Test
+	public void testRendersSelectedFieldsOnly() throws Exception {
+		Shop shop = new Shop();
+		mapper.writer()
+				.withAttribute(FieldSelection.KEY_FIELD_SELECTION, FieldSelection.parse("name, address.city"))
+				.writeValue(w, shop);
+		assertEquals("{\"@context\":{\"@vocab\":\"http://schema.org/\"},\"@type\":\"Shop\"," +
+				"\"name\":\"Corner Shop\",\"address\":{\"@type\":\"Address\",\"city\":\"Berlin\"}}", w.toString());
+		assertEquals("unselected getter must not be called", 0, shop.expensiveCalls);
+	}
+
+	@Test
+	public void testRendersContextTermsOfSelectedFields() throws Exception {
+		mapper.writer()
+				.withAttribute(FieldSelection.KEY_FIELD_SELECTION, FieldSelection.parse("status"))
+				.writeValue(w, new Shop());
+		assertEquals("{\"@context\":{\"@vocab\":\"http://schema.org/\",\"status\":{\"@type\":\"@vocab\"}," +
+				"\"OPEN_NOW\":\"OpenNow\"},\"@type\":\"Shop\",\"status\":\"OPEN_NOW\"}", w.toString());
+	}
+
+	@Test
+	public void testParsesFieldSelection() {
+		FieldSelection selection = FieldSelection.parse("a.b, a.c,d,d.e");
+		assertTrue(selection.includes("a"));
+		assertTrue(selection.includes("d"));
+		assertTrue("structural properties are always included", selection.includes("hydra:member"));
+		assertTrue(!selection.includes("b"));
+		assertTrue(selection.select("a")
+				.includes("c"));
+		assertTrue(!selection.select("a")
+				.includes("d"));
+		assertTrue(selection.select("d")
+				.isAll());
+		assertSame(selection, selection.select("hydra:member"));
+		assertSame(FieldSelection.ALL, FieldSelection.parse(" "));
+	}
+
+	public static class Catalog {
+		public List<String> tags = Arrays.asList("a", "b", "c");
+		public String[] codes = {"x", "y", "z"};
+		public Set<Integer> sizes = new LinkedHashSet<Integer>(Arrays.asList(1, 2));
+	}
+
+	@Test
+	public void testLimitsItemsOfCollectionProperties() throws Exception {
+		mapper.writer()
+				.withAttribute(RenderingBudget.KEY_RENDERING_BUDGET,
+						RenderingBudget.UNLIMITED.withMaxItems(2).start(null))
+				.writeValue(w, new Catalog());
+		assertEquals("{\"@context\":{\"@vocab\":\"http://schema.org/\"},\"@type\":\"Catalog\"," +
+				"\"tags\":[\"a\",\"b\"],\"codes\":[\"x\",\"y\"],\"sizes\":[1,2]," +
+				"\"urn:escalon:hypermedia:truncated\":[\"tags\",\"codes\"]}", w.toString());
+	}
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.hydra.serialize.FieldSelection;
+import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.hydra.serialize.LdContext;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Serializes hydra:member of a collection. By default, this is the regular collection serialization. If parallel
+ * rendering is configured on the {@link HydraMessageConverter}, large collections are split into partitions which
+ * are rendered concurrently and written in order, so that the output is the same as with sequential rendering. With
+ * node deduplication, members are always rendered sequentially, since whether a node is written in full depends on
+ * all members before it. If the response has a {@link RenderingBudget}, members beyond its maximum number of items
+ * are not written.
+ */
+public class CollectionMemberSerializer extends StdSerializer<Collection<?>> implements ContextualSerializer {
+
+    /**
+     * Attribute key of {@link ParallelRendering} settings.
+     */
+    static final String KEY_PARALLEL_RENDERING = "de.escalon.hypermedia.parallel-rendering";
+
+    private final BeanProperty property;
+    private final JsonSerializer<Object> defaultSerializer;
+    private final TypeSerializer memberTypeSerializer;
+
+    public CollectionMemberSerializer() {
+        this(null, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CollectionMemberSerializer(BeanProperty property, JsonSerializer<Object> defaultSerializer,
+                                       TypeSerializer memberTypeSerializer) {
+        super((Class<Collection<?>>) (Class<?>) Collection.class);
+        this.property = property;
+        this.defaultSerializer = defaultSerializer;
+        this.memberTypeSerializer = memberTypeSerializer;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        JsonSerializer<Object> defaultSerializer = property == null ?
+                provider.findValueSerializer(Collection.class, null) :
+                provider.findValueSerializer(property.getType(), property);
+        // like the collection serializer of the default path, members are typed by the declared member type
+        JavaType memberType = property == null ? null : property.getType()
+                .getContentType();
+        TypeSerializer memberTypeSerializer = provider.findTypeSerializer(memberType == null ?
+                provider.constructType(Object.class) : memberType);
+        return new CollectionMemberSerializer(property, defaultSerializer, memberTypeSerializer);
+    }
+
+    @Override
+    public void serialize(Collection<?> members, JsonGenerator jgen, SerializerProvider serializerProvider)
+            throws IOException {
+        Object budget = serializerProvider.getAttribute(RenderingBudget.KEY_RENDERING_BUDGET);
+        if (budget instanceof RenderingBudget.Tracker) {
+            @SuppressWarnings("unchecked")
+            Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(
+                    JacksonHydraSerializer.KEY_LD_CONTEXT);
+            // members are nested in the context of the collection
+            members = ((RenderingBudget.Tracker) budget).limit(members, contextStack == null ? 0 :
+                    contextStack.size());
+        }
+        ParallelRendering parallelRendering = (ParallelRendering) serializerProvider.getAttribute(
+                KEY_PARALLEL_RENDERING);
+        ObjectCodec codec = jgen.getCodec();
+        if (parallelRendering == null || members.size() < parallelRendering.threshold
+                || serializerProvider.getAttribute(JacksonHydraSerializer.KEY_EMITTED_NODES) != null
+                || !(codec instanceof ObjectMapper) || !(serializerProvider instanceof DefaultSerializerProvider)
+                || !LinkListSerializer.canWriteRawFragment(jgen)) {
+            getDefaultSerializer(serializerProvider).serialize(members, jgen, serializerProvider);
+        } else {
+            serializeInPartitions(new ArrayList<Object>(members), jgen, (ObjectMapper) codec,
+                    (DefaultSerializerProvider) serializerProvider, parallelRendering);
+        }
+    }
+
+    private JsonSerializer<Object> getDefaultSerializer(SerializerProvider serializerProvider)
+            throws JsonMappingException {
+        return defaultSerializer != null ? defaultSerializer :
+                serializerProvider.findValueSerializer(Collection.class, property);
+    }
+
+    private void serializeInPartitions(List<Object> members, JsonGenerator jgen, final ObjectMapper objectMapper,
+                                       final DefaultSerializerProvider serializerProvider,
+                                       ParallelRendering parallelRendering) throws IOException {
+        @SuppressWarnings("unchecked")
+        Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(JacksonHydraSerializer
+                .KEY_LD_CONTEXT);
+        final Deque<LdContext> parentContexts = contextStack == null ? new ArrayDeque<LdContext>() :
+                contextStack;
+        final int featureMask = jgen.getFeatureMask();
+        final FieldSelection fieldSelection = FieldSelection.current(serializerProvider);
+
+        List<Future<String>> partitions = new ArrayList<Future<String>>();
+        try {
+            for (int from = 0; from < members.size(); from += parallelRendering.partitionSize) {
+                final List<Object> partition = members.subList(from, Math.min(members.size(),
+                        from + parallelRendering.partitionSize));
+                // every partition starts from the context of the collection, members pop their own context
+                final Deque<LdContext> partitionContexts = new ArrayDeque<LdContext>(parentContexts);
+                partitions.add(parallelRendering.executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return serializePartition(partition, objectMapper, serializerProvider, partitionContexts,
+                                fieldSelection, featureMask);
+                    }
+                }));
+            }
+
+            jgen.writeStartArray();
+            for (Future<String> partition : partitions) {
+                jgen.writeRawValue(partition.get());
+            }
+            jgen.writeEndArray();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new IOException("interrupted while rendering collection members", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            for (Future<String> partition : partitions) {
+                partition.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Renders members as comma-separated json values, using a new serializer provider with the given context stack.
+     */
+    private String serializePartition(List<Object> partition, ObjectMapper objectMapper,
+                                      DefaultSerializerProvider serializerProvider,
+                                      Deque<LdContext> contextStack, FieldSelection fieldSelection,
+                                      int featureMask) throws IOException {
+        DefaultSerializerProvider partitionProvider = serializerProvider.createInstance(
+                serializerProvider.getConfig(), objectMapper.getSerializerFactory());
+        partitionProvider.setAttribute(JacksonHydraSerializer.KEY_LD_CONTEXT, contextStack);
+        partitionProvider.setAttribute(FieldSelection.KEY_FIELD_SELECTION, fieldSelection);
+        // nested collections are rendered sequentially, they must not wait for the executor we are running on
+        partitionProvider.setAttribute(KEY_PARALLEL_RENDERING, null);
+        StringWriter writer = new StringWriter();
+        JsonGenerator partitionGenerator = objectMapper.getFactory()
+                .createGenerator(writer);
+        partitionGenerator.setFeatureMask(featureMask);
+        partitionGenerator.writeStartArray();
+        for (Object member : partition) {
+            if (member == null) {
+                partitionProvider.defaultSerializeNull(partitionGenerator);
+            } else {
+                JsonSerializer<Object> serializer = partitionProvider.findContentValueSerializer(member.getClass(),
+                        property);
+                if (memberTypeSerializer == null) {
+                    serializer.serialize(member, partitionGenerator, partitionProvider);
+                } else {
+                    serializer.serializeWithType(member, partitionGenerator, partitionProvider,
+                            memberTypeSerializer);
+                }
+            }
+        }
+        partitionGenerator.writeEndArray();
+        partitionGenerator.close();
+        // strip the array brackets, the partitions are written into the enclosing array
+        StringBuffer buffer = writer.getBuffer();
+        return buffer.substring(1, buffer.length() - 1);
+    }
+
+    /**
+     * Settings for parallel rendering of collection members.
+     */
+    static class ParallelRendering {
+
+        final ExecutorService executor;
+        final int threshold;
+        final int partitionSize;
+
+        ParallelRendering(ExecutorService executor, int threshold, int partitionSize) {
+            this.executor = executor;
+            this.threshold = threshold;
+            this.partitionSize = partitionSize;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.springframework.hateoas.Links;
 public abstract class CollectionModelMixin<T> extends CollectionModel<T> {
     @Override
     @JsonProperty("hydra:member")
+    @JsonSerialize(using = CollectionMemberSerializer.class)
     @ContextProvider
     public Collection<T> getContent() {
         return super.getContent();
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.escalon.hypermedia.hydra.serialize.JsonLdKeywords;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.IndexedLinkDiscoverer;
+import de.escalon.hypermedia.spring.LinkIndex;
+import org.springframework.hateoas.IanaLinkRelations;
+
+import java.io.IOException;
+
+/**
+ * Discovers links in json-ld representations as written by the {@link HydraMessageConverter}. The {@code @id} of the
+ * resource is its self link. Every top-level property whose value is a node with {@code @id} or an iri template with
+ * {@code hydra:template} is a link, the property name is the rel. IANA rels are found by their plain name, e.g.
+ * {@code next}, and the links of a {@code hydra:view} are found by their local name, e.g. {@code next} for {@code
+ * hydra:next}. Properties are not expanded against the {@code @context}.
+ */
+public class HydraLinkDiscoverer extends IndexedLinkDiscoverer {
+
+    private static final String IANA_REL_PREFIX = "urn:iana:link-relations:";
+    private static final String HYDRA_PREFIX = "hydra:";
+    private static final String HYDRA_VIEW = "hydra:view";
+    private static final String HYDRA_TEMPLATE = "hydra:template";
+
+    public HydraLinkDiscoverer() {
+        super(HypermediaTypes.APPLICATION_JSONLD);
+    }
+
+    @Override
+    protected void indexLinks(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (JsonLdKeywords.AT_ID.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                links.add(IanaLinkRelations.SELF_VALUE, parser.getText());
+            } else if (fieldName.startsWith("@")) {
+                parser.skipChildren(); // @context, @type
+            } else if (HYDRA_VIEW.equals(fieldName) && value == JsonToken.START_OBJECT) {
+                indexView(parser, links);
+            } else if (value == JsonToken.START_OBJECT) {
+                indexNode(parser, getRel(fieldName), links);
+            } else if (value == JsonToken.START_ARRAY) {
+                String rel = getRel(fieldName);
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (item == JsonToken.START_OBJECT) {
+                        indexNode(parser, rel, links);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes the node or iri template at the current start object token as link with the given rel.
+     */
+    private void indexNode(JsonParser parser, String rel, LinkIndex.Builder links) throws IOException {
+        String id = null;
+        String template = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (JsonLdKeywords.AT_ID.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                id = parser.getText();
+            } else if (HYDRA_TEMPLATE.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                template = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (template != null) {
+            links.add(rel, template);
+        } else if (id != null) {
+            links.add(rel, id);
+        }
+    }
+
+    /**
+     * Indexes the paging links of a {@code hydra:PartialCollectionView}, e.g. {@code hydra:next}.
+     */
+    private void indexView(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (fieldName.startsWith("@")) {
+                parser.skipChildren();
+            } else if (value == JsonToken.VALUE_STRING) {
+                links.add(getViewRel(fieldName), parser.getText());
+            } else if (value == JsonToken.START_OBJECT) {
+                indexNode(parser, getViewRel(fieldName), links);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static String getRel(String fieldName) {
+        if (fieldName.startsWith(IANA_REL_PREFIX)) {
+            return fieldName.substring(IANA_REL_PREFIX.length());
+        }
+        return fieldName;
+    }
+
+    private static String getViewRel(String fieldName) {
+        if (fieldName.startsWith(HYDRA_PREFIX)) {
+            return fieldName.substring(HYDRA_PREFIX.length());
+        }
+        return fieldName;
+    }
+}
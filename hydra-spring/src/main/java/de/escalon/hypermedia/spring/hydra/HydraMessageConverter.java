@@ -14,18 +14,95 @@
 package de.escalon.hypermedia.spring.hydra;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
+import de.escalon.hypermedia.hydra.serialize.FieldSelection;
+import de.escalon.hypermedia.hydra.serialize.IdResolver;
+import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
 import de.escalon.hypermedia.hydra.serialize.ProxyUnwrapper;
+import de.escalon.hypermedia.spring.EtagSupport;
 import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
+import de.escalon.hypermedia.spring.PooledJsonFactory;
+import de.escalon.hypermedia.spring.RequestEmbeddingDepth;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.BaseStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
- * Created by dschulten on 04.10.2014.
+ * Message converter for json-ld with hydra. A client may ask for a minimal representation whose affordances are
+ * written as plain links without {@code hydra:operation}, see {@link MinimalRepresentation}. Created by dschulten on
+ * 04.10.2014.
  */
 public class HydraMessageConverter extends MappingJackson2HttpMessageConverter {
 
+    private static final PrettyPrinter SSE_PRETTY_PRINTER = new DefaultPrettyPrinter()
+            .withObjectIndenter(new DefaultIndenter("  ", "\ndata:"));
+
+    private EtagSupport etagSupport;
+
+    private ExecutorService parallelRenderingExecutor;
+    private int parallelRenderingThreshold = 1000;
+    private int parallelRenderingPartitionSize = 250;
+
+    private String fieldSelectionParameter;
+    private Pattern fieldSelectionPreference;
+
+    private EmbeddingDepth embeddingDepth = EmbeddingDepth.UNLIMITED;
+
+    private RenderingBudget renderingBudget = RenderingBudget.UNLIMITED;
+    private RenderingBudgetListener renderingBudgetListener;
+
+    private boolean nodeDeduplication;
+
+    private Map<MediaType, JsonFactory> binaryEncodings = Collections.emptyMap();
+
+    private boolean lineDelimitedOutput;
+    private String lineDelimitedContext;
 
     public HydraMessageConverter() {
         this(null);
@@ -38,13 +115,457 @@ public class HydraMessageConverter extends MappingJackson2HttpMessageConverter {
      *         capable of unwrapping proxified Java beans during message conversion.
      */
     public HydraMessageConverter(ProxyUnwrapper proxyUnwrapper, Module... additionalModules) {
-        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectMapper objectMapper = new ObjectMapper(new PooledJsonFactory());
         // see https://github.com/json-ld/json-ld.org/issues/76
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         objectMapper.registerModules(additionalModules);
         objectMapper.registerModule(new JacksonHydraModule(proxyUnwrapper));
+        // resources beyond the embedding depth are referenced by their self link
+        objectMapper.setDefaultAttributes(objectMapper.getSerializationConfig()
+                .getAttributes()
+                .withSharedAttribute(IdResolver.KEY_ID_RESOLVER, new IdResolver() {
+                    @Override
+                    public String getId(Object bean) {
+                        if (!(bean instanceof RepresentationModel)) {
+                            return null;
+                        }
+                        Link selfLink = ((RepresentationModel<?>) bean).getLink(IanaLinkRelations.SELF)
+                                .orElse(null);
+                        return selfLink == null || selfLink.isTemplated() ? null : selfLink.getHref();
+                    }
+                }));
         this.setObjectMapper(objectMapper);
         this.setSupportedMediaTypes(
                 Collections.singletonList(HypermediaTypes.APPLICATION_JSONLD));
     }
+
+    @Override
+    protected void writeInternal(final Object object, final Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        final FieldSelection fieldSelection = getRequestedFieldSelection();
+        final EmbeddingDepth embeddingDepth = RequestEmbeddingDepth.resolve(this.embeddingDepth);
+        final boolean minimalRepresentation = MinimalRepresentation.isRequested();
+        MinimalRepresentation.addResponseHeaders(outputMessage.getHeaders());
+        // an etag needs the complete body, which defeats streaming of line-delimited output
+        if (etagSupport == null || isLineDelimited(outputMessage.getHeaders()
+                .getContentType())) {
+            writeBody(object, type, fieldSelection, embeddingDepth, minimalRepresentation, outputMessage);
+        } else {
+            String variant = "fields=" + fieldSelection + "|depth=" + embeddingDepth;
+            etagSupport.write(object, variant, outputMessage, new EtagSupport.BodyWriter() {
+                @Override
+                public void write(HttpOutputMessage outputMessage) throws IOException {
+                    writeBody(object, type, fieldSelection, embeddingDepth, minimalRepresentation, outputMessage);
+                }
+            });
+        }
+    }
+
+    private void writeBody(Object object, Type type, FieldSelection fieldSelection, EmbeddingDepth embeddingDepth,
+                           boolean minimalRepresentation, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders()
+                .getContentType();
+        JsonFactory binaryEncoding = getBinaryEncoding(contentType);
+        boolean lineDelimited = isLineDelimited(contentType);
+        if (binaryEncoding == null && !lineDelimited && fieldSelection.isAll()
+                && embeddingDepth.isUnlimited() && !nodeDeduplication && renderingBudget.isUnlimited()
+                && !minimalRepresentation) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        // selection, depth, budget, minimal representation and emitted nodes are per-call attributes, which cannot
+        // be passed through super.writeInternal, neither can a binary encoding
+        Object value = object instanceof MappingJacksonValue ? ((MappingJacksonValue) object).getValue() : object;
+        ObjectMapper objectMapper = selectObjectMapper(value.getClass(), contentType);
+        JsonGenerator generator;
+        if (binaryEncoding == null) {
+            generator = objectMapper.getFactory()
+                    .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), getJsonEncoding(contentType));
+        } else {
+            generator = binaryEncoding.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()));
+            generator.setCodec(objectMapper);
+        }
+        try {
+            ObjectWriter writer = objectMapper.writer();
+            if (object instanceof MappingJacksonValue) {
+                MappingJacksonValue container = (MappingJacksonValue) object;
+                if (container.getSerializationView() != null) {
+                    writer = writer.withView(container.getSerializationView());
+                }
+                if (container.getFilters() != null) {
+                    writer = writer.with(container.getFilters());
+                }
+            }
+            writer = writer.withAttribute(FieldSelection.KEY_FIELD_SELECTION, fieldSelection);
+            if (!embeddingDepth.isUnlimited()) {
+                writer = writer.withAttribute(EmbeddingDepth.KEY_EMBEDDING_DEPTH, embeddingDepth);
+            }
+            if (minimalRepresentation) {
+                writer = writer.withAttribute(LinkListSerializer.KEY_MINIMAL_REPRESENTATION, Boolean.TRUE);
+            }
+            if (lineDelimited) {
+                writeLines(writer, generator, value);
+                return;
+            }
+            // like super.writeInternal, let the declared type decide about type ids of collection members
+            if (type != null && TypeUtils.isAssignable(type, value.getClass())) {
+                JavaType javaType = getJavaType(type, null);
+                if (javaType.isContainerType()) {
+                    writer = writer.forType(javaType);
+                }
+            }
+            if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                    && writer.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                writer = writer.with(SSE_PRETTY_PRINTER);
+            }
+            if (!renderingBudget.isUnlimited()) {
+                writer = writer.withAttribute(RenderingBudget.KEY_RENDERING_BUDGET,
+                        renderingBudget.start(renderingBudgetListener));
+            }
+            if (binaryEncoding == null) {
+                writePrefix(generator, object);
+            }
+            if (nodeDeduplication) {
+                writer = writer.withAttribute(JacksonHydraSerializer.KEY_EMITTED_NODES, new HashSet<String>());
+            }
+            writer.writeValue(generator, value);
+            if (binaryEncoding == null) {
+                writeSuffix(generator, object);
+            }
+            generator.flush();
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Selects the object mapper registered for the type and content type, like the superclass does for {@link
+     * #registerObjectMappersForType(Class, java.util.function.Consumer) registered object mappers}.
+     *
+     * @return selected object mapper, the default object mapper if there are no registrations for the type
+     */
+    private ObjectMapper selectObjectMapper(Class<?> targetType, MediaType contentType) {
+        Map<MediaType, ObjectMapper> registrations = getObjectMappersForType(targetType);
+        if (contentType == null || registrations.isEmpty()) {
+            return getObjectMapper();
+        }
+        for (Map.Entry<MediaType, ObjectMapper> entry : registrations.entrySet()) {
+            if (entry.getKey()
+                    .includes(contentType)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalStateException("No ObjectMapper for " + targetType.getName());
+    }
+
+    /**
+     * Writes one member per line, each member is a complete json-ld object. Every line is flushed as soon as it is
+     * written, so that clients can process a member before the next one is rendered. Every line is rendered with
+     * its own rendering budget.
+     */
+    private void writeLines(ObjectWriter writer, JsonGenerator generator, Object value) throws IOException {
+        // a line must not contain line breaks, even if the object mapper indents its output
+        writer = writer.without(SerializationFeature.INDENT_OUTPUT);
+        if (lineDelimitedContext != null) {
+            writer = writer.withAttribute(JacksonHydraSerializer.KEY_REMOTE_CONTEXT, lineDelimitedContext);
+        }
+        // the line feed is written as separator
+        generator.setRootValueSeparator(null);
+        try {
+            Iterator<?> members = getMembers(value);
+            while (members.hasNext()) {
+                ObjectWriter lineWriter = writer;
+                if (!renderingBudget.isUnlimited()) {
+                    lineWriter = lineWriter.withAttribute(RenderingBudget.KEY_RENDERING_BUDGET,
+                            renderingBudget.start(renderingBudgetListener));
+                }
+                if (nodeDeduplication) {
+                    // every line must be self-contained, nodes are only deduplicated within a line
+                    lineWriter = lineWriter.withAttribute(JacksonHydraSerializer.KEY_EMITTED_NODES,
+                            new HashSet<String>());
+                }
+                lineWriter.writeValue(generator, members.next());
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+        } finally {
+            if (value instanceof BaseStream) {
+                ((BaseStream<?, ?>) value).close();
+            }
+        }
+    }
+
+    private static Iterator<?> getMembers(Object value) {
+        if (value instanceof CollectionModel) {
+            return ((CollectionModel<?>) value).getContent()
+                    .iterator();
+        } else if (value instanceof BaseStream) {
+            return ((BaseStream<?, ?>) value).iterator();
+        } else if (value instanceof Iterator) {
+            return (Iterator<?>) value;
+        } else if (value instanceof Iterable) {
+            return ((Iterable<?>) value).iterator();
+        } else if (value != null && value.getClass()
+                .isArray()) {
+            return Arrays.asList(ObjectUtils.toObjectArray(value))
+                    .iterator();
+        } else {
+            return Collections.singletonList(value)
+                    .iterator();
+        }
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        // binary encodings and line-delimited output are write-only, the object mapper parses json text
+        return getBinaryEncoding(mediaType) == null && !isLineDelimited(mediaType)
+                && super.canRead(type, contextClass, mediaType);
+    }
+
+    private boolean isLineDelimited(MediaType contentType) {
+        return lineDelimitedOutput && contentType != null
+                && HypermediaTypes.APPLICATION_NDJSON_LD.equalsTypeAndSubtype(contentType);
+    }
+
+    /**
+     * Gets the binary encoding registered for the given content type.
+     *
+     * @param contentType
+     *         of response, may be null
+     * @return factory for binary generators or null if the content type is not a binary encoding
+     */
+    private JsonFactory getBinaryEncoding(MediaType contentType) {
+        if (contentType == null || binaryEncodings.isEmpty()) {
+            return null;
+        }
+        for (Map.Entry<MediaType, JsonFactory> entry : binaryEncodings.entrySet()) {
+            if (entry.getKey()
+                    .includes(contentType)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the sparse fieldset requested by the current request, either as request parameter or as preference in a
+     * {@code Prefer} header, e.g. {@code Prefer: fields="performer,workPerformed.name"}.
+     *
+     * @return requested selection or {@link FieldSelection#ALL}
+     */
+    private FieldSelection getRequestedFieldSelection() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (fieldSelectionParameter == null || !(requestAttributes instanceof ServletRequestAttributes)) {
+            return FieldSelection.ALL;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
+        String fields = request.getParameter(fieldSelectionParameter);
+        if (fields == null) {
+            Enumeration<String> preferHeaders = request.getHeaders("Prefer");
+            while (fields == null && preferHeaders != null && preferHeaders.hasMoreElements()) {
+                Matcher matcher = fieldSelectionPreference.matcher(preferHeaders.nextElement());
+                if (matcher.find()) {
+                    fields = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                }
+            }
+        }
+        return FieldSelection.parse(fields);
+    }
+
+    /**
+     * Sets ETag support, which adds an ETag header and answers matching conditional requests with 304. Default is
+     * null, i.e. no ETag.
+     *
+     * @param etagSupport
+     *         to use, may be null
+     */
+    public void setEtagSupport(EtagSupport etagSupport) {
+        this.etagSupport = etagSupport;
+    }
+
+    /**
+     * Sets executor for parallel rendering of large collections. If set, the members of collections with at least
+     * {@link #setParallelRenderingThreshold(int) threshold} members are rendered in partitions on the executor and
+     * written in their original order. Default is null, i.e. sequential rendering.
+     *
+     * @param parallelRenderingExecutor
+     *         to use, may be null
+     */
+    public void setParallelRenderingExecutor(ExecutorService parallelRenderingExecutor) {
+        this.parallelRenderingExecutor = parallelRenderingExecutor;
+        updateParallelRendering();
+    }
+
+    /**
+     * Sets minimum number of collection members for parallel rendering, default is 1000.
+     *
+     * @param parallelRenderingThreshold
+     *         minimum number of members
+     */
+    public void setParallelRenderingThreshold(int parallelRenderingThreshold) {
+        Assert.isTrue(parallelRenderingThreshold > 0, "threshold must be positive");
+        this.parallelRenderingThreshold = parallelRenderingThreshold;
+        updateParallelRendering();
+    }
+
+    /**
+     * Sets number of collection members rendered per task during parallel rendering, default is 250.
+     *
+     * @param parallelRenderingPartitionSize
+     *         members per partition
+     */
+    public void setParallelRenderingPartitionSize(int parallelRenderingPartitionSize) {
+        Assert.isTrue(parallelRenderingPartitionSize > 0, "partition size must be positive");
+        this.parallelRenderingPartitionSize = parallelRenderingPartitionSize;
+        updateParallelRendering();
+    }
+
+    /**
+     * Enables client-selected sparse fieldsets. The client passes comma-separated property paths, e.g. {@code
+     * ?fields=performer,workPerformed.name} or {@code Prefer: fields="performer,workPerformed.name"}, and only the
+     * selected properties are rendered. Properties which are not selected are skipped before their getters are
+     * called, links and affordances are only rendered if their rel is selected. Default is null, i.e. sparse
+     * fieldsets are disabled.
+     *
+     * @param fieldSelectionParameter
+     *         name of request parameter and preference, e.g. {@code fields}, may be null
+     */
+    public void setFieldSelectionParameter(String fieldSelectionParameter) {
+        this.fieldSelectionParameter = fieldSelectionParameter;
+        this.fieldSelectionPreference = fieldSelectionParameter == null ? null :
+                Pattern.compile("(?:^|[,;\\s])" + Pattern.quote(fieldSelectionParameter)
+                        + "\\s*=\\s*(?:\"([^\"]*)\"|([^,;\\s]*))");
+    }
+
+    /**
+     * Sets maximum depth up to which nested resources are embedded. Beyond that depth, nested resources with a self
+     * link are rendered as <code>{"@id": ...}</code>. A handler method may override the depth for a single response
+     * using {@link RequestEmbeddingDepth}. Default is {@link EmbeddingDepth#UNLIMITED}.
+     *
+     * @param embeddingDepth
+     *         to use
+     */
+    public void setEmbeddingDepth(EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        this.embeddingDepth = embeddingDepth;
+    }
+
+    /**
+     * Sets budget for rendering a single response. Nested beans deeper than the maximum depth of the budget, or
+     * nested beans reached after the maximum time, are rendered as <code>{"@id": ...}</code> if they have an
+     * identifier and as empty node otherwise. Only the first members up to the maximum number of items of a {@link
+     * CollectionModel} are rendered as {@code hydra:member}, the {@code hydra:totalItems} and {@code hydra:view} of a
+     * paged collection are written unchanged. Truncated collections are listed by name under {@link
+     * JacksonHydraSerializer#TRUNCATED_PROPERTIES} of the node which holds them. Newline-delimited output starts a new budget for every line, so that
+     * the limits apply to each member on its own, the number of lines is not limited. Default is {@link
+     * RenderingBudget#UNLIMITED}.
+     *
+     * @param renderingBudget
+     *         to use
+     */
+    public void setRenderingBudget(RenderingBudget renderingBudget) {
+        Assert.notNull(renderingBudget, "renderingBudget must not be null");
+        this.renderingBudget = renderingBudget;
+    }
+
+    /**
+     * Sets listener which is notified when a response exceeds the rendering budget. Default is null.
+     *
+     * @param renderingBudgetListener
+     *         to notify, may be null
+     */
+    public void setRenderingBudgetListener(RenderingBudgetListener renderingBudgetListener) {
+        this.renderingBudgetListener = renderingBudgetListener;
+    }
+
+    /**
+     * Enables node deduplication. Every identified node, i.e. a resource with a self link or a bean with an {@code
+     * @id}, is written in full once, later occurrences are written as <code>{"@id": ...}</code> references. A json-ld
+     * processor merges the references with the node when the response is flattened. Collections are rendered
+     * sequentially when nodes are deduplicated, even if a {@link #setParallelRenderingExecutor(ExecutorService)
+     * parallel rendering executor} is set. Default is false.
+     *
+     * @param nodeDeduplication
+     *         true to write repeated nodes as references
+     */
+    public void setNodeDeduplication(boolean nodeDeduplication) {
+        this.nodeDeduplication = nodeDeduplication;
+    }
+
+    /**
+     * Sets binary encodings of json-ld which clients may negotiate, by media type. The json-ld structure is the same
+     * as for {@code application/ld+json}, it is written by the same serializers using a generator of the given
+     * {@link JsonFactory}, e.g. a {@code CBORFactory} from jackson-dataformat-cbor for {@link
+     * HypermediaTypes#APPLICATION_JSONLD_CBOR} or a {@code SmileFactory} for {@code application/x-jackson-smile}.
+     * A {@code SmileFactory} with {@code SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES} enabled writes repeated
+     * {@code @context} terms as back-references. The media types are added to the supported media types. Binary
+     * encodings are only written, not read. Default is no binary encodings.
+     *
+     * @param binaryEncodings
+     *         json factories by media type
+     */
+    public void setBinaryEncodings(Map<MediaType, JsonFactory> binaryEncodings) {
+        Assert.notNull(binaryEncodings, "binaryEncodings must not be null");
+        List<MediaType> supportedMediaTypes = new ArrayList<MediaType>(getSupportedMediaTypes());
+        supportedMediaTypes.removeAll(this.binaryEncodings.keySet());
+        for (MediaType mediaType : binaryEncodings.keySet()) {
+            if (!supportedMediaTypes.contains(mediaType)) {
+                supportedMediaTypes.add(mediaType);
+            }
+        }
+        this.binaryEncodings = Collections.unmodifiableMap(new LinkedHashMap<MediaType, JsonFactory>(
+                binaryEncodings));
+        setSupportedMediaTypes(supportedMediaTypes);
+    }
+
+    /**
+     * Enables newline-delimited json-ld output for bulk exports. If the client accepts {@link
+     * HypermediaTypes#APPLICATION_NDJSON_LD}, the members of a {@link CollectionModel}, collection, array, iterator or
+     * {@link java.util.stream.Stream} are written as one compacted json-ld object per line, and each line is flushed
+     * as soon as it is written. Links and page metadata of the collection itself are not written, no ETag is added.
+     * Default is false.
+     *
+     * @param lineDelimitedOutput
+     *         true to support {@link HypermediaTypes#APPLICATION_NDJSON_LD}
+     */
+    public void setLineDelimitedOutput(boolean lineDelimitedOutput) {
+        List<MediaType> supportedMediaTypes = new ArrayList<MediaType>(getSupportedMediaTypes());
+        supportedMediaTypes.remove(HypermediaTypes.APPLICATION_NDJSON_LD);
+        if (lineDelimitedOutput) {
+            supportedMediaTypes.add(HypermediaTypes.APPLICATION_NDJSON_LD);
+        }
+        this.lineDelimitedOutput = lineDelimitedOutput;
+        setSupportedMediaTypes(supportedMediaTypes);
+    }
+
+    /**
+     * Sets url of a remote context which every line of newline-delimited output references as <code>{"@context":
+     * url}</code>, rather than repeating the context of the member on every line. The remote context must define the
+     * vocab and terms of the members, i.e. the {@code @context} which is written for a member as {@code
+     * application/ld+json}. Default is null, i.e. every line defines its context inline.
+     *
+     * @param lineDelimitedContext
+     *         url of remote context, may be null
+     */
+    public void setLineDelimitedContext(String lineDelimitedContext) {
+        this.lineDelimitedContext = lineDelimitedContext;
+    }
+
+    private void updateParallelRendering() {
+        ObjectMapper objectMapper = getObjectMapper();
+        ContextAttributes attributes = objectMapper.getSerializationConfig()
+                .getAttributes();
+        if (parallelRenderingExecutor == null) {
+            attributes = attributes.withoutSharedAttribute(CollectionMemberSerializer.KEY_PARALLEL_RENDERING);
+        } else {
+            attributes = attributes.withSharedAttribute(CollectionMemberSerializer.KEY_PARALLEL_RENDERING,
+                    new CollectionMemberSerializer.ParallelRendering(parallelRenderingExecutor,
+                            parallelRenderingThreshold, parallelRenderingPartitionSize));
+        }
+        objectMapper.setDefaultAttributes(attributes);
+    }
 }
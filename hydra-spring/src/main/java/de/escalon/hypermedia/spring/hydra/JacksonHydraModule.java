@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import de.escalon.hypermedia.affordance.TypedResource;
 import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
 import de.escalon.hypermedia.hydra.serialize.ProxyUnwrapper;
+import de.escalon.hypermedia.spring.CursorPagedModel;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
@@ -49,7 +50,9 @@ public class JacksonHydraModule extends SimpleModule {
         setMixInAnnotation(EntityModel.class, ResourceMixin.class);
         setMixInAnnotation(TypedResource.class, TypedResourceMixin.class);
         addSerializer(EntityModel.class, new ResourceSerializer());
-        addSerializer(PagedModel.class, new PagedResourcesSerializer(proxyUnwrapper));
+        PagedResourcesSerializer pagedResourcesSerializer = new PagedResourcesSerializer(proxyUnwrapper);
+        addSerializer(PagedModel.class, pagedResourcesSerializer);
+        addSerializer(CursorPagedModel.class, pagedResourcesSerializer);
 
     }
 
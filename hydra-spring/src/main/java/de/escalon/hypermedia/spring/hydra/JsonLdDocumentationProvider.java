@@ -9,16 +9,26 @@ import de.escalon.hypermedia.spring.DocumentationProvider;
 import de.escalon.hypermedia.spring.SpringActionInputParameter;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  * Created by Dietrich on 05.04.2015.
  */
 public class JsonLdDocumentationProvider implements DocumentationProvider {
 
+    private static final Pattern HTTP_URL = Pattern.compile("http(s)?://.+");
+
+    /**
+     * Cache marker for members which have no documentation url.
+     */
+    private static final String NO_URL = new String("");
+
     private LdContextFactory ldContextFactory = new LdContextFactory();
 
     private MixinSource mixinSource = new MixinSource() {
@@ -28,71 +38,157 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         }
     };
 
+    /**
+     * Resolved urls by (class, member). The vocab only depends on the class, but the terms may depend on the
+     * values of enum properties, see {@link LdContextFactory#hasInstanceDependentTerms(Class, Class)}. Curies of such
+     * classes are resolved against the instance and never cached. Map keys passed as names may be unbounded, hence
+     * soft references.
+     */
+    private final ConcurrentMap<UrlKey, String> urls = new ConcurrentReferenceHashMap<UrlKey, String>();
+
+    private final ConcurrentMap<Class<?>, Boolean> instanceDependentTerms =
+            new ConcurrentReferenceHashMap<Class<?>, Boolean>();
+
     @Override
     public String getDocumentationUrl(ActionInputParameter parameter, Object content) {
         final Expose expose = parameter.getAnnotation(Expose.class);
+        final String name = getExposedName(parameter.getParameterName(), expose);
         String ret;
         if (content == null) {
             if (parameter instanceof SpringActionInputParameter) {
                 Class<?> clazz = ((SpringActionInputParameter) parameter).getDeclaringClass();
-                ret = getExposedUrl(parameter.getParameterName(), vocabFromClass(clazz), termsFromClazz(clazz), expose);
+                ret = getDocumentationUrlFromClass(clazz, name);
             } else {
                 ret = null;
             }
         } else {
-            ret = getExposedUrl(parameter.getParameterName(), vocabFromBean(content), termsFromBean(content), expose);
+            ret = getDocumentationUrlFromBean(name, name, content);
         }
         return ret;
     }
 
     @Override
     public String getDocumentationUrl(Field field, Object content) {
-        final Expose expose = AnnotationUtils.findAnnotation(field, Expose.class);
         // TODO can we support Mixins from here?
 //        final Class<?> mixin = provider.getConfig()
 //                .findMixInClassFor(bean.getClass());
 //        final Expose mixinExpose = findAnnotation(mixin, Expose.class);
-        return getExposedUrl(field.getName(), vocabFromBean(content), termsFromBean(content), expose);
+        return getDocumentationUrlFromBean(field, null, content);
     }
 
     @Override
     public String getDocumentationUrl(Method method, Object content) {
-        final Expose expose = AnnotationUtils.findAnnotation(method, Expose.class);
         // TODO can we support Mixins from here?
 //        final Class<?> mixin = provider.getConfig()
 //                .findMixInClassFor(bean.getClass());
 //        final Expose mixinExpose = findAnnotation(mixin, Expose.class);
-        String methodName = method.getName();
-        String propertyName;
-        if (methodName.startsWith("get")) {
-            propertyName = StringUtils.uncapitalize(StringUtils.removeStart(methodName, "get"));
-        } else {
-            propertyName = StringUtils.uncapitalize(StringUtils.removeStart(methodName, "is"));
-        }
-        return getExposedUrl(propertyName, vocabFromBean(content), termsFromBean(content), expose);
+        return getDocumentationUrlFromBean(method, null, content);
     }
 
     @Override
     public String getDocumentationUrl(Class clazz, Object content) {
-        final Expose expose = AnnotationUtils.findAnnotation(clazz, Expose.class);
         // TODO can we support Mixins from here?
 //        final Class<?> mixin = provider.getConfig()
 //                .findMixInClassFor(bean.getClass());
 //        final Expose mixinExpose = findAnnotation(mixin, Expose.class);
-        return getExposedUrl(clazz.getSimpleName(), vocabFromBean(content), termsFromBean(content), expose);
+        return getDocumentationUrlFromBean(clazz, null, content);
+    }
+
+    @Override
+    public String getDocumentationUrl(String name, Object content) {
+        String ret;
+        if (content == null) {
+            ret = null;
+        } else {
+            ret = getDocumentationUrlFromBean(name, name, content);
+        }
+        return ret;
     }
 
+    /**
+     * Resolves documentation url of a member against vocab and terms of the current value.
+     *
+     * @param member
+     *         Field, Method, Class or exposed name
+     * @param exposedName
+     *         exposed name of the member if already known, otherwise null
+     * @param content
+     *         current value
+     * @return url or null
+     */
     @Nullable
-    private String getExposedUrl(String plainName, String vocab, Map<String, Object> terms, Expose expose) {
+    private String getDocumentationUrlFromBean(Object member, String exposedName, Object content) {
+        final Class<?> contentClass = content == null ? null : content.getClass();
+        final UrlKey key = new UrlKey(contentClass, member, false);
+        String ret = urls.get(key);
+        if (ret == null) {
+            final String name = exposedName != null ? exposedName : getExposedName(member);
+            String url = getExposedUrl(name, vocabFromBean(content), termsFromBean(content));
+            if (isCurie(name) && contentClass != null && hasInstanceDependentTerms(contentClass)) {
+                return url;
+            }
+            ret = url == null ? NO_URL : url;
+            urls.putIfAbsent(key, ret);
+        }
+        return ret == NO_URL ? null : ret;
+    }
+
+    @Nullable
+    private String getDocumentationUrlFromClass(Class<?> clazz, String name) {
+        final UrlKey key = new UrlKey(clazz, name, true);
+        String ret = urls.get(key);
+        if (ret == null) {
+            String url = getExposedUrl(name, vocabFromClass(clazz), termsFromClazz(clazz));
+            ret = url == null ? NO_URL : url;
+            urls.putIfAbsent(key, ret);
+        }
+        return ret == NO_URL ? null : ret;
+    }
+
+    private String getExposedName(Object member) {
+        final String ret;
+        if (member instanceof Field) {
+            Field field = (Field) member;
+            ret = getExposedName(field.getName(), AnnotationUtils.findAnnotation(field, Expose.class));
+        } else if (member instanceof Method) {
+            Method method = (Method) member;
+            String methodName = method.getName();
+            String propertyName;
+            if (methodName.startsWith("get")) {
+                propertyName = StringUtils.uncapitalize(StringUtils.removeStart(methodName, "get"));
+            } else {
+                propertyName = StringUtils.uncapitalize(StringUtils.removeStart(methodName, "is"));
+            }
+            ret = getExposedName(propertyName, AnnotationUtils.findAnnotation(method, Expose.class));
+        } else if (member instanceof Class) {
+            Class<?> clazz = (Class<?>) member;
+            ret = getExposedName(clazz.getSimpleName(), AnnotationUtils.findAnnotation(clazz, Expose.class));
+        } else {
+            ret = member.toString();
+        }
+        return ret;
+    }
+
+    private String getExposedName(String plainName, Expose expose) {
         final String name;
         if (expose != null) {
             name = expose.value(); // expose is better than Java name
         } else {
             name = plainName;
         }
+        return name;
+    }
+
+    private boolean isCurie(String name) {
+        return name.indexOf(':') != -1 && !HTTP_URL.matcher(name)
+                .matches();
+    }
 
+    @Nullable
+    private String getExposedUrl(String name, String vocab, Map<String, Object> terms) {
         String url;
-        if (name.matches("http(s)?://.+")) {
+        if (HTTP_URL.matcher(name)
+                .matches()) {
             url = name;
         } else if (name.contains(":")) {
             url = resolveCurie(terms, name);
@@ -120,17 +216,6 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         return url;
     }
 
-    @Override
-    public String getDocumentationUrl(String name, Object content) {
-        String ret;
-        if (content == null) {
-            ret = null;
-        } else {
-            ret = getExposedUrl(name, vocabFromBean(content), termsFromBean(content), null);
-        }
-        return ret;
-    }
-
     @Nullable
     private String makeVocabUrl(String vocab, String name) {
         String url;
@@ -160,4 +245,51 @@ public class JsonLdDocumentationProvider implements DocumentationProvider {
         return vocabFromClassOrPackage == null ? LdContextFactory.HTTP_SCHEMA_ORG : vocabFromClassOrPackage;
     }
 
+    /**
+     * Caches {@link LdContextFactory#hasInstanceDependentTerms(Class, Class)} per bean class.
+     *
+     * @param beanClass
+     *         to check
+     * @return true if terms depend on property values
+     */
+    private boolean hasInstanceDependentTerms(Class<?> beanClass) {
+        Boolean ret = instanceDependentTerms.get(beanClass);
+        if (ret == null) {
+            ret = ldContextFactory.hasInstanceDependentTerms(beanClass, mixinSource.findMixInClassFor(beanClass));
+            instanceDependentTerms.putIfAbsent(beanClass, ret);
+        }
+        return ret;
+    }
+
+    private static class UrlKey {
+
+        private final Class<?> clazz;
+        private final Object member;
+        private final boolean fromClass;
+
+        UrlKey(Class<?> clazz, Object member, boolean fromClass) {
+            this.clazz = clazz;
+            this.member = member;
+            this.fromClass = fromClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UrlKey)) {
+                return false;
+            }
+            UrlKey other = (UrlKey) o;
+            return clazz == other.clazz && fromClass == other.fromClass && member.equals(other.member);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = clazz == null ? 0 : clazz.hashCode();
+            result = 31 * result + member.hashCode();
+            return 31 * result + (fromClass ? 1 : 0);
+        }
+    }
 }
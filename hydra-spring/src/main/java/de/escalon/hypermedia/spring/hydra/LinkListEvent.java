@@ -0,0 +1,47 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.RenderingEvent;
+import de.escalon.hypermedia.RenderingEvents;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Serialize Links&quot; rendering phase, one event per link category.
+ */
+@Name("de.escalon.hypermedia.LinkList")
+@Label("Serialize Links")
+@Description("Writes one category of links as json-ld, item count is the number of links in the category.")
+class LinkListEvent extends RenderingEvent {
+
+    static final String TEMPLATED_LINKS = "templatedLinks";
+    static final String COLLECTION_AFFORDANCES = "collectionAffordances";
+    static final String AFFORDANCES = "affordances";
+    static final String SIMPLE_LINKS = "simpleLinks";
+
+    @Label("Link Category")
+    String linkCategory;
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(LinkListEvent.class);
+
+    private LinkListEvent(String linkCategory) {
+        this.linkCategory = linkCategory;
+    }
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @param linkCategory
+     *         of the written links
+     * @return started event, null if the event type is disabled
+     */
+    static LinkListEvent beginIfEnabled(String linkCategory) {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        LinkListEvent event = new LinkListEvent(linkCategory);
+        event.begin();
+        return event;
+    }
+}
@@ -13,14 +13,14 @@
 
 package de.escalon.hypermedia.spring.hydra;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.RenderingEvents;
 import de.escalon.hypermedia.action.Cardinality;
-import de.escalon.hypermedia.action.Input;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.Affordance;
@@ -28,41 +28,35 @@ import de.escalon.hypermedia.affordance.DataType;
 import de.escalon.hypermedia.affordance.PartialUriTemplateComponents;
 import de.escalon.hypermedia.affordance.TypedResource;
 import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.serialize.FieldSelection;
 import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
 import de.escalon.hypermedia.hydra.serialize.JsonLdKeywords;
 import de.escalon.hypermedia.hydra.serialize.LdContext;
-import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
-import de.escalon.hypermedia.spring.SpringActionInputParameter;
-import java.beans.BeanInfo;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
+import de.escalon.hypermedia.spring.SpringActionDescriptor;
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.lang3.StringUtils;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.MethodParameter;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Links;
-import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
- * Serializer to convert Link to json-ld representation. Created by dschulten on 19.09.2014.
+ * Serializer to convert Link to json-ld representation. In a minimal representation, affordances are written as plain
+ * links or iri templates without {@code hydra:operation}. Created by dschulten on 19.09.2014.
  */
 public class LinkListSerializer extends StdSerializer<Links> {
 
@@ -71,8 +65,27 @@ public class LinkListSerializer extends StdSerializer<Links> {
     public static final String SCHEMA = "schema:";
     Logger LOG = LoggerFactory.getLogger(LinkListSerializer.class);
 
+    /**
+     * Attribute key which is present if affordances should be written as plain links, see {@link
+     * MinimalRepresentation}.
+     */
+    static final String KEY_MINIMAL_REPRESENTATION = "de.escalon.hypermedia.minimal-representation";
+
     private static final String IANA_REL_PREFIX = "urn:iana:link-relations:";
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ConcurrentMap<SupportedPropertiesKey, SupportedProperties> supportedPropertiesCache =
+            new ConcurrentHashMap<SupportedPropertiesKey, SupportedProperties>();
+
+    /**
+     * Pre-serialized hydra:mapping arrays by handler method and unsatisfied variables. Only the hydra:template
+     * depends on the expanded base uri, the mapping is the same for every rendering of a handler method. There is
+     * one entry per handler method and set of unsatisfied variables, held by soft references.
+     */
+    private final ConcurrentMap<VariableMappingKey, String> variableMappingCache =
+            new ConcurrentReferenceHashMap<VariableMappingKey, String>();
+
 
     public LinkListSerializer() {
         super(List.class, false);
@@ -83,12 +96,26 @@ public class LinkListSerializer extends StdSerializer<Links> {
                           SerializerProvider serializerProvider) throws IOException {
 
         try {
+            if (serializerProvider.getAttribute(KEY_MINIMAL_REPRESENTATION) != null) {
+                links = MinimalRepresentation.toPlainLinks(links);
+            }
             Collection<Link> simpleLinks = new ArrayList<>();
             Collection<Affordance> affordances = new ArrayList<>();
             Collection<Link> templatedLinks = new ArrayList<>();
             Collection<Affordance> collectionAffordances = new ArrayList<>();
             Link selfRel = null;
+            FieldSelection selection = FieldSelection.current(serializerProvider);
             for (Link link : links) {
+                if (!selection.includesExplicitly(link.getRel()
+                        .value())) {
+                    // the identifier is always rendered, operations and other links only if selected
+                    if (link.getRel()
+                            .isSameAs(IanaLinkRelations.SELF) && !link.isTemplated()) {
+                        simpleLinks.add(Link.of(link.getHref()));
+                        selfRel = link;
+                    }
+                    continue;
+                }
                 if (link instanceof Affordance) {
                     final Affordance affordance = (Affordance) link;
                     final List<ActionDescriptor> actionDescriptors = affordance.getActionDescriptors();
@@ -130,6 +157,14 @@ public class LinkListSerializer extends StdSerializer<Links> {
                 }
             }
 
+            @SuppressWarnings("unchecked")
+            Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(JacksonHydraSerializer
+                    .KEY_LD_CONTEXT);
+            final Object currentValue = jgen.getCurrentValue();
+            final int depth = contextStack == null ? 0 : contextStack.size();
+
+            LinkListEvent templatedLinksEvent = RenderingEvents.isAvailable()
+                    ? LinkListEvent.beginIfEnabled(LinkListEvent.TEMPLATED_LINKS) : null;
             for (Link templatedLink : templatedLinks) {
                 // templated affordance might turn out to have all variables satisfied or
                 // only optional unsatisfied variables
@@ -139,13 +174,16 @@ public class LinkListSerializer extends StdSerializer<Links> {
                 writeIriTemplate(rel, templatedLink.getHref(), templatedLink.getVariableNames(),
                         actionDescriptorForHttpGet, jgen);
             }
-            @SuppressWarnings("unchecked")
-            Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(JacksonHydraSerializer
-                    .KEY_LD_CONTEXT);
+            if (templatedLinksEvent != null) {
+                templatedLinksEvent.commit(currentValue, depth, templatedLinks.size());
+            }
+
             String currentVocab = (contextStack != null && !contextStack.isEmpty()) ?
                     contextStack.peek().vocab : null;
 
             // related collections
+            LinkListEvent collectionAffordancesEvent = RenderingEvents.isAvailable()
+                    ? LinkListEvent.beginIfEnabled(LinkListEvent.COLLECTION_AFFORDANCES) : null;
             if (!collectionAffordances.isEmpty()) {
 
                 jgen.writeArrayFieldStart("hydra:collection");
@@ -205,7 +243,12 @@ public class LinkListSerializer extends StdSerializer<Links> {
                 }
                 jgen.writeEndArray();
             }
+            if (collectionAffordancesEvent != null) {
+                collectionAffordancesEvent.commit(currentValue, depth, collectionAffordances.size());
+            }
 
+            LinkListEvent affordancesEvent = RenderingEvents.isAvailable()
+                    ? LinkListEvent.beginIfEnabled(LinkListEvent.AFFORDANCES) : null;
             for (Affordance affordance : affordances) {
                 final String rel = affordance.getRel().value();
                 List<ActionDescriptor> actionDescriptors = affordance.getActionDescriptors();
@@ -229,7 +272,12 @@ public class LinkListSerializer extends StdSerializer<Links> {
                     }
                 }
             }
+            if (affordancesEvent != null) {
+                affordancesEvent.commit(currentValue, depth, affordances.size());
+            }
 
+            LinkListEvent simpleLinksEvent = RenderingEvents.isAvailable()
+                    ? LinkListEvent.beginIfEnabled(LinkListEvent.SIMPLE_LINKS) : null;
             for (Link simpleLink : simpleLinks) {
                 final String rel = simpleLink.getRel().value();
                 if (IanaLinkRelations.SELF_VALUE.equals(rel)) {
@@ -241,6 +289,9 @@ public class LinkListSerializer extends StdSerializer<Links> {
                     jgen.writeEndObject();
                 }
             }
+            if (simpleLinksEvent != null) {
+                simpleLinksEvent.commit(currentValue, depth, simpleLinks.size());
+            }
         } catch (IntrospectionException e) {
             throw new RuntimeException(e);
         }
@@ -253,13 +304,69 @@ public class LinkListSerializer extends StdSerializer<Links> {
 
         jgen.writeStringField(TYPE, "hydra:IriTemplate");
         jgen.writeStringField("hydra:template", href);
-        jgen.writeArrayFieldStart("hydra:mapping");
-        writeHydraVariableMapping(jgen, actionDescriptorForHttpGet, variableNames);
-        jgen.writeEndArray();
+        Map<String, ActionInputParameter> unsatisfiedParameters = getUnsatisfiedParameters(
+                actionDescriptorForHttpGet, variableNames);
+        String variableMapping = getCachedVariableMapping(actionDescriptorForHttpGet, unsatisfiedParameters, jgen);
+        if (variableMapping != null) {
+            jgen.writeFieldName("hydra:mapping");
+            jgen.writeRawValue(variableMapping);
+        } else {
+            jgen.writeArrayFieldStart("hydra:mapping");
+            writeHydraVariableMapping(jgen, unsatisfiedParameters);
+            jgen.writeEndArray();
+        }
 
         jgen.writeEndObject();
     }
 
+    /**
+     * Gets pre-serialized hydra:mapping array for the given unsatisfied parameters of a handler method. The
+     * fragment is written raw, hence this only works if the generator writes plain, non-indented json.
+     *
+     * @param actionDescriptor
+     *         describing the handler method, may be null
+     * @param unsatisfiedParameters
+     *         to map, by variable name
+     * @param jgen
+     *         which will write the fragment
+     * @return serialized mapping array or null if the mapping cannot be cached for the given descriptor or generator
+     * @throws IOException
+     *         if the fragment cannot be written
+     */
+    @Nullable
+    private String getCachedVariableMapping(@Nullable ActionDescriptor actionDescriptor,
+                                            Map<String, ActionInputParameter> unsatisfiedParameters,
+                                            JsonGenerator jgen) throws IOException {
+        if (!(actionDescriptor instanceof SpringActionDescriptor) || !canWriteRawFragment(jgen)) {
+            return null;
+        }
+        Method invokedMethod = ((SpringActionDescriptor) actionDescriptor).getInvokedMethod();
+        if (invokedMethod == null) {
+            return null;
+        }
+        VariableMappingKey key = new VariableMappingKey(invokedMethod,
+                new ArrayList<String>(unsatisfiedParameters.keySet()));
+        String ret = variableMappingCache.get(key);
+        if (ret == null) {
+            StringWriter writer = new StringWriter();
+            JsonGenerator fragmentGenerator = JSON_FACTORY.createGenerator(writer);
+            fragmentGenerator.writeStartArray();
+            writeHydraVariableMapping(fragmentGenerator, unsatisfiedParameters);
+            fragmentGenerator.writeEndArray();
+            fragmentGenerator.close();
+            ret = writer.toString();
+            variableMappingCache.putIfAbsent(key, ret);
+        }
+        return ret;
+    }
+
+    static boolean canWriteRawFragment(JsonGenerator jgen) {
+        return jgen instanceof JsonGeneratorImpl
+                && jgen.getPrettyPrinter() == null
+                && jgen.getCharacterEscapes() == null
+                && !jgen.isEnabled(JsonGenerator.Feature.ESCAPE_NON_ASCII);
+    }
+
     private void writeCollectionHolder(String fieldName, TypedResource collectionHolder, JsonGenerator jgen) throws
             IOException {
         jgen.writeObjectFieldStart(fieldName);
@@ -316,8 +423,7 @@ public class LinkListSerializer extends StdSerializer<Links> {
                 jgen.writeStringField(TYPE, typeName);
 
                 jgen.writeArrayFieldStart("hydra:supportedProperty"); // begin hydra:supportedProperty
-                // TODO check need for allRootParameters and requestBodyInputParameter here:
-                recurseSupportedProperties(jgen, currentVocab, clazz, actionDescriptor,
+                recurseSupportedProperties(jgen, currentVocab, clazz,
                         requestBodyInputParameter, requestBodyInputParameter.getValue(), "");
                 jgen.writeEndArray(); // end hydra:supportedProperty
 
@@ -329,12 +435,12 @@ public class LinkListSerializer extends StdSerializer<Links> {
     }
 
     /**
-     * Writes bean description recursively.
+     * Writes bean description recursively. The structure of the description is cached per bean type and vocab, only
+     * the current values are read at render time.
      *
      * @param jgen              to write to
      * @param currentVocab      in context
      * @param valueType         class of value
-     * @param allRootParameters of the method that receives the request body
      * @param rootParameter     the request body
      * @param currentCallValue  the value at the current recursion level
      * @param propertyPath      of the current recursion level
@@ -342,175 +448,51 @@ public class LinkListSerializer extends StdSerializer<Links> {
      * @throws IOException
      */
     private void recurseSupportedProperties(JsonGenerator jgen, String currentVocab, Class<?>
-            valueType, ActionDescriptor allRootParameters,
-                                            ActionInputParameter rootParameter, Object currentCallValue,
+            valueType, ActionInputParameter rootParameter, Object currentCallValue,
                                             String propertyPath)
             throws IntrospectionException,
             IOException {
 
-
-        Map<String, ActionInputParameter> properties = new HashMap<String, ActionInputParameter>();
-
-        // collect supported properties from ctor
-
-        Constructor[] constructors = valueType.getConstructors();
-        // find default ctor
-        Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
-        // find ctor with JsonCreator ann
-        if (constructor == null) {
-            constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
-        }
-        if (constructor == null) {
+        SupportedProperties supportedProperties = getSupportedProperties(valueType, currentVocab);
+        if (!supportedProperties.describable) {
             // TODO this can be a generic collection, find a way to describe it
             LOG.warn("can't describe supported properties, no default constructor or JsonCreator found for type " + valueType
                     .getName());
             return;
         }
 
-        int parameterCount = constructor.getParameterTypes().length;
-        if (parameterCount > 0) {
-            Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
-
-            Class[] parameters = constructor.getParameterTypes();
-            int paramIndex = 0;
-            for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
-                for (Annotation annotation : annotationsOnParameter) {
-                    if (JsonProperty.class == annotation.annotationType()) {
-                        JsonProperty jsonProperty = (JsonProperty) annotation;
-                        // TODO use required attribute of JsonProperty
-                        String paramName = jsonProperty.value();
-
-                        Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, paramName);
-
-                        ActionInputParameter constructorParamInputParameter =
-                                new SpringActionInputParameter(
-                                        new MethodParameter(constructor, paramIndex), propertyValue);
-
-                        // TODO collect ctor params, setter params and process
-                        // TODO then handle single, collection and bean for both
-                        properties.put(paramName, constructorParamInputParameter);
-                        paramIndex++; // increase for each @JsonProperty
-                    }
-                }
-            }
-            Assert.isTrue(parameters.length == paramIndex,
-                    "not all constructor arguments of @JsonCreator " + constructor.getName() +
-                            " are annotated with @JsonProperty");
-        }
-
-        // collect supported properties from setters
-
-        // TODO support Option provider by other method args?
-        final BeanInfo beanInfo = Introspector.getBeanInfo(valueType);
-        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        // TODO collection and map
-        // TODO distinguish which properties should be printed as supported - now just setters
-        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-            final Method writeMethod = propertyDescriptor.getWriteMethod();
-            if (writeMethod == null) {
-                continue;
-            }
-            // TODO: the property name must be a valid URI - need to check context for terms?
-            String propertyName = getWritableExposedPropertyOrPropertyName(propertyDescriptor);
-
-            Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, propertyDescriptor
-                    .getName());
-
-            MethodParameter methodParameter = new MethodParameter(propertyDescriptor.getWriteMethod(), 0);
-            ActionInputParameter propertySetterInputParameter = new SpringActionInputParameter(
-                    methodParameter, propertyValue);
-
-            properties.put(propertyName, propertySetterInputParameter);
-        }
-
         // write all supported properties
-        // TODO we are using the annotatedParameter.parameterName but should use the key of properties here:
-        for (ActionInputParameter annotatedParameter : properties.values()) {
-            String nextPropertyPathLevel = propertyPath.isEmpty() ? annotatedParameter.getParameterName() :
-                    propertyPath + '.' + annotatedParameter.getParameterName();
-            Class<?> parameterType = annotatedParameter.getParameterType();
-            if (DataType.isSingleValueType(parameterType)) {
-
-                final Object[] possiblePropertyValues = rootParameter.getPossibleValues(allRootParameters);
-
+        for (SupportedProperties.SupportedProperty supportedProperty : supportedProperties.properties) {
+            String nextPropertyPathLevel = propertyPath.isEmpty() ? supportedProperty.parameterName :
+                    propertyPath + '.' + supportedProperty.parameterName;
+            Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
+                    supportedProperty.valueName);
+            if (supportedProperty.singleValue) {
                 if (rootParameter.isIncluded(nextPropertyPathLevel) && !rootParameter.isExcluded
                         (nextPropertyPathLevel)) {
-                    writeSupportedProperty(jgen, currentVocab, annotatedParameter,
-                            annotatedParameter.getParameterName(), possiblePropertyValues);
+                    writeSupportedProperty(jgen, supportedProperties, supportedProperty, propertyValue);
                 }
-                // TODO collections?
-                //                        } else if (DataType.isArrayOrCollection(parameterType)) {
-                //                            Object[] callValues = rootParameter.getValues();
-                //                            int items = callValues.length;
-                //                            for (int i = 0; i < items; i++) {
-                //                                Object value;
-                //                                if (i < callValues.length) {
-                //                                    value = callValues[i];
-                //                                } else {
-                //                                    value = null;
-                //                                }
-                //                                recurseSupportedProperties(jgen, currentVocab, rootParameter
-                // .getParameterType(),
-                //                                        allRootParameters, rootParameter, value);
-                //                            }
             } else {
                 jgen.writeStartObject();
-                jgen.writeStringField(HYDRA_PROPERTY, annotatedParameter.getParameterName());
+                jgen.writeFieldName(SupportedProperties.HYDRA_PROPERTY);
+                jgen.writeString(supportedProperty.serializedParameterName);
                 // TODO: is the property required -> for bean props we need the Access annotation to express that
-
-                Expose expose = AnnotationUtils.getAnnotation(parameterType, Expose.class);
-                String subClass = null;
-                if (expose != null) {
-                    subClass = expose.value();
-                } else {
-                    if (List.class.isAssignableFrom(parameterType)) {
-                        Type genericParameterType = annotatedParameter.getGenericParameterType();
-                        if (genericParameterType instanceof ParameterizedType) {
-                            ParameterizedType parameterizedType = (ParameterizedType) genericParameterType;
-                            Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
-                            if (actualTypeArguments.length == 1) {
-                                Type actualTypeArgument = actualTypeArguments[0];
-                                if (actualTypeArgument instanceof Class) {
-                                    parameterType = (Class<?>) actualTypeArgument;
-                                    subClass = parameterType.getSimpleName();
-                                } else if (actualTypeArgument instanceof ParameterizedType) {
-                                    ParameterizedType genericItemType = (ParameterizedType) actualTypeArgument;
-                                    Type rawType = genericItemType.getRawType();
-                                    if (rawType instanceof Class) {
-                                        parameterType = (Class<?>) rawType;
-                                        subClass = parameterType.getSimpleName();
-                                    }
-                                }
-                            }
-                        }
-                        if (subClass != null) {
-                            String multipleValueProp = getPropertyOrClassNameInVocab(currentVocab,
-                                    "multipleValues",
-                                    LdContextFactory.HTTP_SCHEMA_ORG,
-                                    SCHEMA);
-                            jgen.writeBooleanField(multipleValueProp, true);
-                        }
-                    }
-                }
-                if (subClass == null) {
-                    subClass = parameterType.getSimpleName();
+                if (supportedProperty.multipleBeans) {
+                    jgen.writeFieldName(supportedProperties.multipleValues);
+                    jgen.writeBoolean(true);
                 }
-                jgen.writeObjectFieldStart(getPropertyOrClassNameInVocab(currentVocab, "rangeIncludes",
-                        LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
-
-                jgen.writeStringField(getPropertyOrClassNameInVocab(currentVocab,
-                        "subClassOf",
-                        "http://www.w3.org/2000/01/rdf-schema#",
-                        "rdfs:"), subClass);
+                jgen.writeFieldName(supportedProperties.rangeIncludes);
+                jgen.writeStartObject();
+                jgen.writeFieldName(supportedProperties.subClassOf);
+                jgen.writeString(supportedProperty.subClass);
 
                 jgen.writeArrayFieldStart("hydra:supportedProperty");
                 // TODO let defaultValue be an filled list, if needed
-                Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, annotatedParameter
-                        .getParameterName());
+                Object nestedValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
+                        supportedProperty.parameterName);
 
-                recurseSupportedProperties(jgen, currentVocab, parameterType,
-                        allRootParameters,
-                        rootParameter, propertyValue, nextPropertyPathLevel);
+                recurseSupportedProperties(jgen, currentVocab, supportedProperty.beanType,
+                        rootParameter, nestedValue, nextPropertyPathLevel);
                 jgen.writeEndArray();
 
                 jgen.writeEndObject();
@@ -520,79 +502,57 @@ public class LinkListSerializer extends StdSerializer<Links> {
 
     }
 
-    /**
-     * Gets property or class name in the current context, either without prefix if the current vocab is the given
-     * vocabulary, or prefixed otherwise.
-     *
-     * @param currentVocab              to determine the current vocab
-     * @param propertyOrClassName       name to contextualize
-     * @param vocabulary                to which the given property belongs
-     * @param vocabularyPrefixWithColon to use if the current vocab does not match the given vocabulary to which the name belongs, should end
-     *                                  with colon
-     * @return property name or class name in the currenct context
-     */
-
-    private String getPropertyOrClassNameInVocab(@Nullable String currentVocab, String propertyOrClassName, String
-            vocabulary, String vocabularyPrefixWithColon) {
-        Assert.notNull(vocabulary);
-        String ret;
-        if (vocabulary.equals(currentVocab)) {
-            ret = propertyOrClassName;
-        } else {
-            ret = vocabularyPrefixWithColon + propertyOrClassName;
+    private SupportedProperties getSupportedProperties(Class<?> valueType, @Nullable String currentVocab) throws
+            IntrospectionException {
+        SupportedPropertiesKey key = new SupportedPropertiesKey(valueType, currentVocab);
+        SupportedProperties ret = supportedPropertiesCache.get(key);
+        if (ret == null) {
+            ret = SupportedProperties.describe(valueType, currentVocab);
+            SupportedProperties existing = supportedPropertiesCache.putIfAbsent(key, ret);
+            if (existing != null) {
+                ret = existing;
+            }
         }
         return ret;
     }
 
-
-    private void writeSupportedProperty(JsonGenerator jgen, String currentVocab,
-                                        ActionInputParameter actionInputParameter,
-                                        String propertyName, @SuppressWarnings("unused") Object[]
-                                                possiblePropertyValues)
+    private void writeSupportedProperty(JsonGenerator jgen, SupportedProperties supportedProperties,
+                                        SupportedProperties.SupportedProperty supportedProperty, Object value)
             throws IOException {
 
         jgen.writeStartObject();
 
-        if (actionInputParameter.hasValue() || actionInputParameter.hasInputConstraints()) {
+        if (value != null || supportedProperty.hasInputConstraints) {
             // jgen.writeArrayFieldStart("@type");
             // jgen.writeString("hydra:SupportedProperty");
 
-            jgen.writeStringField(JsonLdKeywords.AT_TYPE, getPropertyOrClassNameInVocab(currentVocab,
-                    "PropertyValueSpecification", LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
+            jgen.writeStringField(JsonLdKeywords.AT_TYPE, supportedProperties.propertyValueSpecification.getValue());
 
             //jgen.writeEndArray();
         }
-        jgen.writeStringField(HYDRA_PROPERTY, propertyName);
+        jgen.writeFieldName(SupportedProperties.HYDRA_PROPERTY);
+        jgen.writeString(supportedProperty.serializedParameterName);
 
-        writePossiblePropertyValues(jgen, currentVocab, actionInputParameter, possiblePropertyValues);
+        writePossiblePropertyValues(jgen, supportedProperties, supportedProperty, value);
 
 
         jgen.writeEndObject();
     }
 
-    private void writePossiblePropertyValues(JsonGenerator jgen, String currentVocab, ActionInputParameter
-            actionInputParameter, @SuppressWarnings("unused") Object[] possiblePropertyValues) throws IOException {
-        // Enable the following to list possible values.
+    private void writePossiblePropertyValues(JsonGenerator jgen, SupportedProperties supportedProperties,
+                                             SupportedProperties.SupportedProperty supportedProperty, Object value)
+            throws IOException {
+        // Listing possible values is disabled.
         // Problem: how to express individuals only for certain hydra:options
         // not all hydra:options should be taken as uris, sometimes they might be just literals
         // how to make that clear to the client?
         // maybe we must write them out for options
-//        if (possiblePropertyValues.length > 0) {
-//            jgen.writeArrayFieldStart("hydra:option");
-//
-//            for (Object possibleValue : possiblePropertyValues) {
-//                // TODO: apply "hydra:option" : { "@type": "@vocab"} to context for enums
-//                writeScalarValue(jgen, possibleValue, rootParameter.getParameterType());
-//            }
-//            jgen.writeEndArray();
-//        }
 
-        if (actionInputParameter.isArrayOrCollection()) {
-            jgen.writeBooleanField(getPropertyOrClassNameInVocab(currentVocab, "multipleValues",
-                    LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA), true);
+        if (supportedProperty.arrayOrCollection) {
+            jgen.writeFieldName(supportedProperties.multipleValues);
+            jgen.writeBoolean(true);
         }
 
-
         //  valueRequired (hard to say, using @Access on Event is for all update requests - or make
         //     specific request beans for different
         //     purposes rather than always passing an instance of e.g. Event?)
@@ -614,17 +574,19 @@ public class LinkListSerializer extends StdSerializer<Links> {
         //  minValue (DateTime support)
         //  maxValue (DateTime support)
         //  (/) stepValue
-        final Map<String, Object> inputConstraints = actionInputParameter.getInputConstraints();
-
-        if (actionInputParameter.hasValue()) {
-            if (actionInputParameter.isArrayOrCollection()) {
-                Object[] callValues = actionInputParameter.getValues();
+        if (value != null) {
+            if (supportedProperty.arrayOrCollection) {
+                Object[] callValues;
+                if (supportedProperty.parameterType.isArray()) {
+                    callValues = (Object[]) value;
+                } else {
+                    callValues = ((Collection<?>) value).toArray();
+                }
                 Class<?> componentType = callValues.getClass()
                         .getComponentType();
                 // only write defaultValue for array of scalars
                 if (DataType.isSingleValueType(componentType)) {
-                    jgen.writeFieldName(getPropertyOrClassNameInVocab(currentVocab, "defaultValue",
-                            LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
+                    jgen.writeFieldName(supportedProperties.defaultValue);
                     jgen.writeStartArray();
                     for (Object callValue : callValues) {
                         writeScalarValue(jgen, callValue, componentType);
@@ -632,42 +594,18 @@ public class LinkListSerializer extends StdSerializer<Links> {
                     jgen.writeEndArray();
                 }
             } else {
-                jgen.writeFieldName(getPropertyOrClassNameInVocab(currentVocab, "defaultValue",
-                        LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
+                jgen.writeFieldName(supportedProperties.defaultValue);
 
-                writeScalarValue(jgen, actionInputParameter.getValue(), actionInputParameter
-                        .getParameterType());
+                writeScalarValue(jgen, value, supportedProperty.parameterType);
             }
         }
 
-        if (!inputConstraints.isEmpty()) {
-            final List<String> keysToAppendValue = Arrays.asList(Input.MAX, Input.MIN,
-                    Input.STEP);
-            for (String keyToAppendValue : keysToAppendValue) {
-                final Object constraint = inputConstraints.get(keyToAppendValue);
-                if (constraint != null) {
-                    jgen.writeFieldName(getPropertyOrClassNameInVocab(currentVocab, keyToAppendValue + "Value",
-                            LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
-                    jgen.writeNumber(constraint
-                            .toString());
-                }
-            }
-
-            final List<String> keysToPrependValue = Arrays.asList(Input.MAX_LENGTH,
-                    Input.MIN_LENGTH, Input.PATTERN);
-            for (String keyToPrependValue : keysToPrependValue) {
-                final Object constraint = inputConstraints.get(keyToPrependValue);
-                if (constraint != null) {
-                    jgen.writeFieldName(getPropertyOrClassNameInVocab(currentVocab, "value" + StringUtils.capitalize
-                                    (keyToPrependValue),
-                            LdContextFactory.HTTP_SCHEMA_ORG, SCHEMA));
-                    if (Input.PATTERN.equals(keyToPrependValue)) {
-                        jgen.writeString(constraint.toString());
-                    } else {
-                        jgen.writeNumber(constraint
-                                .toString());
-                    }
-                }
+        for (int i = 0; i < supportedProperty.constraintNames.size(); i++) {
+            jgen.writeFieldName(supportedProperty.constraintNames.get(i));
+            if (supportedProperty.numericConstraints.get(i)) {
+                jgen.writeNumber(supportedProperty.constraintValues.get(i));
+            } else {
+                jgen.writeString(supportedProperty.constraintValues.get(i));
             }
         }
     }
@@ -727,8 +665,19 @@ public class LinkListSerializer extends StdSerializer<Links> {
 //    }
 
 
-    private void writeHydraVariableMapping(JsonGenerator jgen, @Nullable ActionDescriptor annotatedParameters,
-                                           Collection<String> variableNames) throws IOException {
+    /**
+     * Determines the parameters which become hydra variables, i.e. the parameters for the given variables which have
+     * no value.
+     *
+     * @param annotatedParameters
+     *         action descriptor, may be null
+     * @param variableNames
+     *         template variables
+     * @return unsatisfied parameters by variable name, empty if there is no action descriptor
+     */
+    private Map<String, ActionInputParameter> getUnsatisfiedParameters(
+            @Nullable ActionDescriptor annotatedParameters, Collection<String> variableNames) {
+        Map<String, ActionInputParameter> ret = new LinkedHashMap<String, ActionInputParameter>();
         if (annotatedParameters != null) {
             for (String variableName : variableNames) {
                 // TODO: find also @Input
@@ -736,18 +685,27 @@ public class LinkListSerializer extends StdSerializer<Links> {
                 // TODO access @Input parameter, too
                 // only unsatisfied parameters become hydra variables
                 if (annotatedParameter != null && annotatedParameter.getValue() == null) {
-                    jgen.writeStartObject();
-                    jgen.writeStringField(TYPE, "hydra:IriTemplateMapping");
-                    jgen.writeStringField("hydra:variable", annotatedParameter.getParameterName());
-                    jgen.writeBooleanField("hydra:required",
-                            annotatedParameter
-                                    .isRequired());
-                    jgen.writeStringField(HYDRA_PROPERTY,
-                            getExposedPropertyOrParamName(annotatedParameter));
-                    jgen.writeEndObject();
+                    ret.put(variableName, annotatedParameter);
                 }
             }
         }
+        return ret;
+    }
+
+    private void writeHydraVariableMapping(JsonGenerator jgen,
+                                           Map<String, ActionInputParameter> unsatisfiedParameters)
+            throws IOException {
+        for (ActionInputParameter annotatedParameter : unsatisfiedParameters.values()) {
+            jgen.writeStartObject();
+            jgen.writeStringField(TYPE, "hydra:IriTemplateMapping");
+            jgen.writeStringField("hydra:variable", annotatedParameter.getParameterName());
+            jgen.writeBooleanField("hydra:required",
+                    annotatedParameter
+                            .isRequired());
+            jgen.writeStringField(HYDRA_PROPERTY,
+                    getExposedPropertyOrParamName(annotatedParameter));
+            jgen.writeEndObject();
+        }
     }
 
     /**
@@ -767,28 +725,66 @@ public class LinkListSerializer extends StdSerializer<Links> {
         return property;
     }
 
-    /**
-     * Gets exposed property or parameter name for properties with an appropriate setter (=write) method.
-     *
-     * @param inputParameter for exposure
-     * @return property name
-     */
-    private String getWritableExposedPropertyOrPropertyName(PropertyDescriptor inputParameter) {
-
-        final Method writeMethod = inputParameter.getWriteMethod();
-        final Expose expose = writeMethod
-                .getAnnotation(Expose.class);
-        String propertyName;
-        if (expose != null) {
-            propertyName = expose.value();
-        } else {
-            propertyName = inputParameter.getName();
-        }
-        return propertyName;
-    }
 
     @Override
     public boolean isUnwrappingSerializer() {
         return true;
     }
+
+    private static class SupportedPropertiesKey {
+
+        private final Class<?> valueType;
+        private final String currentVocab;
+
+        SupportedPropertiesKey(Class<?> valueType, @Nullable String currentVocab) {
+            this.valueType = valueType;
+            this.currentVocab = currentVocab;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SupportedPropertiesKey)) {
+                return false;
+            }
+            SupportedPropertiesKey other = (SupportedPropertiesKey) o;
+            return valueType == other.valueType && (currentVocab == null ? other.currentVocab == null :
+                    currentVocab.equals(other.currentVocab));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * valueType.hashCode() + (currentVocab == null ? 0 : currentVocab.hashCode());
+        }
+    }
+
+    private static class VariableMappingKey {
+
+        private final Method invokedMethod;
+        private final List<String> variableNames;
+
+        VariableMappingKey(Method invokedMethod, List<String> variableNames) {
+            this.invokedMethod = invokedMethod;
+            this.variableNames = variableNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VariableMappingKey)) {
+                return false;
+            }
+            VariableMappingKey other = (VariableMappingKey) o;
+            return invokedMethod.equals(other.invokedMethod) && variableNames.equals(other.variableNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * invokedMethod.hashCode() + variableNames.hashCode();
+        }
+    }
 }
@@ -21,7 +21,10 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.databind.util.NameTransformer;
+import de.escalon.hypermedia.RenderingBudget;
 import de.escalon.hypermedia.hydra.serialize.*;
+import de.escalon.hypermedia.spring.CursorPagedModel;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Links;
@@ -33,10 +36,13 @@ import java.util.*;
 import static de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer.KEY_LD_CONTEXT;
 
 /**
- * Serializer for Resources. Created by dschulten on 15.09.2014.
+ * Serializer for paged Resources, i.e. {@link PagedModel} and {@link CursorPagedModel}. Renders a hydra:Collection
+ * with a hydra:PartialCollectionView. The hydra:totalItems are omitted for a {@link CursorPagedModel} without total
+ * number of items. If the {@link RenderingBudget} truncates the members, hydra:member is listed as {@link
+ * JacksonHydraSerializer#TRUNCATED_PROPERTIES}. Created by dschulten on 15.09.2014.
  */
 @SuppressWarnings("unused")
-public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
+public class PagedResourcesSerializer extends StdSerializer<CollectionModel> {
 
   private static final Set<String> navigationRels = new HashSet<>();
 
@@ -54,23 +60,17 @@ public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
 
     @SuppressWarnings("unused")
     public PagedResourcesSerializer(ProxyUnwrapper proxyUnwrapper) {
-        super(PagedModel.class);
+        super(CollectionModel.class);
         this.ldContextFactory = new LdContextFactory();
         this.proxyUnwrapper = proxyUnwrapper;
         ldContextFactory.setProxyUnwrapper(proxyUnwrapper);
     }
 
     @Override
-    public void serialize(PagedModel pagedResources, JsonGenerator jgen, SerializerProvider serializerProvider)
+    public void serialize(CollectionModel pagedResources, JsonGenerator jgen, SerializerProvider serializerProvider)
             throws
             IOException {
 
-        final SerializationConfig config = serializerProvider.getConfig();
-        JavaType javaType = config.constructType(pagedResources.getClass());
-
-        JsonSerializer<Object> serializer = BeanSerializerFactory.instance.createSerializer(serializerProvider,
-                javaType);
-
         // replicate pretty much everything from JacksonHydraSerializer
         // since we must reorganize the internals of pagedResources to get a hydra collection
         // with partial page view, we have to serialize pagedResources with an
@@ -93,8 +93,24 @@ public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
             }
         }
 
-        PagedModel toRender = PagedModel.of(pagedResources.getContent(), pagedResources.getMetadata(),
-                filteredLinks);
+        CollectionModel toRender;
+        Long totalItems;
+        if (pagedResources instanceof PagedModel) {
+            PagedModel.PageMetadata metadata = ((PagedModel) pagedResources).getMetadata();
+            toRender = PagedModel.of(pagedResources.getContent(), metadata, filteredLinks);
+            totalItems = metadata.getTotalElements();
+        } else {
+            // cursor pages are rendered as plain collection, the total number of items is only asked for here
+            toRender = CollectionModel.of(pagedResources.getContent(), filteredLinks);
+            totalItems = pagedResources instanceof CursorPagedModel ?
+                    ((CursorPagedModel) pagedResources).getTotalItems() : null;
+        }
+
+        final SerializationConfig config = serializerProvider.getConfig();
+        JavaType javaType = config.constructType(toRender.getClass());
+
+        JsonSerializer<Object> serializer = BeanSerializerFactory.instance.createSerializer(serializerProvider,
+                javaType);
 
         jgen.writeStartObject();
 
@@ -107,8 +123,19 @@ public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
         serializer.unwrappingSerializer(NameTransformer.NOP)
                 .serialize(toRender, jgen, serializerProvider);
 
-        PagedModel.PageMetadata metadata = pagedResources.getMetadata();
-        jgen.writeNumberField("hydra:totalItems", metadata.getTotalElements());
+        // hydra:totalItems still counts the whole collection, so tell clients that members were left out
+        Object budget = serializerProvider.getAttribute(RenderingBudget.KEY_RENDERING_BUDGET);
+        if (budget instanceof RenderingBudget.Tracker && pagedResources.getContent()
+                .size() > ((RenderingBudget.Tracker) budget).getBudget()
+                .getMaxItems()) {
+            jgen.writeArrayFieldStart(JacksonHydraSerializer.TRUNCATED_PROPERTIES);
+            jgen.writeString("hydra:member");
+            jgen.writeEndArray();
+        }
+
+        if (totalItems != null) {
+            jgen.writeNumberField("hydra:totalItems", totalItems);
+        }
 
         // begin hydra:view
         jgen.writeObjectFieldStart("hydra:view");
@@ -144,7 +171,8 @@ public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
 
         final LdContext parentContext = contextStack.peek();
         LdContext currentContext = new LdContext(parentContext, ldContextFactory.getVocab(mixinSource, bean,
-                mixInClass), ldContextFactory.getTerms(mixinSource, bean, mixInClass));
+                mixInClass), ldContextFactory.getTerms(mixinSource, bean, mixInClass,
+                FieldSelection.current(serializerProvider)));
         contextStack.push(currentContext);
         // check if we need to write a context for the current bean at all
         // If it is in the same vocab: no context
@@ -174,11 +202,11 @@ public class PagedResourcesSerializer extends StdSerializer<PagedModel> {
         }
     }
 
-    private void writeRelLink(PagedModel value, JsonGenerator jgen, String rel) throws IOException {
+    private void writeRelLink(CollectionModel value, JsonGenerator jgen, String rel) throws IOException {
         writeRelLink(value, jgen, rel, rel);
     }
 
-    private void writeRelLink(PagedModel value, JsonGenerator jgen, String rel, String hydraPredicate) throws
+    private void writeRelLink(CollectionModel value, JsonGenerator jgen, String rel, String hydraPredicate) throws
             IOException {
         Optional<Link> link = value.getLink(rel);
         if (link.isPresent()) {
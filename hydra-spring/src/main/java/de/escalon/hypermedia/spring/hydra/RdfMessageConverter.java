@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.serialize.JacksonMixinSource;
+import de.escalon.hypermedia.hydra.serialize.JsonLdKeywords;
+import de.escalon.hypermedia.hydra.serialize.LdContext;
+import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
+import de.escalon.hypermedia.hydra.serialize.MixinSource;
+import de.escalon.hypermedia.hydra.serialize.ProxyUnwrapper;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
+
+/**
+ * Renders resources as RDF statements in N-Quads or Turtle. Vocabularies, terms and {@link Expose} annotations are
+ * resolved by the {@link LdContextFactory} and applied in the same way as by the {@link HydraMessageConverter}, so
+ * that the statements are the ones a json-ld processor would find in the json-ld representation. The statements are
+ * written while the beans are traversed, without creating a json-ld document which would have to be expanded. Nested
+ * beans without identifier become blank nodes. Collection members and nested resources with a self link are written
+ * as separate subjects as soon as they are reached, referenced resources depth-first after the statements of the
+ * subject which references them. Apart from the references of the subjects on the current path, only the
+ * identifiers of resources already written are kept for the duration of a response.
+ */
+public class RdfMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+    private static final String IANA_REL_PREFIX = "urn:iana:link-relations:";
+
+    private final ObjectMapper objectMapper;
+    private final LdContextFactory ldContextFactory = new LdContextFactory();
+    private final ProxyUnwrapper proxyUnwrapper;
+
+    /**
+     * Bean properties per rendered bean type, softly referenced so that unused types can be collected.
+     */
+    private final ConcurrentMap<Class<?>, List<BeanPropertyDefinition>> beanProperties =
+            new ConcurrentReferenceHashMap<Class<?>, List<BeanPropertyDefinition>>();
+
+    /**
+     * Resolved vocab and terms of bean types whose context does not depend on the bean instance.
+     */
+    private final ConcurrentMap<ContextKey, LdContext> contexts = new ConcurrentReferenceHashMap<ContextKey,
+            LdContext>();
+
+    public RdfMessageConverter() {
+        this(null);
+    }
+
+    /**
+     * Creates new RdfMessageConverter with proxyUnwrapper.
+     *
+     * @param proxyUnwrapper
+     *         capable of unwrapping proxified Java beans during message conversion.
+     * @param additionalModules
+     *         to register, e.g. modules with mixins for the rendered beans
+     */
+    public RdfMessageConverter(ProxyUnwrapper proxyUnwrapper, Module... additionalModules) {
+        super(HypermediaTypes.APPLICATION_NQUADS, HypermediaTypes.TEXT_TURTLE);
+        this.proxyUnwrapper = proxyUnwrapper;
+        // the hydra mixins contribute types and terms of the spring-hateoas models
+        this.objectMapper = new ObjectMapper();
+        objectMapper.registerModules(additionalModules);
+        objectMapper.registerModule(new JacksonHydraModule(proxyUnwrapper));
+        ldContextFactory.setProxyUnwrapper(proxyUnwrapper);
+        setDefaultCharset(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException,
+            HttpMessageNotReadableException {
+        // write-only, see canRead
+        throw new HttpMessageNotReadableException("reading RDF is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException,
+            HttpMessageNotWritableException {
+        MediaType contentType = outputMessage.getHeaders()
+                .getContentType();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(StreamUtils.nonClosing(outputMessage.getBody()),
+                StandardCharsets.UTF_8));
+        RdfWriter rdfWriter = contentType != null && HypermediaTypes.TEXT_TURTLE.isCompatibleWith(contentType) ?
+                new RdfWriter.Turtle(writer) : new RdfWriter.NQuads(writer);
+        new Traversal(rdfWriter).write(object);
+        rdfWriter.flush();
+    }
+
+    /**
+     * Writes the statements of a single response.
+     */
+    private class Traversal {
+
+        private final RdfWriter rdfWriter;
+        private final MixinSource mixinSource = new JacksonMixinSource(objectMapper.getSerializationConfig());
+        private final Set<String> writtenIds = new HashSet<String>();
+        /**
+         * Identified resources which are referenced by the current subject and have yet to be written, null if
+         * there are none.
+         */
+        private List<Reference> references;
+
+        Traversal(RdfWriter rdfWriter) {
+            this.rdfWriter = rdfWriter;
+        }
+
+        void write(Object object) throws IOException {
+            if (object instanceof Collection || object.getClass()
+                    .isArray()) {
+                for (Object item : toIterable(object)) {
+                    writeSubject(item, null);
+                }
+            } else {
+                writeSubject(object, null);
+            }
+        }
+
+        /**
+         * Writes the statements of the given bean, followed by the resources it references which have not been
+         * written yet.
+         */
+        private void writeSubject(Object bean, LdContext parentContext) throws IOException {
+            if (bean == null) {
+                return;
+            }
+            String id = getId(bean);
+            if (id != null && !writtenIds.add(id)) {
+                return;
+            }
+            List<Reference> referencesOfParent = references;
+            references = null;
+            rdfWriter.beginSubject(id);
+            writeNode(bean, parentContext);
+            rdfWriter.endSubject();
+            List<Reference> referencesOfSubject = references;
+            references = referencesOfParent;
+            if (referencesOfSubject != null) {
+                for (Reference reference : referencesOfSubject) {
+                    writeSubject(reference.bean, reference.parentContext);
+                }
+            }
+        }
+
+        /**
+         * Writes type, properties and links of the given bean for the current subject.
+         */
+        private void writeNode(Object bean, LdContext parentContext) throws IOException {
+            bean = unwrapProxy(bean);
+            LdContext context = getContext(bean, parentContext);
+            Object content = bean;
+            if (bean instanceof EntityModel) {
+                content = unwrapProxy(((EntityModel<?>) bean).getContent());
+            }
+            if (content != null) {
+                rdfWriter.writeType(expandIri(getType(content), context));
+                writeProperties(content, context);
+            }
+            if (bean instanceof RepresentationModel) {
+                writeLinks(((RepresentationModel<?>) bean).getLinks(), context);
+            }
+        }
+
+        private void writeProperties(Object bean, LdContext context) throws IOException {
+            for (BeanPropertyDefinition property : getBeanProperties(bean.getClass())) {
+                String name = property.getName();
+                if (name.startsWith("@")) {
+                    continue; // json-ld keywords, such as @id
+                }
+                AnnotatedMember accessor = property.getAccessor();
+                Object value = accessor.getValue(bean);
+                if (value == null) {
+                    continue;
+                }
+                if (accessor.hasAnnotation(JsonUnwrapped.class)) {
+                    writeProperties(unwrapProxy(value), context);
+                    continue;
+                }
+                String predicate = getPredicate(name, context);
+                if (predicate != null) {
+                    writeValue(predicate, value, context);
+                }
+            }
+        }
+
+        private void writeValue(String predicate, Object value, LdContext context) throws IOException {
+            if (value instanceof Optional) {
+                value = ((Optional<?>) value).orElse(null);
+            }
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Collection || (value.getClass()
+                    .isArray() && !(value instanceof byte[]))) {
+                for (Object item : toIterable(value)) {
+                    writeValue(predicate, item, context);
+                }
+            } else if (value instanceof Enum) {
+                // enum values are vocab-relative iris, see LdContextFactory#addEnumTerms
+                String enumValue = value.toString();
+                if (context.getTerm(enumValue) != null) {
+                    rdfWriter.writeIri(predicate, expandIri(enumValue, context));
+                } else {
+                    rdfWriter.writeLiteral(predicate, enumValue, null);
+                }
+            } else if (value instanceof Link) {
+                Link link = (Link) value;
+                if (!link.isTemplated()) {
+                    rdfWriter.writeIri(predicate, link.getHref());
+                }
+            } else if (value instanceof URI || value instanceof URL) {
+                rdfWriter.writeIri(predicate, value.toString());
+            } else if (isLiteral(value)) {
+                writeLiteral(predicate, value);
+            } else if (value instanceof Map) {
+                rdfWriter.beginBlankObject(predicate);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    String entryPredicate = getPredicate(String.valueOf(entry.getKey()), context);
+                    if (entryPredicate != null) {
+                        writeValue(entryPredicate, entry.getValue(), context);
+                    }
+                }
+                rdfWriter.endBlankObject();
+            } else {
+                String id = getId(value);
+                if (id == null) {
+                    rdfWriter.beginBlankObject(predicate);
+                    writeNode(value, context);
+                    rdfWriter.endBlankObject();
+                } else {
+                    rdfWriter.writeIri(predicate, id);
+                    if (!writtenIds.contains(id)) {
+                        if (references == null) {
+                            references = new ArrayList<Reference>();
+                        }
+                        references.add(new Reference(value, context));
+                    }
+                }
+            }
+        }
+
+        private void writeLiteral(String predicate, Object value) throws IOException {
+            String lexicalForm;
+            String datatype;
+            if (value instanceof Boolean) {
+                lexicalForm = value.toString();
+                datatype = XSD + "boolean";
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                    || value instanceof Byte || value instanceof BigInteger || value instanceof AtomicInteger
+                    || value instanceof AtomicLong) {
+                lexicalForm = value.toString();
+                datatype = XSD + "integer";
+            } else if (value instanceof BigDecimal) {
+                lexicalForm = ((BigDecimal) value).toPlainString();
+                datatype = XSD + "decimal";
+            } else if (value instanceof Double || value instanceof Float) {
+                double number = ((Number) value).doubleValue();
+                lexicalForm = Double.isInfinite(number) ? (number > 0 ? "INF" : "-INF") : Double.toString(number);
+                datatype = XSD + "double";
+            } else if (value instanceof Date) {
+                lexicalForm = Instant.ofEpochMilli(((Date) value).getTime())
+                        .toString();
+                datatype = XSD + "dateTime";
+            } else if (value instanceof Calendar) {
+                lexicalForm = ((Calendar) value).toInstant()
+                        .toString();
+                datatype = XSD + "dateTime";
+            } else if (value instanceof byte[]) {
+                lexicalForm = Base64.getEncoder()
+                        .encodeToString((byte[]) value);
+                datatype = XSD + "base64Binary";
+            } else {
+                lexicalForm = value.toString();
+                datatype = null;
+            }
+            rdfWriter.writeLiteral(predicate, lexicalForm, datatype);
+        }
+
+        private void writeLinks(Links links, LdContext context) throws IOException {
+            for (Link link : links) {
+                String rel = link.getRel()
+                        .value();
+                if (link.isTemplated() || IanaLinkRelations.SELF_VALUE.equals(rel)) {
+                    continue;
+                }
+                // same attribute names as LinkListSerializer
+                String predicate = IanaLinkRelations.isIanaRel(rel) ? IANA_REL_PREFIX + rel : expandIri(rel,
+                        context);
+                rdfWriter.writeIri(predicate, link.getHref());
+            }
+        }
+
+        /**
+         * Gets the context of the bean. Vocab and terms are resolved once per bean type, unless they depend on the
+         * bean instance. The context of an {@link EntityModel} is provided by its content, hence it is resolved once
+         * per content type.
+         */
+        private LdContext getContext(Object bean, LdContext parentContext) {
+            Class<?> beanClass = bean.getClass();
+            Class<?> contentClass = null;
+            if (bean instanceof EntityModel) {
+                Object content = unwrapProxy(((EntityModel<?>) bean).getContent());
+                contentClass = content == null ? null : content.getClass();
+            }
+            ContextKey key = new ContextKey(beanClass, contentClass);
+            LdContext resolved = contexts.get(key);
+            if (resolved == null) {
+                Class<?> mixInClass = mixinSource.findMixInClassFor(beanClass);
+                resolved = new LdContext(null, ldContextFactory.getVocab(mixinSource, bean, mixInClass),
+                        ldContextFactory.getTerms(mixinSource, bean, mixInClass));
+                boolean cacheable = contentClass == null ?
+                        !(bean instanceof EntityModel) && !ldContextFactory.hasInstanceDependentTerms(beanClass,
+                                mixInClass) :
+                        !ldContextFactory.hasInstanceDependentTerms(contentClass, null);
+                if (cacheable) {
+                    contexts.putIfAbsent(key, resolved);
+                }
+            }
+            return new LdContext(parentContext, resolved.vocab, resolved.terms);
+        }
+
+        /**
+         * Gets the type like JacksonHydraSerializer: exposed on mixin, exposed on class or simple class name.
+         */
+        private String getType(Object bean) {
+            Class<?> mixInClass = mixinSource.findMixInClassFor(bean.getClass());
+            Expose mixinExpose = mixInClass == null ? null : findAnnotation(mixInClass, Expose.class);
+            if (mixinExpose != null) {
+                return mixinExpose.value();
+            }
+            Expose classExpose = findAnnotation(bean.getClass(), Expose.class);
+            if (classExpose != null) {
+                return classExpose.value();
+            }
+            return bean.getClass()
+                    .getSimpleName();
+        }
+
+        /**
+         * Gets the predicate of a json property.
+         *
+         * @return predicate iri or null if the property is a reverse property
+         */
+        private String getPredicate(String name, LdContext context) {
+            Object term = context.getTerm(name);
+            if (term instanceof Map) {
+                Map<?, ?> definition = (Map<?, ?>) term;
+                if (definition.containsKey(JsonLdKeywords.AT_REVERSE)) {
+                    return null;
+                }
+                Object id = definition.get(JsonLdKeywords.AT_ID);
+                return id == null ? context.vocab + name : expandIri(id.toString(), context);
+            }
+            return expandIri(name, context);
+        }
+
+        private String getId(Object bean) {
+            bean = unwrapProxy(bean);
+            if (!(bean instanceof RepresentationModel)) {
+                return null;
+            }
+            Link selfLink = ((RepresentationModel<?>) bean).getLink(IanaLinkRelations.SELF)
+                    .orElse(null);
+            return selfLink == null || selfLink.isTemplated() ? null : selfLink.getHref();
+        }
+
+        private Object unwrapProxy(Object bean) {
+            return proxyUnwrapper == null || bean == null ? bean : proxyUnwrapper.unwrapProxy(bean);
+        }
+    }
+
+    /**
+     * Expands a term, compact iri or vocab-relative iri to an absolute iri, following the json-ld iri expansion.
+     *
+     * @param value
+     *         to expand
+     * @param context
+     *         with vocab and terms
+     * @return absolute iri
+     */
+    static String expandIri(String value, LdContext context) {
+        for (int i = 0; i < 10; i++) { // terms may be defined by other terms
+            int colon = value.indexOf(':');
+            if (colon > 0) {
+                String suffix = value.substring(colon + 1);
+                Object prefix = suffix.startsWith("//") ? null : context.getTerm(value.substring(0, colon));
+                return prefix instanceof String ? expandIri((String) prefix, context) + suffix : value;
+            }
+            Object term = context.getTerm(value);
+            if (term instanceof Map) {
+                term = ((Map<?, ?>) term).get(JsonLdKeywords.AT_ID);
+            }
+            if (!(term instanceof String) || value.equals(term)) {
+                return context.vocab + value;
+            }
+            value = (String) term;
+        }
+        throw new IllegalStateException("cyclic term definition " + value);
+    }
+
+    /**
+     * Determines if the value is written as literal, other values are written as nodes with their bean properties.
+     */
+    private static boolean isLiteral(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Date || value instanceof Calendar
+                || value instanceof TemporalAccessor || value instanceof ZoneId || value instanceof TimeZone
+                || value instanceof UUID || value instanceof Locale || value instanceof Currency
+                || value instanceof byte[];
+    }
+
+    private static Iterable<?> toIterable(Object value) {
+        return value instanceof Collection ? (Collection<?>) value : Arrays.asList(ObjectUtils.toObjectArray(value));
+    }
+
+    private List<BeanPropertyDefinition> getBeanProperties(Class<?> beanClass) {
+        List<BeanPropertyDefinition> ret = beanProperties.get(beanClass);
+        if (ret == null) {
+            SerializationConfig config = objectMapper.getSerializationConfig();
+            BeanDescription beanDescription = config.introspect(config.constructType(beanClass));
+            List<BeanPropertyDefinition> properties = new ArrayList<BeanPropertyDefinition>();
+            for (BeanPropertyDefinition property : beanDescription.findProperties()) {
+                AnnotatedMember accessor = property.getAccessor();
+                // links are written as links, not as bean property
+                if (accessor == null || Links.class.isAssignableFrom(accessor.getRawType())) {
+                    continue;
+                }
+                accessor.fixAccess(true);
+                properties.add(property);
+            }
+            ret = Collections.unmodifiableList(properties);
+            List<BeanPropertyDefinition> existing = beanProperties.putIfAbsent(beanClass, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    private static final class Reference {
+
+        final Object bean;
+        final LdContext parentContext;
+
+        Reference(Object bean, LdContext parentContext) {
+            this.bean = bean;
+            this.parentContext = parentContext;
+        }
+    }
+
+    private static final class ContextKey {
+
+        private final Class<?> beanClass;
+        private final Class<?> contentClass;
+
+        ContextKey(Class<?> beanClass, Class<?> contentClass) {
+            this.beanClass = beanClass;
+            this.contentClass = contentClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ContextKey)) {
+                return false;
+            }
+            ContextKey that = (ContextKey) o;
+            return beanClass == that.beanClass && contentClass == that.contentClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * beanClass.hashCode() + (contentClass == null ? 0 : contentClass.hashCode());
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes RDF statements as soon as they are known. Statements are grouped by subject: a subject is begun, its
+ * statements are written and the subject is ended. Nested nodes without identifier are written as blank node
+ * objects between {@link #beginBlankObject(String)} and {@link #endBlankObject()}. Nothing but the nesting of the
+ * current subject is held in memory.
+ */
+abstract class RdfWriter {
+
+    static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    protected final Writer writer;
+    private int blankNodes;
+
+    RdfWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Begins statements about a subject.
+     *
+     * @param iri
+     *         of subject, null for blank node
+     */
+    abstract void beginSubject(String iri) throws IOException;
+
+    abstract void endSubject() throws IOException;
+
+    abstract void writeType(String typeIri) throws IOException;
+
+    abstract void writeIri(String predicate, String iri) throws IOException;
+
+    /**
+     * Writes literal statement.
+     *
+     * @param predicate
+     *         iri
+     * @param lexicalForm
+     *         of literal
+     * @param datatype
+     *         iri, null for plain string literals
+     */
+    abstract void writeLiteral(String predicate, String lexicalForm, String datatype) throws IOException;
+
+    /**
+     * Begins blank node object of the given predicate, statements written until {@link #endBlankObject()} have the
+     * blank node as subject.
+     *
+     * @param predicate
+     *         iri
+     */
+    abstract void beginBlankObject(String predicate) throws IOException;
+
+    abstract void endBlankObject() throws IOException;
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    String newBlankNode() {
+        return "_:b" + blankNodes++;
+    }
+
+    void writeIriRef(String iri) throws IOException {
+        writer.write('<');
+        for (int i = 0; i < iri.length(); i++) {
+            char c = iri.charAt(i);
+            if (c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' || c == '|' || c == '^'
+                    || c == '`' || c == '\\') {
+                writeUnicodeEscape(c);
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('>');
+    }
+
+    void writeLiteralValue(String lexicalForm, String datatype) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < lexicalForm.length(); i++) {
+            char c = lexicalForm.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writeUnicodeEscape(c);
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+        if (datatype != null) {
+            writer.write("^^");
+            writeIriRef(datatype);
+        }
+    }
+
+    private void writeUnicodeEscape(char c) throws IOException {
+        writer.write("\\u");
+        String hex = Integer.toHexString(c)
+                .toUpperCase();
+        for (int i = hex.length(); i < 4; i++) {
+            writer.write('0');
+        }
+        writer.write(hex);
+    }
+
+    /**
+     * Writes one statement per line in the default graph.
+     */
+    static class NQuads extends RdfWriter {
+
+        private final Deque<String> subjects = new ArrayDeque<String>();
+
+        NQuads(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void beginSubject(String iri) {
+            subjects.push(iri == null ? newBlankNode() : iri);
+        }
+
+        @Override
+        void endSubject() {
+            subjects.pop();
+        }
+
+        @Override
+        void writeType(String typeIri) throws IOException {
+            writeIri(RDF_TYPE, typeIri);
+        }
+
+        @Override
+        void writeIri(String predicate, String iri) throws IOException {
+            writeSubjectAndPredicate(predicate);
+            writeIriRef(iri);
+            writer.write(" .\n");
+        }
+
+        @Override
+        void writeLiteral(String predicate, String lexicalForm, String datatype) throws IOException {
+            writeSubjectAndPredicate(predicate);
+            writeLiteralValue(lexicalForm, datatype);
+            writer.write(" .\n");
+        }
+
+        @Override
+        void beginBlankObject(String predicate) throws IOException {
+            String blankNode = newBlankNode();
+            writeSubjectAndPredicate(predicate);
+            writer.write(blankNode);
+            writer.write(" .\n");
+            subjects.push(blankNode);
+        }
+
+        @Override
+        void endBlankObject() {
+            subjects.pop();
+        }
+
+        private void writeSubjectAndPredicate(String predicate) throws IOException {
+            String subject = subjects.peek();
+            if (subject.startsWith("_:")) {
+                writer.write(subject);
+            } else {
+                writeIriRef(subject);
+            }
+            writer.write(' ');
+            writeIriRef(predicate);
+            writer.write(' ');
+        }
+    }
+
+    /**
+     * Writes the statements of a subject as predicate object list, blank node objects are nested as blank node
+     * property lists.
+     */
+    static class Turtle extends RdfWriter {
+
+        private static final String INDENT = "    ";
+
+        private String pendingSubject;
+        /**
+         * Number of predicate object pairs written so far for the subject and each nested blank node.
+         */
+        private final Deque<int[]> statementCounts = new ArrayDeque<int[]>();
+
+        Turtle(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void beginSubject(String iri) {
+            // the subject is written together with its first statement, a subject without statements is omitted
+            pendingSubject = iri == null ? "[]" : iri;
+            statementCounts.push(new int[1]);
+        }
+
+        @Override
+        void endSubject() throws IOException {
+            statementCounts.pop();
+            if (pendingSubject == null) {
+                writer.write(" .\n");
+            }
+            pendingSubject = null;
+        }
+
+        @Override
+        void writeType(String typeIri) throws IOException {
+            writeSeparator();
+            writer.write("a ");
+            writeIriRef(typeIri);
+        }
+
+        @Override
+        void writeIri(String predicate, String iri) throws IOException {
+            writePredicate(predicate);
+            writeIriRef(iri);
+        }
+
+        @Override
+        void writeLiteral(String predicate, String lexicalForm, String datatype) throws IOException {
+            writePredicate(predicate);
+            writeLiteralValue(lexicalForm, datatype);
+        }
+
+        @Override
+        void beginBlankObject(String predicate) throws IOException {
+            writePredicate(predicate);
+            writer.write('[');
+            statementCounts.push(new int[1]);
+        }
+
+        @Override
+        void endBlankObject() throws IOException {
+            int[] count = statementCounts.pop();
+            if (count[0] > 0) {
+                writer.write('\n');
+                writeIndent();
+            }
+            writer.write(']');
+        }
+
+        private void writePredicate(String predicate) throws IOException {
+            writeSeparator();
+            writeIriRef(predicate);
+            writer.write(' ');
+        }
+
+        private void writeSeparator() throws IOException {
+            if (pendingSubject != null) {
+                if ("[]".equals(pendingSubject)) {
+                    writer.write(pendingSubject);
+                } else {
+                    writeIriRef(pendingSubject);
+                }
+                pendingSubject = null;
+            }
+            int[] count = statementCounts.peek();
+            if (count[0]++ > 0) {
+                writer.write(" ;");
+            }
+            writer.write('\n');
+            writeIndent();
+        }
+
+        private void writeIndent() throws IOException {
+            for (int i = 0; i < statementCounts.size(); i++) {
+                writer.write(INDENT);
+            }
+        }
+    }
+}
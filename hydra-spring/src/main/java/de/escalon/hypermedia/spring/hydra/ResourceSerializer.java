@@ -21,9 +21,16 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.databind.util.NameTransformer;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.hydra.serialize.LdContext;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 
 import java.io.IOException;
+import java.util.Deque;
 
 /**
  * Serializer for json-ld representation of EntityModel. Created by dschulten on 15.09.2014.
@@ -37,6 +44,13 @@ public class ResourceSerializer extends StdSerializer<EntityModel> {
     @Override
     public void serialize(EntityModel value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
 
+        if (serializeAsReference(value, jgen, provider)) {
+            return;
+        }
+        if (serializeWithinBudget(value, jgen, provider)) {
+            return;
+        }
+
         final SerializationConfig config = provider.getConfig();
         JavaType javaType = config.constructType(value.getClass());
 
@@ -50,5 +64,56 @@ public class ResourceSerializer extends StdSerializer<EntityModel> {
 
     }
 
+    /**
+     * Writes the resource as <code>{"@id": ...}</code> if it has a self link and is nested beyond the maximum {@link
+     * EmbeddingDepth} or has already been written.
+     */
+    private boolean serializeAsReference(EntityModel value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        @SuppressWarnings("unchecked")
+        Deque<LdContext> contextStack = (Deque<LdContext>) provider.getAttribute(
+                JacksonHydraSerializer.KEY_LD_CONTEXT);
+        int depth = contextStack == null ? 0 : contextStack.size();
+        if (!JacksonHydraSerializer.isReferenceable(provider, depth)) {
+            return false;
+        }
+        Link selfLink = ((EntityModel<?>) value).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+        if (selfLink == null || selfLink.isTemplated()) {
+            return false;
+        }
+        Object content = value.getContent();
+        Class<?> type = content == null ? value.getClass() : content.getClass();
+        if (!JacksonHydraSerializer.isReference(provider, type, depth, selfLink.getHref())) {
+            return false;
+        }
+        JacksonHydraSerializer.writeReference(jgen, selfLink.getHref());
+        return true;
+    }
+
+    /**
+     * Writes the resource as <code>{"@id": ...}</code>, or as empty node if it has no self link, if the {@link
+     * RenderingBudget} of the response is exhausted.
+     */
+    private boolean serializeWithinBudget(EntityModel value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException {
+        @SuppressWarnings("unchecked")
+        Deque<LdContext> contextStack = (Deque<LdContext>) provider.getAttribute(
+                JacksonHydraSerializer.KEY_LD_CONTEXT);
+        int depth = contextStack == null ? 0 : contextStack.size();
+        if (!JacksonHydraSerializer.isExhausted(provider, value, depth)) {
+            return false;
+        }
+        Link selfLink = ((EntityModel<?>) value).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+        if (selfLink == null || selfLink.isTemplated()) {
+            jgen.writeStartObject();
+            jgen.writeEndObject();
+        } else {
+            JacksonHydraSerializer.writeReference(jgen, selfLink.getHref());
+        }
+        return true;
+    }
+
 }
 
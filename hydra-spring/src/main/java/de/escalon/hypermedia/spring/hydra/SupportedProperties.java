@@ -0,0 +1,306 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.action.Input;
+import de.escalon.hypermedia.affordance.ActionInputParameter;
+import de.escalon.hypermedia.affordance.DataType;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
+import de.escalon.hypermedia.spring.SpringActionInputParameter;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.Assert;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value-independent description of the hydra:supportedProperty structure of a request body type in a given vocab.
+ * Computed once per (bean type, vocab) by {@link LinkListSerializer}, which fills in the current values at render
+ * time. Names are pre-encoded as {@link SerializableString}s.
+ */
+final class SupportedProperties {
+
+    static final SerializedString HYDRA_PROPERTY = new SerializedString(LinkListSerializer.HYDRA_PROPERTY);
+
+    /**
+     * False if the bean type has neither a default constructor nor a JsonCreator.
+     */
+    final boolean describable;
+
+    final List<SupportedProperty> properties;
+
+    final SerializedString propertyValueSpecification;
+    final SerializedString multipleValues;
+    final SerializedString defaultValue;
+    final SerializedString rangeIncludes;
+    final SerializedString subClassOf;
+
+    private SupportedProperties(boolean describable, List<SupportedProperty> properties, String currentVocab) {
+        this.describable = describable;
+        this.properties = properties;
+        this.propertyValueSpecification = new SerializedString(inVocab(currentVocab, "PropertyValueSpecification",
+                LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA));
+        this.multipleValues = new SerializedString(inVocab(currentVocab, "multipleValues",
+                LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA));
+        this.defaultValue = new SerializedString(inVocab(currentVocab, "defaultValue",
+                LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA));
+        this.rangeIncludes = new SerializedString(inVocab(currentVocab, "rangeIncludes",
+                LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA));
+        this.subClassOf = new SerializedString(inVocab(currentVocab, "subClassOf",
+                "http://www.w3.org/2000/01/rdf-schema#", "rdfs:"));
+    }
+
+    /**
+     * Describes the supported properties of the given bean type, in the same order in which they were written
+     * before the description was cached.
+     *
+     * @param valueType
+     *         request body type or nested bean type
+     * @param currentVocab
+     *         in context
+     * @return description
+     * @throws IntrospectionException
+     *         if the bean type cannot be introspected
+     */
+    static SupportedProperties describe(Class<?> valueType, @Nullable String currentVocab) throws
+            IntrospectionException {
+        Map<String, ActionInputParameter> properties = new HashMap<String, ActionInputParameter>();
+        Map<ActionInputParameter, String> valueNames = new HashMap<ActionInputParameter, String>();
+
+        // collect supported properties from ctor
+
+        Constructor[] constructors = valueType.getConstructors();
+        // find default ctor
+        Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
+        // find ctor with JsonCreator ann
+        if (constructor == null) {
+            constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
+        }
+        if (constructor == null) {
+            return new SupportedProperties(false, Collections.<SupportedProperty>emptyList(), currentVocab);
+        }
+
+        int parameterCount = constructor.getParameterTypes().length;
+        if (parameterCount > 0) {
+            Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
+
+            Class[] parameters = constructor.getParameterTypes();
+            int paramIndex = 0;
+            for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
+                for (Annotation annotation : annotationsOnParameter) {
+                    if (JsonProperty.class == annotation.annotationType()) {
+                        JsonProperty jsonProperty = (JsonProperty) annotation;
+                        // TODO use required attribute of JsonProperty
+                        String paramName = jsonProperty.value();
+
+                        ActionInputParameter constructorParamInputParameter =
+                                new SpringActionInputParameter(
+                                        new MethodParameter(constructor, paramIndex), null);
+
+                        properties.put(paramName, constructorParamInputParameter);
+                        valueNames.put(constructorParamInputParameter, paramName);
+                        paramIndex++; // increase for each @JsonProperty
+                    }
+                }
+            }
+            Assert.isTrue(parameters.length == paramIndex,
+                    "not all constructor arguments of @JsonCreator " + constructor.getName() +
+                            " are annotated with @JsonProperty");
+        }
+
+        // collect supported properties from setters
+
+        final BeanInfo beanInfo = Introspector.getBeanInfo(valueType);
+        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            final Method writeMethod = propertyDescriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            String propertyName = getWritableExposedPropertyOrPropertyName(propertyDescriptor);
+
+            MethodParameter methodParameter = new MethodParameter(propertyDescriptor.getWriteMethod(), 0);
+            ActionInputParameter propertySetterInputParameter = new SpringActionInputParameter(
+                    methodParameter, null);
+
+            properties.put(propertyName, propertySetterInputParameter);
+            valueNames.put(propertySetterInputParameter, propertyDescriptor.getName());
+        }
+
+        List<SupportedProperty> ret = new ArrayList<SupportedProperty>(properties.size());
+        for (ActionInputParameter annotatedParameter : properties.values()) {
+            ret.add(new SupportedProperty(annotatedParameter, valueNames.get(annotatedParameter), currentVocab));
+        }
+        return new SupportedProperties(true, Collections.unmodifiableList(ret), currentVocab);
+    }
+
+    /**
+     * Gets exposed property or parameter name for properties with an appropriate setter (=write) method.
+     *
+     * @param inputParameter
+     *         for exposure
+     * @return property name
+     */
+    private static String getWritableExposedPropertyOrPropertyName(PropertyDescriptor inputParameter) {
+
+        final Method writeMethod = inputParameter.getWriteMethod();
+        final Expose expose = writeMethod
+                .getAnnotation(Expose.class);
+        String propertyName;
+        if (expose != null) {
+            propertyName = expose.value();
+        } else {
+            propertyName = inputParameter.getName();
+        }
+        return propertyName;
+    }
+
+    /**
+     * Gets property or class name in the current context, either without prefix if the current vocab is the given
+     * vocabulary, or prefixed otherwise.
+     *
+     * @param currentVocab              to determine the current vocab
+     * @param propertyOrClassName       name to contextualize
+     * @param vocabulary                to which the given property belongs
+     * @param vocabularyPrefixWithColon to use if the current vocab does not match the given vocabulary to which the
+     *                                  name belongs, should end with colon
+     * @return property name or class name in the current context
+     */
+    static String inVocab(@Nullable String currentVocab, String propertyOrClassName, String vocabulary,
+                          String vocabularyPrefixWithColon) {
+        String ret;
+        if (vocabulary.equals(currentVocab)) {
+            ret = propertyOrClassName;
+        } else {
+            ret = vocabularyPrefixWithColon + propertyOrClassName;
+        }
+        return ret;
+    }
+
+    /**
+     * A single supported property.
+     */
+    static final class SupportedProperty {
+
+        /**
+         * Property or field name to read the current value.
+         */
+        final String valueName;
+
+        /**
+         * Parameter name of the property, written as hydra:property and used for include/exclude paths.
+         */
+        final String parameterName;
+        final SerializedString serializedParameterName;
+
+        final Class<?> parameterType;
+        final boolean singleValue;
+
+        // single value properties
+        final boolean arrayOrCollection;
+        final boolean hasInputConstraints;
+        final List<SerializedString> constraintNames;
+        final List<String> constraintValues;
+        final List<Boolean> numericConstraints;
+
+        // bean properties
+        final Class<?> beanType;
+        final boolean multipleBeans;
+        final String subClass;
+
+        SupportedProperty(ActionInputParameter annotatedParameter, String valueName, @Nullable String currentVocab) {
+            this.valueName = valueName;
+            this.parameterName = annotatedParameter.getParameterName();
+            this.serializedParameterName = new SerializedString(parameterName);
+            this.parameterType = annotatedParameter.getParameterType();
+            this.singleValue = DataType.isSingleValueType(parameterType);
+            this.arrayOrCollection = annotatedParameter.isArrayOrCollection();
+            this.hasInputConstraints = annotatedParameter.hasInputConstraints();
+
+            List<SerializedString> names = new ArrayList<SerializedString>();
+            List<String> values = new ArrayList<String>();
+            List<Boolean> numeric = new ArrayList<Boolean>();
+            final Map<String, Object> inputConstraints = annotatedParameter.getInputConstraints();
+            if (!inputConstraints.isEmpty()) {
+                for (String keyToAppendValue : Arrays.asList(Input.MAX, Input.MIN, Input.STEP)) {
+                    final Object constraint = inputConstraints.get(keyToAppendValue);
+                    if (constraint != null) {
+                        names.add(new SerializedString(inVocab(currentVocab, keyToAppendValue + "Value",
+                                LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA)));
+                        values.add(constraint.toString());
+                        numeric.add(Boolean.TRUE);
+                    }
+                }
+                for (String keyToPrependValue : Arrays.asList(Input.MAX_LENGTH, Input.MIN_LENGTH, Input.PATTERN)) {
+                    final Object constraint = inputConstraints.get(keyToPrependValue);
+                    if (constraint != null) {
+                        names.add(new SerializedString(inVocab(currentVocab, "value" + StringUtils.capitalize
+                                (keyToPrependValue), LdContextFactory.HTTP_SCHEMA_ORG, LinkListSerializer.SCHEMA)));
+                        values.add(constraint.toString());
+                        numeric.add(!Input.PATTERN.equals(keyToPrependValue));
+                    }
+                }
+            }
+            this.constraintNames = names;
+            this.constraintValues = values;
+            this.numericConstraints = numeric;
+
+            Class<?> nestedType = parameterType;
+            boolean multiple = false;
+            String subClassName = null;
+            if (!singleValue) {
+                Expose expose = AnnotationUtils.getAnnotation(parameterType, Expose.class);
+                if (expose != null) {
+                    subClassName = expose.value();
+                } else if (List.class.isAssignableFrom(parameterType)) {
+                    Type genericParameterType = annotatedParameter.getGenericParameterType();
+                    if (genericParameterType instanceof ParameterizedType) {
+                        ParameterizedType parameterizedType = (ParameterizedType) genericParameterType;
+                        Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
+                        if (actualTypeArguments.length == 1) {
+                            Type actualTypeArgument = actualTypeArguments[0];
+                            if (actualTypeArgument instanceof Class) {
+                                nestedType = (Class<?>) actualTypeArgument;
+                                subClassName = nestedType.getSimpleName();
+                            } else if (actualTypeArgument instanceof ParameterizedType) {
+                                ParameterizedType genericItemType = (ParameterizedType) actualTypeArgument;
+                                Type rawType = genericItemType.getRawType();
+                                if (rawType instanceof Class) {
+                                    nestedType = (Class<?>) rawType;
+                                    subClassName = nestedType.getSimpleName();
+                                }
+                            }
+                        }
+                    }
+                    multiple = subClassName != null;
+                }
+                if (subClassName == null) {
+                    subClassName = nestedType.getSimpleName();
+                }
+            }
+            this.beanType = nestedType;
+            this.multipleBeans = multiple;
+            this.subClass = subClassName;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.escalon.hypermedia.hydra.serialize.FieldSelection;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CollectionMemberSerializerTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void rendersSameOutputInParallel() throws Exception {
+        List<Object> members = new ArrayList<Object>();
+        EventStatusType[] statusTypes = EventStatusType.values();
+        for (int i = 0; i < 50; i++) {
+            Event event = new Event(i, "performer " + i, new CreativeWork("work " + i), "location " + i,
+                    statusTypes[i % statusTypes.length]);
+            members.add(i % 3 == 0 ? event : EntityModel.of(event, Link.of("http://localhost/events/" + i)));
+        }
+        members.add(null);
+        CollectionModel<Object> collection = CollectionModel.of(members, Link.of("http://localhost/events"));
+
+        String sequential = write(new HydraMessageConverter(), collection);
+
+        HydraMessageConverter parallelConverter = new HydraMessageConverter();
+        parallelConverter.setParallelRenderingExecutor(executor);
+        parallelConverter.setParallelRenderingThreshold(10);
+        parallelConverter.setParallelRenderingPartitionSize(7);
+        String parallel = write(parallelConverter, collection);
+
+        assertTrue(sequential.contains("{\"@context\":{\"EVENT_POSTPONED\":\"EventPostponed\"}"));
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void deduplicatesNodesAcrossPartitions() throws Exception {
+        List<Object> members = new ArrayList<Object>();
+        for (int i = 0; i < 30; i++) {
+            // every member repeats one of three events, so most repetitions fall into other partitions
+            int id = i % 3;
+            members.add(EntityModel.of(new Event(id, "performer " + id, new CreativeWork("work " + id),
+                    "location " + id, EventStatusType.EVENT_SCHEDULED), Link.of("http://localhost/events/" + id)));
+        }
+        CollectionModel<Object> collection = CollectionModel.of(members);
+
+        HydraMessageConverter sequentialConverter = new HydraMessageConverter();
+        sequentialConverter.setNodeDeduplication(true);
+        String sequential = write(sequentialConverter, collection);
+
+        HydraMessageConverter parallelConverter = new HydraMessageConverter();
+        parallelConverter.setNodeDeduplication(true);
+        parallelConverter.setParallelRenderingExecutor(executor);
+        parallelConverter.setParallelRenderingThreshold(10);
+        parallelConverter.setParallelRenderingPartitionSize(4);
+        String parallel = write(parallelConverter, collection);
+
+        assertEquals(3, sequential.split("\"performer\"", -1).length - 1);
+        assertEquals(sequential, parallel);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "kind")
+    @JsonSubTypes({@JsonSubTypes.Type(value = Dog.class, name = "dog"),
+            @JsonSubTypes.Type(value = Cat.class, name = "cat")})
+    public interface Animal {
+    }
+
+    public static class Dog implements Animal {
+        public String name = "Rex";
+    }
+
+    public static class Cat implements Animal {
+        public String name = "Tom";
+    }
+
+    static class Animals extends CollectionModel<Animal> {
+
+        Animals(List<Animal> animals) {
+            super(animals);
+        }
+    }
+
+    @Test
+    public void writesTypeIdsOfMembersInParallel() throws Exception {
+        List<Animal> members = new ArrayList<Animal>();
+        for (int i = 0; i < 20; i++) {
+            members.add(i % 2 == 0 ? new Dog() : new Cat());
+        }
+        Animals collection = new Animals(members);
+
+        String sequential = write(new HydraMessageConverter(), collection);
+
+        HydraMessageConverter parallelConverter = new HydraMessageConverter();
+        parallelConverter.setParallelRenderingExecutor(executor);
+        parallelConverter.setParallelRenderingThreshold(10);
+        parallelConverter.setParallelRenderingPartitionSize(3);
+        String parallel = write(parallelConverter, collection);
+
+        assertTrue(sequential, sequential.contains("\"kind\":\"cat\""));
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void rendersSmallCollectionsSequentially() throws Exception {
+        List<Event> members = new ArrayList<Event>();
+        members.add(new Event(1, "performer", new CreativeWork("work"), "location",
+                EventStatusType.EVENT_SCHEDULED));
+        CollectionModel<Event> collection = CollectionModel.of(members);
+
+        HydraMessageConverter parallelConverter = new HydraMessageConverter();
+        parallelConverter.setParallelRenderingExecutor(executor);
+
+        assertEquals(write(new HydraMessageConverter(), collection), write(parallelConverter, collection));
+    }
+
+    @Test
+    public void rendersSelectedFieldsInParallel() throws Exception {
+        List<Object> members = new ArrayList<Object>();
+        for (int i = 0; i < 20; i++) {
+            Event event = new Event(i, "performer " + i, new CreativeWork("work " + i), "location " + i,
+                    EventStatusType.EVENT_SCHEDULED);
+            members.add(EntityModel.of(event, Link.of("http://localhost/events/" + i),
+                    Link.of("http://localhost/reviews", "review")));
+        }
+        CollectionModel<Object> collection = CollectionModel.of(members);
+
+        HydraMessageConverter parallelConverter = new HydraMessageConverter();
+        parallelConverter.setParallelRenderingExecutor(executor);
+        parallelConverter.setParallelRenderingThreshold(10);
+        parallelConverter.setParallelRenderingPartitionSize(3);
+        ObjectWriter writer = parallelConverter.getObjectMapper()
+                .writer()
+                .withAttribute(FieldSelection.KEY_FIELD_SELECTION, FieldSelection.parse("performer"));
+        JsonNode json = new ObjectMapper().readTree(writer.writeValueAsString(collection));
+
+        JsonNode member = json.get("hydra:member")
+                .get(15);
+        assertEquals("http://localhost/events/15", member.get("@id")
+                .asText());
+        assertEquals("performer 15", member.get("performer")
+                .asText());
+        assertFalse(member.has("location"));
+        assertFalse(member.has("review"));
+    }
+
+    private String write(HydraMessageConverter converter, Object object) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+}
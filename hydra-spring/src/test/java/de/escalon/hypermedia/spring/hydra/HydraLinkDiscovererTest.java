@@ -0,0 +1,66 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.Person;
+import org.junit.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HydraLinkDiscovererTest {
+
+    private final HydraLinkDiscoverer discoverer = new HydraLinkDiscoverer();
+
+    @Test
+    public void findsLinksOfResource() throws Exception {
+        String jsonLd = write(EntityModel.of(new Person("Alice"), Link.of("http://example.com/people/alice"),
+                Link.of("http://example.com/people/bob", "knows"),
+                Link.of("http://example.com/people/alice/friends", IanaLinkRelations.RELATED),
+                Link.of("http://example.com/people{?name}", "search")));
+
+        assertEquals("http://example.com/people/alice", discoverer.findRequiredLinkWithRel(IanaLinkRelations.SELF,
+                jsonLd)
+                .getHref());
+        assertEquals("http://example.com/people/bob", discoverer.findRequiredLinkWithRel(LinkRelation.of("knows"),
+                jsonLd)
+                .getHref());
+        assertEquals("http://example.com/people/alice/friends", discoverer.findRequiredLinkWithRel(
+                IanaLinkRelations.RELATED, jsonLd)
+                .getHref());
+        Link search = discoverer.findRequiredLinkWithRel(IanaLinkRelations.SEARCH, jsonLd);
+        assertTrue(search.isTemplated());
+        assertEquals("http://example.com/people{?name}", search.getHref());
+        assertFalse(discoverer.findLinkWithRel(LinkRelation.of("name"), jsonLd)
+                .isPresent());
+    }
+
+    @Test
+    public void findsLinksOfCollectionView() throws Exception {
+        String jsonLd = write(PagedModel.of(Collections.singletonList(EntityModel.of(new Person("Alice"),
+                Link.of("http://example.com/people/alice"))), new PagedModel.PageMetadata(1, 1, 3),
+                Link.of("http://example.com/people?page=1"), Link.of("http://example.com/people?page=2",
+                        IanaLinkRelations.NEXT)));
+
+        assertEquals("http://example.com/people?page=2", discoverer.findRequiredLinkWithRel(IanaLinkRelations.NEXT,
+                jsonLd)
+                .getHref());
+        assertEquals("http://example.com/people/alice", discoverer.findRequiredLinkWithRel(LinkRelation.of(
+                "hydra:member"), jsonLd)
+                .getHref());
+    }
+
+    private String write(Object object) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new HydraMessageConverter().write(object, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+}
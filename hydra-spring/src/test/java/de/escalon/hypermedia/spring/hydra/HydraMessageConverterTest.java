@@ -13,7 +13,22 @@
 
 package de.escalon.hypermedia.spring.hydra;
 
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
+import de.escalon.hypermedia.spring.AffordanceBuilder;
 import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.Person;
 import de.escalon.hypermedia.spring.sample.test.DummyEventControllerExposed;
 import de.escalon.hypermedia.spring.sample.test.ReviewController;
 import org.junit.Before;
@@ -24,7 +39,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.hateoas.RepresentationModel;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.AnnotationConfigWebContextLoader;
@@ -34,14 +56,33 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
 
@@ -55,6 +96,95 @@ public class HydraMessageConverterTest {
 
     public static final Logger LOG = LoggerFactory.getLogger(HydraMessageConverterTest.class);
 
+    /**
+     * Stands in for a binary json factory such as CBORFactory, records the generators it creates.
+     */
+    static class BinaryJsonFactory extends JsonFactory {
+
+        static final AtomicInteger generators = new AtomicInteger();
+
+        @Override
+        public JsonGenerator createGenerator(OutputStream out) {
+            generators.incrementAndGet();
+            return new BinaryGenerator(out);
+        }
+    }
+
+    /**
+     * Refuses raw json like CBORGenerator does and writes the document as serialized {@link JsonNode}, which is no
+     * json text.
+     */
+    static class BinaryGenerator extends JsonGeneratorDelegate {
+
+        private final OutputStream out;
+
+        BinaryGenerator(OutputStream out) {
+            super(new TokenBuffer(null, false), false);
+            this.out = out;
+        }
+
+        static JsonNode decode(byte[] content) throws IOException, ClassNotFoundException {
+            return (JsonNode) new ObjectInputStream(new ByteArrayInputStream(content)).readObject();
+        }
+
+        @Override
+        public void writeRaw(String text) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRaw(String text, int offset, int len) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRaw(char[] text, int offset, int len) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRaw(char c) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRaw(SerializableString raw) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRawValue(String text) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRawValue(String text, int offset, int len) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRawValue(char[] text, int offset, int len) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void writeRawValue(SerializableString raw) {
+            throw new UnsupportedOperationException("raw json in binary encoding");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed()) {
+                return;
+            }
+            super.close();
+            JsonNode document = new ObjectMapper().readTree(((TokenBuffer) delegate).asParser());
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(out);
+            objectOutputStream.writeObject(document);
+            objectOutputStream.flush();
+        }
+    }
+
     @Configuration
     @EnableWebMvc
     static class WebConfig implements WebMvcConfigurer {
@@ -72,7 +202,12 @@ public class HydraMessageConverterTest {
 
         @Override
         public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-            converters.add(new HydraMessageConverter());
+            HydraMessageConverter hydraMessageConverter = new HydraMessageConverter();
+            hydraMessageConverter.setFieldSelectionParameter("fields");
+            hydraMessageConverter.setBinaryEncodings(Collections.<MediaType, JsonFactory>singletonMap(
+                    HypermediaTypes.APPLICATION_JSONLD_CBOR, new BinaryJsonFactory()));
+            hydraMessageConverter.setLineDelimitedOutput(true);
+            converters.add(hydraMessageConverter);
         }
 
         @Override
@@ -110,6 +245,34 @@ public class HydraMessageConverterTest {
                 .getContentAsString());
     }
 
+    @Test
+    public void convertsSelectedFieldsOfResource() throws Exception {
+        final MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events/1?fields=performer")
+                .accept(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(jsonPath("$.@type").value("Event"))
+                .andExpect(jsonPath("$.performer").value("Cornelia Bielefeldt"))
+                .andExpect(jsonPath("$.location").doesNotExist())
+                .andExpect(jsonPath("$.review").doesNotExist())
+                .andExpect(jsonPath("$['hydra:operation']").doesNotExist())
+                .andReturn();
+        LOG.debug(result.getResponse()
+                .getContentAsString());
+    }
+
+    @Test
+    public void convertsPreferredFieldsOfResource() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/events/1")
+                .header("Prefer", "return=representation, fields=\"location,review\"")
+                .accept(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(jsonPath("$.location").exists())
+                .andExpect(jsonPath("$.review.@id").value("http://localhost/reviews"))
+                .andExpect(jsonPath("$.performer").doesNotExist());
+    }
+
     @Test
     public void convertsQueryParamToObject() throws Exception {
         final MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get
@@ -183,6 +346,50 @@ public class HydraMessageConverterTest {
                 .getContentAsString());
     }
 
+    @Test
+    public void convertsAffordancesToLinksForMinimalRepresentation() throws Exception {
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                .header("Prefer", "return=minimal")
+                .accept(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(jsonPath("$['hydra:operation']").doesNotExist())
+                .andExpect(jsonPath("$.['hydra:search'].['hydra:template']").value("http://localhost/events{?evtName}"))
+                .andExpect(jsonPath("$.['hydra:member'][0].@id").value("http://localhost/events/1"))
+                .andExpect(jsonPath("$.['hydra:member'][0].['hydra:operation']").doesNotExist())
+                .andExpect(jsonPath("$.['hydra:member'][0].workPerformed.['hydra:collection']").doesNotExist())
+                .andExpect(jsonPath("$.['hydra:member'][0].workPerformed.review.@id")
+                        .value("http://localhost/reviews/events/1"))
+                .andExpect(header().string(HttpHeaders.VARY, "Prefer, Accept"))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andReturn();
+        LOG.debug(result.getResponse()
+                .getContentAsString());
+    }
+
+    @Test
+    public void convertsAffordancesToLinksForMinimalProfile() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                .accept(MediaType.parseMediaType("application/ld+json; profile=\"urn:escalon:hypermedia:minimal\"")))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(jsonPath("$['hydra:operation']").doesNotExist())
+                .andExpect(jsonPath("$.['hydra:member'][0].['hydra:operation']").doesNotExist())
+                .andExpect(header().string(HttpHeaders.VARY, "Prefer, Accept"))
+                .andExpect(header().doesNotExist("Preference-Applied"));
+    }
+
+    @Test
+    public void variesFullRepresentationByPreference() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                .accept(HypermediaTypes.APPLICATION_JSONLD))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(jsonPath("$['hydra:operation']").exists())
+                .andExpect(header().string(HttpHeaders.VARY, "Prefer, Accept"))
+                .andExpect(header().doesNotExist("Preference-Applied"));
+    }
+
     @Test
     public void convertsLinkToPost() throws Exception {
         MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
@@ -295,6 +502,24 @@ public class HydraMessageConverterTest {
                 .getContentAsString());
     }
 
+    @Test
+    public void convertsTemplatedLinkForDifferentBaseUrisWithSameMapping() throws Exception {
+        for (String host : new String[]{"localhost", "example.com", "localhost"}) {
+            this.mockMvc.perform(MockMvcRequestBuilders.get("http://" + host + "/events")
+                    .accept(HypermediaTypes.APPLICATION_JSONLD))
+                    .andExpect(MockMvcResultMatchers.status()
+                            .isOk())
+                    .andExpect(jsonPath("$.['hydra:search'].['hydra:template']").value
+                            ("http://" + host + "/events{?evtName}"))
+                    .andExpect(jsonPath("$.['hydra:search'].['hydra:mapping'][0].['hydra:variable']")
+                            .value("evtName"))
+                    .andExpect(jsonPath("$.['hydra:search'].['hydra:mapping'][0].['hydra:required']")
+                            .value(true))
+                    .andExpect(jsonPath("$.['hydra:search'].['hydra:mapping'][0].['hydra:property']").value
+                            ("http://schema.org/name"));
+        }
+    }
+
     @Test
     public void convertsTemplatedLinkWithRegexAsIriTemplate() throws Exception {
         final MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
@@ -341,5 +566,225 @@ public class HydraMessageConverterTest {
                 .getContentAsString());
     }
 
+    @Test
+    public void convertsResourceToBinaryEncoding() throws Exception {
+        int generators = BinaryJsonFactory.generators.get();
+
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                .accept(HypermediaTypes.APPLICATION_JSONLD_CBOR))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(content().contentTypeCompatibleWith(HypermediaTypes.APPLICATION_JSONLD_CBOR))
+                .andReturn();
+
+        assertEquals(generators + 1, BinaryJsonFactory.generators.get());
+        JsonNode document = BinaryGenerator.decode(result.getResponse()
+                .getContentAsByteArray());
+        assertEquals("hydra:Collection", document.get("@type")
+                .asText());
+        // iri template mappings are written as raw fragments into json text, but not into binary encodings
+        assertEquals("evtName", document.get("hydra:search")
+                .get("hydra:mapping")
+                .get(0)
+                .get("hydra:variable")
+                .asText());
+        assertEquals("Walk off the Earth", document.get("hydra:member")
+                .get(0)
+                .get("performer")
+                .asText());
+    }
+
+    @Test
+    public void doesNotReadBinaryEncoding() {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setBinaryEncodings(Collections.<MediaType, JsonFactory>singletonMap(
+                HypermediaTypes.APPLICATION_JSONLD_CBOR, new JsonFactory()));
+
+        assertEquals(2, converter.getSupportedMediaTypes()
+                .size());
+        assertFalse(converter.canRead(Object.class, HypermediaTypes.APPLICATION_JSONLD_CBOR));
+    }
+
+    @Test
+    public void convertsCollectionToLineDelimitedJsonLd() throws Exception {
+        final MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/events")
+                .accept(MediaType.parseMediaType("application/x-ndjson")))
+                .andExpect(MockMvcResultMatchers.status()
+                        .isOk())
+                .andExpect(content().contentTypeCompatibleWith(HypermediaTypes.APPLICATION_NDJSON_LD))
+                .andReturn();
+
+        String[] lines = result.getResponse()
+                .getContentAsString()
+                .split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        for (int i = 0; i < 2; i++) {
+            JsonNode member = new ObjectMapper().readTree(lines[i]);
+            assertEquals("Event", member.get("@type")
+                    .asText());
+            assertEquals("http://schema.org/", member.get("@context")
+                    .get("@vocab")
+                    .asText());
+            assertFalse(member.has("hydra:member"));
+        }
+    }
+
+    @Test
+    public void writesLinesWithRemoteContext() throws Exception {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setLineDelimitedOutput(true);
+        converter.setLineDelimitedContext("http://example.com/contexts/person");
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Stream.of(new Person("Alice"), new Person("Bob")), HypermediaTypes.APPLICATION_NDJSON_LD,
+                outputMessage);
+
+        String context = "\"@context\":\"http://example.com/contexts/person\"";
+        assertEquals("{" + context + ",\"@type\":\"Person\",\"name\":\"Alice\"}\n" +
+                "{" + context + ",\"@type\":\"Person\",\"name\":\"Bob\"}\n", outputMessage.getBodyAsString());
+        assertFalse(converter.canRead(Object.class, HypermediaTypes.APPLICATION_NDJSON_LD));
+    }
+
+    @Test
+    public void writesEveryMemberOnOneLineWhenPrettyPrinting() throws Exception {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setLineDelimitedOutput(true);
+        converter.setPrettyPrint(true);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Arrays.asList(new Person("Alice"), new Person("Bob")), HypermediaTypes.APPLICATION_NDJSON_LD,
+                outputMessage);
+
+        String context = "\"@context\":{\"@vocab\":\"http://schema.org/\"}";
+        assertEquals("{" + context + ",\"@type\":\"Person\",\"name\":\"Alice\"}\n" +
+                "{" + context + ",\"@type\":\"Person\",\"name\":\"Bob\"}\n", outputMessage.getBodyAsString());
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "kind")
+    @JsonSubTypes(@JsonSubTypes.Type(value = Dog.class, name = "dog"))
+    public interface Animal {
+    }
+
+    public static class Dog implements Animal {
+        public String name = "Rex";
+    }
+
+    @Test
+    public void writesTypeIdsOfGenericCollectionMembers() throws Exception {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxDepth(5));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        Type animals = new ParameterizedTypeReference<List<Animal>>() {
+        }.getType();
+
+        converter.write(Collections.singletonList(new Dog()), animals, HypermediaTypes.APPLICATION_JSONLD,
+                outputMessage);
+
+        assertEquals("[{\"kind\":\"dog\",\"@context\":{\"@vocab\":\"http://schema.org/\"},\"@type\":\"Dog\"," +
+                "\"name\":\"Rex\"}]", outputMessage.getBodyAsString());
+    }
+
+    @Test
+    public void usesObjectMapperRegisteredForType() throws Exception {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxDepth(5));
+        final ObjectMapper dogMapper = new ObjectMapper().setPropertyNamingStrategy(
+                PropertyNamingStrategies.UPPER_CAMEL_CASE);
+        converter.registerObjectMappersForType(Dog.class, new Consumer<Map<MediaType, ObjectMapper>>() {
+            @Override
+            public void accept(Map<MediaType, ObjectMapper> registrations) {
+                registrations.put(HypermediaTypes.APPLICATION_JSONLD, dogMapper);
+            }
+        });
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new Dog(), HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+
+        assertEquals("{\"kind\":\"dog\",\"Name\":\"Rex\"}", outputMessage.getBodyAsString());
+    }
+
+    public static class Playlist {
+        public List<String> songs = Arrays.asList("Intro", "Verse", "Outro");
+    }
+
+    @Test
+    public void startsRenderingBudgetForEveryLine() throws Exception {
+        final List<RenderingBudget.Limit> exceeded = new ArrayList<RenderingBudget.Limit>();
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setLineDelimitedOutput(true);
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxItems(2));
+        converter.setRenderingBudgetListener(new RenderingBudgetListener() {
+            @Override
+            public void budgetExceeded(RenderingBudget.Limit limit, Class<?> resourceType, int depth) {
+                exceeded.add(limit);
+            }
+        });
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Stream.of(new Playlist(), new Playlist()), HypermediaTypes.APPLICATION_NDJSON_LD,
+                outputMessage);
+
+        String line = "{\"@context\":{\"@vocab\":\"http://schema.org/\"},\"@type\":\"Playlist\"," +
+                "\"songs\":[\"Intro\",\"Verse\"],\"urn:escalon:hypermedia:truncated\":[\"songs\"]}\n";
+        assertEquals(line + line, outputMessage.getBodyAsString());
+        assertEquals(Arrays.asList(RenderingBudget.Limit.ITEMS, RenderingBudget.Limit.ITEMS), exceeded);
+    }
+
+    public interface Summary {
+    }
+
+    public interface Details {
+    }
+
+    public static class Ticket extends RepresentationModel<Ticket> {
 
+        @JsonView(Summary.class)
+        public String event = "Concert";
+
+        @JsonView(Details.class)
+        public String seat = "12A";
+    }
+
+    @Test
+    public void appliesMinimalRepresentationToSerializationView() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/1");
+        request.addHeader("Prefer", "return=minimal");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            Ticket ticket = new Ticket();
+            ticket.add(AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyEventControllerExposed.class)
+                    .deleteEvent(1))
+                    .withSelfRel());
+            MappingJacksonValue body = new MappingJacksonValue(ticket);
+            body.setSerializationView(Summary.class);
+            MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+            new HydraMessageConverter().write(body, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+
+            String json = outputMessage.getBodyAsString();
+            assertTrue(json, json.contains("\"event\":\"Concert\""));
+            assertFalse(json, json.contains("seat"));
+            assertFalse(json, json.contains("hydra:operation"));
+            assertEquals("return=minimal", outputMessage.getHeaders()
+                    .getFirst("Preference-Applied"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void appliesRenderingBudgetToSerializationView() throws Exception {
+        HydraMessageConverter converter = new HydraMessageConverter();
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxItems(2));
+        MappingJacksonValue body = new MappingJacksonValue(new Playlist());
+        body.setSerializationView(Summary.class);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(body, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+
+        assertEquals("{\"@context\":{\"@vocab\":\"http://schema.org/\"},\"@type\":\"Playlist\"," +
+                "\"songs\":[\"Intro\",\"Verse\"],\"urn:escalon:hypermedia:truncated\":[\"songs\"]}",
+                outputMessage.getBodyAsString());
+    }
 }
@@ -0,0 +1,79 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Term;
+import de.escalon.hypermedia.hydra.mapping.Vocab;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonLdDocumentationProviderTest {
+
+    private final JsonLdDocumentationProvider documentationProvider = new JsonLdDocumentationProvider();
+
+    @Vocab("http://example.com/vocab#")
+    @Term(define = "gr", as = "http://purl.org/goodrelations/v1#")
+    public static class Offer {
+
+        @Expose("gr:hasPriceSpecification")
+        public String price = "42";
+
+        public String name = "offer";
+
+        @Expose("http://schema.org/description")
+        public String getDescription() {
+            return "description";
+        }
+    }
+
+    public enum Availability {
+        IN_STOCK, SOLD_OUT
+    }
+
+    public static class Product {
+
+        public Availability availability;
+
+        public Product(Availability availability) {
+            this.availability = availability;
+        }
+
+        @Expose("IN_STOCK:foo")
+        public String getStatus() {
+            return "status";
+        }
+    }
+
+    @Test
+    public void resolvesVocabCurieAndUrlRepeatedly() throws Exception {
+        Offer offer = new Offer();
+        for (int i = 0; i < 2; i++) {
+            assertEquals("http://example.com/vocab#name",
+                    documentationProvider.getDocumentationUrl(Offer.class.getField("name"), offer));
+            assertEquals("http://purl.org/goodrelations/v1#hasPriceSpecification",
+                    documentationProvider.getDocumentationUrl(Offer.class.getField("price"), offer));
+            assertEquals("http://schema.org/description",
+                    documentationProvider.getDocumentationUrl(Offer.class.getMethod("getDescription"), offer));
+            assertEquals("http://example.com/vocab#name", documentationProvider.getDocumentationUrl("name", offer));
+        }
+    }
+
+    @Test
+    public void distinguishesContentClasses() throws Exception {
+        assertEquals("http://example.com/vocab#name", documentationProvider.getDocumentationUrl("name", new Offer()));
+        assertEquals("http://schema.org/name", documentationProvider.getDocumentationUrl("name", "a string"));
+        assertNull(documentationProvider.getDocumentationUrl("name", null));
+    }
+
+    @Test
+    public void resolvesCuriesAgainstInstanceDependentTerms() throws Exception {
+        // enum values become terms, so the curie only resolves if the instance has that value
+        assertEquals("InStockfoo", documentationProvider.getDocumentationUrl(Product.class.getMethod("getStatus"),
+                new Product(Availability.IN_STOCK)));
+        assertNull(documentationProvider.getDocumentationUrl(Product.class.getMethod("getStatus"),
+                new Product(Availability.SOLD_OUT)));
+        assertEquals("InStockfoo", documentationProvider.getDocumentationUrl(Product.class.getMethod("getStatus"),
+                new Product(Availability.IN_STOCK)));
+    }
+}
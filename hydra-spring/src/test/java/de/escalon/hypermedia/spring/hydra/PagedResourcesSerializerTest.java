@@ -0,0 +1,128 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.spring.CursorPagedModel;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import org.junit.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PagedResourcesSerializerTest {
+
+    private final HydraMessageConverter converter = new HydraMessageConverter();
+
+    private final List<Event> events = Collections.singletonList(new Event(1, "performer", new CreativeWork("work"),
+            "location", EventStatusType.EVENT_SCHEDULED));
+
+    @Test
+    public void convertsPagedModel() throws Exception {
+        PagedModel<Event> page = PagedModel.of(events, new PagedModel.PageMetadata(1, 2, 5),
+                Link.of("http://localhost/events?page=3", IanaLinkRelations.NEXT),
+                Link.of("http://localhost/events?page=1", IanaLinkRelations.PREV));
+
+        JsonNode json = write(page);
+
+        assertEquals("hydra:Collection", json.get("@type")
+                .asText());
+        assertEquals(5, json.get("hydra:totalItems")
+                .asLong());
+        JsonNode view = json.get("hydra:view");
+        assertEquals("http://localhost/events?page=3", view.get("hydra:next")
+                .asText());
+        assertEquals("http://localhost/events?page=1", view.get("hydra:previous")
+                .asText());
+    }
+
+    @Test
+    public void convertsCursorPagedModelWithoutTotalItems() throws Exception {
+        CursorPagedModel<Event> page = CursorPagedModel.of(events,
+                Link.of("http://localhost/events?after=1", IanaLinkRelations.NEXT),
+                Link.of("http://localhost/events?before=1", IanaLinkRelations.PREV));
+
+        JsonNode json = write(page);
+
+        assertEquals("hydra:Collection", json.get("@type")
+                .asText());
+        assertFalse(json.has("hydra:totalItems"));
+        assertEquals(1, json.get("hydra:member")
+                .size());
+        JsonNode view = json.get("hydra:view");
+        assertEquals("hydra:PartialCollectionView", view.get("@type")
+                .asText());
+        assertEquals("http://localhost/events?after=1", view.get("hydra:next")
+                .asText());
+        assertEquals("http://localhost/events?before=1", view.get("hydra:previous")
+                .asText());
+        assertFalse("navigation links belong to the view", json.has("next"));
+    }
+
+    @Test
+    public void suppliesTotalItemsOfCursorPagedModelWhenRendering() throws Exception {
+        final AtomicInteger counts = new AtomicInteger();
+        CursorPagedModel<Event> page = CursorPagedModel.of(events,
+                Link.of("http://localhost/events?after=1", IanaLinkRelations.NEXT))
+                .withTotalItems(new Supplier<Long>() {
+                    @Override
+                    public Long get() {
+                        counts.incrementAndGet();
+                        return 42L;
+                    }
+                });
+        assertEquals(0, counts.get());
+
+        JsonNode json = write(page);
+
+        assertEquals(42, json.get("hydra:totalItems")
+                .asLong());
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    public void marksTruncatedMembers() throws Exception {
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxItems(1));
+        List<Event> twoEvents = Arrays.asList(events.get(0), new Event(2, "other performer",
+                new CreativeWork("other work"), "location", EventStatusType.EVENT_SCHEDULED));
+        PagedModel<Event> page = PagedModel.of(twoEvents, new PagedModel.PageMetadata(2, 0, 5));
+
+        JsonNode json = write(page);
+
+        assertEquals(1, json.get("hydra:member")
+                .size());
+        assertEquals(5, json.get("hydra:totalItems")
+                .asLong());
+        assertEquals("[\"hydra:member\"]", json.get(JacksonHydraSerializer.TRUNCATED_PROPERTIES)
+                .toString());
+    }
+
+    @Test
+    public void doesNotMarkCompleteMembers() throws Exception {
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxItems(1));
+
+        JsonNode json = write(PagedModel.of(events, new PagedModel.PageMetadata(1, 0, 5)));
+
+        assertFalse(json.has(JacksonHydraSerializer.TRUNCATED_PROPERTIES));
+    }
+
+    private JsonNode write(Object object) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+        return new ObjectMapper().readTree(outputMessage.getBodyAsString());
+    }
+}
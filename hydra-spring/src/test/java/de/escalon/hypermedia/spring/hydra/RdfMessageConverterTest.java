@@ -0,0 +1,177 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.sample.test.Person;
+import org.junit.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RdfMessageConverterTest {
+
+    private final RdfMessageConverter converter = new RdfMessageConverter();
+
+    public static class Seller extends RepresentationModel<Seller> {
+
+        public String getName() {
+            return "Hans \"the seller\"";
+        }
+    }
+
+    @Expose("Order")
+    @JsonPropertyOrder({"customer", "seller", "courier", "amount"})
+    public static class Purchase {
+
+        public EntityModel<Person> getCustomer() {
+            return EntityModel.of(new Person("Peter Joseph"), Link.of("http://example.com/customers/pj123"));
+        }
+
+        public Seller getSeller() {
+            return new Seller().add(Link.of("http://example.com/sellers/hans"));
+        }
+
+        public EntityModel<Person> getCourier() {
+            return EntityModel.of(new Person("Bob"));
+        }
+
+        @Expose("http://example.com/vocab#quantity")
+        public int getAmount() {
+            return 2;
+        }
+    }
+
+    @Test
+    public void writesNQuads() throws Exception {
+        String nquads = write(EntityModel.of(new Purchase(), Link.of("http://example.com/orders/1"),
+                Link.of("http://example.com/orders", "collection")), HypermediaTypes.APPLICATION_NQUADS);
+
+        assertEquals("<http://example.com/orders/1> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> " +
+                "<http://schema.org/Order> .\n" +
+                "<http://example.com/orders/1> <http://schema.org/customer> <http://example.com/customers/pj123> .\n" +
+                "<http://example.com/orders/1> <http://schema.org/seller> <http://example.com/sellers/hans> .\n" +
+                "<http://example.com/orders/1> <http://schema.org/courier> _:b0 .\n" +
+                "_:b0 <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://schema.org/Person> .\n" +
+                "_:b0 <http://schema.org/name> \"Bob\" .\n" +
+                "<http://example.com/orders/1> <http://example.com/vocab#quantity> " +
+                "\"2\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n" +
+                "<http://example.com/orders/1> <urn:iana:link-relations:collection> <http://example.com/orders> .\n" +
+                "<http://example.com/customers/pj123> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> " +
+                "<http://schema.org/Person> .\n" +
+                "<http://example.com/customers/pj123> <http://schema.org/name> \"Peter Joseph\" .\n" +
+                "<http://example.com/sellers/hans> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> " +
+                "<http://schema.org/Seller> .\n" +
+                "<http://example.com/sellers/hans> <http://schema.org/name> \"Hans \\\"the seller\\\"\" .\n", nquads);
+    }
+
+    @Test
+    public void writesTurtle() throws Exception {
+        String turtle = write(EntityModel.of(new Purchase(), Link.of("http://example.com/orders/1")),
+                HypermediaTypes.TEXT_TURTLE);
+
+        assertEquals("<http://example.com/orders/1>\n" +
+                "    a <http://schema.org/Order> ;\n" +
+                "    <http://schema.org/customer> <http://example.com/customers/pj123> ;\n" +
+                "    <http://schema.org/seller> <http://example.com/sellers/hans> ;\n" +
+                "    <http://schema.org/courier> [\n" +
+                "        a <http://schema.org/Person> ;\n" +
+                "        <http://schema.org/name> \"Bob\"\n" +
+                "    ] ;\n" +
+                "    <http://example.com/vocab#quantity> \"2\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n" +
+                "<http://example.com/customers/pj123>\n" +
+                "    a <http://schema.org/Person> ;\n" +
+                "    <http://schema.org/name> \"Peter Joseph\" .\n" +
+                "<http://example.com/sellers/hans>\n" +
+                "    a <http://schema.org/Seller> ;\n" +
+                "    <http://schema.org/name> \"Hans \\\"the seller\\\"\" .\n", turtle);
+    }
+
+    public static class Listing extends RepresentationModel<Listing> {
+
+        private final Seller seller;
+
+        Listing(String id, Seller seller) {
+            this.seller = seller;
+            add(Link.of(id));
+        }
+
+        public Seller getSeller() {
+            return seller;
+        }
+
+        public Optional<String> getDescription() {
+            return Optional.of("used");
+        }
+
+        public UUID getSku() {
+            return UUID.fromString("6f1b0c3e-5a1f-4c62-9a7e-0c8a6a8d7b11");
+        }
+    }
+
+    @Test
+    public void writesReferencedResourcesDepthFirst() throws Exception {
+        Seller sellerA = new Seller().add(Link.of("http://example.com/sellers/a"));
+        Seller sellerB = new Seller().add(Link.of("http://example.com/sellers/b"));
+        String nquads = write(Arrays.asList(new Listing("http://example.com/listings/1", sellerA),
+                new Listing("http://example.com/listings/2", sellerB)), HypermediaTypes.APPLICATION_NQUADS);
+
+        List<String> subjects = new ArrayList<String>();
+        for (String statement : nquads.split("\n")) {
+            String subject = statement.substring(0, statement.indexOf(' '));
+            if (!subjects.contains(subject)) {
+                subjects.add(subject);
+            }
+        }
+        assertEquals(Arrays.asList("<http://example.com/listings/1>", "<http://example.com/sellers/a>",
+                "<http://example.com/listings/2>", "<http://example.com/sellers/b>"), subjects);
+        assertTrue(nquads, nquads.contains("<http://example.com/listings/1> <http://schema.org/description> " +
+                "\"used\" .\n"));
+        assertTrue(nquads, nquads.contains("<http://example.com/listings/1> <http://schema.org/sku> " +
+                "\"6f1b0c3e-5a1f-4c62-9a7e-0c8a6a8d7b11\" .\n"));
+    }
+
+    @Test(expected = HttpMessageNotReadableException.class)
+    public void doesNotReadRdf() throws Exception {
+        converter.read(Object.class, new MockHttpInputMessage(new byte[0]));
+    }
+
+    @Test
+    public void writesCollectionMembersOnce() throws Exception {
+        EntityModel<Person> member = EntityModel.of(new Person("Peter Joseph"),
+                Link.of("http://example.com/customers/pj123"));
+        String nquads = write(CollectionModel.of(Arrays.asList(member, member),
+                Link.of("http://example.com/customers")), HypermediaTypes.APPLICATION_NQUADS);
+
+        assertTrue(nquads, nquads.startsWith("<http://example.com/customers> " +
+                "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/ns/hydra/core#Collection> .\n" +
+                "<http://example.com/customers> <http://www.w3.org/ns/hydra/core#member> " +
+                "<http://example.com/customers/pj123> .\n"));
+        String name = "<http://example.com/customers/pj123> <http://schema.org/name> \"Peter Joseph\" .\n";
+        assertTrue(nquads, nquads.contains(name));
+        assertFalse(nquads, nquads.substring(nquads.indexOf(name) + 1)
+                .contains(name));
+    }
+
+    private String write(Object object, MediaType mediaType) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, mediaType, outputMessage);
+        return outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,174 @@
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.RequestEmbeddingDepth;
+import de.escalon.hypermedia.spring.sample.test.Person;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ResourceSerializerTest {
+
+    private final HydraMessageConverter converter = new HydraMessageConverter();
+
+    public static class Seller extends RepresentationModel<Seller> {
+
+        public String getName() {
+            return "Hans";
+        }
+    }
+
+    public static class Order {
+
+        public EntityModel<Person> getCustomer() {
+            return EntityModel.of(new Person("Peter Joseph"), Link.of("http://example.com/customers/pj123"));
+        }
+
+        public Seller getSeller() {
+            return new Seller().add(Link.of("http://example.com/sellers/hans"));
+        }
+
+        public EntityModel<Person> getCourier() {
+            return EntityModel.of(new Person("Bob"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void embedsNestedResourcesByDefault() throws Exception {
+        JsonNode json = write(EntityModel.of(new Order()));
+
+        assertEquals("Peter Joseph", json.get("customer")
+                .get("name")
+                .asText());
+        assertEquals("Hans", json.get("seller")
+                .get("name")
+                .asText());
+    }
+
+    @Test
+    public void referencesNestedResourcesBeyondEmbeddingDepth() throws Exception {
+        converter.setEmbeddingDepth(EmbeddingDepth.of(0));
+
+        JsonNode json = write(EntityModel.of(new Order()));
+
+        JsonNode customer = json.get("customer");
+        assertEquals(1, customer.size());
+        assertEquals("http://example.com/customers/pj123", customer.get("@id")
+                .asText());
+        JsonNode seller = json.get("seller");
+        assertEquals(1, seller.size());
+        assertEquals("http://example.com/sellers/hans", seller.get("@id")
+                .asText());
+        // resources without self link cannot be referenced
+        assertEquals("Bob", json.get("courier")
+                .get("name")
+                .asText());
+    }
+
+    @Test
+    public void appliesEmbeddingDepthOfTypeAndRequest() throws Exception {
+        converter.setEmbeddingDepth(EmbeddingDepth.UNLIMITED.withMaxDepth(Seller.class, 0));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        JsonNode json = write(EntityModel.of(new Order()));
+        assertEquals("Peter Joseph", json.get("customer")
+                .get("name")
+                .asText());
+        assertFalse(json.get("seller")
+                .has("name"));
+
+        RequestEmbeddingDepth.set(EmbeddingDepth.of(0));
+        json = write(EntityModel.of(new Order()));
+        assertFalse(json.get("customer")
+                .has("name"));
+    }
+
+    @Test
+    public void writesRepeatedNodesAsReferences() throws Exception {
+        converter.setNodeDeduplication(true);
+
+        JsonNode json = write(CollectionModel.of(Arrays.asList(EntityModel.of(new Order()),
+                EntityModel.of(new Order()))));
+
+        JsonNode members = json.get("hydra:member");
+        assertEquals("Peter Joseph", members.get(0)
+                .get("customer")
+                .get("name")
+                .asText());
+        assertEquals("Hans", members.get(0)
+                .get("seller")
+                .get("name")
+                .asText());
+        JsonNode customer = members.get(1)
+                .get("customer");
+        assertEquals(1, customer.size());
+        assertEquals("http://example.com/customers/pj123", customer.get("@id")
+                .asText());
+        assertEquals(1, members.get(1)
+                .get("seller")
+                .size());
+        assertEquals("Bob", members.get(1)
+                .get("courier")
+                .get("name")
+                .asText());
+    }
+
+    @Test
+    public void truncatesResponseBeyondRenderingBudget() throws Exception {
+        final List<RenderingBudget.Limit> exceeded = new ArrayList<RenderingBudget.Limit>();
+        converter.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxDepth(1)
+                .withMaxItems(2));
+        converter.setRenderingBudgetListener(new RenderingBudgetListener() {
+            @Override
+            public void budgetExceeded(RenderingBudget.Limit limit, Class<?> resourceType, int depth) {
+                exceeded.add(limit);
+            }
+        });
+
+        JsonNode json = write(CollectionModel.of(Arrays.asList(EntityModel.of(new Order()),
+                EntityModel.of(new Order()), EntityModel.of(new Order()))));
+
+        JsonNode members = json.get("hydra:member");
+        assertEquals(2, members.size());
+        JsonNode customer = members.get(0)
+                .get("customer");
+        assertEquals(1, customer.size());
+        assertEquals("http://example.com/customers/pj123", customer.get("@id")
+                .asText());
+        // nodes without identifier cannot be referenced
+        assertEquals(0, members.get(0)
+                .get("courier")
+                .size());
+        assertEquals(Arrays.asList(RenderingBudget.Limit.ITEMS, RenderingBudget.Limit.DEPTH), exceeded);
+    }
+
+    private JsonNode write(Object object) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, HypermediaTypes.APPLICATION_JSONLD, outputMessage);
+        return new ObjectMapper().readTree(outputMessage.getBodyAsString());
+    }
+}
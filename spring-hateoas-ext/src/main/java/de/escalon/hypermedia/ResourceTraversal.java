@@ -2,8 +2,12 @@ package de.escalon.hypermedia;
 
 import de.escalon.hypermedia.affordance.DataType;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.util.Assert;
 
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
@@ -21,12 +25,91 @@ public class ResourceTraversal {
     }
     public static final NullValue NULL_VALUE = new NullValue();
 
+    private EmbeddingDepth embeddingDepth = EmbeddingDepth.UNLIMITED;
+
+    private RenderingBudget renderingBudget = RenderingBudget.UNLIMITED;
+
+    private RenderingBudgetListener renderingBudgetListener;
+
+    /**
+     * Sets maximum depth up to which nested resources are traversed. Beyond that depth, the visitor only visits the
+     * self link of nested resources which have one. Default is {@link EmbeddingDepth#UNLIMITED}.
+     *
+     * @param embeddingDepth
+     *         to use
+     */
+    public void setEmbeddingDepth(EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        this.embeddingDepth = embeddingDepth;
+    }
+
+    /**
+     * Sets budget for a single traversal. Nested resources beyond the maximum depth of the budget, or reached after
+     * the maximum time, are not traversed, the visitor only visits their self link if they have one. Collections are
+     * traversed up to the maximum number of items. Default is {@link RenderingBudget#UNLIMITED}.
+     *
+     * @param renderingBudget
+     *         to use
+     */
+    public void setRenderingBudget(RenderingBudget renderingBudget) {
+        Assert.notNull(renderingBudget, "renderingBudget must not be null");
+        this.renderingBudget = renderingBudget;
+    }
+
+    /**
+     * Sets listener which is notified when a traversal exceeds the rendering budget. Default is null.
+     *
+     * @param renderingBudgetListener
+     *         to notify, may be null
+     */
+    public void setRenderingBudgetListener(RenderingBudgetListener renderingBudgetListener) {
+        this.renderingBudgetListener = renderingBudgetListener;
+    }
 
     public void traverseResource(ResourceSupportVisitor visitor, Object object) {
+        RenderingBudget.Tracker budget = renderingBudget.isUnlimited() ? null :
+                renderingBudget.start(renderingBudgetListener);
+        traverseResource(visitor, object, budget, 0, 0);
+    }
+
+    /**
+     * Traverses object.
+     *
+     * @param depth
+     *         of traversal, counts every step
+     * @param level
+     *         embedding level, counts nested beans and collection members
+     */
+    private void traverseResource(ResourceSupportVisitor visitor, Object object, RenderingBudget.Tracker budget,
+                                  int depth, int level) {
+        ResourceTraversalEvent event = RenderingEvents.isAvailable() ? ResourceTraversalEvent.beginIfEnabled() : null;
+        try {
+            doTraverseResource(visitor, object, budget, depth, level);
+        } finally {
+            if (event != null) {
+                event.commit(object, depth, countItems(object));
+            }
+        }
+    }
+
+    private void doTraverseResource(ResourceSupportVisitor visitor, Object object, RenderingBudget.Tracker budget,
+                                    int depth, int level) {
         Set<String> filtered = FILTER_RESOURCE_SUPPORT;
         if (object == null) {
             return;
         }
+        Link selfLink = getReferenceLink(object, level);
+        if (selfLink != null) {
+            visitor.visitLinks(Links.of(selfLink));
+            return;
+        }
+        if (budget != null && budget.isExhausted(object, level)) {
+            selfLink = getSelfLink(object);
+            if (selfLink != null) {
+                visitor.visitLinks(Links.of(selfLink));
+            }
+            return;
+        }
 
         try {
             // TODO: move all returns to else branch of property descriptor handling
@@ -36,14 +119,14 @@ public class ResourceTraversal {
                 if(!visitor.visitLinks(resource.getLinks())) {
                     return;
                 }
-                traverseResource(visitor, resource.getContent());
+                traverseResource(visitor, resource.getContent(), budget, depth + 1, level);
                 return;
             } else if (object instanceof CollectionModel) {
                 CollectionModel<?> resources = (CollectionModel<?>) object;
                 if(!visitor.visitLinks(resources.getLinks())) {
                     return;
                 }
-                traverseResource(visitor, resources.getContent());
+                traverseResource(visitor, resources.getContent(), budget, depth + 1, level);
                 return;
             } else if (object instanceof RepresentationModel) {
                 RepresentationModel<?> resource = (RepresentationModel<?>) object;
@@ -56,8 +139,9 @@ public class ResourceTraversal {
                 if(!visitor.visitEnterCollection(collection)) {
                     return;
                 }
-                for (Object item : collection) {
-                    traverseResource(visitor, item);
+                Collection<?> items = budget == null ? collection : budget.limit(collection, level + 1);
+                for (Object item : items) {
+                    traverseResource(visitor, item, budget, depth + 1, level + 1);
                 }
                 if(!visitor.visitLeaveCollection(collection)) {
                     return;
@@ -90,7 +174,8 @@ public class ResourceTraversal {
                             return;
                         }
                     } else {
-                        traverseResource(visitor, content);
+                        // entries are on the level of the map itself
+                        traverseResource(visitor, content, budget, depth + 1, level);
                     }
                     if(!visitor.visitLeaveProperty(key, type, value)) {
                         return;
@@ -125,7 +210,7 @@ public class ResourceTraversal {
                             return;
                         }
                     } else {
-                        traverseResource(visitor, content);
+                        traverseResource(visitor, content, budget, depth + 1, level + 1);
                     }
                     if(!visitor.visitLeaveProperty(name, propertyType, value)) {
                         return;
@@ -163,7 +248,7 @@ public class ResourceTraversal {
                                 return;
                             }
                         } else {
-                            traverseResource(visitor, content);
+                            traverseResource(visitor, content, budget, depth + 1, level + 1);
                         }
                         if(!visitor.visitLeaveProperty(name, type, value)) {
                             return;
@@ -177,6 +262,48 @@ public class ResourceTraversal {
         }
     }
 
+    /**
+     * Gets the self link of the given resource if it is nested beyond the embedding depth.
+     *
+     * @return self link or null if the resource must be traversed
+     */
+    private Link getReferenceLink(Object object, int level) {
+        if (level == 0 || !(object instanceof RepresentationModel)) {
+            return null;
+        }
+        Object bean = object instanceof EntityModel ? ((EntityModel<?>) object).getContent() : object;
+        Link selfLink = ((RepresentationModel<?>) object).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+        if (selfLink == null || embeddingDepth.isEmbedded(bean == null ? object.getClass() : bean.getClass(),
+                level)) {
+            return null;
+        }
+        return selfLink;
+    }
+
+    private static Link getSelfLink(Object object) {
+        if (!(object instanceof RepresentationModel)) {
+            return null;
+        }
+        return ((RepresentationModel<?>) object).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+    }
+
+    private static int countItems(Object object) {
+        final int ret;
+        if (object instanceof CollectionModel) {
+            ret = ((CollectionModel<?>) object).getContent()
+                    .size();
+        } else if (object instanceof Collection) {
+            ret = ((Collection<?>) object).size();
+        } else if (object instanceof Map) {
+            ret = ((Map<?, ?>) object).size();
+        } else {
+            ret = object == null ? 0 : 1;
+        }
+        return ret;
+    }
+
     private static Object getContentAsScalarValue(Object content) {
         final Object value;
         if (content == null) {
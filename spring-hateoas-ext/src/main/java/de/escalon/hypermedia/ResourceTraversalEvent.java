@@ -0,0 +1,31 @@
+package de.escalon.hypermedia;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Traverse Resource&quot; rendering phase.
+ */
+@Name("de.escalon.hypermedia.ResourceTraversal")
+@Label("Traverse Resource")
+@Description("Traverses a resource for a visitor, item count is the number of collection items or properties visited.")
+class ResourceTraversalEvent extends RenderingEvent {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(ResourceTraversalEvent.class);
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @return started event, null if the event type is disabled
+     */
+    static ResourceTraversalEvent beginIfEnabled() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        ResourceTraversalEvent event = new ResourceTraversalEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks an {@link Options} implementation whose possible values may be cached, e.g. because they are read from a
+ * database. Cached values are keyed by options class, {@link Select#value()} and the {@link Select#args()} values of
+ * the current call.
+ * <pre>
+ * &#064;CachedOptions(timeToLive = 5, timeUnit = TimeUnit.MINUTES, staleWhileRevalidate = true)
+ * public class DetailOptions implements Options {
+ *     ...
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CachedOptions {
+
+    /**
+     * How long possible values are considered fresh.
+     *
+     * @return time to live in {@link #timeUnit()}
+     */
+    long timeToLive() default 60;
+
+    /**
+     * Unit of {@link #timeToLive()}.
+     *
+     * @return time unit
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * If true, expired values are still used while fresh values are determined in the background. Otherwise expired
+     * values are determined again by the calling thread.
+     *
+     * @return true if expired values may be used during refresh
+     */
+    boolean staleWhileRevalidate() default false;
+}
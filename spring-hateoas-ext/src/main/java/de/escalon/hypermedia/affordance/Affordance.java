@@ -24,8 +24,8 @@ import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.UriTemplate;
 import org.springframework.util.Assert;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.MultiValueMapAdapter;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
@@ -43,6 +43,12 @@ import static de.escalon.hypermedia.affordance.Affordance.LinkParam.*;
  * PartialUriTemplate#expand} on the given uri template). In the former case one may use {@link #expandPartially} to
  * expand the Affordance variables as far as possible, while keeping unsatisfied variables.</p>
  *
+ * <p>Affordances derived by {@link #withRel}, {@link #expand} or {@link #expandPartially} share the uri template,
+ * link params and action descriptors with the affordance they were derived from. Link params are immutable, setters
+ * replace them rather than change them, so that the affordances remain independent of each other, even if a base
+ * affordance is shared by several threads. The uri template of a derived affordance is only parsed when its
+ * components are needed.</p>
+ *
  * <p>Created by dschulten
  * on 07.09.2014.</p>
  */
@@ -53,14 +59,13 @@ public class Affordance extends Link {
         REL("rel"), ANCHOR("anchor"), REV("rev"), HREFLANG("hreflang"), MEDIA("media"),
         TITLE("title"), TITLE_STAR("title*"), TYPE("type");
 
-        String paramName;
+        final String paramName;
 
         LinkParam(String paramName) {
             this.paramName = paramName;
         }
 
         static LinkParam valueOfParamName(String paramName) {
-            LinkParam.values();
             for (LinkParam linkParam : LinkParam.values()) {
                 if (linkParam.paramName.equals(paramName)) {
                     return linkParam;
@@ -74,8 +79,11 @@ public class Affordance extends Link {
 
     private boolean selfRel = false;
     private List<ActionDescriptor> actionDescriptors = new ArrayList<>();
-    private MultiValueMap<String, String> linkParams = new LinkedMultiValueMap<>();
-    private PartialUriTemplate partialUriTemplate;
+    /**
+     * Immutable link params, possibly shared with derived affordances or the affordance this one was derived from.
+     */
+    private MultiValueMap<String, String> linkParams = freeze(newLinkParams());
+    private final Template template;
     private Cardinality cardinality = Cardinality.SINGLE;
     private TypedResource collectionHolder;
 
@@ -119,16 +127,20 @@ public class Affordance extends Link {
         // They can access the base uri, query etc. via getUriTemplateComponents.
         super(uriTemplate.stripOptionalVariables(actionDescriptors)
                 .toString(), IanaLinkRelations.SELF);
-        this.partialUriTemplate = uriTemplate;
+        this.template = new Template(uriTemplate);
 
         Assert.noNullElements(rels, "null rels are not allowed");
 
         for (String rel : rels) {
-            addRel(rel);
+            Assert.hasLength(rel,
+                    "[Assertion failed] - this String argument must have length; it must not be null or empty");
             if ("self".equals(rel)) {
                 selfRel = true;
             }
         }
+        if (rels.length > 0) {
+            addLinkParamValues(REL.paramName, rels);
+        }
         // if any action refers to a collection resource, make the affordance a collection affordance
         for (ActionDescriptor actionDescriptor : actionDescriptors) {
             if (Cardinality.COLLECTION == actionDescriptor.getCardinality()) {
@@ -140,10 +152,89 @@ public class Affordance extends Link {
     }
 
 
-    private Affordance(String uriTemplate, MultiValueMap<String, String> linkParams,
+    private Affordance(String href, Template template, MultiValueMap<String, String> linkParams,
                        List<ActionDescriptor> actionDescriptors) {
-        this(new PartialUriTemplate(uriTemplate), actionDescriptors); // no rels to pass
+        super(href, IanaLinkRelations.SELF);
+        this.template = template;
         this.linkParams = linkParams; // takes care of rels
+        this.actionDescriptors = actionDescriptors;
+    }
+
+    /**
+     * Creates an affordance which has the same action descriptors, cardinality and collection holder as this one.
+     *
+     * @param href       of derived affordance, must be the stripped uri template of the given template
+     * @param template   of derived affordance
+     * @param linkParams of derived affordance, immutable
+     * @return derived affordance
+     */
+    private Affordance derive(String href, Template template, MultiValueMap<String, String> linkParams) {
+        Affordance ret = new Affordance(href, template, linkParams, actionDescriptors);
+        ret.selfRel = selfRel;
+        ret.cardinality = cardinality;
+        ret.collectionHolder = collectionHolder;
+        return ret;
+    }
+
+    /**
+     * Replaces link params by link params which additionally have the given values.
+     *
+     * @param paramName of link param
+     * @param values    to add
+     */
+    private void addLinkParamValues(String paramName, String... values) {
+        MultiValueMap<String, String> params = copyLinkParams(linkParams);
+        for (String value : values) {
+            params.add(paramName, value);
+        }
+        linkParams = freeze(params);
+    }
+
+    /**
+     * Replaces link params by link params which have the given value as only value of the link param.
+     *
+     * @param paramName of link param
+     * @param value     to set, null to remove the link param
+     */
+    private void setLinkParamValue(String paramName, String value) {
+        MultiValueMap<String, String> params = copyLinkParams(linkParams);
+        if (value != null) {
+            params.set(paramName, value);
+        } else {
+            params.remove(paramName);
+        }
+        linkParams = freeze(params);
+    }
+
+    /**
+     * Creates compact link params, affordances usually have few link params with a single value each.
+     *
+     * @return empty link params
+     */
+    private static MultiValueMap<String, String> newLinkParams() {
+        return new MultiValueMapAdapter<>(new ArrayMap<String, List<String>>());
+    }
+
+    private static MultiValueMap<String, String> copyLinkParams(MultiValueMap<String, String> linkParams) {
+        MultiValueMap<String, String> ret = newLinkParams();
+        for (Map.Entry<String, List<String>> entry : linkParams.entrySet()) {
+            ret.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return ret;
+    }
+
+    /**
+     * Makes link params immutable, so that they can be shared with derived affordances.
+     *
+     * @param linkParams which are no longer changed by the caller
+     * @return immutable link params
+     */
+    private static MultiValueMap<String, String> freeze(MultiValueMap<String, String> linkParams) {
+        ArrayMap<String, List<String>> ret = new ArrayMap<String, List<String>>();
+        for (Map.Entry<String, List<String>> entry : linkParams.entrySet()) {
+            ret.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        return new MultiValueMapAdapter<>(Collections.unmodifiableMap(ret));
     }
 
 
@@ -154,7 +245,7 @@ public class Affordance extends Link {
      */
     public void addRel(String rel) {
         Assert.hasLength(rel, "[Assertion failed] - this String argument must have length; it must not be null or empty");
-        linkParams.add(REL.paramName, rel);
+        addLinkParamValues(REL.paramName, rel);
     }
 
     /**
@@ -166,10 +257,7 @@ public class Affordance extends Link {
      * @param mediaType to set
      */
     public void setType(String mediaType) {
-        if (mediaType != null)
-            linkParams.set(TYPE.paramName, mediaType);
-        else
-            linkParams.remove(TYPE.paramName);
+        setLinkParamValue(TYPE.paramName, mediaType);
     }
 
     /**
@@ -182,7 +270,7 @@ public class Affordance extends Link {
      */
     public void addHreflang(String hreflang) {
         Assert.hasLength(hreflang, "[Assertion failed] - this String argument must have length; it must not be null or empty");
-        linkParams.add(HREFLANG.paramName, hreflang);
+        addLinkParamValues(HREFLANG.paramName, hreflang);
     }
 
     /**
@@ -194,17 +282,12 @@ public class Affordance extends Link {
      * @param title to set
      */
     public void setTitle(String title) {
-        if (title != null)
-            linkParams.set(TITLE.paramName, title);
-        else {
-            linkParams.remove(TITLE.paramName);
-        }
+        setLinkParamValue(TITLE.paramName, title);
     }
 
     @JsonIgnore
     public boolean isBaseUriTemplated() {
-        return partialUriTemplate.asComponents()
-                .isBaseUriTemplated();
+        return getUriTemplateComponents().isBaseUriTemplated();
     }
 
     /**
@@ -290,10 +373,7 @@ public class Affordance extends Link {
      * @param titleStar to set
      */
     public void setTitleStar(String titleStar) {
-        if (titleStar != null)
-            linkParams.set(TITLE_STAR.paramName, titleStar);
-        else
-            linkParams.remove(TITLE_STAR.paramName);
+        setLinkParamValue(TITLE_STAR.paramName, titleStar);
     }
 
     /**
@@ -305,10 +385,7 @@ public class Affordance extends Link {
      * @param mediaDesc to set
      */
     public void setMedia(String mediaDesc) {
-        if (mediaDesc != null)
-            linkParams.set(MEDIA.paramName, mediaDesc);
-        else
-            linkParams.remove(MEDIA.paramName);
+        setLinkParamValue(MEDIA.paramName, mediaDesc);
     }
 
     /**
@@ -321,7 +398,7 @@ public class Affordance extends Link {
      */
     public void addRev(String rev) {
         Assert.hasLength(rev, "[Assertion failed] - this String argument must have length; it must not be null or empty");
-        linkParams.add(REV.paramName, rev);
+        addLinkParamValues(REV.paramName, rev);
     }
 
     /**
@@ -334,10 +411,7 @@ public class Affordance extends Link {
      * @param anchor base uri to define
      */
     public void setAnchor(String anchor) {
-        if (anchor != null)
-            linkParams.set(ANCHOR.paramName, anchor);
-        else
-            linkParams.remove(ANCHOR.paramName);
+        setLinkParamValue(ANCHOR.paramName, anchor);
     }
 
     /**
@@ -350,8 +424,26 @@ public class Affordance extends Link {
         Assert.notEmpty(values, "[Assertion failed] - this array must not be empty: it must contain at least 1 element");
         for (String value : values) {
             Assert.hasLength(value, "[Assertion failed] - this String argument must have length; it must not be null or empty");
-            linkParams.add(paramName, value);
         }
+        addLinkParamValues(paramName, values);
+    }
+
+    /**
+     * Adds several link params at once, e.g. the params collected by a builder. The link params are replaced only
+     * once, rather than once per value as with {@link #addLinkParam(String, String...)}.
+     *
+     * @param params link params with one or more values each
+     */
+    public void addLinkParams(MultiValueMap<String, String> params) {
+        MultiValueMap<String, String> ret = copyLinkParams(linkParams);
+        for (Map.Entry<String, List<String>> entry : params.entrySet()) {
+            for (String value : entry.getValue()) {
+                Assert.hasLength(value,
+                        "[Assertion failed] - this String argument must have length; it must not be null or empty");
+                ret.add(entry.getKey(), value);
+            }
+        }
+        linkParams = freeze(ret);
     }
 
     /**
@@ -408,8 +500,7 @@ public class Affordance extends Link {
             }
         }
 
-        String linkHeader = "<" + partialUriTemplate.asComponents()
-                .toString() + ">; ";
+        String linkHeader = "<" + getUriTemplateComponents().toString() + ">; ";
 
         return result.insert(0, linkHeader)
                 .toString();
@@ -432,19 +523,39 @@ public class Affordance extends Link {
         return getHeaderName() + ": " + asHeader();
     }
 
+    /**
+     * Creates a copy of this affordance which has the given rel instead of the rels of this affordance. This
+     * affordance remains unchanged.
+     *
+     * @param rel of copy
+     * @return affordance with given rel
+     */
     @Override
     public Affordance withRel(String rel) {
-        linkParams.set(REL.paramName, rel);
-        return new Affordance(this.getHref(), linkParams, actionDescriptors);
+        Assert.hasLength(rel, "[Assertion failed] - this String argument must have length; it must not be null or empty");
+        MultiValueMap<String, String> params = copyLinkParams(linkParams);
+        params.set(REL.paramName, rel);
+        Affordance ret = derive(getHref(), template, freeze(params));
+        ret.selfRel = IanaLinkRelations.SELF_VALUE.equals(rel);
+        return ret;
     }
 
+    /**
+     * Creates a copy of this affordance which additionally has the self rel. This affordance remains unchanged.
+     *
+     * @return affordance with self rel
+     */
     @Override
     public Affordance withSelfRel() {
-        if (!linkParams.get(REL.paramName)
-                .contains(IanaLinkRelations.SELF_VALUE)) {
-            linkParams.add(REL.paramName, IanaLinkRelations.SELF_VALUE);
+        MultiValueMap<String, String> params = linkParams;
+        if (!getRels().contains(IanaLinkRelations.SELF_VALUE)) {
+            params = copyLinkParams(linkParams);
+            params.add(REL.paramName, IanaLinkRelations.SELF_VALUE);
+            params = freeze(params);
         }
-        return new Affordance(this.getHref(), linkParams, actionDescriptors);
+        Affordance ret = derive(getHref(), template, params);
+        ret.selfRel = true;
+        return ret;
     }
 
     /**
@@ -456,11 +567,10 @@ public class Affordance extends Link {
      */
     @Override
     public Affordance expand(Object... arguments) {
-        UriTemplate template = UriTemplate.of(partialUriTemplate.asComponents()
-                .toString());
-        String expanded = template.expand(arguments)
+        String expanded = template.getUriTemplate()
+                .expand(arguments)
                 .toASCIIString();
-        return new Affordance(expanded, linkParams, actionDescriptors);
+        return derive(expanded, new Template(expanded), linkParams);
     }
 
     /**
@@ -470,7 +580,8 @@ public class Affordance extends Link {
      */
     @JsonIgnore
     public PartialUriTemplateComponents getUriTemplateComponents() {
-        return partialUriTemplate.asComponents();
+        return template.getPartialUriTemplate()
+                .asComponents();
     }
 
     /**
@@ -482,11 +593,10 @@ public class Affordance extends Link {
      */
     @Override
     public Affordance expand(Map<String, ? extends Object> arguments) {
-        UriTemplate template = UriTemplate.of(partialUriTemplate.asComponents()
-                .toString());
-        String expanded = template.expand(arguments)
+        String expanded = template.getUriTemplate()
+                .expand(arguments)
                 .toASCIIString();
-        return new Affordance(expanded, linkParams, actionDescriptors);
+        return derive(expanded, new Template(expanded), linkParams);
     }
 
     /**
@@ -498,8 +608,9 @@ public class Affordance extends Link {
      * @return partially expanded affordance
      */
     public Affordance expandPartially(Object... arguments) {
-        return new Affordance(partialUriTemplate.expand(arguments)
-                .toString(), linkParams, actionDescriptors);
+        PartialUriTemplate partialUriTemplate = template.getPartialUriTemplate();
+        return derive(partialUriTemplate.expandAndStripOptionalVariables(arguments, actionDescriptors)
+                .toString(), new Template(partialUriTemplate.expand(arguments)), linkParams);
     }
 
     /**
@@ -511,8 +622,9 @@ public class Affordance extends Link {
      * @return partially expanded affordance
      */
     public Affordance expandPartially(Map<String, ? extends Object> arguments) {
-        return new Affordance(partialUriTemplate.expand(arguments)
-                .toString(), linkParams, actionDescriptors);
+        PartialUriTemplate partialUriTemplate = template.getPartialUriTemplate();
+        return derive(partialUriTemplate.expandAndStripOptionalVariables(arguments, actionDescriptors)
+                .toString(), new Template(partialUriTemplate.expand(arguments)), linkParams);
     }
 
 
@@ -646,4 +758,48 @@ public class Affordance extends Link {
     public void setCollectionHolder(TypedResource collectionHolder) {
         this.collectionHolder = collectionHolder;
     }
+
+    /**
+     * Uri template of an affordance, shared by derived affordances. Parses the template and compiles the {@link
+     * UriTemplate} used for full expansion on first use.
+     */
+    private static final class Template {
+
+        private final Object source;
+        private volatile PartialUriTemplate partialUriTemplate;
+        private volatile UriTemplate uriTemplate;
+
+        Template(PartialUriTemplate partialUriTemplate) {
+            this.source = partialUriTemplate;
+            this.partialUriTemplate = partialUriTemplate;
+        }
+
+        /**
+         * Creates template which is parsed on first use.
+         *
+         * @param source uri template or expanded components
+         */
+        Template(Object source) {
+            this.source = source;
+        }
+
+        PartialUriTemplate getPartialUriTemplate() {
+            PartialUriTemplate ret = partialUriTemplate;
+            if (ret == null) {
+                ret = new PartialUriTemplate(source.toString());
+                partialUriTemplate = ret;
+            }
+            return ret;
+        }
+
+        UriTemplate getUriTemplate() {
+            UriTemplate ret = uriTemplate;
+            if (ret == null) {
+                ret = UriTemplate.of(getPartialUriTemplate().asComponents()
+                        .toString());
+                uriTemplate = ret;
+            }
+            return ret;
+        }
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.affordance;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion-ordered map which keeps its keys and values in a single array. Lookups are linear, which makes it a
+ * compact replacement for {@link java.util.LinkedHashMap} in the small maps held by every action descriptor and
+ * affordance, e.g. request params or link params. An empty map shares its backing array with all other empty maps.
+ * Null keys are not supported. Not thread-safe.
+ *
+ * @param <K>
+ *         key type
+ * @param <V>
+ *         value type
+ */
+public class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Keys at even, values at odd indices.
+     */
+    private Object[] table = EMPTY;
+    private int size;
+    private int modCount;
+
+    /**
+     * Creates empty map.
+     */
+    public ArrayMap() {
+
+    }
+
+    /**
+     * Creates map with the entries of the given map.
+     *
+     * @param map
+     *         to copy
+     */
+    public ArrayMap(Map<? extends K, ? extends V> map) {
+        if (!map.isEmpty()) {
+            table = new Object[map.size() * 2];
+            putAll(map);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) table[index + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            V ret = (V) table[index + 1];
+            table[index + 1] = value;
+            return ret;
+        }
+        int end = size * 2;
+        if (end == table.length) {
+            table = Arrays.copyOf(table, end == 0 ? 2 : end * 2);
+        }
+        table[end] = key;
+        table[end + 1] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V ret = (V) table[index + 1];
+        removeAt(index);
+        return ret;
+    }
+
+    @Override
+    public void clear() {
+        table = EMPTY;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int end = size * 2;
+        for (int i = 0; i < end; i += 2) {
+            if (key.equals(table[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int end = size * 2;
+        System.arraycopy(table, index + 2, table, index, end - index - 2);
+        table[end - 2] = null;
+        table[end - 1] = null;
+        size--;
+        modCount++;
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int next;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size * 2;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next += 2;
+            return new ArrayEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(current);
+            next = current;
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class ArrayEntry implements Entry<K, V> {
+
+        private final int index;
+
+        ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) table[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) table[index + 1];
+        }
+
+        @Override
+        public V setValue(V value) {
+            V ret = getValue();
+            table[index + 1] = value;
+            return ret;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other
+                    .getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
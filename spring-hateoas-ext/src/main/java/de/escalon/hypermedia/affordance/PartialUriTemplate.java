@@ -42,6 +42,11 @@ public class PartialUriTemplate {
     private List<TemplateVariable> variables = new ArrayList<>();
     private List<String> variableNames = new ArrayList<>();
 
+    /**
+     * Unexpanded components, computed on first use. Templates are immutable, so instances may be shared.
+     */
+    private volatile PartialUriTemplateComponents components;
+
     /**
      * Creates a new {@link PartialUriTemplate} using the given template string.
      *
@@ -104,6 +109,8 @@ public class PartialUriTemplate {
             urlComponents.add(template.substring(endOfPart));
             variableIndices.add(Collections.<Integer>emptyList());
         }
+        variables = Collections.unmodifiableList(variables);
+        variableNames = Collections.unmodifiableList(variableNames);
     }
 
     public List<String> getVariableNames() {
@@ -117,7 +124,12 @@ public class PartialUriTemplate {
      * @return components of the Uri
      */
     public PartialUriTemplateComponents asComponents() {
-        return getUriTemplateComponents(Collections.<String, Object>emptyMap(), Collections.<String>emptyList());
+        PartialUriTemplateComponents ret = components;
+        if (ret == null) {
+            ret = getUriTemplateComponents(Collections.<String, Object>emptyMap(), Collections.<String>emptyList());
+            components = ret;
+        }
+        return ret;
     }
 
 
@@ -129,7 +141,10 @@ public class PartialUriTemplate {
      * @return expanded template
      */
     public PartialUriTemplateComponents expand(Object... parameters) {
-        List<String> variableNames = getVariableNames();
+        return getUriTemplateComponents(toParameterMap(parameters), Collections.emptyList());
+    }
+
+    private Map<String, Object> toParameterMap(Object... parameters) {
         Map<String, Object> parameterMap = new LinkedHashMap<>();
 
         int i = 0;
@@ -140,7 +155,7 @@ public class PartialUriTemplate {
                 break;
             }
         }
-        return getUriTemplateComponents(parameterMap, Collections.emptyList());
+        return parameterMap;
     }
 
     /**
@@ -270,6 +285,37 @@ public class PartialUriTemplate {
         return getUriTemplateComponents(Collections.emptyMap(), getRequiredArgNames(actionDescriptors));
     }
 
+    /**
+     * Expands the template using given parameters and strips all unsatisfied variables which are not required by any
+     * of the given action descriptors, in one pass. Same as stripping optional variables from a template parsed from
+     * the partially expanded template.
+     *
+     * @param parameters
+     *         for expansion in the order of appearance in the template
+     * @param actionDescriptors
+     *         to decide which variables are optional, may be empty
+     * @return expanded template without optional variables, if actionDescriptors was not empty
+     */
+    PartialUriTemplateComponents expandAndStripOptionalVariables(Object[] parameters,
+                                                                 List<ActionDescriptor> actionDescriptors) {
+        return getUriTemplateComponents(toParameterMap(parameters), getRequiredArgNames(actionDescriptors));
+    }
+
+    /**
+     * Expands the template using given parameters and strips all unsatisfied variables which are not required by any
+     * of the given action descriptors, in one pass.
+     *
+     * @param parameters
+     *         for expansion
+     * @param actionDescriptors
+     *         to decide which variables are optional, may be empty
+     * @return expanded template without optional variables, if actionDescriptors was not empty
+     */
+    PartialUriTemplateComponents expandAndStripOptionalVariables(Map<String, ?> parameters,
+                                                                 List<ActionDescriptor> actionDescriptors) {
+        return getUriTemplateComponents(parameters, getRequiredArgNames(actionDescriptors));
+    }
+
     private List<String> getRequiredArgNames(List<ActionDescriptor> actionDescriptors) {
         List<String> ret = new ArrayList<>();
         for (ActionDescriptor actionDescriptor : actionDescriptors) {
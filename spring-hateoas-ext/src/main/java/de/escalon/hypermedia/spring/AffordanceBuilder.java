@@ -135,12 +135,77 @@ public class AffordanceBuilder implements LinkBuilder {
     }
 
 
+    /**
+     * Creates a new {@link AffordanceBuilder} with a base of the mapping annotated to the given controller class,
+     * using the base uri of the given context rather than the current request. Use this to build links on threads
+     * which are not bound to a request.
+     *
+     * @param context
+     *         providing the base uri, must not be {@literal null}.
+     * @param controller
+     *         the class to discover the annotation on, must not be {@literal null}.
+     * @return builder
+     * @see LinkBuildingContext#fromCurrentRequest()
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller) {
+        return linkTo(context, controller, new Object[0]);
+    }
+
+    /**
+     * @see #linkTo(Class, Object...)
+     * @see #linkTo(LinkBuildingContext, Class)
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller, Object... parameters) {
+        return FACTORY.linkTo(context, controller, parameters);
+    }
+
+    /**
+     * @see #linkTo(Method, Object...)
+     * @see #linkTo(LinkBuildingContext, Class)
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Method method, Object... parameters) {
+        return linkTo(context, method.getDeclaringClass(), method, parameters);
+    }
+
+    /**
+     * @see #linkTo(Class, Map)
+     * @see #linkTo(LinkBuildingContext, Class)
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller,
+                                           Map<String, ?> parameters) {
+        return FACTORY.linkTo(context, controller, parameters);
+    }
+
+    /**
+     * @see #linkTo(Class, Method, Object...)
+     * @see #linkTo(LinkBuildingContext, Class)
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller, Method method,
+                                           Object... parameters) {
+        return FACTORY.linkTo(context, controller, method, parameters);
+    }
+
+    /**
+     * @see #linkTo(Object)
+     * @see #linkTo(LinkBuildingContext, Class)
+     */
+    public static AffordanceBuilder linkTo(LinkBuildingContext context, Object methodInvocation) {
+        return FACTORY.linkTo(context, methodInvocation);
+    }
+
     /**
      * Creates a new {@link AffordanceBuilder} pointing to this server, but without ActionDescriptor.
      */
     AffordanceBuilder() {
-        this(new PartialUriTemplate(getBuilder().build()
-                        .toString()).expand(Collections.emptyMap()),
+        this(LinkBuildingContext.fromCurrentRequest());
+    }
+
+    /**
+     * Creates a new {@link AffordanceBuilder} pointing to the base uri of the given context, but without
+     * ActionDescriptor.
+     */
+    AffordanceBuilder(LinkBuildingContext context) {
+        this(new PartialUriTemplate(context.getBaseUri()).expand(Collections.emptyMap()),
                 Collections.emptyList());
     }
 
@@ -188,15 +253,13 @@ public class AffordanceBuilder implements LinkBuilder {
         final Affordance affordance;
         affordance = new Affordance(new PartialUriTemplate(this.toString()), actionDescriptors,
                 rels.toArray(new String[0]));
-        for (Map.Entry<String, List<String>> linkParamEntry : linkParams.entrySet()) {
-            final List<String> values = linkParamEntry.getValue();
-            for (String value : values) {
-                affordance.addLinkParam(linkParamEntry.getKey(), value);
-            }
-        }
+        // the affordance copies its link params on every change, so they are added in one step
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.addAll(linkParams);
         for (String reverseRel : reverseRels) {
-            affordance.addRev(reverseRel);
+            params.add("rev", reverseRel);
         }
+        affordance.addLinkParams(params);
         affordance.setCollectionHolder(collectionHolder);
         return affordance;
     }
@@ -14,6 +14,7 @@
 package de.escalon.hypermedia.spring;
 
 import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.RenderingEvents;
 import de.escalon.hypermedia.action.Action;
 import de.escalon.hypermedia.action.Cardinality;
 import de.escalon.hypermedia.action.Input;
@@ -26,6 +27,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.convert.ConversionService;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.server.MethodLinkBuilderFactory;
 import org.springframework.hateoas.server.core.AnnotationMappingDiscoverer;
@@ -50,6 +52,32 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
     private static final MappingDiscoverer MAPPING_DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
 
+    private ConversionService conversionService;
+
+    private OptionsResolver optionsResolver;
+
+    /**
+     * Sets the conversion service which formats the call values of action input parameters, e.g. the conversion
+     * service of the web application context. Default is null, i.e. {@link
+     * SpringActionInputParameter#getDefaultConversionService()}.
+     *
+     * @param conversionService to use, may be null
+     */
+    public void setConversionService(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    /**
+     * Sets the options resolver which determines possible values of {@link de.escalon.hypermedia.action.Select}
+     * parameters, e.g. an {@link OptionsResolver} bean which uses Options beans. Default is null, i.e. {@link
+     * SpringActionInputParameter#getDefaultOptionsResolver()}.
+     *
+     * @param optionsResolver to use, may be null
+     */
+    public void setOptionsResolver(OptionsResolver optionsResolver) {
+        this.optionsResolver = optionsResolver;
+    }
+
     @Override
     public AffordanceBuilder linkTo( Method method) {
         return linkTo(method.getDeclaringClass(), method);
@@ -67,6 +95,27 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
     @Override
     public AffordanceBuilder linkTo(Class<?> controller, Method method, Object... parameters) {
+        return linkTo(LinkBuildingContext.fromCurrentRequest(), controller, method, parameters);
+    }
+
+    /**
+     * Creates builder for the given controller method, using the base uri of the given context.
+     *
+     * @param context
+     *         providing the base uri
+     * @param controller
+     *         the class to discover the annotation on
+     * @param method
+     *         the method to discover the annotation on
+     * @param parameters
+     *         to bind to the URI template
+     * @return builder
+     * @see #linkTo(Class, Method, Object...)
+     */
+    public AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller, Method method,
+                                    Object... parameters) {
+        Assert.notNull(context, "Link building context should be not null");
+        LinkToEvent event = RenderingEvents.isAvailable() ? LinkToEvent.beginIfEnabled() : null;
 
         String pathMapping = MAPPING_DISCOVERER.getMapping(controller, method);
 
@@ -77,8 +126,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         // explicitly write out params where variable name and param are different, rest as continuation
         String mapping = StringUtils.isEmpty(query) ? pathMapping : pathMapping + query;
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build() + mapping);
+        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(context.getBaseUri() + mapping);
 
         Map<String, Object> values = new HashMap<>();
         Iterator<String> variableNames = partialUriTemplate.getVariableNames()
@@ -104,7 +152,12 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
         ActionDescriptor actionDescriptor = createActionDescriptor(method, values, parameters);
 
-        return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
+        AffordanceBuilder ret = new AffordanceBuilder(partialUriTemplate.expand(values),
+                Collections.singletonList(actionDescriptor));
+        if (event != null) {
+            event.commit(controller, 0, values.size());
+        }
+        return ret;
     }
 
     private String join(Map<String, String>... params) {
@@ -134,6 +187,23 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
     @Override
     public AffordanceBuilder linkTo(Class<?> controller, Object... parameters) {
+        return linkTo(LinkBuildingContext.fromCurrentRequest(), controller, parameters);
+    }
+
+    /**
+     * Creates builder for the given controller class, using the base uri of the given context.
+     *
+     * @param context
+     *         providing the base uri
+     * @param controller
+     *         the class to discover the annotation on
+     * @param parameters
+     *         to bind to the URI template
+     * @return builder
+     * @see #linkTo(Class, Object...)
+     */
+    public AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller, Object... parameters) {
+        Assert.notNull(context, "Link building context should be not null");
         Assert.notNull(controller, "Controller should be not null");
 
         String mapping = MAPPING_DISCOVERER.getMapping(controller);
@@ -150,18 +220,51 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
             }
             values.put(names.next(), parameter);
         }
-        return new AffordanceBuilder().slash(partialUriTemplate.expand(values));
+        return new AffordanceBuilder(context).slash(partialUriTemplate.expand(values));
     }
 
     @Override
     public AffordanceBuilder linkTo(Class<?> controller, Map<String, ?> parameters) {
+        return linkTo(LinkBuildingContext.fromCurrentRequest(), controller, parameters);
+    }
+
+    /**
+     * Creates builder for the given controller class, using the base uri of the given context.
+     *
+     * @param context
+     *         providing the base uri
+     * @param controller
+     *         the class to discover the annotation on
+     * @param parameters
+     *         to bind to the URI template by variable name
+     * @return builder
+     * @see #linkTo(Class, Map)
+     */
+    public AffordanceBuilder linkTo(LinkBuildingContext context, Class<?> controller, Map<String, ?> parameters) {
+        Assert.notNull(context, "Link building context should be not null");
         String mapping = MAPPING_DISCOVERER.getMapping(controller);
         PartialUriTemplate partialUriTemplate = new PartialUriTemplate(mapping == null ? "/" : mapping);
-        return new AffordanceBuilder().slash(partialUriTemplate.expand(parameters));
+        return new AffordanceBuilder(context).slash(partialUriTemplate.expand(parameters));
     }
 
     @Override
     public AffordanceBuilder linkTo(Object invocationValue) {
+        return linkTo(LinkBuildingContext.fromCurrentRequest(), invocationValue);
+    }
+
+    /**
+     * Creates builder for the given method invocation, using the base uri of the given context.
+     *
+     * @param context
+     *         providing the base uri
+     * @param invocationValue
+     *         dummy method invocation result
+     * @return builder
+     * @see #linkTo(Object)
+     */
+    public AffordanceBuilder linkTo(LinkBuildingContext context, Object invocationValue) {
+        Assert.notNull(context, "Link building context should be not null");
+        LinkToEvent event = RenderingEvents.isAvailable() ? LinkToEvent.beginIfEnabled() : null;
 
         Assert.isInstanceOf(LastInvocationAware.class, invocationValue);
         LastInvocationAware invocations = (LastInvocationAware)
@@ -179,8 +282,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         String query = join(requestParamNames, inputBeanParamNames);
         String mapping = StringUtils.isEmpty(query) ? pathMapping : pathMapping + query;
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build() + mapping);
+        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(context.getBaseUri() + mapping);
 
 
         Map<String, Object> values = new HashMap<>();
@@ -204,7 +306,12 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
         ActionDescriptor actionDescriptor = createActionDescriptor(
                 invocation.getMethod(), values, invocation.getArguments());
 
-        return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
+        AffordanceBuilder ret = new AffordanceBuilder(partialUriTemplate.expand(values),
+                Collections.singletonList(actionDescriptor));
+        if (event != null) {
+            event.commit(invokedMethod.getDeclaringClass(), 0, values.size());
+        }
+        return ret;
     }
 
     private Map<String, String> getInputBeanParamNames(Method invokedMethod) {
@@ -306,6 +413,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
         SpringActionDescriptor actionDescriptor =
                 new SpringActionDescriptor(invokedMethod.getName(), httpMethod.name());
+        actionDescriptor.setInvokedMethod(invokedMethod);
 
         actionDescriptor.setCardinality(getCardinality(invokedMethod, httpMethod, genericReturnType));
 
@@ -444,8 +552,8 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
      * @param arguments  to the method link
      * @return maps parameter names to parameter info
      */
-    private static Map<String, ActionInputParameter> getActionInputParameters(Class<? extends Annotation> annotation,
-                                                                              Method method, Object... arguments
+    private Map<String, ActionInputParameter> getActionInputParameters(Class<? extends Annotation> annotation,
+                                                                       Method method, Object... arguments
     ) {
 
         Assert.notNull(method, "MethodInvocation must not be null!");
@@ -461,7 +569,8 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
             } else {
                 argument = null;
             }
-            ActionInputParameter inputParameter = new SpringActionInputParameter(parameter, argument);
+            ActionInputParameter inputParameter = new SpringActionInputParameter(parameter, argument,
+                    conversionService, optionsResolver);
             result.put(inputParameter.getParameterName(), inputParameter);
         }
 
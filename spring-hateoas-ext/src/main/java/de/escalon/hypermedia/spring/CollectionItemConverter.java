@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Converts the items of a collection, e.g. to siren sub-entities or uber nodes. Collections with at least {@code
+ * threshold} items are converted in partitions on an executor, the results are returned in the order of the
+ * items.
+ */
+public class CollectionItemConverter {
+
+    /**
+     * Converts all items on the calling thread.
+     */
+    public static final CollectionItemConverter SEQUENTIAL = new CollectionItemConverter(null, Integer.MAX_VALUE,
+            Integer.MAX_VALUE);
+
+    private final ExecutorService executor;
+    private final int threshold;
+    private final int partitionSize;
+
+    /**
+     * Creates converter which uses the given executor for large collections.
+     *
+     * @param executor
+     *         to convert partitions on, null to convert on the calling thread
+     * @param threshold
+     *         minimum number of items for conversion on the executor
+     * @param partitionSize
+     *         number of items converted per task
+     */
+    public CollectionItemConverter(ExecutorService executor, int threshold, int partitionSize) {
+        Assert.isTrue(threshold > 0, "threshold must be positive");
+        Assert.isTrue(partitionSize > 0, "partition size must be positive");
+        this.executor = executor;
+        this.threshold = threshold;
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Conversion of a single item.
+     *
+     * @param <T>
+     *         conversion result
+     */
+    public interface ItemConversion<T> {
+
+        /**
+         * Converts an item. Must not depend on the conversion of other items, since items may be converted
+         * concurrently.
+         *
+         * @param item
+         *         to convert, may be null
+         * @return conversion result
+         * @throws Exception
+         *         if conversion fails
+         */
+        T convert(Object item) throws Exception;
+    }
+
+    /**
+     * Converts the items of the collection.
+     *
+     * @param items
+     *         to convert
+     * @param conversion
+     *         to apply to each item
+     * @param <T>
+     *         conversion result
+     * @return conversion results in the order of the items
+     */
+    public <T> List<T> convert(Collection<?> items, ItemConversion<T> conversion) {
+        try {
+            if (executor == null || items.size() < threshold) {
+                return convertPartition(items, conversion);
+            }
+            return convertInPartitions(new ArrayList<Object>(items), conversion);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("failed to convert collection items", e);
+        }
+    }
+
+    private <T> List<T> convertInPartitions(List<Object> items, final ItemConversion<T> conversion)
+            throws Exception {
+        List<Future<List<T>>> partitions = new ArrayList<Future<List<T>>>();
+        try {
+            for (int from = 0; from < items.size(); from += partitionSize) {
+                final List<Object> partition = items.subList(from, Math.min(items.size(), from + partitionSize));
+                partitions.add(executor.submit(new Callable<List<T>>() {
+                    @Override
+                    public List<T> call() throws Exception {
+                        return convertPartition(partition, conversion);
+                    }
+                }));
+            }
+            List<T> ret = new ArrayList<T>(items.size());
+            for (Future<List<T>> partition : partitions) {
+                ret.addAll(partition.get());
+            }
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            for (Future<List<T>> partition : partitions) {
+                partition.cancel(true);
+            }
+        }
+    }
+
+    private static <T> List<T> convertPartition(Collection<?> items, ItemConversion<T> conversion)
+            throws Exception {
+        List<T> ret = new ArrayList<T>(items.size());
+        for (Object item : items) {
+            ret.add(conversion.convert(item));
+        }
+        return ret;
+    }
+}
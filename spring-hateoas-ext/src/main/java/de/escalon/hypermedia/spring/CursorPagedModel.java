@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Page of a collection which is navigated by cursor rather than by page number, e.g. using keyset pagination. The
+ * cursors are part of the {@code next} and {@code prev} links of the page. Unlike {@link
+ * org.springframework.hateoas.PagedModel} it does not require the total number of items, which may be supplied
+ * lazily if the client should see it anyway:
+ * <pre>
+ * CursorPagedModel.of(events, nextLink, prevLink)
+ *         .withTotalItems(() -&gt; eventRepository.count());
+ * </pre>
+ *
+ * @param <T>
+ *         content type
+ */
+public class CursorPagedModel<T> extends CollectionModel<T> {
+
+    private final Supplier<Long> totalItems;
+
+    protected CursorPagedModel(Iterable<T> content, Iterable<Link> links, Supplier<Long> totalItems) {
+        super(content, links, null);
+        this.totalItems = totalItems;
+    }
+
+    /**
+     * Creates page without total number of items.
+     *
+     * @param content
+     *         of the page
+     * @param links
+     *         of the page, in particular {@code next} and {@code prev} links carrying the cursors
+     * @param <T>
+     *         content type
+     * @return page
+     */
+    public static <T> CursorPagedModel<T> of(Iterable<T> content, Link... links) {
+        return of(content, Arrays.asList(links));
+    }
+
+    /**
+     * Creates page without total number of items.
+     *
+     * @param content
+     *         of the page
+     * @param links
+     *         of the page, in particular {@code next} and {@code prev} links carrying the cursors
+     * @param <T>
+     *         content type
+     * @return page
+     */
+    public static <T> CursorPagedModel<T> of(Iterable<T> content, Iterable<Link> links) {
+        return new CursorPagedModel<T>(content, links, null);
+    }
+
+    /**
+     * Creates a copy of this page with a supplier of the total number of items. The supplier is called when the page
+     * is rendered, by renderers which support the total number of items.
+     *
+     * @param totalItems
+     *         supplier of the total number of items, may return null if unknown
+     * @return new page
+     */
+    public CursorPagedModel<T> withTotalItems(Supplier<Long> totalItems) {
+        Assert.notNull(totalItems, "totalItems must not be null");
+        return new CursorPagedModel<T>(getContent(), getLinks(), totalItems);
+    }
+
+    /**
+     * Creates a copy of this page with a known total number of items.
+     *
+     * @param totalItems
+     *         total number of items
+     * @return new page
+     */
+    public CursorPagedModel<T> withTotalItems(final long totalItems) {
+        return withTotalItems(new Supplier<Long>() {
+            @Override
+            public Long get() {
+                return totalItems;
+            }
+        });
+    }
+
+    /**
+     * Gets total number of items, calls the supplier of the total number of items if one was given.
+     *
+     * @return total number of items or null if unknown
+     */
+    @JsonIgnore
+    public Long getTotalItems() {
+        return totalItems == null ? null : totalItems.get();
+    }
+
+    /**
+     * Determines if the page has a supplier of the total number of items.
+     *
+     * @return true if total number of items can be supplied
+     */
+    public boolean hasTotalItems() {
+        return totalItems != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CursorPagedModel { content: %s, links: %s }", getContent(), getLinks());
+    }
+}
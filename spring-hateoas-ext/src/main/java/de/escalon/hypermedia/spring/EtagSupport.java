@@ -0,0 +1,239 @@
+package de.escalon.hypermedia.spring;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Adds an ETag header to responses written by the hypermedia message converters and answers matching If-None-Match
+ * requests with 304 Not Modified. <p>If a {@link ResourceVersionProvider} knows the version of a resource, the ETag is
+ * derived from it and a 304 is sent without rendering at all. Since one version has several representations, the
+ * version ETag also encodes the variant: the content type, whether a minimal representation was requested, and the
+ * rendering options the converter passes in, e.g. the field selection. Otherwise, if digesting is enabled, the
+ * representation is rendered once into a digesting stream which discards the bytes, so that the ETag is known before
+ * the headers are committed. Unlike {@link org.springframework.web.filter.ShallowEtagHeaderFilter} this never buffers
+ * the response, at the price of rendering twice if the client does not have the current version, therefore digesting is
+ * disabled by default.</p> <p>Only a {@link ServerHttpResponse} can be answered with 304, other output messages, e.g.
+ * the events of a server-sent event stream, are written as they are, without an ETag.</p>
+ */
+public class EtagSupport {
+
+    private ResourceVersionProvider resourceVersionProvider;
+
+    private boolean computeDigest = false;
+
+    private String algorithm = "MD5";
+
+    /**
+     * Writes a representation of a resource.
+     */
+    public interface BodyWriter {
+
+        /**
+         * Writes the representation.
+         *
+         * @param outputMessage
+         *         to write to, has read-only headers during the digest pass
+         * @throws IOException
+         *         if writing fails
+         */
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    /**
+     * Writes the resource with an ETag header, unless the client already has the current representation.
+     *
+     * @param resource
+     *         to write
+     * @param outputMessage
+     *         to write to
+     * @param bodyWriter
+     *         renders the resource
+     * @throws IOException
+     *         if writing fails
+     */
+    public void write(Object resource, HttpOutputMessage outputMessage, BodyWriter bodyWriter) throws IOException {
+        write(resource, null, outputMessage, bodyWriter);
+    }
+
+    /**
+     * Writes the resource with an ETag header, unless the client already has the current representation.
+     *
+     * @param resource
+     *         to write
+     * @param variant
+     *         rendering options of the converter which change the representation, e.g. the field selection, may be
+     *         null
+     * @param outputMessage
+     *         to write to
+     * @param bodyWriter
+     *         renders the resource
+     * @throws IOException
+     *         if writing fails
+     */
+    public void write(Object resource, String variant, HttpOutputMessage outputMessage, BodyWriter bodyWriter)
+            throws IOException {
+        HttpServletRequest request = getCurrentRequest();
+        final String etag;
+        if (request == null || !isConditionalMethod(request.getMethod())
+                || !(outputMessage instanceof ServerHttpResponse)) {
+            // a status can only be set on a response, other messages are never answered with 304
+            etag = null;
+        } else {
+            String version = resourceVersionProvider == null ? null : resourceVersionProvider.getVersion(resource);
+            if (version != null) {
+                etag = "\"" + version + '-' + getVariantTag(outputMessage.getHeaders()
+                        .getContentType(), variant) + "\"";
+            } else if (computeDigest) {
+                etag = computeDigestEtag(outputMessage.getHeaders(), bodyWriter);
+            } else {
+                etag = null;
+            }
+        }
+        if (etag != null) {
+            outputMessage.getHeaders()
+                    .setETag(etag);
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                ((ServerHttpResponse) outputMessage).setStatusCode(HttpStatus.NOT_MODIFIED);
+                outputMessage.getHeaders()
+                        .remove(HttpHeaders.CONTENT_LENGTH);
+                return;
+            }
+        }
+        bodyWriter.write(outputMessage);
+    }
+
+    private String getVariantTag(MediaType contentType, String variant) {
+        MessageDigest messageDigest = getMessageDigest();
+        String key = contentType + "|" + MinimalRepresentation.isRequested() + "|" + variant;
+        messageDigest.update(key.getBytes(StandardCharsets.UTF_8));
+        return toHex(messageDigest.digest(), new StringBuilder()).toString();
+    }
+
+    private MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("digest algorithm " + algorithm + " not available", e);
+        }
+    }
+
+    private static StringBuilder toHex(byte[] digest, StringBuilder ret) {
+        for (byte b : digest) {
+            ret.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return ret;
+    }
+
+    private String computeDigestEtag(HttpHeaders headers, BodyWriter bodyWriter) throws IOException {
+        MessageDigest messageDigest = getMessageDigest();
+        final DigestOutputStream digestOutputStream = new DigestOutputStream(new DiscardingOutputStream(),
+                messageDigest);
+        final HttpHeaders readOnlyHeaders = HttpHeaders.readOnlyHttpHeaders(headers);
+        bodyWriter.write(new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return digestOutputStream;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return readOnlyHeaders;
+            }
+        });
+        digestOutputStream.flush();
+        byte[] digest = messageDigest.digest();
+        StringBuilder ret = new StringBuilder(digest.length * 2 + 3);
+        ret.append("\"0");
+        toHex(digest, ret).append('"');
+        return ret.toString();
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(etag);
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+            String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || opaqueTag.equals(stripWeakPrefix(trimmed))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean isConditionalMethod(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private static HttpServletRequest getCurrentRequest() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) requestAttributes).getRequest();
+        }
+        return null;
+    }
+
+    /**
+     * Sets provider for resource versions. If it knows the version of a resource, conditional requests are answered
+     * without rendering.
+     *
+     * @param resourceVersionProvider
+     *         to use, may be null
+     */
+    public void setResourceVersionProvider(ResourceVersionProvider resourceVersionProvider) {
+        this.resourceVersionProvider = resourceVersionProvider;
+    }
+
+    /**
+     * Determines if an ETag should be computed from the rendered bytes when no resource version is known. This renders
+     * the representation twice unless the client has the current version. Default is false.
+     *
+     * @param computeDigest
+     *         true to send an ETag also for resources without a known version
+     */
+    public void setComputeDigest(boolean computeDigest) {
+        this.computeDigest = computeDigest;
+    }
+
+    /**
+     * Sets the {@link MessageDigest} algorithm for computed ETags and variants of version ETags, default is MD5.
+     *
+     * @param algorithm
+     *         digest algorithm name
+     */
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -26,6 +26,15 @@ public final class HypermediaTypes {
 
     public static final String APPLICATION_JSONLD_STR = "application/ld+json";
     public static final MediaType APPLICATION_JSONLD = MediaType.parseMediaType(APPLICATION_JSONLD_STR);
+    public static final String APPLICATION_JSONLD_CBOR_STR = "application/ld+cbor";
+    public static final MediaType APPLICATION_JSONLD_CBOR = MediaType.parseMediaType(APPLICATION_JSONLD_CBOR_STR);
+    public static final String APPLICATION_NDJSON_LD_STR =
+            "application/x-ndjson;profile=\"http://www.w3.org/ns/json-ld#compacted\"";
+    public static final MediaType APPLICATION_NDJSON_LD = MediaType.parseMediaType(APPLICATION_NDJSON_LD_STR);
+    public static final String APPLICATION_NQUADS_STR = "application/n-quads";
+    public static final MediaType APPLICATION_NQUADS = MediaType.parseMediaType(APPLICATION_NQUADS_STR);
+    public static final String TEXT_TURTLE_STR = "text/turtle";
+    public static final MediaType TEXT_TURTLE = MediaType.parseMediaType(TEXT_TURTLE_STR);
     public static final MediaType UBER_XML = MediaType.parseMediaType("application/vnd.amundsen-uber+xml");
     public static final MediaType UBER_JSON = MediaType.parseMediaType("application/vnd.amundsen-uber+json");
     public static final MediaType SIREN_JSON = MediaType.parseMediaType("application/vnd.siren+json");
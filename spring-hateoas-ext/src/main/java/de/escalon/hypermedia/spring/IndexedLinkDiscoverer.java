@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.client.LinkDiscoverer;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Link discoverer which reads a json representation once with a streaming parser and indexes its links by rel.
+ * Unlike a {@link org.springframework.hateoas.client.JsonPathLinkDiscoverer}, which evaluates a json path against
+ * the entire representation for every lookup, the index of the most recently discovered representation string is
+ * reused as long as the same string is passed again. Clients which look up several rels may also keep the {@link
+ * LinkIndex} returned by {@link #index(String)}.
+ */
+public abstract class IndexedLinkDiscoverer implements LinkDiscoverer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().configure(JsonParser.Feature.AUTO_CLOSE_SOURCE,
+            false);
+
+    private final List<MediaType> mediaTypes;
+
+    /**
+     * Index of the representation which was indexed last, replaced when another representation is indexed.
+     */
+    private volatile IndexedRepresentation lastIndexed;
+
+    protected IndexedLinkDiscoverer(MediaType... mediaTypes) {
+        Assert.notEmpty(mediaTypes, "mediaTypes must not be empty");
+        this.mediaTypes = Arrays.asList(mediaTypes);
+    }
+
+    /**
+     * Gets the link index of the given representation. The index of the last representation is kept, so that
+     * subsequent lookups of other rels in the same representation do not read it again.
+     *
+     * @param representation
+     *         to index
+     * @return link index
+     */
+    public LinkIndex index(String representation) {
+        Assert.notNull(representation, "representation must not be null");
+        IndexedRepresentation indexed = lastIndexed;
+        if (indexed == null || indexed.representation != representation) {
+            try {
+                indexed = new IndexedRepresentation(representation, index(JSON_FACTORY.createParser(
+                        representation)));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("could not read links from representation", e);
+            }
+            lastIndexed = indexed;
+        }
+        return indexed.index;
+    }
+
+    /**
+     * Reads the given representation and indexes its links.
+     *
+     * @param representation
+     *         to index, not closed
+     * @return link index
+     */
+    public LinkIndex index(InputStream representation) {
+        Assert.notNull(representation, "representation must not be null");
+        try {
+            return index(JSON_FACTORY.createParser(representation));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read links from representation", e);
+        }
+    }
+
+    private LinkIndex index(JsonParser parser) throws IOException {
+        try {
+            LinkIndex.Builder links = new LinkIndex.Builder();
+            indexLinks(parser, links);
+            return links.build();
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Reads links from the parser, which is positioned before the first token of the representation.
+     *
+     * @param parser
+     *         of representation
+     * @param links
+     *         to add links to
+     */
+    protected abstract void indexLinks(JsonParser parser, LinkIndex.Builder links) throws IOException;
+
+    @Override
+    public Optional<Link> findLinkWithRel(LinkRelation rel, String representation) {
+        return index(representation).getLink(rel);
+    }
+
+    @Override
+    public Optional<Link> findLinkWithRel(LinkRelation rel, InputStream representation) {
+        return index(representation).getLink(rel);
+    }
+
+    @Override
+    public Links findLinksWithRel(LinkRelation rel, String representation) {
+        return index(representation).getLinks(rel);
+    }
+
+    @Override
+    public Links findLinksWithRel(LinkRelation rel, InputStream representation) {
+        return index(representation).getLinks(rel);
+    }
+
+    @Override
+    public boolean supports(MediaType delimiter) {
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(delimiter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class IndexedRepresentation {
+
+        final String representation;
+        final LinkIndex index;
+
+        IndexedRepresentation(String representation, LinkIndex index) {
+            this.representation = representation;
+            this.index = index;
+        }
+    }
+}
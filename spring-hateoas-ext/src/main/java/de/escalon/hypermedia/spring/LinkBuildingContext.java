@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.springframework.util.Assert;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Immutable base for links built by {@link AffordanceBuilder}, i.e. scheme, host, port and servlet mapping of the
+ * service. Capture it with {@link #fromCurrentRequest()} on the request thread and hand it to worker threads, or
+ * create it with {@link #fromBaseUri(String)} when rendering outside of a request, e.g. in batch jobs.
+ * <pre>
+ * LinkBuildingContext context = LinkBuildingContext.fromCurrentRequest();
+ * executor.submit(() -&gt; linkTo(context, methodOn(EventController.class).getEvent(id)).withSelfRel());
+ * </pre>
+ */
+public final class LinkBuildingContext {
+
+    private final UriComponents baseUri;
+
+    private LinkBuildingContext(UriComponents baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Captures the base uri of the current request, taking into account forwarded headers. Outside of a Spring Web
+     * call, the context produces relative URIs.
+     *
+     * @return context of current request
+     */
+    public static LinkBuildingContext fromCurrentRequest() {
+        return new LinkBuildingContext(AffordanceBuilder.getBuilder()
+                .build());
+    }
+
+    /**
+     * Creates context for the given base uri.
+     *
+     * @param baseUri
+     *         e.g. {@code https://api.example.com/app}, must not be null
+     * @return context for base uri
+     */
+    public static LinkBuildingContext fromBaseUri(String baseUri) {
+        Assert.hasText(baseUri, "base uri must not be empty");
+        UriComponents uriComponents = UriComponentsBuilder.fromUriString(baseUri)
+                .replaceQuery(null)
+                .fragment(null)
+                .build();
+        return new LinkBuildingContext(uriComponents);
+    }
+
+    /**
+     * Creates a copy of this context with the given scheme, e.g. as forwarded by a proxy.
+     *
+     * @param scheme
+     *         to use
+     * @return new context
+     */
+    public LinkBuildingContext withScheme(String scheme) {
+        Assert.hasText(scheme, "scheme must not be empty");
+        return new LinkBuildingContext(toUriComponentsBuilder().scheme(scheme)
+                .build());
+    }
+
+    /**
+     * Creates a copy of this context with the given host, e.g. as forwarded by a proxy.
+     *
+     * @param host
+     *         to use
+     * @return new context
+     */
+    public LinkBuildingContext withHost(String host) {
+        Assert.hasText(host, "host must not be empty");
+        return new LinkBuildingContext(toUriComponentsBuilder().host(host)
+                .build());
+    }
+
+    /**
+     * Creates a copy of this context with the given port.
+     *
+     * @param port
+     *         to use, -1 for the default port of the scheme
+     * @return new context
+     */
+    public LinkBuildingContext withPort(int port) {
+        return new LinkBuildingContext(toUriComponentsBuilder().port(port)
+                .build());
+    }
+
+    /**
+     * Base uri of links built with this context.
+     *
+     * @return base uri
+     */
+    public String getBaseUri() {
+        return baseUri.toUriString();
+    }
+
+    /**
+     * Creates a new builder initialized with the base uri.
+     *
+     * @return builder
+     */
+    UriComponentsBuilder toUriComponentsBuilder() {
+        return UriComponentsBuilder.newInstance()
+                .uriComponents(baseUri);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return baseUri.equals(((LinkBuildingContext) o).baseUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return baseUri.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getBaseUri();
+    }
+}
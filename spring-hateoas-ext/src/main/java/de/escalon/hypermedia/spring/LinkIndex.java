@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.Links;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Links of a representation by rel, in document order. Created once per representation by an {@link
+ * IndexedLinkDiscoverer}, so that any number of rels can be looked up without reading the representation again.
+ * Immutable and thread-safe.
+ */
+public final class LinkIndex {
+
+    private final Map<String, List<Link>> linksByRel;
+    private final Links links;
+
+    private LinkIndex(Map<String, List<Link>> linksByRel, List<Link> links) {
+        this.linksByRel = linksByRel;
+        this.links = Links.of(links);
+    }
+
+    /**
+     * Gets the first link with the given rel.
+     *
+     * @param rel
+     *         to look up
+     * @return first link or empty if the representation has no such link
+     */
+    public Optional<Link> getLink(LinkRelation rel) {
+        Assert.notNull(rel, "rel must not be null");
+        List<Link> ret = linksByRel.get(rel.value());
+        return ret == null ? Optional.<Link>empty() : Optional.of(ret.get(0));
+    }
+
+    /**
+     * Gets all links with the given rel.
+     *
+     * @param rel
+     *         to look up
+     * @return links, empty if the representation has no such link
+     */
+    public Links getLinks(LinkRelation rel) {
+        Assert.notNull(rel, "rel must not be null");
+        List<Link> ret = linksByRel.get(rel.value());
+        return ret == null ? Links.NONE : Links.of(ret);
+    }
+
+    /**
+     * Gets all links of the representation.
+     *
+     * @return links
+     */
+    public Links getLinks() {
+        return links;
+    }
+
+    /**
+     * Collects the links of a representation.
+     */
+    public static class Builder {
+
+        private final Map<String, List<Link>> linksByRel = new LinkedHashMap<String, List<Link>>();
+        private final List<Link> links = new ArrayList<Link>();
+
+        /**
+         * Adds link. Hrefs containing uri template variables become templated links.
+         *
+         * @param rel
+         *         of link
+         * @param href
+         *         of link
+         * @return builder
+         */
+        public Builder add(String rel, String href) {
+            return add(Link.of(href, rel));
+        }
+
+        public Builder add(Link link) {
+            List<Link> relLinks = linksByRel.get(link.getRel()
+                    .value());
+            if (relLinks == null) {
+                relLinks = new ArrayList<Link>(1);
+                linksByRel.put(link.getRel()
+                        .value(), relLinks);
+            }
+            relLinks.add(link);
+            links.add(link);
+            return this;
+        }
+
+        public LinkIndex build() {
+            return new LinkIndex(Collections.unmodifiableMap(linksByRel), links);
+        }
+    }
+}
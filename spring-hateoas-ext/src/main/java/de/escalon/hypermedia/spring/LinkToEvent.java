@@ -0,0 +1,33 @@
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.RenderingEvent;
+import de.escalon.hypermedia.RenderingEvents;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Affordance linkTo&quot; rendering phase.
+ */
+@Name("de.escalon.hypermedia.LinkTo")
+@Label("Affordance linkTo")
+@Description("Builds an affordance for a controller method call, item count is the number of bound uri variables.")
+class LinkToEvent extends RenderingEvent {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(LinkToEvent.class);
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @return started event, null if the event type is disabled
+     */
+    static LinkToEvent beginIfEnabled() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        LinkToEvent event = new LinkToEvent();
+        event.begin();
+        return event;
+    }
+}
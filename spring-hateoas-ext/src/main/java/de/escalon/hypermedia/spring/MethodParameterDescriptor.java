@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Input;
+import de.escalon.hypermedia.affordance.DataType;
+import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable metadata of a method parameter which does not depend on a particular call value, i.e. its request
+ * annotations, input constraints and type descriptor. Descriptors are shared by all {@link
+ * SpringActionInputParameter}s for the same method parameter, on all threads. The described {@link MethodParameter}
+ * is mutable, therefore the descriptor keeps its own copy and hands out copies only.
+ */
+final class MethodParameterDescriptor {
+
+    /**
+     * Descriptors per handler method parameter and bean property setter. Entries are softly referenced and cleared
+     * under memory pressure.
+     */
+    private static final ConcurrentMap<MethodParameter, MethodParameterDescriptor> DESCRIPTORS =
+            new ConcurrentReferenceHashMap<MethodParameter, MethodParameterDescriptor>();
+
+    private final MethodParameter methodParameter;
+    final TypeDescriptor typeDescriptor;
+    final RequestBody requestBody;
+    final RequestParam requestParam;
+    final PathVariable pathVariable;
+    final RequestHeader requestHeader;
+    final Input inputAnnotation;
+    final Map<String, Object> inputConstraints;
+    final boolean arrayOrCollection;
+    private volatile String parameterName;
+
+    private MethodParameterDescriptor(MethodParameter methodParameter) {
+        this.methodParameter = methodParameter;
+        this.requestBody = methodParameter.getParameterAnnotation(RequestBody.class);
+        this.requestParam = methodParameter.getParameterAnnotation(RequestParam.class);
+        this.pathVariable = methodParameter.getParameterAnnotation(PathVariable.class);
+        this.requestHeader = methodParameter.getParameterAnnotation(RequestHeader.class);
+        // always determine input constraints,
+        // might be a nested property which is neither requestBody, requestParam nor pathVariable
+        this.inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
+        Map<String, Object> constraints = new HashMap<String, Object>();
+        if (inputAnnotation != null) {
+            putInputConstraint(constraints, Input.MIN, Integer.MIN_VALUE, inputAnnotation.min());
+            putInputConstraint(constraints, Input.MAX, Integer.MAX_VALUE, inputAnnotation.max());
+            putInputConstraint(constraints, Input.MIN_LENGTH, Integer.MIN_VALUE, inputAnnotation.minLength());
+            putInputConstraint(constraints, Input.MAX_LENGTH, Integer.MAX_VALUE, inputAnnotation.maxLength());
+            putInputConstraint(constraints, Input.STEP, 0, inputAnnotation.step());
+            putInputConstraint(constraints, Input.PATTERN, "", inputAnnotation.pattern());
+        }
+        this.inputConstraints = constraints.isEmpty() ? Collections.<String, Object>emptyMap() :
+                Collections.unmodifiableMap(constraints);
+        this.typeDescriptor = TypeDescriptor.nested(methodParameter, 0);
+        this.arrayOrCollection = DataType.isArrayOrCollection(methodParameter.getParameterType());
+    }
+
+    /**
+     * Gets the shared descriptor for the given method parameter.
+     *
+     * @param methodParameter
+     *         to describe
+     * @return descriptor
+     */
+    static MethodParameterDescriptor forMethodParameter(MethodParameter methodParameter) {
+        MethodParameterDescriptor ret = DESCRIPTORS.get(methodParameter);
+        if (ret == null) {
+            // the caller may go on to change its method parameter, e.g. its nesting level
+            ret = new MethodParameterDescriptor(new MethodParameter(methodParameter));
+            MethodParameterDescriptor existing = DESCRIPTORS.putIfAbsent(ret.methodParameter, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    private static void putInputConstraint(Map<String, Object> constraints, String key, Object defaultValue,
+                                           Object value) {
+        if (!value.equals(defaultValue)) {
+            constraints.put(key, value);
+        }
+    }
+
+    /**
+     * Gets request parameter name, considering the request annotations or else the name of the method parameter.
+     *
+     * @return name
+     */
+    String getParameterName() {
+        String ret = parameterName;
+        if (ret == null) {
+            if (requestParam != null) {
+                String requestParamName = requestParam.value();
+                if (!requestParamName.isEmpty())
+                    ret = requestParamName;
+            }
+            if (pathVariable != null) {
+                String pathVariableName = pathVariable.value();
+                if (!pathVariableName.isEmpty())
+                    ret = pathVariableName;
+            }
+            if (ret == null) {
+                String methodParameterName = methodParameter.getParameterName();
+                if (methodParameterName == null) {
+                    MethodParameter discovering = copyMethodParameter();
+                    discovering.initParameterNameDiscovery(new LocalVariableTableParameterNameDiscoverer());
+                    ret = discovering.getParameterName();
+                } else {
+                    ret = methodParameterName;
+                }
+            }
+            parameterName = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Gets a copy of the described method parameter, which the caller may change.
+     *
+     * @return method parameter
+     */
+    MethodParameter copyMethodParameter() {
+        return new MethodParameter(methodParameter);
+    }
+
+    <T extends Annotation> T getParameterAnnotation(Class<T> annotationType) {
+        return methodParameter.getParameterAnnotation(annotationType);
+    }
+
+    Class<?> getDeclaringClass() {
+        return methodParameter.getDeclaringClass();
+    }
+
+    Class<?> getParameterType() {
+        return methodParameter.getParameterType();
+    }
+
+    Type getGenericParameterType() {
+        return methodParameter.getGenericParameterType();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.affordance.Affordance;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Determines if the client of the current request asked for a minimal representation, either with a {@code Prefer:
+ * return=minimal} header or with the {@link #PROFILE} in the {@code profile} parameter of an accepted media type,
+ * e.g. {@code Accept: application/ld+json; profile="urn:escalon:hypermedia:minimal"}. In a minimal representation,
+ * the message converters render affordances as plain links, without operations, actions or forms, and {@link
+ * #addResponseHeaders(HttpHeaders) tell caches} that the representation depends on these headers. A handler method
+ * may skip building affordances altogether:
+ * <pre>
+ * if (!MinimalRepresentation.isRequested()) {
+ *     resource.add(linkTo(methodOn(EventController.class).updateEvent(id, null)).withSelfRel());
+ * }
+ * </pre>
+ */
+public final class MinimalRepresentation {
+
+    /**
+     * Profile which requests a minimal representation as media type parameter.
+     */
+    public static final String PROFILE = "urn:escalon:hypermedia:minimal";
+
+    static final String ATTRIBUTE_NAME = MinimalRepresentation.class.getName();
+
+    static final String PREFER = "Prefer";
+
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private static final Pattern RETURN_MINIMAL = Pattern.compile(
+            "(?:^|,)\\s*return\\s*=\\s*(?:minimal|\"minimal\")\\s*(?:[;,]|$)", Pattern.CASE_INSENSITIVE);
+
+    private MinimalRepresentation() {
+
+    }
+
+    /**
+     * Determines if the current request asks for a minimal representation. The result is kept as request attribute.
+     *
+     * @return true if a minimal representation is requested, false if there is no current request
+     */
+    public static boolean isRequested() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        Object ret = requestAttributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (!(ret instanceof Boolean)) {
+            ret = isRequested(((ServletRequestAttributes) requestAttributes).getRequest());
+            requestAttributes.setAttribute(ATTRIBUTE_NAME, ret, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Boolean) ret;
+    }
+
+    /**
+     * Adds the response headers of a representation which honours the minimal representation preference. The
+     * representation varies by {@code Prefer} and {@code Accept}, and a honoured {@code Prefer: return=minimal} is
+     * confirmed by {@code Preference-Applied: return=minimal}. Does nothing if there is no current request.
+     *
+     * @param headers
+     *         of the response, must be writable
+     */
+    public static void addResponseHeaders(HttpHeaders headers) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        List<String> vary = new ArrayList<String>(headers.getVary());
+        boolean varyChanged = addVary(vary, PREFER);
+        varyChanged |= addVary(vary, HttpHeaders.ACCEPT);
+        if (varyChanged) {
+            headers.setVary(vary);
+        }
+        if (isRequested() && isPreferred(((ServletRequestAttributes) requestAttributes).getRequest())) {
+            headers.set(PREFERENCE_APPLIED, "return=minimal");
+        }
+    }
+
+    private static boolean addVary(List<String> vary, String headerName) {
+        for (String varyHeader : vary) {
+            if ("*".equals(varyHeader) || headerName.equalsIgnoreCase(varyHeader)) {
+                return false;
+            }
+        }
+        vary.add(headerName);
+        return true;
+    }
+
+    private static boolean isPreferred(HttpServletRequest request) {
+        Enumeration<String> preferHeaders = request.getHeaders(PREFER);
+        while (preferHeaders != null && preferHeaders.hasMoreElements()) {
+            if (RETURN_MINIMAL.matcher(preferHeaders.nextElement())
+                    .find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRequested(HttpServletRequest request) {
+        if (isPreferred(request)) {
+            return true;
+        }
+        Enumeration<String> acceptHeaders = request.getHeaders(HttpHeaders.ACCEPT);
+        while (acceptHeaders != null && acceptHeaders.hasMoreElements()) {
+            String accept = acceptHeaders.nextElement();
+            if (!accept.contains(PROFILE)) {
+                continue;
+            }
+            try {
+                for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                    if (hasProfile(mediaType)) {
+                        return true;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // a malformed accept header is answered by the regular representation
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasProfile(MediaType mediaType) {
+        String profiles = mediaType.getParameter("profile");
+        if (profiles == null) {
+            return false;
+        }
+        if (profiles.length() > 1 && profiles.startsWith("\"") && profiles.endsWith("\"")) {
+            profiles = profiles.substring(1, profiles.length() - 1);
+        }
+        for (String profile : profiles.trim()
+                .split("\\s+")) {
+            if (PROFILE.equals(profile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces affordances by plain links with the href, rels and title of the affordance, so that renderers need not
+     * evaluate action descriptors. An affordance which has the same href and rel as a preceding link is dropped.
+     *
+     * @param links
+     *         to convert
+     * @return links without affordances
+     */
+    public static Links toPlainLinks(Links links) {
+        boolean hasAffordances = false;
+        for (Link link : links) {
+            if (link instanceof Affordance) {
+                hasAffordances = true;
+                break;
+            }
+        }
+        if (!hasAffordances) {
+            return links;
+        }
+        List<Link> ret = new ArrayList<Link>();
+        Set<String> added = new HashSet<String>();
+        for (Link link : links) {
+            if (link instanceof Affordance) {
+                Affordance affordance = (Affordance) link;
+                for (String rel : affordance.getRels()) {
+                    Link plainLink = Link.of(affordance.getHref(), rel);
+                    if (affordance.getTitle() != null) {
+                        plainLink = plainLink.withTitle(affordance.getTitle());
+                    }
+                    if (added.add(rel + ' ' + plainLink.getHref())) {
+                        ret.add(plainLink);
+                    }
+                }
+            } else {
+                added.add(link.getRel()
+                        .value() + ' ' + link.getHref());
+                ret.add(link);
+            }
+        }
+        return Links.of(ret);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.CachedOptions;
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.Select;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Determines possible values of {@link Select} parameters. Options implementations are singletons: if a bean factory
+ * is available, an Options bean of the required type is used, otherwise a single instance per Options class is
+ * created. Possible values of Options classes annotated with {@link CachedOptions} are cached.
+ * <p>Declare an OptionsResolver as Spring bean and pass it to {@link
+ * AffordanceBuilderFactory#setOptionsResolver(OptionsResolver)} to use Options beans. Affordances built by the static
+ * {@link AffordanceBuilder#linkTo} methods use {@link
+ * SpringActionInputParameter#setDefaultOptionsResolver(OptionsResolver) the default options resolver}.</p>
+ */
+public class OptionsResolver implements BeanFactoryAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OptionsResolver.class);
+
+    private final ConcurrentMap<Class<? extends Options>, OptionsHandle> handles =
+            new ConcurrentHashMap<Class<? extends Options>, OptionsHandle>();
+
+    // values are softly referenced and may be reclaimed under memory pressure, handles are kept
+    private final ConcurrentMap<ValuesKey, CachedValues> cachedValues =
+            new ConcurrentReferenceHashMap<ValuesKey, CachedValues>();
+
+    private BeanFactory beanFactory;
+
+    private int maxCachedValues = 1000;
+
+    private volatile Executor refreshExecutor;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Sets upper bound for cached possible values, default is 1000. There is one entry per options class, select
+     * value and combination of args.
+     *
+     * @param maxCachedValues
+     *         maximum number of cached entries
+     */
+    public void setMaxCachedValues(int maxCachedValues) {
+        this.maxCachedValues = maxCachedValues;
+    }
+
+    /**
+     * Sets executor for background refresh of stale values, see {@link CachedOptions#staleWhileRevalidate()}. By
+     * default, refreshes run one at a time on a daemon thread, and at most 100 refreshes are queued. If the executor
+     * rejects a refresh, stale values are served until the next request tries again.
+     *
+     * @param refreshExecutor
+     *         to use
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Gets possible values from the options class, either cached or by calling {@link Options#get}.
+     *
+     * @param optionsClass
+     *         providing the values
+     * @param value
+     *         as defined by {@link Select#value()}
+     * @param args
+     *         values of {@link Select#args()} from the current call
+     * @return possible values, a copy of the cached values if caching applies
+     */
+    public Object[] getPossibleValues(Class<? extends Options> optionsClass, String[] value, Object[] args) {
+        OptionsHandle handle = getHandle(optionsClass);
+        CachedOptions caching = handle.caching;
+        if (caching == null) {
+            return handle.options.get(value, args);
+        }
+        ValuesKey key = new ValuesKey(optionsClass, value, args);
+        long now = System.currentTimeMillis();
+        CachedValues cached = cachedValues.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAt) {
+                return cached.values.clone();
+            }
+            if (caching.staleWhileRevalidate()) {
+                if (cached.refreshing.compareAndSet(false, true)) {
+                    refreshInBackground(handle, key, cached, value, args);
+                }
+                return cached.values.clone();
+            }
+        }
+        Object[] ret = handle.options.get(value, args);
+        cacheValues(handle, key, ret);
+        return ret;
+    }
+
+    private void refreshInBackground(final OptionsHandle handle, final ValuesKey key, final CachedValues stale,
+                                     final String[] value, final Object[] args) {
+        try {
+            getRefreshExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        cacheValues(handle, key, handle.options.get(value, args));
+                    } catch (RuntimeException e) {
+                        LOG.warn("failed to refresh possible values of " + handle.options.getClass()
+                                .getName(), e);
+                        stale.refreshing.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // also covers Spring's TaskRejectedException
+            LOG.debug("refresh of possible values of " + handle.options.getClass()
+                    .getName() + " rejected, serving stale values", e);
+            stale.refreshing.set(false);
+        }
+    }
+
+    private void cacheValues(OptionsHandle handle, ValuesKey key, Object[] values) {
+        CachedOptions caching = handle.caching;
+        long expiresAt = System.currentTimeMillis() + caching.timeUnit()
+                .toMillis(caching.timeToLive());
+        if (cachedValues.size() >= maxCachedValues && !cachedValues.containsKey(key)) {
+            removeExpiredValues();
+        }
+        if (cachedValues.size() < maxCachedValues || cachedValues.containsKey(key)) {
+            cachedValues.put(key, new CachedValues(values.clone(), expiresAt));
+        }
+    }
+
+    private void removeExpiredValues() {
+        long now = System.currentTimeMillis();
+        for (Iterator<CachedValues> it = cachedValues.values()
+                .iterator(); it.hasNext(); ) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    private Executor getRefreshExecutor() {
+        Executor ret = refreshExecutor;
+        if (ret == null) {
+            synchronized (this) {
+                ret = refreshExecutor;
+                if (ret == null) {
+                    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("options-refresh-");
+                    threadFactory.setDaemon(true);
+                    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(100), threadFactory);
+                    threadPool.allowCoreThreadTimeOut(true);
+                    ret = threadPool;
+                    refreshExecutor = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
+    private OptionsHandle getHandle(Class<? extends Options> optionsClass) {
+        OptionsHandle ret = handles.get(optionsClass);
+        if (ret == null) {
+            ret = new OptionsHandle(getOptions(optionsClass),
+                    AnnotationUtils.findAnnotation(optionsClass, CachedOptions.class));
+            OptionsHandle existing = handles.putIfAbsent(optionsClass, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    private Options getOptions(Class<? extends Options> optionsClass) {
+        Options ret = null;
+        if (beanFactory != null) {
+            ret = beanFactory.getBeanProvider(optionsClass)
+                    .getIfUnique();
+        }
+        if (ret == null) {
+            ret = BeanUtils.instantiateClass(optionsClass);
+        }
+        return ret;
+    }
+
+    private static class OptionsHandle {
+
+        private final Options options;
+        private final CachedOptions caching;
+
+        OptionsHandle(Options options, CachedOptions caching) {
+            Assert.notNull(options, "options must not be null");
+            this.options = options;
+            this.caching = caching;
+        }
+    }
+
+    private static class CachedValues {
+
+        private final Object[] values;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedValues(Object[] values, long expiresAt) {
+            this.values = values;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class ValuesKey {
+
+        private final Class<? extends Options> optionsClass;
+        private final List<String> value;
+        private final List<Object> args;
+
+        ValuesKey(Class<? extends Options> optionsClass, String[] value, Object[] args) {
+            this.optionsClass = optionsClass;
+            this.value = Arrays.asList(value);
+            this.args = Arrays.asList(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ValuesKey)) {
+                return false;
+            }
+            ValuesKey other = (ValuesKey) o;
+            return optionsClass == other.optionsClass && value.equals(other.value) && args.equals(other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = optionsClass.hashCode();
+            result = 31 * result + value.hashCode();
+            return 31 * result + args.hashCode();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Buffer recycler which can be shared by all threads. Unlike the thread-local recycler of Jackson, it keeps working
+ * when every request runs on a new thread, e.g. a virtual thread. Holds a bounded number of buffers per buffer type,
+ * buffers larger than {@link #MAX_POOLED_BUFFER_LENGTH} are not pooled.
+ *
+ * @see PooledJsonFactory
+ */
+public class PooledBufferRecycler extends BufferRecycler {
+
+    /**
+     * Maximum length of pooled buffers, longer buffers are left to the garbage collector.
+     */
+    public static final int MAX_POOLED_BUFFER_LENGTH = 64 * 1024;
+
+    private static final int BYTE_BUFFER_TYPES = 4;
+    private static final int CHAR_BUFFER_TYPES = 4;
+
+    private static final PooledBufferRecycler SHARED = new PooledBufferRecycler(64);
+
+    private final BlockingQueue<byte[]>[] byteBufferPools;
+    private final BlockingQueue<char[]>[] charBufferPools;
+
+    /**
+     * Creates recycler.
+     *
+     * @param maxBuffersPerType
+     *         number of buffers kept per buffer type, at most one buffer per type is in use by a generator or
+     *         parser at a time
+     */
+    @SuppressWarnings("unchecked")
+    public PooledBufferRecycler(int maxBuffersPerType) {
+        super(0, 0);
+        Assert.isTrue(maxBuffersPerType > 0, "maxBuffersPerType must be positive");
+        byteBufferPools = new BlockingQueue[BYTE_BUFFER_TYPES];
+        for (int i = 0; i < byteBufferPools.length; i++) {
+            byteBufferPools[i] = new ArrayBlockingQueue<byte[]>(maxBuffersPerType);
+        }
+        charBufferPools = new BlockingQueue[CHAR_BUFFER_TYPES];
+        for (int i = 0; i < charBufferPools.length; i++) {
+            charBufferPools[i] = new ArrayBlockingQueue<char[]>(maxBuffersPerType);
+        }
+    }
+
+    /**
+     * Recycler shared by the message converters of this library.
+     *
+     * @return shared recycler
+     */
+    public static PooledBufferRecycler shared() {
+        return SHARED;
+    }
+
+    @Override
+    public byte[] allocByteBuffer(int ix, int minSize) {
+        int size = Math.max(minSize, byteBufferLength(ix));
+        byte[] buffer = byteBufferPools[ix].poll();
+        if (buffer == null || buffer.length < size) {
+            buffer = balloc(size);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void releaseByteBuffer(int ix, byte[] buffer) {
+        if (buffer != null && buffer.length <= MAX_POOLED_BUFFER_LENGTH) {
+            byteBufferPools[ix].offer(buffer);
+        }
+    }
+
+    @Override
+    public char[] allocCharBuffer(int ix, int minSize) {
+        int size = Math.max(minSize, charBufferLength(ix));
+        char[] buffer = charBufferPools[ix].poll();
+        if (buffer == null || buffer.length < size) {
+            buffer = calloc(size);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void releaseCharBuffer(int ix, char[] buffer) {
+        if (buffer != null && buffer.length <= MAX_POOLED_BUFFER_LENGTH) {
+            charBufferPools[ix].offer(buffer);
+        }
+    }
+}
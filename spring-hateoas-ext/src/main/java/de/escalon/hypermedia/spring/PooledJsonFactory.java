@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import org.springframework.util.Assert;
+
+/**
+ * Json factory whose generators and parsers take their buffers from a {@link PooledBufferRecycler} rather than from
+ * a thread-local recycler. Used by the message converters of this library:
+ * <pre>
+ * ObjectMapper objectMapper = new ObjectMapper(new PooledJsonFactory());
+ * </pre>
+ */
+public class PooledJsonFactory extends JsonFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient PooledBufferRecycler bufferRecycler;
+
+    /**
+     * Creates factory using the {@link PooledBufferRecycler#shared() shared} recycler.
+     */
+    public PooledJsonFactory() {
+        this(PooledBufferRecycler.shared());
+    }
+
+    /**
+     * Creates factory using the given recycler.
+     *
+     * @param bufferRecycler
+     *         to use
+     */
+    public PooledJsonFactory(PooledBufferRecycler bufferRecycler) {
+        Assert.notNull(bufferRecycler, "bufferRecycler must not be null");
+        this.bufferRecycler = bufferRecycler;
+    }
+
+    protected PooledJsonFactory(PooledJsonFactory src, ObjectCodec codec) {
+        super(src, codec);
+        // recycler is transient, a deserialized factory falls back to the shared one
+        this.bufferRecycler = src.bufferRecycler != null ? src.bufferRecycler : PooledBufferRecycler.shared();
+    }
+
+    @Override
+    public JsonFactory copy() {
+        return new PooledJsonFactory(this, null);
+    }
+
+    @Override
+    public BufferRecycler _getBufferRecycler() {
+        return bufferRecycler;
+    }
+
+    @Override
+    protected Object readResolve() {
+        return new PooledJsonFactory(this, _objectCodec);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.EmbeddingDepth;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Holds the {@link EmbeddingDepth} of the current response as request attribute. A handler method may override the
+ * embedding depth configured on the message converters for a single response:
+ * <pre>
+ * RequestEmbeddingDepth.set(EmbeddingDepth.of(1));
+ * return eventResource;
+ * </pre>
+ */
+public final class RequestEmbeddingDepth {
+
+    static final String ATTRIBUTE_NAME = RequestEmbeddingDepth.class.getName();
+
+    private RequestEmbeddingDepth() {
+
+    }
+
+    /**
+     * Sets the embedding depth for the response to the current request.
+     *
+     * @param embeddingDepth
+     *         to use
+     * @throws IllegalStateException
+     *         if there is no current request
+     */
+    public static void set(EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(ATTRIBUTE_NAME, embeddingDepth, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Gets the embedding depth for the response to the current request.
+     *
+     * @param defaultEmbeddingDepth
+     *         to use if the current request has no embedding depth
+     * @return embedding depth of current request or given default
+     */
+    public static EmbeddingDepth resolve(EmbeddingDepth defaultEmbeddingDepth) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Object ret = requestAttributes == null ? null : requestAttributes.getAttribute(ATTRIBUTE_NAME,
+                RequestAttributes.SCOPE_REQUEST);
+        return ret instanceof EmbeddingDepth ? (EmbeddingDepth) ret : defaultEmbeddingDepth;
+    }
+}
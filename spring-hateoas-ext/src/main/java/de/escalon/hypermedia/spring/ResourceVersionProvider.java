@@ -0,0 +1,17 @@
+package de.escalon.hypermedia.spring;
+
+/**
+ * Provides a version for resources whose version is known without rendering them, e.g. from a version column or a
+ * last-modified timestamp. Used by {@link EtagSupport} to answer conditional requests before rendering.
+ */
+public interface ResourceVersionProvider {
+
+    /**
+     * Gets version of the given resource.
+     *
+     * @param resource
+     *         to be rendered
+     * @return version which changes whenever the representation changes, or null if the version is unknown
+     */
+    String getVersion(Object resource);
+}
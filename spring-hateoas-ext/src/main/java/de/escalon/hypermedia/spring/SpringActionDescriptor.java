@@ -17,6 +17,7 @@ import de.escalon.hypermedia.action.Action;
 import de.escalon.hypermedia.action.Cardinality;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
+import de.escalon.hypermedia.affordance.ArrayMap;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.PropertyAccessorFactory;
@@ -25,9 +26,9 @@ import org.springframework.core.MethodParameter;
 import org.springframework.util.Assert;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -45,13 +46,14 @@ public class SpringActionDescriptor implements ActionDescriptor {
     private String actionName;
 
     private String semanticActionType;
-    private Map<String, ActionInputParameter> requestParams = new LinkedHashMap<String, ActionInputParameter>();
-    private Map<String, ActionInputParameter> pathVariables = new LinkedHashMap<String, ActionInputParameter>();
-    private Map<String, ActionInputParameter> requestHeaders = new LinkedHashMap<String, ActionInputParameter>();
-    private Map<String, ActionInputParameter> inputParams = new LinkedHashMap<String, ActionInputParameter>();
+    private Map<String, ActionInputParameter> requestParams = new ArrayMap<String, ActionInputParameter>();
+    private Map<String, ActionInputParameter> pathVariables = new ArrayMap<String, ActionInputParameter>();
+    private Map<String, ActionInputParameter> requestHeaders = new ArrayMap<String, ActionInputParameter>();
+    private Map<String, ActionInputParameter> inputParams = new ArrayMap<String, ActionInputParameter>();
 
     private ActionInputParameter requestBody;
     private Cardinality cardinality = Cardinality.SINGLE;
+    private Method invokedMethod;
 
     /**
      * Creates an {@link ActionDescriptor}.
@@ -202,8 +204,8 @@ public class SpringActionDescriptor implements ActionDescriptor {
                                     .forBeanPropertyAccess(callValue);
                             propertyValue = beanWrapper.getPropertyValue(name);
                         }
-                        ret = new SpringActionInputParameter(new MethodParameter(pd
-                                .getWriteMethod(), 0), propertyValue);
+                        ret = SpringActionInputParameter.forProperty(annotatedParameter,
+                                new MethodParameter(pd.getWriteMethod(), 0), propertyValue);
                     }
                     break;
                 }
@@ -347,4 +349,24 @@ public class SpringActionDescriptor implements ActionDescriptor {
     public Cardinality getCardinality() {
         return cardinality;
     }
+
+    /**
+     * Sets the handler method described by this action.
+     *
+     * @param invokedMethod
+     *         handler method, may be null if the action is not backed by a handler method
+     */
+    public void setInvokedMethod(Method invokedMethod) {
+        this.invokedMethod = invokedMethod;
+    }
+
+    /**
+     * Gets the handler method described by this action. Renderers may use it to cache representations which only
+     * depend on the handler method.
+     *
+     * @return handler method or null
+     */
+    public Method getInvokedMethod() {
+        return invokedMethod;
+    }
 }
@@ -14,13 +14,11 @@
 package de.escalon.hypermedia.spring;
 
 import de.escalon.hypermedia.action.Input;
-import de.escalon.hypermedia.action.Options;
 import de.escalon.hypermedia.action.Select;
 import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.DataType;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
@@ -39,64 +37,140 @@ import java.util.*;
  */
 public class SpringActionInputParameter implements ActionInputParameter {
 
-    private final TypeDescriptor typeDescriptor;
-    private final RequestBody requestBody;
-    private final RequestParam requestParam;
-    private final PathVariable pathVariable;
-    private final RequestHeader requestHeader;
-    private Input inputAnnotation;
-    private MethodParameter methodParameter;
-    private Object value;
-    private Boolean arrayOrCollection = null;
-    private Map<String, Object> inputConstraints = new HashMap<String, Object>();
+    private static volatile ConversionService defaultConversionService;
 
-    private ConversionService conversionService = new DefaultFormattingConversionService();
+    private static volatile OptionsResolver defaultOptionsResolver;
+
+    /**
+     * Metadata of the method parameter, shared by all action input parameters for the same method parameter.
+     */
+    private final MethodParameterDescriptor descriptor;
+    private final Object value;
+    private final ConversionService conversionService;
+    private final OptionsResolver optionsResolver;
 
     /**
      * Creates action input parameter.
      *
      * @param methodParameter   to describe
      * @param value             used during sample invocation
+     * @param conversionService to apply to value, null for the default conversion service
+     * @param optionsResolver   for possible values of {@link Select} parameters, null for the default options resolver
+     */
+    public SpringActionInputParameter(MethodParameter methodParameter, Object value,
+                                      ConversionService conversionService, OptionsResolver optionsResolver) {
+        this.descriptor = MethodParameterDescriptor.forMethodParameter(methodParameter);
+        this.value = value;
+        this.conversionService = conversionService == null ? getDefaultConversionService() : conversionService;
+        this.optionsResolver = optionsResolver == null ? getDefaultOptionsResolver() : optionsResolver;
+    }
+
+    /**
+     * Creates action input parameter with the default options resolver, see {@link
+     * #setDefaultOptionsResolver(OptionsResolver)}.
+     *
+     * @param methodParameter   to describe
+     * @param value             used during sample invocation
      * @param conversionService to apply to value
      */
     public SpringActionInputParameter(MethodParameter methodParameter, Object value, ConversionService
             conversionService) {
-        this.methodParameter = methodParameter;
-        this.value = value;
-        this.requestBody = methodParameter.getParameterAnnotation(RequestBody.class);
-        this.requestParam = methodParameter.getParameterAnnotation(RequestParam.class);
-        this.pathVariable = methodParameter.getParameterAnnotation(PathVariable.class);
-        this.requestHeader = methodParameter.getParameterAnnotation(RequestHeader.class);
-        // always determine input constraints,
-        // might be a nested property which is neither requestBody, requestParam nor pathVariable
-        this.inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
-        if (inputAnnotation != null) {
-            putInputConstraint(Input.MIN, Integer.MIN_VALUE, inputAnnotation.min());
-            putInputConstraint(Input.MAX, Integer.MAX_VALUE, inputAnnotation.max());
-            putInputConstraint(Input.MIN_LENGTH, Integer.MIN_VALUE, inputAnnotation.minLength());
-            putInputConstraint(Input.MAX_LENGTH, Integer.MAX_VALUE, inputAnnotation.maxLength());
-            putInputConstraint(Input.STEP, 0, inputAnnotation.step());
-            putInputConstraint(Input.PATTERN, "", inputAnnotation.pattern());
-        }
-        this.conversionService = conversionService;
-        this.typeDescriptor = TypeDescriptor.nested(methodParameter, 0);
+        this(methodParameter, value, conversionService, null);
     }
 
     /**
-     * Creates new ActionInputParameter with default formatting conversion service.
+     * Creates new ActionInputParameter with the default conversion service, see {@link
+     * #setDefaultConversionService(ConversionService)}.
      *
      * @param methodParameter holding metadata about the parameter
      * @param value           during sample method invocation
      */
     public SpringActionInputParameter(MethodParameter methodParameter, Object value) {
-        this(methodParameter, value, new DefaultFormattingConversionService());
+        this(methodParameter, value, null, null);
+    }
+
+    /**
+     * Creates action input parameter for a property of a request body bean. The property uses the conversion service
+     * and options resolver of the request body parameter.
+     *
+     * @param requestBodyParameter which has the property
+     * @param methodParameter      of the property, e.g. a setter or constructor parameter
+     * @param value                of the property during sample invocation
+     * @return action input parameter
+     */
+    public static SpringActionInputParameter forProperty(ActionInputParameter requestBodyParameter,
+                                                         MethodParameter methodParameter, Object value) {
+        if (requestBodyParameter instanceof SpringActionInputParameter) {
+            SpringActionInputParameter parent = (SpringActionInputParameter) requestBodyParameter;
+            return new SpringActionInputParameter(methodParameter, value, parent.conversionService,
+                    parent.optionsResolver);
+        }
+        return new SpringActionInputParameter(methodParameter, value);
+    }
+
+    /**
+     * Gets the conversion service used by action input parameters which are created without explicit conversion
+     * service, e.g. by {@link AffordanceBuilder#linkTo} or an {@link AffordanceBuilderFactory} without conversion
+     * service. Unless set otherwise, this is a shared {@link DefaultFormattingConversionService}.
+     *
+     * @return conversion service, never null
+     */
+    public static ConversionService getDefaultConversionService() {
+        ConversionService ret = defaultConversionService;
+        if (ret == null) {
+            synchronized (SpringActionInputParameter.class) {
+                ret = defaultConversionService;
+                if (ret == null) {
+                    ret = new DefaultFormattingConversionService();
+                    defaultConversionService = ret;
+                }
+            }
+        }
+        return ret;
     }
 
+    /**
+     * Sets the conversion service to be used by action input parameters which are created without explicit
+     * conversion service, e.g. the conversion service of the web application context. The conversion service is
+     * shared by all threads. Prefer {@link AffordanceBuilderFactory#setConversionService(ConversionService)} where a
+     * factory instance is available.
+     *
+     * @param conversionService to use, null to reset to a shared {@link DefaultFormattingConversionService}
+     */
+    public static void setDefaultConversionService(ConversionService conversionService) {
+        defaultConversionService = conversionService;
+    }
 
-    private void putInputConstraint(String key, Object defaultValue, Object value) {
-        if (!value.equals(defaultValue)) {
-            inputConstraints.put(key, value);
+    /**
+     * Gets the options resolver used to determine possible values of {@link Select} parameters of action input
+     * parameters which are created without explicit options resolver. Unless set otherwise, this is a shared {@link
+     * OptionsResolver} without bean factory.
+     *
+     * @return options resolver, never null
+     */
+    public static OptionsResolver getDefaultOptionsResolver() {
+        OptionsResolver ret = defaultOptionsResolver;
+        if (ret == null) {
+            synchronized (SpringActionInputParameter.class) {
+                ret = defaultOptionsResolver;
+                if (ret == null) {
+                    ret = new OptionsResolver();
+                    defaultOptionsResolver = ret;
+                }
+            }
         }
+        return ret;
+    }
+
+    /**
+     * Sets the options resolver used by action input parameters which are created without explicit options resolver,
+     * e.g. an {@link OptionsResolver} bean which uses Options beans from the application context. Prefer {@link
+     * AffordanceBuilderFactory#setOptionsResolver(OptionsResolver)} where a factory instance is available.
+     *
+     * @param optionsResolver to use, null to reset to a shared {@link OptionsResolver} without bean factory
+     */
+    public static void setDefaultOptionsResolver(OptionsResolver optionsResolver) {
+        defaultOptionsResolver = optionsResolver;
     }
 
     /**
@@ -118,7 +192,8 @@ public class SpringActionInputParameter implements ActionInputParameter {
         if (value == null) {
             ret = null;
         } else {
-            ret = (String) conversionService.convert(value, typeDescriptor, TypeDescriptor.valueOf(String.class));
+            ret = (String) conversionService.convert(value, descriptor.typeDescriptor,
+                    TypeDescriptor.valueOf(String.class));
         }
         return ret;
     }
@@ -131,6 +206,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
     @Override
     public Type getHtmlInputFieldType() {
         final Type ret;
+        Input inputAnnotation = descriptor.inputAnnotation;
         if (inputAnnotation == null || inputAnnotation.value() == Type.FROM_JAVA) {
             if (isArrayOrCollection() || isRequestBody()) {
                 ret = null;
@@ -147,33 +223,33 @@ public class SpringActionInputParameter implements ActionInputParameter {
 
 
     public boolean isRequestBody() {
-        return requestBody != null;
+        return descriptor.requestBody != null;
     }
 
     public boolean isRequestParam() {
-        return requestParam != null;
+        return descriptor.requestParam != null;
     }
 
     public boolean isPathVariable() {
-        return pathVariable != null;
+        return descriptor.pathVariable != null;
     }
 
     public boolean isRequestHeader() {
-        return requestHeader != null;
+        return descriptor.requestHeader != null;
     }
 
     public boolean isInputParameter() {
-        return inputAnnotation != null
-                && requestBody == null
-                && pathVariable == null
-                && requestHeader == null
-                && requestParam == null;
+        return descriptor.inputAnnotation != null
+                && descriptor.requestBody == null
+                && descriptor.pathVariable == null
+                && descriptor.requestHeader == null
+                && descriptor.requestParam == null;
     }
 
 
     @Override
     public String getRequestHeaderName() {
-        return isRequestHeader() ? requestHeader.value() : null;
+        return isRequestHeader() ? descriptor.requestHeader.value() : null;
     }
 
     /**
@@ -183,11 +259,11 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return true if parameter is constrained
      */
     public boolean hasInputConstraints() {
-        return !inputConstraints.isEmpty();
+        return !descriptor.inputConstraints.isEmpty();
     }
 
     public <T extends Annotation> T getAnnotation(Class<T> annotation) {
-        return methodParameter.getParameterAnnotation(annotation);
+        return descriptor.getParameterAnnotation(annotation);
     }
 
 
@@ -199,14 +275,14 @@ public class SpringActionInputParameter implements ActionInputParameter {
      */
     @Override
     public boolean isHidden(String property) {
-        Annotation[] paramAnnotations = methodParameter.getParameterAnnotations();
-        Input inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
+        Input inputAnnotation = descriptor.inputAnnotation;
         return inputAnnotation != null && arrayContains(inputAnnotation.hidden(), property);
     }
 
 
     @Override
     public boolean isReadOnly(String property) {
+        Input inputAnnotation = descriptor.inputAnnotation;
         return inputAnnotation != null && (!inputAnnotation.editable() || arrayContains(inputAnnotation.readOnly(),
                 property));
     }
@@ -215,7 +291,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
     @Override
     public boolean isIncluded(String property) {
         boolean ret;
-        if (inputAnnotation == null) {
+        if (descriptor.inputAnnotation == null) {
             ret = true;
         } else {
             boolean hasExplicitOrImplicitIncludes = hasExplicitOrImplicitPropertyIncludeValue();
@@ -231,6 +307,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return
      */
     private boolean containsPropertyIncludeValue(String property) {
+        Input inputAnnotation = descriptor.inputAnnotation;
         return arrayContains(inputAnnotation.readOnly(), property)
                 || arrayContains(inputAnnotation.hidden(), property)
                 || arrayContains(inputAnnotation.include(), property);
@@ -243,6 +320,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      */
     private boolean hasExplicitOrImplicitPropertyIncludeValue() {
         // TODO maybe not a useful optimization
+        Input inputAnnotation = descriptor.inputAnnotation;
         return inputAnnotation != null && inputAnnotation.readOnly().length > 0
                 || inputAnnotation.hidden().length > 0
                 || inputAnnotation.include().length > 0;
@@ -256,6 +334,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      */
     @Override
     public boolean isExcluded(String property) {
+        Input inputAnnotation = descriptor.inputAnnotation;
         return inputAnnotation != null && arrayContains(inputAnnotation.exclude(), property);
     }
 
@@ -274,7 +353,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
 
     @Override
     public Object[] getPossibleValues(ActionDescriptor actionDescriptor) {
-        return getPossibleValues(methodParameter, actionDescriptor);
+        return getPossibleValues(descriptor.copyMethodParameter(), actionDescriptor);
     }
 
     @Override
@@ -307,8 +386,6 @@ public class SpringActionInputParameter implements ActionInputParameter {
             } else {
                 Select select = methodParameter.getParameterAnnotation(Select.class);
                 if (select != null) {
-                    Class<? extends Options> optionsClass = select.options();
-                    Options options = optionsClass.newInstance();
                     // collect call values to pass to options.get
                     List<Object> from = new ArrayList<Object>();
                     for (String paramName : select.args()) {
@@ -319,7 +396,8 @@ public class SpringActionInputParameter implements ActionInputParameter {
                     }
 
                     Object[] args = from.toArray();
-                    possibleValues = options.get(select.value(), args);
+                    possibleValues = optionsResolver.getPossibleValues(select.options(),
+                            select.value(), args);
                 } else {
                     possibleValues = new Object[0];
                 }
@@ -336,10 +414,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return true if array or collection
      */
     public boolean isArrayOrCollection() {
-        if (arrayOrCollection == null) {
-            arrayOrCollection = DataType.isArrayOrCollection(getParameterType());
-        }
-        return arrayOrCollection;
+        return descriptor.arrayOrCollection;
     }
 
 
@@ -352,10 +427,12 @@ public class SpringActionInputParameter implements ActionInputParameter {
     public boolean isRequired() {
         boolean ret;
         if (isRequestBody()) {
-            ret = requestBody.required();
+            ret = descriptor.requestBody.required();
         } else if (isRequestParam()) {
+            RequestParam requestParam = descriptor.requestParam;
             ret = !(isDefined(requestParam.defaultValue()) || !requestParam.required());
         } else if (isRequestHeader()) {
+            RequestHeader requestHeader = descriptor.requestHeader;
             ret = !(isDefined(requestHeader.defaultValue()) || !requestHeader.required());
         } else {
             ret = true;
@@ -375,11 +452,11 @@ public class SpringActionInputParameter implements ActionInputParameter {
     public String getDefaultValue() {
         String ret;
         if (isRequestParam()) {
-            ret = isDefined(requestParam.defaultValue()) ?
-                    requestParam.defaultValue() : null;
+            ret = isDefined(descriptor.requestParam.defaultValue()) ?
+                    descriptor.requestParam.defaultValue() : null;
         } else if (isRequestHeader()) {
-            ret = !(ValueConstants.DEFAULT_NONE.equals(requestHeader.defaultValue())) ?
-                    requestHeader.defaultValue() : null;
+            ret = !(ValueConstants.DEFAULT_NONE.equals(descriptor.requestHeader.defaultValue())) ?
+                    descriptor.requestHeader.defaultValue() : null;
         } else {
             ret = null;
         }
@@ -428,27 +505,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      */
     @Override
     public String getParameterName() {
-        String ret = null;
-        if (requestParam != null) {
-            String requestParamName = requestParam.value();
-            if (!requestParamName.isEmpty())
-                ret = requestParamName;
-        }
-        if (pathVariable != null) {
-            String pathVariableName = pathVariable.value();
-            if (!pathVariableName.isEmpty())
-                ret = pathVariableName;
-        }
-        if (ret == null) {
-            String parameterName = methodParameter.getParameterName();
-            if (parameterName == null) {
-                methodParameter.initParameterNameDiscovery(new LocalVariableTableParameterNameDiscoverer());
-                ret = methodParameter.getParameterName();
-            } else {
-                ret = parameterName;
-            }
-        }
-        return ret;
+        return descriptor.getParameterName();
     }
 
     /**
@@ -457,7 +514,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return class
      */
     public Class<?> getDeclaringClass() {
-        return methodParameter.getDeclaringClass();
+        return descriptor.getDeclaringClass();
     }
 
     /**
@@ -466,7 +523,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return type
      */
     public Class<?> getParameterType() {
-        return methodParameter.getParameterType();
+        return descriptor.getParameterType();
     }
 
     /**
@@ -475,7 +532,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return generic type
      */
     public java.lang.reflect.Type getGenericParameterType() {
-        return methodParameter.getGenericParameterType();
+        return descriptor.getGenericParameterType();
     }
 
     /**
@@ -484,7 +541,7 @@ public class SpringActionInputParameter implements ActionInputParameter {
      * @return constraints
      */
     public Map<String, Object> getInputConstraints() {
-        return inputConstraints;
+        return descriptor.inputConstraints;
     }
 
     @Override
@@ -0,0 +1,33 @@
+package de.escalon.hypermedia.spring.siren;
+
+import de.escalon.hypermedia.RenderingEvent;
+import de.escalon.hypermedia.RenderingEvents;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Build Siren Entity&quot; rendering phase.
+ */
+@Name("de.escalon.hypermedia.SirenEntity")
+@Label("Build Siren Entity")
+@Description("Builds the Siren entity tree for a resource, item count is the number of sub-entities.")
+class SirenEntityEvent extends RenderingEvent {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(SirenEntityEvent.class);
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @return started event, null if the event type is disabled
+     */
+    static SirenEntityEvent beginIfEnabled() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        SirenEntityEvent event = new SirenEntityEvent();
+        event.begin();
+        return event;
+    }
+}
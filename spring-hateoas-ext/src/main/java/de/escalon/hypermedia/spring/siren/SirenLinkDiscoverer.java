@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.siren;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.IndexedLinkDiscoverer;
+import de.escalon.hypermedia.spring.LinkIndex;
+import org.springframework.hateoas.Link;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Discovers links in siren+json representations. The links of an entity are its {@code links} and its embedded
+ * links, i.e. sub-entities which only have an {@code href}. Links of embedded representations belong to the embedded
+ * representation and are not indexed.
+ */
+public class SirenLinkDiscoverer extends IndexedLinkDiscoverer {
+
+    public SirenLinkDiscoverer() {
+        super(HypermediaTypes.SIREN_JSON);
+    }
+
+    @Override
+    protected void indexLinks(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (("links".equals(fieldName) || "entities".equals(fieldName)) && value == JsonToken.START_ARRAY) {
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (item == JsonToken.START_OBJECT) {
+                        indexLink(parser, links);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Indexes the link or embedded link at the current start object token, embedded representations have no href.
+     */
+    private void indexLink(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        List<String> rels = null;
+        String href = null;
+        String title = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("rel".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                rels = new ArrayList<String>(1);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    rels.add(parser.getText());
+                }
+            } else if ("href".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                href = parser.getText();
+            } else if ("title".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                title = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (rels == null || href == null) {
+            return;
+        }
+        for (String rel : rels) {
+            Link link = Link.of(href, rel);
+            links.add(title == null ? link : link.withTitle(title));
+        }
+    }
+}
@@ -5,7 +5,16 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
+import de.escalon.hypermedia.RenderingEvents;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
 import de.escalon.hypermedia.spring.DocumentationProvider;
+import de.escalon.hypermedia.spring.EtagSupport;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
+import de.escalon.hypermedia.spring.PooledJsonFactory;
+import de.escalon.hypermedia.spring.RequestEmbeddingDepth;
 import org.springframework.hateoas.server.LinkRelationProvider;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
@@ -17,21 +26,39 @@ import org.springframework.http.converter.HttpMessageNotWritableException;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.List;
 import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 /**
  * Http message converter which converts Spring Hateoas resource beans to siren messages. Treats the following rels as
- * navigational by default: "self", "next", "previous", "prev". Created by Dietrich on 18.04.2016.
+ * navigational by default: "self", "next", "previous", "prev". A client may ask for a minimal representation without
+ * actions, see {@link MinimalRepresentation}. Created by Dietrich on 18.04.2016.
  */
 public class SirenMessageConverter extends AbstractHttpMessageConverter<Object> {
 
     private final SirenUtils sirenUtils;
-    ObjectMapper objectMapper = new ObjectMapper();
+    ObjectMapper objectMapper = new ObjectMapper(new PooledJsonFactory());
+    private EtagSupport etagSupport;
+    private EmbeddingDepth embeddingDepth = EmbeddingDepth.UNLIMITED;
 
     public SirenMessageConverter() {
         sirenUtils = new SirenUtils();
     }
 
+    /**
+     * Sets the {@code ObjectMapper} which writes the siren entity. If not set, an {@code ObjectMapper} with a {@link
+     * PooledJsonFactory} is used.
+     *
+     * @param objectMapper
+     *         used for json mapping
+     */
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        Assert.notNull(objectMapper, "ObjectMapper must not be null");
+        this.objectMapper = objectMapper;
+    }
+
     /**
      * Used to derive siren class (because Spring Hateoas rel providers normally derive rels from class names or class
      * annotations).
@@ -73,6 +100,63 @@ public class SirenMessageConverter extends AbstractHttpMessageConverter<Object>
         sirenUtils.setDocumentationProvider(documentationProvider);
     }
 
+    /**
+     * Sets converter for collection items, which may convert the items of large collections concurrently. Default is
+     * {@link CollectionItemConverter#SEQUENTIAL}.
+     *
+     * @param collectionItemConverter
+     *         to use
+     */
+    public void setCollectionItemConverter(CollectionItemConverter collectionItemConverter) {
+        sirenUtils.setCollectionItemConverter(collectionItemConverter);
+    }
+
+    /**
+     * Sets ETag support, which adds an ETag header and answers matching conditional requests with 304. Default is
+     * null, i.e. no ETag.
+     *
+     * @param etagSupport
+     *         to use, may be null
+     */
+    public void setEtagSupport(EtagSupport etagSupport) {
+        this.etagSupport = etagSupport;
+    }
+
+    /**
+     * Sets maximum depth up to which nested resources are embedded as sub-entities. Beyond that depth, nested
+     * resources with a self link are rendered as embedded links. A handler method may override the depth for a single
+     * response using {@link RequestEmbeddingDepth}. Default is {@link EmbeddingDepth#UNLIMITED}.
+     *
+     * @param embeddingDepth
+     *         to use
+     */
+    public void setEmbeddingDepth(EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        this.embeddingDepth = embeddingDepth;
+    }
+
+    /**
+     * Sets budget for rendering a single response. Nested resources deeper than the maximum depth of the budget, or
+     * reached after the maximum time, are rendered as embedded links if they have a self link and omitted otherwise.
+     * Collections are truncated after the maximum number of items. Default is {@link RenderingBudget#UNLIMITED}.
+     *
+     * @param renderingBudget
+     *         to use
+     */
+    public void setRenderingBudget(RenderingBudget renderingBudget) {
+        sirenUtils.setRenderingBudget(renderingBudget);
+    }
+
+    /**
+     * Sets listener which is notified when a response exceeds the rendering budget. Default is null.
+     *
+     * @param renderingBudgetListener
+     *         to notify, may be null
+     */
+    public void setRenderingBudgetListener(RenderingBudgetListener renderingBudgetListener) {
+        sirenUtils.setRenderingBudgetListener(renderingBudgetListener);
+    }
+
 
     @NonNull
     @Override
@@ -86,23 +170,52 @@ public class SirenMessageConverter extends AbstractHttpMessageConverter<Object>
     }
 
     @Override
-    protected void writeInternal(Object o, HttpOutputMessage outputMessage) throws IOException,
+    protected void writeInternal(final Object o, HttpOutputMessage outputMessage) throws IOException,
             HttpMessageNotWritableException {
+        MinimalRepresentation.addResponseHeaders(outputMessage.getHeaders());
+        if (etagSupport == null) {
+            writeSirenEntity(toSirenEntity(o), outputMessage);
+        } else {
+            String variant = "depth=" + RequestEmbeddingDepth.resolve(embeddingDepth);
+            etagSupport.write(o, variant, outputMessage, new EtagSupport.BodyWriter() {
+                private SirenEntity entity;
+
+                @Override
+                public void write(HttpOutputMessage outputMessage) throws IOException {
+                    if (entity == null) {
+                        entity = toSirenEntity(o);
+                    }
+                    writeSirenEntity(entity, outputMessage);
+                }
+            });
+        }
+    }
+
+    private SirenEntity toSirenEntity(Object o) {
+        SirenEntityEvent event = RenderingEvents.isAvailable() ? SirenEntityEvent.beginIfEnabled() : null;
         SirenEntity entity = new SirenEntity();
-        sirenUtils.toSirenEntity(entity, o);
+        sirenUtils.toSirenEntity(entity, o, RequestEmbeddingDepth.resolve(embeddingDepth),
+                MinimalRepresentation.isRequested());
+        if (event != null) {
+            List<SirenSubEntity> entities = entity.getEntities();
+            event.commit(o, 0, entities == null ? 0 : entities.size());
+        }
+        return entity;
+    }
 
+    private void writeSirenEntity(SirenEntity entity, HttpOutputMessage outputMessage) throws IOException {
         JsonEncoding encoding = getJsonEncoding(outputMessage.getHeaders()
                 .getContentType());
-        JsonGenerator jsonGenerator = this.objectMapper.getFactory()
-                .createGenerator(outputMessage.getBody(), encoding);
-
-        // A workaround for JsonGenerators not applying serialization features
-        // https://github.com/FasterXML/jackson-databind/issues/12
-        if (this.objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-            jsonGenerator.useDefaultPrettyPrinter();
-        }
+        // closing the generator hands its buffers back to the pool, the body stays open
+        try (JsonGenerator jsonGenerator = this.objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), encoding)) {
+
+            // A workaround for JsonGenerators not applying serialization features
+            // https://github.com/FasterXML/jackson-databind/issues/12
+            if (this.objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                jsonGenerator.useDefaultPrettyPrinter();
+            }
 
-        try {
             this.objectMapper.writeValue(jsonGenerator, entity);
         } catch (JsonProcessingException ex) {
             throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getMessage(), ex);
@@ -3,14 +3,19 @@ package de.escalon.hypermedia.spring.siren;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.escalon.hypermedia.EmbeddingDepth;
 import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
 import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.Affordance;
 import de.escalon.hypermedia.affordance.DataType;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
 import de.escalon.hypermedia.spring.DefaultDocumentationProvider;
 import de.escalon.hypermedia.spring.DocumentationProvider;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
 import de.escalon.hypermedia.spring.SpringActionInputParameter;
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
@@ -30,6 +35,7 @@ import java.util.Set;
 import org.springframework.core.MethodParameter;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Links;
 import org.springframework.hateoas.RepresentationModel;
@@ -47,53 +53,129 @@ public class SirenUtils {
 
     private static final Set<String> FILTER_RESOURCE_SUPPORT = new HashSet<>(Arrays.asList("class", "links",
             "id"));
-    private String requestMediaType;
+    // configuration is volatile and replaced rather than modified, so that one instance can convert concurrently
+    private volatile String requestMediaType;
 
-    private final Set<String> navigationalRels = new HashSet<>(Arrays.asList("self", "next", "previous", "prev"));
+    private volatile Set<String> navigationalRels = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList("self", "next", "previous", "prev")));
 
-    private LinkRelationProvider relProvider = new DefaultLinkRelationProvider();
+    private volatile LinkRelationProvider relProvider = new DefaultLinkRelationProvider();
 
-    private DocumentationProvider documentationProvider = new DefaultDocumentationProvider();
+    private volatile DocumentationProvider documentationProvider = new DefaultDocumentationProvider();
+
+    private volatile CollectionItemConverter collectionItemConverter = CollectionItemConverter.SEQUENTIAL;
+
+    private volatile EmbeddingDepth embeddingDepth = EmbeddingDepth.UNLIMITED;
+
+    private volatile RenderingBudget renderingBudget = RenderingBudget.UNLIMITED;
+
+    private volatile RenderingBudgetListener renderingBudgetListener;
 
     public void toSirenEntity(SirenEntityContainer objectNode, Object object) {
+        toSirenEntity(objectNode, object, embeddingDepth);
+    }
+
+    /**
+     * Converts object to siren entity, rendering nested resources beyond the given embedding depth as embedded links.
+     * The conversion consumes a new rendering budget.
+     *
+     * @param objectNode
+     *         to fill
+     * @param object
+     *         to convert
+     * @param embeddingDepth
+     *         to apply
+     */
+    public void toSirenEntity(SirenEntityContainer objectNode, Object object, EmbeddingDepth embeddingDepth) {
+        toSirenEntity(objectNode, object, embeddingDepth, false);
+    }
+
+    /**
+     * Converts object to siren entity, rendering nested resources beyond the given embedding depth as embedded links.
+     * The conversion consumes a new rendering budget. A minimal representation has no actions, affordances are
+     * rendered as links and their action descriptors are not evaluated.
+     *
+     * @param objectNode
+     *         to fill
+     * @param object
+     *         to convert
+     * @param embeddingDepth
+     *         to apply
+     * @param minimalRepresentation
+     *         true to render affordances as links, see {@link MinimalRepresentation}
+     */
+    public void toSirenEntity(SirenEntityContainer objectNode, Object object, EmbeddingDepth embeddingDepth,
+                              boolean minimalRepresentation) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        RenderingBudget renderingBudget = this.renderingBudget;
+        RenderingBudget.Tracker budget = renderingBudget.isUnlimited() ? null :
+                renderingBudget.start(renderingBudgetListener);
+        toSirenEntity(objectNode, object, collectionItemConverter, embeddingDepth,
+                new Conversion(budget, minimalRepresentation), 0);
+    }
+
+    private void toSirenEntity(final SirenEntityContainer objectNode, Object object,
+                               CollectionItemConverter itemConverter, final EmbeddingDepth embeddingDepth,
+                               final Conversion conversion, final int depth) {
         if (object == null) {
             return;
         }
         try {
             if (object instanceof EntityModel) {
                 EntityModel<?> resource = (EntityModel<?>) object;
+                Links links = conversion.getLinks(resource);
                 objectNode.setLinks(this.toSirenLinks(
-                        getNavigationalLinks(resource.getLinks())));
+                        getNavigationalLinks(links)));
                 objectNode.setEmbeddedLinks(this.toSirenEmbeddedLinks(
-                        getEmbeddedLinks(resource.getLinks())));
-                objectNode.setActions(this.toSirenActions(getActions(resource.getLinks())));
-                toSirenEntity(objectNode, resource.getContent());
+                        getEmbeddedLinks(links)));
+                objectNode.setActions(this.toSirenActions(getActions(links)));
+                toSirenEntity(objectNode, resource.getContent(), itemConverter, embeddingDepth, conversion, depth);
                 return;
             } else if (object instanceof CollectionModel) {
                 CollectionModel<?> resources = (CollectionModel<?>) object;
+                Links links = conversion.getLinks(resources);
 
-                objectNode.setLinks(this.toSirenLinks(getNavigationalLinks(resources.getLinks())));
+                objectNode.setLinks(this.toSirenLinks(getNavigationalLinks(links)));
                 Collection<?> content = resources.getContent();
-                toSirenEntity(objectNode, content);
-                objectNode.setActions(this.toSirenActions(getActions(resources.getLinks())));
+                toSirenEntity(objectNode, content, itemConverter, embeddingDepth, conversion, depth);
+                objectNode.setActions(this.toSirenActions(getActions(links)));
                 return;
             } else if (object instanceof RepresentationModel) {
-                RepresentationModel resource = (RepresentationModel) object;
+                RepresentationModel<?> resource = (RepresentationModel<?>) object;
+                Links links = conversion.getLinks(resource);
                 objectNode.setLinks(this.toSirenLinks(
-                        getNavigationalLinks(resource.getLinks())));
+                        getNavigationalLinks(links)));
                 objectNode.setEmbeddedLinks(this.toSirenEmbeddedLinks(
-                        getEmbeddedLinks(resource.getLinks())));
+                        getEmbeddedLinks(links)));
                 objectNode.setActions(this.toSirenActions(
-                        getActions(resource.getLinks())));
+                        getActions(links)));
 
                 // wrap object attributes below to avoid endless loop
 
             } else if (object instanceof Collection) {
-                Collection<?> collection = (Collection<?>) object;
-                for (Object item : collection) {
-                    SirenEmbeddedRepresentation child = new SirenEmbeddedRepresentation();
-                    toSirenEntity(child, item);
-                    objectNode.addSubEntity(child);
+                Collection<?> collection = conversion.limit((Collection<?>) object, depth + 1);
+                List<SirenSubEntity> children = itemConverter.convert(collection,
+                        new CollectionItemConverter.ItemConversion<SirenSubEntity>() {
+                            @Override
+                            public SirenSubEntity convert(Object item) {
+                                SirenEmbeddedLink reference = toReference(item, null, embeddingDepth, depth + 1);
+                                if (reference != null) {
+                                    return reference;
+                                }
+                                if (conversion.isExhausted(item, depth + 1)) {
+                                    // null if the item has no self link, it is omitted then
+                                    return toSelfReference(item, null);
+                                }
+                                SirenEmbeddedRepresentation child = new SirenEmbeddedRepresentation();
+                                toSirenEntity(child, item, CollectionItemConverter.SEQUENTIAL, embeddingDepth,
+                                        conversion, depth + 1);
+                                return child;
+                            }
+                        });
+                for (SirenSubEntity child : children) {
+                    if (child != null) {
+                        objectNode.addSubEntity(child);
+                    }
                 }
                 return;
             }
@@ -107,12 +189,14 @@ public class SirenUtils {
                     Object content = entry.getValue();
 
                     String docUrl = documentationProvider.getDocumentationUrl(key, content);
-                    traverseAttribute(objectNode, propertiesNode, key, docUrl, content);
+                    traverseAttribute(objectNode, propertiesNode, key, docUrl, content, embeddingDepth, conversion,
+                            depth);
                 }
             } else { // bean or RepresentationModel
                 objectNode.setSirenClasses(getSirenClasses(object));
                 Map<String, Object> propertiesNode = new HashMap<>();
-                createRecursiveSirenEntitiesFromPropertiesAndFields(objectNode, propertiesNode, object);
+                createRecursiveSirenEntitiesFromPropertiesAndFields(objectNode, propertiesNode, object,
+                        embeddingDepth, conversion, depth);
                 objectNode.setProperties(propertiesNode);
             }
         } catch (Exception ex) {
@@ -192,8 +276,9 @@ public class SirenUtils {
 
     private void createRecursiveSirenEntitiesFromPropertiesAndFields(SirenEntityContainer objectNode, Map<String,
             Object> propertiesNode,
-                                                                     Object object) throws InvocationTargetException,
-            IllegalAccessException {
+                                                                     Object object, EmbeddingDepth embeddingDepth,
+                                                                     Conversion conversion, int depth)
+            throws InvocationTargetException, IllegalAccessException {
         Map<String, PropertyDescriptor> propertyDescriptors = PropertyUtils.getPropertyDescriptors(object);
         for (PropertyDescriptor propertyDescriptor : propertyDescriptors.values()) {
             String name = propertyDescriptor.getName();
@@ -206,7 +291,7 @@ public class SirenUtils {
                 Object content = readMethod
                         .invoke(object);
                 String docUrl = documentationProvider.getDocumentationUrl(readMethod, content);
-                traverseAttribute(objectNode, propertiesNode, name, docUrl, content);
+                traverseAttribute(objectNode, propertiesNode, name, docUrl, content, embeddingDepth, conversion, depth);
             }
         }
 
@@ -217,13 +302,14 @@ public class SirenUtils {
             if (!propertyDescriptors.containsKey(name)) {
                 Object content = field.get(object);
                 String docUrl = documentationProvider.getDocumentationUrl(field, content);
-                traverseAttribute(objectNode, propertiesNode, name, docUrl, content);
+                traverseAttribute(objectNode, propertiesNode, name, docUrl, content, embeddingDepth, conversion, depth);
             }
         }
     }
 
     private void traverseAttribute(SirenEntityContainer objectNode, Map<String, Object> propertiesNode,
-                                   String name, String docUrl, Object content) throws
+                                   String name, String docUrl, Object content, EmbeddingDepth embeddingDepth,
+                                   Conversion conversion, int depth) throws
             InvocationTargetException, IllegalAccessException {
         Object value = getContentAsScalarValue(content);
 
@@ -233,11 +319,12 @@ public class SirenUtils {
                 propertiesNode.put(name, value);
             } else {
                 if (content instanceof CollectionModel) {
-                    toSirenEntity(objectNode, content);
+                    toSirenEntity(objectNode, content, CollectionItemConverter.SEQUENTIAL, embeddingDepth, conversion,
+                            depth);
                 } else if (content instanceof RepresentationModel) {
-                    traverseSingleSubEntity(objectNode, content, name, docUrl);
+                    traverseSingleSubEntity(objectNode, content, name, docUrl, embeddingDepth, conversion, depth + 1);
                 } else if (content instanceof Collection) {
-                    Collection<?> collection = (Collection<?>) content;
+                    Collection<?> collection = conversion.limit((Collection<?>) content, depth + 1);
                     for (Object item : collection) {
                         if (DataType.isSingleValueType(item.getClass())) {
                             Object listObject = propertiesNode.get(name);
@@ -249,7 +336,8 @@ public class SirenUtils {
                                 ((Collection) listObject).add(item);
                             }
                         } else if (item != null) {
-                            traverseSingleSubEntity(objectNode, item, name, docUrl);
+                            traverseSingleSubEntity(objectNode, item, name, docUrl, embeddingDepth, conversion,
+                                    depth + 1);
                         }
                     }
                 } else if (content instanceof Map) {
@@ -257,36 +345,51 @@ public class SirenUtils {
                     Map<String, Object> subProperties = new HashMap<>();
                     propertiesNode.put(name, subProperties);
                     for (Map.Entry<String, Object> entry : entries) {
-                        traverseAttribute(objectNode, subProperties, entry.getKey(), docUrl, entry.getValue());
+                        traverseAttribute(objectNode, subProperties, entry.getKey(), docUrl, entry.getValue(),
+                                embeddingDepth, conversion, depth);
                     }
-                } else {
+                } else if (!conversion.isExhausted(content, depth + 1)) {
                     Map<String, Object> nestedProperties = new HashMap<>();
                     propertiesNode.put(name, nestedProperties);
-                    createRecursiveSirenEntitiesFromPropertiesAndFields(objectNode, nestedProperties, content);
+                    createRecursiveSirenEntitiesFromPropertiesAndFields(objectNode, nestedProperties, content,
+                            embeddingDepth, conversion, depth + 1);
                 }
             }
         }
     }
 
     private void traverseSingleSubEntity(SirenEntityContainer objectNode, Object content,
-                                         String name, String docUrl)
+                                         String name, String docUrl, EmbeddingDepth embeddingDepth,
+                                         Conversion conversion, int depth)
             throws InvocationTargetException, IllegalAccessException {
 
+        List<String> rels = Collections.singletonList(docUrl != null ? docUrl : name);
+        SirenEmbeddedLink reference = toReference(content, rels, embeddingDepth, depth);
+        if (reference == null && conversion.isExhausted(content, depth)) {
+            reference = toSelfReference(content, rels);
+            if (reference == null) {
+                return;
+            }
+        }
+        if (reference != null) {
+            objectNode.addSubEntity(reference);
+            return;
+        }
+
         Object bean;
         Links links;
         if (content instanceof EntityModel) {
             bean = ((EntityModel) content).getContent();
-            links = ((EntityModel) content).getLinks();
+            links = conversion.getLinks((EntityModel<?>) content);
         } else if (content instanceof RepresentationModel) {
             bean = content;
-            links = ((RepresentationModel) content).getLinks();
+            links = conversion.getLinks((RepresentationModel<?>) content);
         } else {
             bean = content;
             links = Links.NONE;
         }
 
         Map<String, Object> properties = new HashMap<>();
-        List<String> rels = Collections.singletonList(docUrl != null ? docUrl : name);
         SirenEmbeddedRepresentation subEntity = new SirenEmbeddedRepresentation(
                 getSirenClasses(bean), properties, null, toSirenActions(getActions(links)),
                 toSirenLinks(getNavigationalLinks(links)), rels, null);
@@ -296,7 +399,75 @@ public class SirenUtils {
         for (SirenEmbeddedLink sirenEmbeddedLink : sirenEmbeddedLinks) {
             subEntity.addSubEntity(sirenEmbeddedLink);
         }
-        createRecursiveSirenEntitiesFromPropertiesAndFields(subEntity, properties, bean);
+        createRecursiveSirenEntitiesFromPropertiesAndFields(subEntity, properties, bean, embeddingDepth, conversion,
+                depth);
+    }
+
+    /**
+     * Creates an embedded link to the self link of the given resource if it is nested beyond the embedding depth.
+     *
+     * @return embedded link or null if the resource must be embedded
+     */
+    private SirenEmbeddedLink toReference(Object content, List<String> rels, EmbeddingDepth embeddingDepth,
+                                          int depth) {
+        if (!(content instanceof RepresentationModel)) {
+            return null;
+        }
+        Object bean = content instanceof EntityModel ? ((EntityModel<?>) content).getContent() : content;
+        if (embeddingDepth.isEmbedded(bean == null ? content.getClass() : bean.getClass(), depth)) {
+            return null;
+        }
+        return toSelfReference(content, rels);
+    }
+
+    /**
+     * Creates an embedded link to the self link of the given resource.
+     *
+     * @return embedded link or null if the resource has no self link
+     */
+    private SirenEmbeddedLink toSelfReference(Object content, List<String> rels) {
+        if (!(content instanceof RepresentationModel)) {
+            return null;
+        }
+        Object bean = content instanceof EntityModel ? ((EntityModel<?>) content).getContent() : content;
+        Link selfLink = ((RepresentationModel<?>) content).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+        if (selfLink == null || selfLink.isTemplated()) {
+            return null;
+        }
+        return new SirenEmbeddedLink(bean == null ? null : getSirenClasses(bean),
+                rels == null ? Collections.singletonList(IanaLinkRelations.ITEM.value()) : rels,
+                selfLink.getHref(), null, null);
+    }
+
+    /**
+     * State of a single conversion.
+     */
+    private static final class Conversion {
+
+        private final RenderingBudget.Tracker budget;
+        private final boolean minimalRepresentation;
+
+        Conversion(RenderingBudget.Tracker budget, boolean minimalRepresentation) {
+            this.budget = budget;
+            this.minimalRepresentation = minimalRepresentation;
+        }
+
+        boolean isExhausted(Object content, int depth) {
+            return budget != null && budget.isExhausted(content, depth);
+        }
+
+        Collection<?> limit(Collection<?> items, int depth) {
+            return budget == null ? items : budget.limit(items, depth);
+        }
+
+        /**
+         * Gets the links of the resource, with affordances as plain links in a minimal representation.
+         */
+        Links getLinks(RepresentationModel<?> resource) {
+            return minimalRepresentation ? MinimalRepresentation.toPlainLinks(resource.getLinks()) :
+                    resource.getLinks();
+        }
     }
 
     private List<SirenAction> toSirenActions(List<Link> links) {
@@ -482,7 +653,7 @@ public class SirenUtils {
             if (annotatedParameter.isIncluded(paramName) && !knownFields.contains(parentParamName + paramName)) {
 
                 ActionInputParameter constructorParamInputParameter =
-                        new SpringActionInputParameter(methodParameter, propertyValue);
+                        SpringActionInputParameter.forProperty(annotatedParameter, methodParameter, propertyValue);
 
                 final Object[] possibleValues =
                         annotatedParameter.getPossibleValues(methodParameter, annotatedParameters);
@@ -605,6 +776,55 @@ public class SirenUtils {
     }
 
     public void setAdditionalNavigationalRels(Collection<String> additionalNavigationalRels) {
-        this.navigationalRels.addAll(additionalNavigationalRels);
+        Set<String> rels = new HashSet<>(this.navigationalRels);
+        rels.addAll(additionalNavigationalRels);
+        this.navigationalRels = Collections.unmodifiableSet(rels);
+    }
+
+    /**
+     * Sets converter for collection items, which may convert the items of large collections concurrently. Default is
+     * {@link CollectionItemConverter#SEQUENTIAL}.
+     *
+     * @param collectionItemConverter
+     *         to use
+     */
+    public void setCollectionItemConverter(CollectionItemConverter collectionItemConverter) {
+        Assert.notNull(collectionItemConverter, "collectionItemConverter must not be null");
+        this.collectionItemConverter = collectionItemConverter;
+    }
+
+    /**
+     * Sets maximum depth up to which nested resources are embedded as sub-entities. Beyond that depth, nested
+     * resources with a self link are rendered as embedded links. Default is {@link EmbeddingDepth#UNLIMITED}.
+     *
+     * @param embeddingDepth
+     *         to use
+     */
+    public void setEmbeddingDepth(EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        this.embeddingDepth = embeddingDepth;
+    }
+
+    /**
+     * Sets budget for converting a single object. Nested resources deeper than the maximum depth of the budget, or
+     * reached after the maximum time, are rendered as embedded links if they have a self link and omitted otherwise.
+     * Collections are truncated after the maximum number of items. Default is {@link RenderingBudget#UNLIMITED}.
+     *
+     * @param renderingBudget
+     *         to use
+     */
+    public void setRenderingBudget(RenderingBudget renderingBudget) {
+        Assert.notNull(renderingBudget, "renderingBudget must not be null");
+        this.renderingBudget = renderingBudget;
+    }
+
+    /**
+     * Sets listener which is notified when a conversion exceeds the rendering budget. Default is null.
+     *
+     * @param renderingBudgetListener
+     *         to notify, may be null
+     */
+    public void setRenderingBudgetListener(RenderingBudgetListener renderingBudgetListener) {
+        this.renderingBudgetListener = renderingBudgetListener;
     }
 }
@@ -18,7 +18,12 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
+import de.escalon.hypermedia.spring.EtagSupport;
 import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.PooledJsonFactory;
+import de.escalon.hypermedia.spring.RequestEmbeddingDepth;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.http.HttpInputMessage;
@@ -29,6 +34,7 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -37,8 +43,11 @@ import java.util.Map;
 
 public class UberJackson2HttpMessageConverter extends AbstractHttpMessageConverter<Object> {
 
-  private ObjectMapper objectMapper = new ObjectMapper();
+  private ObjectMapper objectMapper = new ObjectMapper(new PooledJsonFactory());
   private Boolean prettyPrint;
+  private EtagSupport etagSupport;
+  private CollectionItemConverter collectionItemConverter = CollectionItemConverter.SEQUENTIAL;
+  private EmbeddingDepth embeddingDepth = EmbeddingDepth.UNLIMITED;
 
   public UberJackson2HttpMessageConverter() {
     super(HypermediaTypes.UBER_JSON);
@@ -63,21 +72,45 @@ public class UberJackson2HttpMessageConverter extends AbstractHttpMessageConvert
   }
 
   @Override
-  protected void writeInternal(Object t, HttpOutputMessage outputMessage)
+  protected void writeInternal(final Object t, HttpOutputMessage outputMessage)
       throws IOException, HttpMessageNotWritableException {
+    final EmbeddingDepth embeddingDepth = RequestEmbeddingDepth.resolve(this.embeddingDepth);
+    if (etagSupport == null) {
+      writeUberModel(
+          new UberMessageModel(t, collectionItemConverter, embeddingDepth), outputMessage);
+    } else {
+      etagSupport.write(
+          t,
+          outputMessage,
+          new EtagSupport.BodyWriter() {
+            private UberMessageModel uberModel;
 
-    UberMessageModel uberModel = new UberMessageModel(t);
+            @Override
+            public void write(HttpOutputMessage outputMessage) throws IOException {
+              if (uberModel == null) {
+                uberModel = new UberMessageModel(t, collectionItemConverter, embeddingDepth);
+              }
+              writeUberModel(uberModel, outputMessage);
+            }
+          });
+    }
+  }
+
+  private void writeUberModel(UberMessageModel uberModel, HttpOutputMessage outputMessage)
+      throws IOException {
     JsonEncoding encoding = getJsonEncoding(outputMessage.getHeaders().getContentType());
-    JsonGenerator jsonGenerator =
-        this.objectMapper.getFactory().createGenerator(outputMessage.getBody(), encoding);
+    // closing the generator hands its buffers back to the pool, the body stays open
+    try (JsonGenerator jsonGenerator =
+        this.objectMapper
+            .getFactory()
+            .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), encoding)) {
 
-    // A workaround for JsonGenerators not applying serialization features
-    // https://github.com/FasterXML/jackson-databind/issues/12
-    if (this.objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-      jsonGenerator.useDefaultPrettyPrinter();
-    }
+      // A workaround for JsonGenerators not applying serialization features
+      // https://github.com/FasterXML/jackson-databind/issues/12
+      if (this.objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+        jsonGenerator.useDefaultPrettyPrinter();
+      }
 
-    try {
       this.objectMapper.writeValue(jsonGenerator, uberModel);
     } catch (JsonProcessingException ex) {
       throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getMessage(), ex);
@@ -103,8 +136,8 @@ public class UberJackson2HttpMessageConverter extends AbstractHttpMessageConvert
   }
 
   /**
-   * Set the {@code ObjectMapper} for this view. If not set, a default {@link
-   * com.fasterxml.jackson.databind .ObjectMapper#ObjectMapper() ObjectMapper} is used. Setting a
+   * Set the {@code ObjectMapper} for this view. If not set, an {@code ObjectMapper} with a {@link
+   * PooledJsonFactory} is used. Setting a
    * custom-configured {@code ObjectMapper} is one way to take further control of the JSON
    * serialization process. For example, an extended {@link
    * com.fasterxml.jackson.databind.ser.SerializerFactory} can be configured that provides custom
@@ -120,6 +153,40 @@ public class UberJackson2HttpMessageConverter extends AbstractHttpMessageConvert
     configurePrettyPrint();
   }
 
+  /**
+   * Sets ETag support, which adds an ETag header and answers matching conditional requests with
+   * 304. Default is null, i.e. no ETag.
+   *
+   * @param etagSupport to use, may be null
+   */
+  public void setEtagSupport(EtagSupport etagSupport) {
+    this.etagSupport = etagSupport;
+  }
+
+  /**
+   * Sets converter for collection items, which may convert the items of large collections
+   * concurrently. Default is {@link CollectionItemConverter#SEQUENTIAL}.
+   *
+   * @param collectionItemConverter to use
+   */
+  public void setCollectionItemConverter(CollectionItemConverter collectionItemConverter) {
+    Assert.notNull(collectionItemConverter, "collectionItemConverter must not be null");
+    this.collectionItemConverter = collectionItemConverter;
+  }
+
+  /**
+   * Sets maximum depth up to which nested resources are embedded. Beyond that depth, nested
+   * resources with a self link are rendered as url nodes. A handler method may override the depth
+   * for a single response using {@link RequestEmbeddingDepth}. Default is {@link
+   * EmbeddingDepth#UNLIMITED}.
+   *
+   * @param embeddingDepth to use
+   */
+  public void setEmbeddingDepth(EmbeddingDepth embeddingDepth) {
+    Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+    this.embeddingDepth = embeddingDepth;
+  }
+
   private void configurePrettyPrint() {
     if (this.prettyPrint != null) {
       this.objectMapper.configure(SerializationFeature.INDENT_OUTPUT, this.prettyPrint);
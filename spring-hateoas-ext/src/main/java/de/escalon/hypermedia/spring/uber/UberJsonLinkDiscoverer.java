@@ -13,12 +13,87 @@
 
 package de.escalon.hypermedia.spring.uber;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import de.escalon.hypermedia.spring.HypermediaTypes;
-import org.springframework.hateoas.client.JsonPathLinkDiscoverer;
+import de.escalon.hypermedia.spring.IndexedLinkDiscoverer;
+import de.escalon.hypermedia.spring.LinkIndex;
 
-public class UberJsonLinkDiscoverer extends JsonPathLinkDiscoverer {
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Discovers links in uber+json representations. Every uber node with {@code rel} and {@code url}, at any depth, is a
+ * link for each of its rels.
+ */
+public class UberJsonLinkDiscoverer extends IndexedLinkDiscoverer {
 
     public UberJsonLinkDiscoverer() {
-        super("$_links..%s.href", HypermediaTypes.UBER_JSON);
+        super(HypermediaTypes.UBER_JSON);
+    }
+
+    @Override
+    protected void indexLinks(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            indexNode(parser, links);
+        }
+    }
+
+    /**
+     * Indexes the node at the current start object token and its nested data.
+     */
+    private void indexNode(JsonParser parser, LinkIndex.Builder links) throws IOException {
+        List<String> rels = null;
+        String url = null;
+        boolean indexed = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("rel".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                rels = new ArrayList<String>(1);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    rels.add(parser.getText());
+                }
+            } else if ("url".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                url = parser.getText();
+            } else if (("data".equals(fieldName) || "uber".equals(fieldName)) && value != JsonToken.VALUE_NULL) {
+                // the link of a node precedes the links of its data
+                if (!indexed) {
+                    indexed = addLinks(rels, url, links);
+                }
+                indexData(parser, value, links);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!indexed) {
+            addLinks(rels, url, links);
+        }
+    }
+
+    private void indexData(JsonParser parser, JsonToken value, LinkIndex.Builder links) throws IOException {
+        if (value == JsonToken.START_OBJECT) {
+            indexNode(parser, links);
+        } else if (value == JsonToken.START_ARRAY) {
+            JsonToken item;
+            while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (item == JsonToken.START_OBJECT) {
+                    indexNode(parser, links);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private boolean addLinks(List<String> rels, String url, LinkIndex.Builder links) {
+        if (rels == null || url == null) {
+            return false;
+        }
+        for (String rel : rels) {
+            links.add(rel, url);
+        }
+        return true;
     }
 }
@@ -16,6 +16,9 @@ package de.escalon.hypermedia.spring.uber;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonRootName;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingEvents;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,7 +31,38 @@ public class UberMessageModel extends AbstractUberNode {
     private List<UberNode> error = new ArrayList<UberNode>();
 
     public UberMessageModel(Object toWrap) {
-        UberUtils.toUberData(this, toWrap);
+        this(toWrap, CollectionItemConverter.SEQUENTIAL);
+    }
+
+    /**
+     * Creates uber message for the given object.
+     *
+     * @param toWrap
+     *         object to convert
+     * @param itemConverter
+     *         for collection items
+     */
+    public UberMessageModel(Object toWrap, CollectionItemConverter itemConverter) {
+        this(toWrap, itemConverter, EmbeddingDepth.UNLIMITED);
+    }
+
+    /**
+     * Creates uber message for the given object, rendering nested resources beyond the given embedding depth as url
+     * nodes.
+     *
+     * @param toWrap
+     *         object to convert
+     * @param itemConverter
+     *         for collection items
+     * @param embeddingDepth
+     *         to apply
+     */
+    public UberMessageModel(Object toWrap, CollectionItemConverter itemConverter, EmbeddingDepth embeddingDepth) {
+        UberNodeEvent event = RenderingEvents.isAvailable() ? UberNodeEvent.beginIfEnabled() : null;
+        UberUtils.toUberData(this, toWrap, itemConverter, embeddingDepth);
+        if (event != null) {
+            event.commit(toWrap, 0, data.size());
+        }
     }
 
     public String getVersion() {
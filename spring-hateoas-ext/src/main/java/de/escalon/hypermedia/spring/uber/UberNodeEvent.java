@@ -0,0 +1,33 @@
+package de.escalon.hypermedia.spring.uber;
+
+import de.escalon.hypermedia.RenderingEvent;
+import de.escalon.hypermedia.RenderingEvents;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the &quot;Build Uber Nodes&quot; rendering phase.
+ */
+@Name("de.escalon.hypermedia.UberNode")
+@Label("Build Uber Nodes")
+@Description("Builds the UBER data tree for a resource, item count is the number of data nodes.")
+class UberNodeEvent extends RenderingEvent {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(UberNodeEvent.class);
+
+    /**
+     * Begins an event if its type is enabled. Callers must check {@link RenderingEvents#isAvailable()} first.
+     *
+     * @return started event, null if the event type is disabled
+     */
+    static UberNodeEvent beginIfEnabled() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        UberNodeEvent event = new UberNodeEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -16,12 +16,15 @@ package de.escalon.hypermedia.spring.uber;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.escalon.hypermedia.EmbeddingDepth;
 import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.affordance.*;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
 import de.escalon.hypermedia.spring.SpringActionDescriptor;
 import de.escalon.hypermedia.spring.SpringActionInputParameter;
 import org.springframework.core.MethodParameter;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.RepresentationModel;
@@ -56,17 +59,61 @@ public class UberUtils {
      *         to convert
      */
     public static void toUberData(AbstractUberNode objectNode, Object object) {
+        toUberData(objectNode, object, CollectionItemConverter.SEQUENTIAL);
+    }
+
+    /**
+     * Recursively converts object to nodes of uber data, converting the items of collections with the given item
+     * converter.
+     *
+     * @param objectNode
+     *         to append to
+     * @param object
+     *         to convert
+     * @param itemConverter
+     *         for collection items
+     */
+    public static void toUberData(AbstractUberNode objectNode, Object object, CollectionItemConverter itemConverter) {
+        toUberData(objectNode, object, itemConverter, EmbeddingDepth.UNLIMITED);
+    }
+
+    /**
+     * Recursively converts object to nodes of uber data, converting the items of collections with the given item
+     * converter. Nested resources beyond the given embedding depth are rendered as url nodes pointing to their self
+     * link.
+     *
+     * @param objectNode
+     *         to append to
+     * @param object
+     *         to convert
+     * @param itemConverter
+     *         for collection items
+     * @param embeddingDepth
+     *         to apply
+     */
+    public static void toUberData(AbstractUberNode objectNode, Object object, CollectionItemConverter itemConverter,
+                                  EmbeddingDepth embeddingDepth) {
+        Assert.notNull(embeddingDepth, "embeddingDepth must not be null");
+        toUberData(objectNode, object, itemConverter, embeddingDepth, 0);
+    }
+
+    private static void toUberData(AbstractUberNode objectNode, Object object, CollectionItemConverter itemConverter,
+                                   final EmbeddingDepth embeddingDepth, final int depth) {
         Set<String> filtered = FILTER_RESOURCE_SUPPORT;
         if (object == null) {
             return;
         }
+        if (depth > 0 && objectNode instanceof UberNode && toUberReference((UberNode) objectNode, object,
+                embeddingDepth, depth)) {
+            return;
+        }
 
         try {
             // TODO: move all returns to else branch of property descriptor handling
             if (object instanceof EntityModel) {
                 EntityModel<?> resource = (EntityModel<?>) object;
                 objectNode.addLinks(resource.getLinks());
-                toUberData(objectNode, resource.getContent());
+                toUberData(objectNode, resource.getContent(), itemConverter, embeddingDepth, depth);
                 return;
             } else if (object instanceof CollectionModel) {
                 CollectionModel<?> resources = (CollectionModel<?>) object;
@@ -76,7 +123,7 @@ public class UberUtils {
                 objectNode.addLinks(resources.getLinks());
 
                 Collection<?> content = resources.getContent();
-                toUberData(objectNode, content);
+                toUberData(objectNode, content, itemConverter, embeddingDepth, depth);
                 return;
             } else if (object instanceof RepresentationModel) {
                 RepresentationModel resource = (RepresentationModel) object;
@@ -87,11 +134,19 @@ public class UberUtils {
 
             } else if (object instanceof Collection) {
                 Collection<?> collection = (Collection<?>) object;
-                for (Object item : collection) {
-                    // TODO name must be repeated for each collection item
-                    UberNode itemNode = new UberNode();
+                List<UberNode> itemNodes = itemConverter.convert(collection,
+                        new CollectionItemConverter.ItemConversion<UberNode>() {
+                            @Override
+                            public UberNode convert(Object item) {
+                                // TODO name must be repeated for each collection item
+                                UberNode itemNode = new UberNode();
+                                toUberData(itemNode, item, CollectionItemConverter.SEQUENTIAL, embeddingDepth,
+                                        depth + 1);
+                                return itemNode;
+                            }
+                        });
+                for (UberNode itemNode : itemNodes) {
                     objectNode.addData(itemNode);
-                    toUberData(itemNode, item);
                 }
                 return;
             }
@@ -108,7 +163,8 @@ public class UberUtils {
                     if (value != null) {
                         entryNode.setValue(value);
                     } else {
-                        toUberData(entryNode, content);
+                        // entries are on the level of the map itself
+                        toUberData(entryNode, content, CollectionItemConverter.SEQUENTIAL, embeddingDepth, depth);
                     }
                 }
             } else {
@@ -133,7 +189,8 @@ public class UberUtils {
                         // for each scalar property of a simple bean, add valuepair nodes to data
                         propertyNode.setValue(value);
                     } else {
-                        toUberData(propertyNode, content);
+                        toUberData(propertyNode, content, CollectionItemConverter.SEQUENTIAL, embeddingDepth,
+                                depth + 1);
                     }
                 }
 
@@ -156,7 +213,8 @@ public class UberUtils {
                             // for each scalar property of a simple bean, add valuepair nodes to data
                             propertyNode.setValue(value);
                         } else {
-                            toUberData(propertyNode, content);
+                            toUberData(propertyNode, content, CollectionItemConverter.SEQUENTIAL, embeddingDepth,
+                                    depth + 1);
                         }
 
                     }
@@ -167,6 +225,27 @@ public class UberUtils {
         }
     }
 
+    /**
+     * Sets the url of the given node to the self link of the given resource if it is nested beyond the embedding
+     * depth.
+     *
+     * @return true if the node references the resource, false if the resource must be embedded
+     */
+    private static boolean toUberReference(UberNode node, Object object, EmbeddingDepth embeddingDepth, int depth) {
+        if (!(object instanceof RepresentationModel)) {
+            return false;
+        }
+        Object bean = object instanceof EntityModel ? ((EntityModel<?>) object).getContent() : object;
+        Link selfLink = ((RepresentationModel<?>) object).getLink(IanaLinkRelations.SELF)
+                .orElse(null);
+        if (selfLink == null || selfLink.isTemplated()
+                || embeddingDepth.isEmbedded(bean == null ? object.getClass() : bean.getClass(), depth)) {
+            return false;
+        }
+        node.setUrl(selfLink.getHref());
+        return true;
+    }
+
     private static boolean isEmptyCollectionOrMap(Object content, Class<?> type) {
         if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
             if (content == null) {
@@ -463,7 +542,7 @@ public class UberUtils {
             if (annotatedParameter.isIncluded(paramName) && !knownFields.contains(parentParamName + paramName)) {
 
                 ActionInputParameter constructorParamInputParameter =
-                        new SpringActionInputParameter(methodParameter, propertyValue);
+                        SpringActionInputParameter.forProperty(annotatedParameter, methodParameter, propertyValue);
 
                 final Object[] possibleValues =
                         annotatedParameter.getPossibleValues(methodParameter, annotatedParameters);
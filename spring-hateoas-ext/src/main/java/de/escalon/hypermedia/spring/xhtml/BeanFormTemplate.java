@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.PropertyUtils;
+import de.escalon.hypermedia.affordance.DataType;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Form layout of a request body bean, i.e. the inputs which {@link XhtmlWriter} renders for the bean. The layout only
+ * depends on the bean type and on whether the bean is created through its constructor (POST) or through its setters,
+ * so it is introspected once per type and reused for every form. Call values, possible values and the {@code @Input}
+ * include and readonly rules of the handler method are applied when the form is rendered.
+ */
+final class BeanFormTemplate {
+
+    /**
+     * Templates per request body type, the garbage collector may clear templates which are no longer used.
+     */
+    private static final ConcurrentMap<Class<?>, BeanFormTemplate> CONSTRUCTOR_TEMPLATES =
+            new ConcurrentReferenceHashMap<Class<?>, BeanFormTemplate>();
+
+    private static final ConcurrentMap<Class<?>, BeanFormTemplate> SETTER_TEMPLATES =
+            new ConcurrentReferenceHashMap<Class<?>, BeanFormTemplate>();
+
+    enum Kind {
+        /**
+         * Rendered as input or select.
+         */
+        SINGLE_VALUE,
+        /**
+         * Array or collection, rendered once per call value.
+         */
+        ARRAY_OR_COLLECTION,
+        /**
+         * Nested bean, rendered recursively.
+         */
+        BEAN
+    }
+
+    /**
+     * Constructor argument or bean property which is rendered as form input.
+     */
+    static final class Field {
+
+        final String name;
+        final Kind kind;
+        final Class<?> type;
+        /**
+         * Constructor or setter parameter.
+         */
+        final MethodParameter methodParameter;
+        /**
+         * Property descriptor of setter, null for constructor arguments.
+         */
+        final PropertyDescriptor propertyDescriptor;
+
+        Field(String name, Kind kind, Class<?> type, MethodParameter methodParameter,
+              PropertyDescriptor propertyDescriptor) {
+            this.name = name;
+            this.kind = kind;
+            this.type = type;
+            this.methodParameter = methodParameter;
+            this.propertyDescriptor = propertyDescriptor;
+        }
+    }
+
+    private final List<Field> fields;
+
+    private BeanFormTemplate(List<Field> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Gets the form template of a bean which is created from its {@link JsonCreator} or default constructor.
+     *
+     * @param beanType
+     *         of request body
+     * @return template with one field per {@link JsonProperty} constructor argument
+     * @throws IllegalArgumentException
+     *         if there is no suitable constructor or not all arguments of the {@link JsonCreator} are annotated with
+     *         {@link JsonProperty}
+     */
+    static BeanFormTemplate forConstructor(Class<?> beanType) {
+        BeanFormTemplate ret = CONSTRUCTOR_TEMPLATES.get(beanType);
+        if (ret == null) {
+            ret = cache(CONSTRUCTOR_TEMPLATES, beanType, new BeanFormTemplate(constructorFields(beanType)));
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the form template of a bean which is populated through its setters.
+     *
+     * @param beanType
+     *         of request body
+     * @return template with one field per writable property
+     */
+    static BeanFormTemplate forSetters(Class<?> beanType) {
+        BeanFormTemplate ret = SETTER_TEMPLATES.get(beanType);
+        if (ret == null) {
+            ret = cache(SETTER_TEMPLATES, beanType, new BeanFormTemplate(setterFields(beanType)));
+        }
+        return ret;
+    }
+
+    private static BeanFormTemplate cache(ConcurrentMap<Class<?>, BeanFormTemplate> templates, Class<?> beanType,
+                                          BeanFormTemplate template) {
+        BeanFormTemplate existing = templates.putIfAbsent(beanType, template);
+        return existing == null ? template : existing;
+    }
+
+    List<Field> getFields() {
+        return fields;
+    }
+
+    private static List<Field> constructorFields(Class<?> beanType) {
+        Constructor[] constructors = beanType.getConstructors();
+        // find default ctor
+        Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
+        // find ctor with JsonCreator ann
+        if (constructor == null) {
+            constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
+        }
+        Assert.notNull(constructor, "no default constructor or JsonCreator found for type " + beanType
+                .getName());
+        List<Field> ret = new ArrayList<Field>();
+        Class[] parameters = constructor.getParameterTypes();
+        if (parameters.length > 0) {
+            Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
+            int paramIndex = 0;
+            for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
+                for (Annotation annotation : annotationsOnParameter) {
+                    if (JsonProperty.class == annotation.annotationType()) {
+                        // TODO use required attribute of JsonProperty
+                        String paramName = ((JsonProperty) annotation).value();
+                        Class<?> parameterType = parameters[paramIndex];
+                        Kind kind;
+                        if (DataType.isSingleValueType(parameterType)) {
+                            kind = Kind.SINGLE_VALUE;
+                        } else if (DataType.isArrayOrCollection(parameterType)) {
+                            kind = Kind.ARRAY_OR_COLLECTION;
+                        } else {
+                            kind = Kind.BEAN;
+                        }
+                        ret.add(new Field(paramName, kind, parameterType, new MethodParameter(constructor,
+                                paramIndex), null));
+                        paramIndex++; // increase for each @JsonProperty
+                    }
+                }
+            }
+            Assert.isTrue(parameters.length == paramIndex,
+                    "not all constructor arguments of @JsonCreator " + constructor.getName() +
+                            " are annotated with @JsonProperty");
+        }
+        return ret;
+    }
+
+    private static List<Field> setterFields(Class<?> beanType) {
+        List<Field> ret = new ArrayList<Field>();
+        for (PropertyDescriptor propertyDescriptor : getBeanInfo(beanType).getPropertyDescriptors()) {
+            final Method writeMethod = propertyDescriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            Class<?> propertyType = propertyDescriptor.getPropertyType();
+            // arrays and collections are told apart by the input parameter holding the bean when rendering
+            Kind kind = DataType.isSingleValueType(propertyType) ? Kind.SINGLE_VALUE : Kind.BEAN;
+            ret.add(new Field(propertyDescriptor.getName(), kind, propertyType, new MethodParameter(writeMethod, 0),
+                    propertyDescriptor));
+        }
+        return ret;
+    }
+
+    private static BeanInfo getBeanInfo(Class<?> beanType) {
+        try {
+            return Introspector.getBeanInfo(beanType);
+        } catch (IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.affordance.DataType;
 import de.escalon.hypermedia.spring.DefaultDocumentationProvider;
 import de.escalon.hypermedia.spring.DocumentationProvider;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
 import java.nio.charset.StandardCharsets;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.RepresentationModel;
@@ -50,7 +51,8 @@ import java.util.Map.Entry;
  * java beans and spring-hateoas CollectionModel to xhtml and maps the body of x-www-form-urlencoded requests to RequestBody
  * method parameters. The media-type xhtml does not officially support methods other than GET or POST, therefore we must
  * &quot;tunnel&quot; other methods when this converter is used with the browser. Spring's {@link
- * org.springframework.web.filter.HiddenHttpMethodFilter} allows to do that with relative ease.
+ * org.springframework.web.filter.HiddenHttpMethodFilter} allows to do that with relative ease. A client may ask for a
+ * minimal representation without forms, see {@link MinimalRepresentation}.
  *
  * @author Dietrich Schulten
  */
@@ -252,10 +254,14 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
     protected void writeInternal(Object t, HttpOutputMessage outputMessage) throws IOException,
             HttpMessageNotWritableException {
 
-        XhtmlWriter xhtmlWriter = new XhtmlWriter(new OutputStreamWriter(outputMessage.getBody(), StandardCharsets.UTF_8));
+        // headers must be set before the body is opened
+        MinimalRepresentation.addResponseHeaders(outputMessage.getHeaders());
+        XhtmlWriter xhtmlWriter = new XhtmlWriter(new BufferedWriter(new OutputStreamWriter(outputMessage.getBody(),
+                StandardCharsets.UTF_8)));
         xhtmlWriter.setMethodParam(methodParam);
         xhtmlWriter.setStylesheets(stylesheets);
         xhtmlWriter.setDocumentationProvider(documentationProvider);
+        xhtmlWriter.setMinimalRepresentation(MinimalRepresentation.isRequested());
 
         xhtmlWriter.beginHtml("Form");
         writeNewResource(xhtmlWriter, t);
@@ -434,13 +440,12 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
     private void writeDtWithDoc(XhtmlWriter writer, String name, String documentationUrl) throws IOException {
         if (documentationUrl == null) {
             writer.beginDt();
-            writer.write(name);
+            writer.writeText(name);
             writer.endDt();
         } else {
             writer.beginDt();
-            writer.beginAnchor(XhtmlWriter.OptionalAttributes.attr("href", documentationUrl)
-                    .and("title", documentationUrl));
-            writer.write(name);
+            writer.beginAnchor(documentationUrl, null, documentationUrl);
+            writer.writeText(name);
             writer.endAnchor();
             writer.endDt();
         }
@@ -448,7 +453,7 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
 
     private void writeDdForScalarValue(XhtmlWriter writer, Object value) throws IOException {
         writer.beginDd();
-        writer.write(value.toString());
+        writer.writeText(value.toString());
         writer.endDd();
     }
 
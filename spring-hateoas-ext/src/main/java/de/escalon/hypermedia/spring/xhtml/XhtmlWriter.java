@@ -1,19 +1,15 @@
 package de.escalon.hypermedia.spring.xhtml;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.action.Input;
 import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.ActionInputParameter;
 import de.escalon.hypermedia.affordance.Affordance;
-import de.escalon.hypermedia.affordance.DataType;
 import de.escalon.hypermedia.spring.DefaultDocumentationProvider;
 import de.escalon.hypermedia.spring.DocumentationProvider;
+import de.escalon.hypermedia.spring.MinimalRepresentation;
 import de.escalon.hypermedia.spring.SpringActionInputParameter;
-import org.springframework.core.MethodParameter;
-import org.springframework.core.convert.Property;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Links;
 import org.springframework.hateoas.TemplateVariable;
@@ -21,19 +17,10 @@ import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
 import java.util.*;
 
-import static de.escalon.hypermedia.spring.xhtml.XhtmlWriter.OptionalAttributes.attr;
-
 /**
  * Created by Dietrich on 09.02.2015.
  */
@@ -66,6 +53,35 @@ public class XhtmlWriter extends Writer {
             "  </body>" + //
             "</html>";
 
+    /**
+     * Replacements for characters which must be escaped in html text and attribute values, indexed by character.
+     */
+    private static final String[] ESCAPES = new String['>' + 1];
+
+    static {
+        ESCAPES['&'] = "&amp;";
+        ESCAPES['<'] = "&lt;";
+        ESCAPES['>'] = "&gt;";
+        ESCAPES['"'] = "&quot;";
+        ESCAPES['\''] = "&#39;";
+    }
+
+    // constant markup of forms and inputs
+    private static final String FORM_START = "<form class=\"well\" ";
+    private static final String FORM_HEADING_START = "<h4>Form ";
+    private static final String FORM_HEADING_END = "</h4>";
+    private static final String INPUT_NAME = "<input name=\"";
+    private static final String INPUT_TYPE = "\" type=\"";
+    private static final String INPUT_CLASS = "\" class=\"";
+    private static final String INPUT_BUTTON_TYPE = "<input type=\"";
+    private static final String INPUT_BUTTON_VALUE = "\" value=\"";
+    private static final String EMPTY_ELEMENT_END = "\"/>";
+    private static final String ATTRIBUTES_END = "\" ";
+    private static final String SELECT_NAME = "<select name=\"";
+    private static final String SELECT_ID = "\" id=\"";
+    private static final String OPTION_START = "<option";
+    private static final String OPTION_END = "</option>";
+
     private String methodParam = "_method";
     private DocumentationProvider documentationProvider = new DefaultDocumentationProvider();
 
@@ -73,6 +89,8 @@ public class XhtmlWriter extends Writer {
     private String formGroupClass = "form-group";
     private String controlLabelClass = "control-label";
 
+    private boolean minimalRepresentation;
+
     public XhtmlWriter(Writer writer) {
         this.writer = writer;
     }
@@ -81,6 +99,16 @@ public class XhtmlWriter extends Writer {
         this.methodParam = methodParam;
     }
 
+    /**
+     * Renders affordances as plain links rather than forms, see {@link MinimalRepresentation}. Default is false.
+     *
+     * @param minimalRepresentation
+     *         true to skip forms
+     */
+    public void setMinimalRepresentation(boolean minimalRepresentation) {
+        this.minimalRepresentation = minimalRepresentation;
+    }
+
     public void beginHtml(String title) throws IOException {
         write(String.format(HTML_HEAD_START, title));
         for (String stylesheet : stylesheets) {
@@ -176,16 +204,76 @@ public class XhtmlWriter extends Writer {
 
     public void writeSpan(Object value) throws IOException {
         beginSpan();
-        writer.write(value.toString());
+        writeText(value.toString());
         endSpan();
     }
 
     public void writeDefinitionTerm(Object value) throws IOException {
         beginDt();
-        writer.write(value.toString());
+        writeText(value.toString());
         endDt();
     }
 
+    /**
+     * Writes text content, escaping html markup characters.
+     *
+     * @param text
+     *         to write
+     * @throws IOException
+     *         if writing fails
+     */
+    public void writeText(String text) throws IOException {
+        writeEscaped(text);
+    }
+
+    /**
+     * Writes an attribute of the element currently being started, unless the value is null. The attribute is preceded
+     * by a blank, the value is escaped.
+     *
+     * @param name
+     *         of attribute
+     * @param value
+     *         of attribute, may be null
+     * @throws IOException
+     *         if writing fails
+     */
+    public void writeAttribute(String name, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        writeEscaped(value);
+        writer.write('"');
+    }
+
+    /**
+     * Escapes the given string directly into the underlying writer, unescaped runs are written as a whole.
+     */
+    private void writeEscaped(String value) throws IOException {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < ESCAPES.length) {
+                String replacement = ESCAPES[c];
+                if (replacement != null) {
+                    if (start < i) {
+                        writer.write(value, start, i - start);
+                    }
+                    writer.write(replacement);
+                    start = i + 1;
+                }
+            }
+        }
+        if (start == 0) {
+            writer.write(value);
+        } else if (start < length) {
+            writer.write(value, start, length - start);
+        }
+    }
+
     public void setStylesheets(List<String> stylesheets) {
         Assert.notNull(stylesheets, "[Assertion failed] - this argument is required; it must not be null");
         this.stylesheets = stylesheets;
@@ -248,6 +336,9 @@ public class XhtmlWriter extends Writer {
 
 
     public void writeLinks(Links links) throws IOException {
+        if (minimalRepresentation) {
+            links = MinimalRepresentation.toPlainLinks(links);
+        }
         for (Link link : links) {
 
             if (link instanceof Affordance) {
@@ -278,9 +369,10 @@ public class XhtmlWriter extends Writer {
                                             .isEmpty()) {
                                 beginDiv();
                                 // GET without params is simple <a href>
-                                writeAnchor(OptionalAttributes.attr("href", affordance.expand()
-                                        .getHref())
-                                        .and("rel", affordance.getRel().value()), affordance.getRel().value());
+                                String rel = affordance.getRel()
+                                        .value();
+                                writeAnchor(affordance.expand()
+                                        .getHref(), rel, rel);
                                 endDiv();
                             } else {
                                 appendForm(affordance, actionDescriptor);
@@ -316,12 +408,10 @@ public class XhtmlWriter extends Writer {
         // Link's expand method removes non-required variables from URL
         String actionUrl = affordance.expand()
                 .getHref();
-        beginForm(OptionalAttributes.attr("action", actionUrl)
-                .and("method", getHtmlConformingHttpMethod(httpMethod))
-                .and("name", formName));
-        write("<h4>");
-        write("Form " + formName);
-        write("</h4>");
+        beginForm(actionUrl, getHtmlConformingHttpMethod(httpMethod), formName);
+        write(FORM_HEADING_START);
+        writeEscaped(formName);
+        write(FORM_HEADING_END);
 
         writeHiddenHttpMethodField(httpMethod);
         // build the form
@@ -375,8 +465,7 @@ public class XhtmlWriter extends Writer {
         if (link.isTemplated()) {
             // TODO ensure that template expansion takes place for base uri
             Link expanded = link.expand(); // remove query variables
-            beginForm(OptionalAttributes.attr("action", expanded.getHref())
-                    .and("method", "GET"));
+            beginForm(expanded.getHref(), "GET", null);
             List<TemplateVariable> variables = link.getVariables();
             for (TemplateVariable variable : variables) {
                 String variableName = variable.getName();
@@ -387,8 +476,8 @@ public class XhtmlWriter extends Writer {
         } else {
             String title = link.getRel().value();
             // TODO: write html <link> instead of anchor  <a> here?
-            writeAnchor(OptionalAttributes.attr("href", link.getHref())
-                    .and("rel", link.getRel().value()), title);
+            writeAnchor(link.getHref(), link.getRel()
+                    .value(), title);
         }
     }
 
@@ -402,31 +491,40 @@ public class XhtmlWriter extends Writer {
      * @throws IOException
      */
     private void inputButton(Type type, String value) throws IOException {
-        write("<input type=\"");
+        write(INPUT_BUTTON_TYPE);
         write(type.toString());
-        write("\" ");
-        write("value");
-        write("=");
-        quote();
-        write(value);
-        quote();
-        write("/>");
+        write(INPUT_BUTTON_VALUE);
+        writeEscaped(value);
+        write(EMPTY_ELEMENT_END);
     }
 
-    private void input(String fieldName, Type type, OptionalAttributes attributes) throws IOException {
-        write("<input name=\"");
-        write(fieldName);
-        write("\" type=\"");
+    /**
+     * Writes the start of an input element, up to the optional attributes. Must be followed by {@link
+     * #endInput()}.
+     */
+    private void beginInput(String fieldName, Type type) throws IOException {
+        write(INPUT_NAME);
+        writeEscaped(fieldName);
+        write(INPUT_TYPE);
         write(type.toString());
-        write("\" class=\"");
-        write(formControlClass);
-        write("\" ");
-        writeAttributes(attributes);
+        write(INPUT_CLASS);
+        writeEscaped(formControlClass);
+        write(ATTRIBUTES_END);
+    }
+
+    private void endInput() throws IOException {
         write("/>");
     }
 
+    private void input(String fieldName, Type type, String value) throws IOException {
+        beginInput(fieldName, type);
+        writeAttribute("value", value);
+        endInput();
+    }
+
     private void input(String fieldName, Type type) throws IOException {
-        input(fieldName, type, OptionalAttributes.attr());
+        beginInput(fieldName, type);
+        endInput();
     }
 
 //    private void beginLabel(String label) throws IOException {
@@ -438,9 +536,10 @@ public class XhtmlWriter extends Writer {
 //        write(label);
 //    }
 
-    private void beginLabel(OptionalAttributes attributes) throws IOException {
+    private void beginLabel(String forField, String cssClass) throws IOException {
         write("<label");
-        writeAttributes(attributes);
+        writeAttribute("for", forField);
+        writeAttribute("class", cssClass);
         endTag();
     }
 
@@ -449,28 +548,21 @@ public class XhtmlWriter extends Writer {
     }
 
 
-    private void beginForm(OptionalAttributes attrs) throws IOException {
-        write("<form class=\"well\" ");
-        writeAttributes(attrs);
-        write(">");
+    private void beginForm(String action, String method, String name) throws IOException {
+        write(FORM_START);
+        writeAttribute("action", action);
+        writeAttribute("method", method);
+        writeAttribute("name", name);
+        endTag();
     }
 
     private void writeAttributes(OptionalAttributes attrs) throws IOException {
         Map<String, String> attributes = attrs.build();
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
-            write(" ");
-            write(entry.getKey());
-            write("=");
-            quote();
-            write(entry.getValue());
-            quote();
+            writeAttribute(entry.getKey(), entry.getValue());
         }
     }
 
-    private void quote() throws IOException {
-        write("\"");
-    }
-
     private void endForm() throws IOException {
         write("</form>");
     }
@@ -481,6 +573,26 @@ public class XhtmlWriter extends Writer {
         endTag();
     }
 
+    /**
+     * Writes the start tag of an anchor.
+     *
+     * @param href
+     *         of anchor
+     * @param rel
+     *         of anchor, may be null
+     * @param title
+     *         of anchor, may be null
+     * @throws IOException
+     *         if writing fails
+     */
+    public void beginAnchor(String href, String rel, String title) throws IOException {
+        write("<a ");
+        writeAttribute("href", href);
+        writeAttribute("rel", rel);
+        writeAttribute("title", title);
+        endTag();
+    }
+
     public void endAnchor() throws IOException {
         write("</a>");
     }
@@ -489,9 +601,9 @@ public class XhtmlWriter extends Writer {
         write("<br />");
     }
 
-    private void writeAnchor(OptionalAttributes attrs, String value) throws IOException {
-        beginAnchor(attrs);
-        write(value);
+    private void writeAnchor(String href, String rel, String value) throws IOException {
+        beginAnchor(href, rel, null);
+        writeEscaped(value);
         endAnchor();
     }
 
@@ -512,7 +624,7 @@ public class XhtmlWriter extends Writer {
             case POST:
                 break;
             default:
-                input(methodParam, Type.HIDDEN, OptionalAttributes.attr("value", httpMethod.name()));
+                input(methodParam, Type.HIDDEN, httpMethod.name());
         }
     }
 
@@ -546,8 +658,6 @@ public class XhtmlWriter extends Writer {
     private void recurseBeanProperties(Class<?> beanType, ActionDescriptor actionDescriptor, ActionInputParameter
             actionInputParameter, Object currentCallValue, String parentParamName) throws IOException {
         // TODO support Option provider by other method args?
-        final BeanInfo beanInfo = getBeanInfo(beanType);
-        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
         // TODO collection and map
 
         // TODO: do not add two inputs for setter and ctor
@@ -555,77 +665,41 @@ public class XhtmlWriter extends Writer {
         // TODO almost duplicate of HtmlResourceMessageConverter.recursivelyCreateObject
         if (RequestMethod.POST == RequestMethod.valueOf(actionDescriptor.getHttpMethod())) {
             try {
-                Constructor[] constructors = beanType.getConstructors();
-                // find default ctor
-                Constructor constructor = PropertyUtils.findDefaultCtor(constructors);
-                // find ctor with JsonCreator ann
-                if (constructor == null) {
-                    constructor = PropertyUtils.findJsonCreator(constructors, JsonCreator.class);
-                }
-                Assert.notNull(constructor, "no default constructor or JsonCreator found for type " + beanType
-                        .getName());
-                int parameterCount = constructor.getParameterTypes().length;
-                if (parameterCount > 0) {
-                    Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
-
-                    Class[] parameters = constructor.getParameterTypes();
-                    int paramIndex = 0;
-                    for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
-                        for (Annotation annotation : annotationsOnParameter) {
-                            if (JsonProperty.class == annotation.annotationType()) {
-                                JsonProperty jsonProperty = (JsonProperty) annotation;
-                                // TODO use required attribute of JsonProperty
-                                String paramName = jsonProperty.value();
-                                Class parameterType = parameters[paramIndex];
-
-                                // TODO duplicate below for PropertyDescriptors and in appendForm
-                                if (DataType.isSingleValueType(parameterType)) {
-
-                                    if (actionInputParameter.isIncluded(paramName)) {
-
-                                        Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
-                                                paramName);
-
-                                        ActionInputParameter constructorParamInputParameter = new
-												SpringActionInputParameter
-                                                (new MethodParameter(constructor, paramIndex), propertyValue);
-
-                                        final Object[] possibleValues =
-                                                actionInputParameter.getPossibleValues(
-                                                        constructor, paramIndex, actionDescriptor);
-
-                                        appendInputOrSelect(actionInputParameter, parentParamName + paramName,
-                                                constructorParamInputParameter, possibleValues);
-                                    }
-                                } else if (DataType.isArrayOrCollection(parameterType)) {
-                                    Object[] callValues = actionInputParameter.getValues();
-                                    int items = callValues.length;
-                                    for (int i = 0; i < items; i++) {
-                                        Object value;
-                                        if (i < callValues.length) {
-                                            value = callValues[i];
-                                        } else {
-                                            value = null;
-                                        }
-                                        recurseBeanProperties(actionInputParameter.getParameterType(),
-                                                actionDescriptor, actionInputParameter, value, parentParamName);
-                                    }
-                                } else {
-                                    beginDiv();
-                                    write(paramName + ":");
-                                    Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
-                                            paramName);
-                                    recurseBeanProperties(parameterType, actionDescriptor, actionInputParameter,
-                                            propertyValue, paramName + ".");
-                                    endDiv();
-                                }
-                                paramIndex++; // increase for each @JsonProperty
+                for (BeanFormTemplate.Field field : BeanFormTemplate.forConstructor(beanType)
+                        .getFields()) {
+                    String paramName = field.name;
+                    // TODO duplicate below for PropertyDescriptors and in appendForm
+                    switch (field.kind) {
+                        case SINGLE_VALUE:
+                            if (actionInputParameter.isIncluded(paramName)) {
+
+                                Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
+                                        paramName);
+
+                                ActionInputParameter constructorParamInputParameter = new
+                                        SpringActionInputParameter(field.methodParameter, propertyValue);
+
+                                final Object[] possibleValues =
+                                        actionInputParameter.getPossibleValues(field.methodParameter,
+                                                actionDescriptor);
+
+                                appendInputOrSelect(actionInputParameter, parentParamName + paramName,
+                                        constructorParamInputParameter, possibleValues);
                             }
-                        }
+                            break;
+                        case ARRAY_OR_COLLECTION:
+                            recurseCallValues(actionDescriptor, actionInputParameter, parentParamName);
+                            break;
+                        default:
+                            beginDiv();
+                            writeEscaped(paramName);
+                            write(":");
+                            Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue,
+                                    paramName);
+                            recurseBeanProperties(field.type, actionDescriptor, actionInputParameter,
+                                    propertyValue, paramName + ".");
+                            endDiv();
                     }
-                    Assert.isTrue(parameters.length == paramIndex,
-                            "not all constructor arguments of @JsonCreator " + constructor.getName() +
-                                    " are annotated with @JsonProperty");
                 }
             } catch (Exception e) {
                 throw new RuntimeException("Failed to write input fields for constructor", e);
@@ -634,54 +708,44 @@ public class XhtmlWriter extends Writer {
 
             // TODO non-writable properties and public fields: make sure the inputs are part of a form
             // write input field for every setter
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                final Method writeMethod = propertyDescriptor.getWriteMethod();
-                if (writeMethod == null) {
-                    continue;
-                }
-                final Class<?> propertyType = propertyDescriptor.getPropertyType();
-
-                String propertyName = propertyDescriptor.getName();
-
-                if (DataType.isSingleValueType(propertyType)) {
-
-                    final Property property = new Property(beanType, propertyDescriptor.getReadMethod(),
-                            propertyDescriptor.getWriteMethod(), propertyDescriptor.getName());
+            for (BeanFormTemplate.Field field : BeanFormTemplate.forSetters(beanType)
+                    .getFields()) {
+                String propertyName = field.name;
 
+                if (field.kind == BeanFormTemplate.Kind.SINGLE_VALUE) {
                     Object propertyValue = PropertyUtils.getPropertyOrFieldValue(currentCallValue, propertyName);
-                    MethodParameter methodParameter = new MethodParameter(propertyDescriptor.getWriteMethod(), 0);
-                    ActionInputParameter propertySetterInputParameter = new SpringActionInputParameter(methodParameter,
-                            propertyValue);
-                    final Object[] possibleValues = actionInputParameter.getPossibleValues(propertyDescriptor
-                                    .getWriteMethod(), 0,
+                    ActionInputParameter propertySetterInputParameter = SpringActionInputParameter.forProperty(
+                            actionInputParameter, field.methodParameter, propertyValue);
+                    final Object[] possibleValues = actionInputParameter.getPossibleValues(field.methodParameter,
                             actionDescriptor);
                     appendInputOrSelect(actionInputParameter, propertyName, propertySetterInputParameter,
-							possibleValues);
+                            possibleValues);
                 } else if (actionInputParameter.isArrayOrCollection()) {
-                    Object[] callValues = actionInputParameter.getValues();
-                    int items = callValues.length;
-                    for (int i = 0; i < items; i++) {
-                        Object value;
-                        if (i < callValues.length) {
-                            value = callValues[i];
-                        } else {
-                            value = null;
-                        }
-                        recurseBeanProperties(actionInputParameter.getParameterType(), actionDescriptor,
-                                actionInputParameter, value, parentParamName);
-                    }
+                    recurseCallValues(actionDescriptor, actionInputParameter, parentParamName);
                 } else {
                     beginDiv();
-                    write(propertyName + ":");
-                    Object propertyValue = PropertyUtils.getPropertyValue(currentCallValue, propertyDescriptor);
-                    recurseBeanProperties(propertyType, actionDescriptor, actionInputParameter, propertyValue,
-							parentParamName);
+                    writeEscaped(propertyName);
+                    write(":");
+                    Object propertyValue = PropertyUtils.getPropertyValue(currentCallValue, field.propertyDescriptor);
+                    recurseBeanProperties(field.type, actionDescriptor, actionInputParameter, propertyValue,
+                            parentParamName);
                     endDiv();
                 }
             }
         }
     }
 
+    /**
+     * Renders the bean properties once per call value of an array or collection input parameter.
+     */
+    private void recurseCallValues(ActionDescriptor actionDescriptor, ActionInputParameter actionInputParameter,
+                                   String parentParamName) throws IOException {
+        for (Object value : actionInputParameter.getValues()) {
+            recurseBeanProperties(actionInputParameter.getParameterType(), actionDescriptor, actionInputParameter,
+                    value, parentParamName);
+        }
+    }
+
     /**
      * Appends simple input or select, depending on availability of possible values.
      *
@@ -714,14 +778,6 @@ public class XhtmlWriter extends Writer {
     }
 
 
-    private BeanInfo getBeanInfo(Class<?> beanType) {
-        try {
-            return Introspector.getBeanInfo(beanType);
-        } catch (IntrospectionException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private void appendInput(String requestParamName, ActionInputParameter actionInputParameter, Object value, boolean
             readOnly) throws
             IOException {
@@ -732,38 +788,37 @@ public class XhtmlWriter extends Writer {
         Type htmlInputFieldType = actionInputParameter.getHtmlInputFieldType();
         Assert.notNull(htmlInputFieldType);
         String val = value == null ? "" : value.toString();
-        beginDiv(OptionalAttributes.attr("class", formGroupClass));
+        beginFormGroup();
         if (Type.HIDDEN.equals(htmlInputFieldType)) {
-            input(requestParamName, htmlInputFieldType, OptionalAttributes.attr("value", val));
+            input(requestParamName, htmlInputFieldType, val);
         } else {
             String documentationUrl = documentationProvider.getDocumentationUrl(actionInputParameter, value);
             // TODO consider @Input-include/exclude/hidden here
-            OptionalAttributes attrs = OptionalAttributes.attr("value", val);
+            writeLabelWithDoc(fieldLabel, requestParamName, documentationUrl);
+            beginInput(requestParamName, htmlInputFieldType);
+            writeAttribute("value", val);
             if (readOnly) {
-                attrs.and(Input.READONLY, Input.READONLY);
+                writeAttribute(Input.READONLY, Input.READONLY);
             }
-            writeLabelWithDoc(fieldLabel, requestParamName, documentationUrl);
             if (actionInputParameter.hasInputConstraints()) {
                 for (Map.Entry<String, Object> inputConstraint : actionInputParameter.getInputConstraints()
                         .entrySet()) {
-                    attrs.and(inputConstraint.getKey(), inputConstraint.getValue()
+                    writeAttribute(inputConstraint.getKey(), inputConstraint.getValue()
                             .toString());
                 }
             }
-            input(requestParamName, htmlInputFieldType, attrs);
+            endInput();
         }
         endDiv();
     }
 
     private void writeLabelWithDoc(String label, String fieldName, String documentationUrl) throws IOException {
-        beginLabel(OptionalAttributes.attr("for", fieldName)
-                .and("class", controlLabelClass));
+        beginLabel(fieldName, controlLabelClass);
         if (documentationUrl == null) {
-            write(label);
+            writeEscaped(label);
         } else {
-            beginAnchor(XhtmlWriter.OptionalAttributes.attr("href", documentationUrl)
-                    .and("title", documentationUrl));
-            write(label);
+            beginAnchor(documentationUrl, null, documentationUrl);
+            writeEscaped(label);
             endAnchor();
         }
         endLabel();
@@ -773,18 +828,13 @@ public class XhtmlWriter extends Writer {
     private void appendSelectOne(String requestParamName, Object[] possibleValues, ActionInputParameter
             actionInputParameter)
             throws IOException {
-        beginDiv(OptionalAttributes.attr("class", formGroupClass));
+        beginFormGroup();
         Object callValue = actionInputParameter.getValue();
         String documentationUrl = documentationProvider.getDocumentationUrl(actionInputParameter, callValue);
         writeLabelWithDoc(requestParamName, requestParamName, documentationUrl);
-        beginSelect(requestParamName, requestParamName, possibleValues.length,
-                OptionalAttributes.attr("class", formControlClass));
+        beginSelect(requestParamName, requestParamName, possibleValues.length, false);
         for (Object possibleValue : possibleValues) {
-            if (possibleValue.equals(callValue)) {
-                option(possibleValue.toString(), attr("selected", "selected"));
-            } else {
-                option(possibleValue.toString());
-            }
+            option(possibleValue.toString(), possibleValue.equals(callValue));
         }
         endSelect();
 
@@ -794,7 +844,7 @@ public class XhtmlWriter extends Writer {
 
     private void appendSelectMulti(String requestParamName, Object[] possibleValues, ActionInputParameter
             actionInputParameter) throws IOException {
-        beginDiv(OptionalAttributes.attr("class", formGroupClass));
+        beginFormGroup();
         Object[] actualValues = actionInputParameter.getValues();
         final Object aCallValue;
         if (actualValues.length > 0) {
@@ -804,65 +854,51 @@ public class XhtmlWriter extends Writer {
         }
         String documentationUrl = documentationProvider.getDocumentationUrl(actionInputParameter, aCallValue);
         writeLabelWithDoc(requestParamName, requestParamName, documentationUrl);
-        beginSelect(requestParamName, requestParamName, possibleValues.length,
-                OptionalAttributes.attr("multiple", "multiple")
-                        .and("class", formControlClass));
+        beginSelect(requestParamName, requestParamName, possibleValues.length, true);
         for (Object possibleValue : possibleValues) {
-            if (ObjectUtils.containsElement(actualValues, possibleValue)) {
-                option(possibleValue.toString(), attr("selected", "selected"));
-            } else {
-                option(possibleValue.toString());
-            }
+            option(possibleValue.toString(), ObjectUtils.containsElement(actualValues, possibleValue));
         }
         endForm();
         endDiv();
     }
 
-    private void option(String option) throws IOException {
-        option(option, attr());
+    private void beginFormGroup() throws IOException {
+        write("<div ");
+        writeAttribute("class", formGroupClass);
+        endTag();
     }
 
-    private void option(String option, OptionalAttributes attr) throws IOException {
+    private void option(String option, boolean selected) throws IOException {
         // <option selected='selected'>%s</option>
-        beginTag("option");
-        writeAttributes(attr);
+        write(OPTION_START);
+        if (selected) {
+            writeAttribute("selected", "selected");
+        }
         endTag();
-        write(option);
-        write("</option>");
-    }
-
-    private void beginTag(String tag) throws IOException {
-        write("<");
-        write(tag);
+        writeEscaped(option);
+        write(OPTION_END);
     }
 
     private void endTag() throws IOException {
         write(">");
     }
 
-    private void beginSelect(String name, String id, int size) throws IOException {
-        beginSelect(name, id, size, attr());
-    }
-
-    private void beginSelect(String name, String id, int size, OptionalAttributes attrs) throws IOException {
-        beginTag("select");
-        write(" name=");
-        quote(name);
-        write(" id=");
-        quote(id);
+    private void beginSelect(String name, String id, int size, boolean multiple) throws IOException {
+        write(SELECT_NAME);
+        writeEscaped(name);
+        write(SELECT_ID);
+        writeEscaped(id);
         //write(" size=");
         //quote(Integer.toString(size));
-        writeAttributes(attrs);
+        write('"');
+        if (multiple) {
+            writeAttribute("multiple", "multiple");
+        }
+        writeAttribute("class", formControlClass);
         endTag();
     }
 
     private void endSelect() throws IOException {
         write("</select>");
     }
-
-    private void quote(String s) throws IOException {
-        quote();
-        write(s);
-        quote();
-    }
 }
@@ -0,0 +1,179 @@
+package de.escalon.hypermedia;
+
+import de.escalon.hypermedia.spring.sample.test.Person;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceTraversalTest {
+
+    @Test
+    public void recordsTraversalEventsWithDepthAndItemCount() throws Exception {
+        CollectionModel<Person> persons = CollectionModel.of(Arrays.asList(new Person("Alice"), new Person("Bob")));
+
+        Path dump = File.createTempFile("traversal", ".jfr")
+                .toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("de.escalon.hypermedia.ResourceTraversal");
+            recording.start();
+            new ResourceTraversal().traverseResource(new AcceptAllVisitor(), persons);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if ("de.escalon.hypermedia.ResourceTraversal".equals(event.getEventType()
+                    .getName())) {
+                events.add(event);
+            }
+        }
+        Files.delete(dump);
+
+        assertTrue(events.size() > 3);
+        RecordedEvent top = null;
+        for (RecordedEvent event : events) {
+            if (event.getInt("depth") == 0) {
+                top = event;
+            }
+        }
+        assertEquals(CollectionModel.class.getName(), top.getString("resourceType"));
+        assertEquals(2, top.getInt("itemCount"));
+    }
+
+    @Test
+    public void beginsEventsOnlyWhileRecording() {
+        assertTrue(RenderingEvents.isAvailable());
+        assertNull(ResourceTraversalEvent.beginIfEnabled());
+        try (Recording recording = new Recording()) {
+            recording.enable("de.escalon.hypermedia.ResourceTraversal");
+            recording.start();
+            assertNotNull(ResourceTraversalEvent.beginIfEnabled());
+        }
+        assertNull(ResourceTraversalEvent.beginIfEnabled());
+    }
+
+    public static class Team {
+
+        private final List<EntityModel<Person>> members = Arrays.asList(
+                EntityModel.of(new Person("Alice"), Link.of("http://example.com/persons/alice")),
+                EntityModel.of(new Person("Bob")));
+
+        public List<EntityModel<Person>> getMembers() {
+            return members;
+        }
+    }
+
+    @Test
+    public void visitsSelfLinkOfResourcesBeyondEmbeddingDepth() {
+        final List<String> visited = new ArrayList<>();
+        ResourceTraversal traversal = new ResourceTraversal();
+        traversal.setEmbeddingDepth(EmbeddingDepth.of(1));
+        traversal.traverseResource(new AcceptAllVisitor() {
+            @Override
+            public boolean visitLinks(Links links) {
+                for (Link link : links) {
+                    visited.add(link.getHref());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visitProperty(String name, Object value, Object o) {
+                visited.add(name + "=" + o);
+                return true;
+            }
+        }, EntityModel.of(new Team()));
+
+        // team at depth 0, members list at 1, members at 2
+        assertEquals(Arrays.asList("http://example.com/persons/alice", "name=Bob"), visited);
+    }
+
+    @Test
+    public void truncatesTraversalBeyondRenderingBudget() {
+        final List<String> visited = new ArrayList<>();
+        final List<String> exceeded = new ArrayList<>();
+        ResourceTraversal traversal = new ResourceTraversal();
+        traversal.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxDepth(1)
+                .withMaxItems(1));
+        traversal.setRenderingBudgetListener(new RenderingBudgetListener() {
+            @Override
+            public void budgetExceeded(RenderingBudget.Limit limit, Class<?> resourceType, int depth) {
+                exceeded.add(limit + "@" + depth);
+            }
+        });
+        AcceptAllVisitor visitor = new AcceptAllVisitor() {
+            @Override
+            public boolean visitLinks(Links links) {
+                for (Link link : links) {
+                    visited.add(link.getHref());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visitProperty(String name, Object value, Object o) {
+                visited.add(name + "=" + o);
+                return true;
+            }
+        };
+        traversal.traverseResource(visitor, EntityModel.of(new Team()));
+        traversal.traverseResource(visitor, EntityModel.of(new Team()));
+
+        // only the first member is traversed, and only as self link since it is too deep; reported per traversal
+        assertEquals(Arrays.asList("http://example.com/persons/alice", "http://example.com/persons/alice"),
+                visited);
+        assertEquals(Arrays.asList("ITEMS@2", "DEPTH@2", "ITEMS@2", "DEPTH@2"), exceeded);
+    }
+
+    static class AcceptAllVisitor implements ResourceSupportVisitor {
+
+        @Override
+        public boolean visitLinks(Links links) {
+            return true;
+        }
+
+        @Override
+        public boolean visitEnterCollection(Collection<?> collection) {
+            return true;
+        }
+
+        @Override
+        public boolean visitLeaveCollection(Collection<?> collection) {
+            return true;
+        }
+
+        @Override
+        public boolean visitEnterProperty(String name, Class<?> propertyType, Object value) {
+            return true;
+        }
+
+        @Override
+        public boolean visitProperty(String name, Object value, Object o) {
+            return true;
+        }
+
+        @Override
+        public boolean visitLeaveProperty(String name, Class<?> propertyType, Object value) {
+            return true;
+        }
+    }
+}
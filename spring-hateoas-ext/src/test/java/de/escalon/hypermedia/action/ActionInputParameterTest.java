@@ -7,6 +7,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -47,6 +49,13 @@ public class ActionInputParameterTest {
                 List<String> searchTerms) {
             return null;
         }
+
+        @RequestMapping(value = "/{rating}/votes", method = RequestMethod.POST)
+        public
+        @ResponseBody
+        ResponseEntity<Void> voteReview(@PathVariable String rating, @RequestParam @Input(min = 1, max = 5) int votes) {
+            return null;
+        }
     }
 
     @Before
@@ -283,4 +292,79 @@ public class ActionInputParameterTest {
         assertFalse(actionInputParameter.isRequestHeader());
         assertFalse(actionInputParameter.isPathVariable());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sharesMetadataButNotValuesOfSameMethodParameter() throws NoSuchMethodException {
+        Method addReview = DummyController.class.getMethod("addReview", String.class, String.class);
+
+        SpringActionInputParameter first =
+                new SpringActionInputParameter(new MethodParameter(addReview, 1), "yada, yada");
+        SpringActionInputParameter second =
+                new SpringActionInputParameter(new MethodParameter(addReview, 1), null);
+
+        assertSame(first.getInputConstraints(), second.getInputConstraints());
+        assertEquals("reviewBody", second.getParameterName());
+        assertEquals("yada, yada", first.getValue());
+        assertFalse(second.hasValue());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void keepsMetadataWhenCallerChangesMethodParameter() throws NoSuchMethodException {
+        Method voteReview = DummyController.class.getMethod("voteReview", String.class, int.class);
+        MethodParameter methodParameter = new MethodParameter(voteReview, 1);
+        SpringActionInputParameter first = new SpringActionInputParameter(methodParameter, 3);
+
+        methodParameter.increaseNestingLevel();
+
+        SpringActionInputParameter second =
+                new SpringActionInputParameter(new MethodParameter(voteReview, 1), null);
+        assertSame(first.getInputConstraints(), second.getInputConstraints());
+        assertEquals(int.class, second.getParameterType());
+        assertEquals("votes", first.getParameterName());
+    }
+
+    @Test
+    public void formatsValueWithDefaultConversionService() throws NoSuchMethodException {
+        Method addReview = DummyController.class.getMethod("addReview", String.class, String.class);
+        DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+        conversionService.addConverter(String.class, String.class, new Converter<String, String>() {
+            @Override
+            public String convert(String source) {
+                return source.toUpperCase();
+            }
+        });
+        SpringActionInputParameter.setDefaultConversionService(conversionService);
+        try {
+            SpringActionInputParameter actionInputParameter =
+                    new SpringActionInputParameter(new MethodParameter(addReview, 1), "yada, yada");
+            assertEquals("YADA, YADA", actionInputParameter.getValueFormatted());
+        } finally {
+            SpringActionInputParameter.setDefaultConversionService(null);
+        }
+        assertNotSame(conversionService, SpringActionInputParameter.getDefaultConversionService());
+        assertSame(SpringActionInputParameter.getDefaultConversionService(),
+                SpringActionInputParameter.getDefaultConversionService());
+    }
+
+    @Test
+    public void propertyParameterInheritsConversionServiceOfRequestBody() throws NoSuchMethodException {
+        Method addReview = DummyController.class.getMethod("addReview", String.class, String.class);
+        DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+        conversionService.addConverter(String.class, String.class, new Converter<String, String>() {
+            @Override
+            public String convert(String source) {
+                return source.toUpperCase();
+            }
+        });
+        SpringActionInputParameter requestBody =
+                new SpringActionInputParameter(new MethodParameter(addReview, 1), null, conversionService);
+
+        SpringActionInputParameter property = SpringActionInputParameter.forProperty(requestBody,
+                new MethodParameter(addReview, 1), "yada, yada");
+
+        assertEquals("YADA, YADA", property.getValueFormatted());
+        assertEquals("yada, yada", new SpringActionInputParameter(new MethodParameter(addReview, 1), "yada, yada")
+                .getValueFormatted());
+    }
+}
@@ -17,9 +17,18 @@ import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.springframework.hateoas.LinkRelation;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 
 import static org.junit.Assert.assertEquals;
 
@@ -84,6 +93,25 @@ public class AffordanceTest {
                 "deprecation=http://example.com/why/this/is/deprecated}", linkExtensions.toString());
     }
 
+    @Test
+    public void addsLinkParamsInOneStep() {
+        final Affordance affordance = new Affordance("http://example.com", "thing", "item");
+        affordance.setTitle("Things");
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<String, String>();
+        params.add("rel", "collection");
+        params.add("rev", "owner");
+        params.add("hreflang", "de");
+        params.add("hreflang", "en");
+
+        affordance.addLinkParams(params);
+
+        assertEquals(Arrays.asList("thing", "item", "collection"), affordance.getRels());
+        assertEquals("owner", affordance.getRev());
+        assertEquals("Things", affordance.getTitle());
+        assertEquals("<http://example.com>; rel=\"thing item collection\"; title=\"Things\"; rev=\"owner\"; " +
+                "hreflang=\"de\"; hreflang=\"en\"", affordance.asHeader());
+    }
+
     @Test
     public void testExpand() {
         final Affordance affordance = new Affordance("http://localhost/things{/id}", "thing");
@@ -121,4 +149,80 @@ public class AffordanceTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void withRelLeavesOriginalUnchanged() {
+        final Affordance affordance = new Affordance("http://localhost/things{?id}", "thing");
+        affordance.setTitle("Things");
+
+        Affordance derived = affordance.withRel("other");
+
+        Assert.assertThat(affordance.getRels(), Matchers.contains("thing"));
+        Assert.assertThat(derived.getRels(), Matchers.contains("other"));
+        assertEquals("Things", derived.getTitle());
+        assertEquals(affordance.getHref(), derived.getHref());
+        Assert.assertSame(affordance.getUriTemplateComponents(), derived.getUriTemplateComponents());
+    }
+
+    @Test
+    public void derivedAffordancesCopyLinkParamsOnWrite() {
+        final Affordance affordance = new Affordance("http://localhost/things{/id}", "thing");
+        affordance.setTitle("Things");
+
+        Affordance expanded = affordance.expandPartially(100);
+        expanded.setTitle("Thing 100");
+        affordance.addRev("owner");
+
+        assertEquals("http://localhost/things/100", expanded.getHref());
+        assertEquals("Thing 100", expanded.getTitle());
+        Assert.assertNull(expanded.getRev());
+        assertEquals("Things", affordance.getTitle());
+        assertEquals("owner", affordance.getRev());
+    }
+
+    @Test
+    public void derivesFromSharedAffordanceOnSeveralThreads() throws Exception {
+        final Affordance affordance = new Affordance("http://localhost/things{/id}", "thing");
+        affordance.setTitle("Things");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int id = 0; id < 1000; id++) {
+                            Affordance expanded = affordance.expandPartially(id);
+                            expanded.setTitle("Thing " + id);
+                            expanded.addRel("item");
+                            if (!("Thing " + id).equals(expanded.getTitle())
+                                    || !Arrays.asList("thing", "item").equals(expanded.getRels())) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("Things", affordance.getTitle());
+        Assert.assertThat(affordance.getRels(), Matchers.contains("thing"));
+    }
+
+    @Test
+    public void withSelfRelMarksSelfRel() {
+        final Affordance affordance = new Affordance("http://localhost/things", "thing");
+
+        Affordance self = affordance.withSelfRel();
+
+        Assert.assertTrue(self.isSelfRel());
+        Assert.assertFalse(affordance.isSelfRel());
+        Assert.assertThat(self.getRels(), Matchers.contains("thing", "self"));
+        Assert.assertThat(affordance.getRels(), Matchers.contains("thing"));
+    }
+
+}
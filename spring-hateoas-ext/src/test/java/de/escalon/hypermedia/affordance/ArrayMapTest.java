@@ -0,0 +1,63 @@
+package de.escalon.hypermedia.affordance;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayMapTest {
+
+    @Test
+    public void keepsInsertionOrder() {
+        Map<String, Integer> map = new ArrayMap<String, Integer>();
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+
+        assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<String>(map.keySet()));
+        assertEquals(Arrays.asList(1, 4, 3), new ArrayList<Integer>(map.values()));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void removesEntries() {
+        Map<String, Integer> map = new ArrayMap<String, Integer>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        assertEquals(Integer.valueOf(2), map.remove("b"));
+        assertNull(map.remove("b"));
+        Iterator<Map.Entry<String, Integer>> iterator = map.entrySet()
+                .iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey("a"));
+        assertEquals(Integer.valueOf(3), map.get("c"));
+    }
+
+    @Test
+    public void equalsOtherMaps() {
+        Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+        expected.put("a", 1);
+        expected.put("b", null);
+
+        Map<String, Integer> map = new ArrayMap<String, Integer>(expected);
+
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertTrue(map.containsValue(null));
+    }
+}
@@ -13,15 +13,22 @@
 
 package de.escalon.hypermedia.spring;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import de.escalon.hypermedia.action.Input;
+import de.escalon.hypermedia.action.Options;
+import de.escalon.hypermedia.action.Select;
+import de.escalon.hypermedia.action.StringOptions;
+import de.escalon.hypermedia.affordance.ActionDescriptor;
 import de.escalon.hypermedia.affordance.Affordance;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.LinkRelation;
@@ -111,6 +118,12 @@ public class AffordanceBuilderFactoryTest {
       return null;
     }
 
+    @GetMapping(value = "/selectquery")
+    public @ResponseBody CollectionModel<Object> selectQueryEvent(
+        @RequestParam("q") @Select(options = StringOptions.class) String query) {
+      return null;
+    }
+
     @GetMapping(value = "/wrongqueryinclude")
     public @ResponseBody CollectionModel<Object> queryEventWithWrongInclude(
         @Input(include = "foo") EventQbe query) {
@@ -339,4 +352,71 @@ public class AffordanceBuilderFactoryTest {
     assertEquals("schema:parent", affordance.getRev());
     assertEquals(LinkRelation.of("ex:children"), affordance.getRel());
   }
+
+  @Test
+  public void testLinkToMethodInvocationUsesFactoryConversionService() {
+    DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+    conversionService.addConverter(
+        String.class,
+        String.class,
+        new Converter<String, String>() {
+          @Override
+          public String convert(String source) {
+            return source.toUpperCase();
+          }
+        });
+    AffordanceBuilderFactory customFactory = new AffordanceBuilderFactory();
+    customFactory.setConversionService(conversionService);
+
+    final Affordance affordance =
+        customFactory
+            .linkTo(
+                AffordanceBuilder.methodOn(EventControllerSample.class)
+                    .simpleQueryEvent("concert", 0L))
+            .rel("foo")
+            .build();
+    final Affordance defaultAffordance =
+        factory
+            .linkTo(
+                AffordanceBuilder.methodOn(EventControllerSample.class)
+                    .simpleQueryEvent("concert", 0L))
+            .rel("foo")
+            .build();
+
+    assertEquals(
+        "CONCERT",
+        affordance.getActionDescriptors().get(0).getActionInputParameter("q").getValueFormatted());
+    assertEquals(
+        "concert",
+        defaultAffordance
+            .getActionDescriptors()
+            .get(0)
+            .getActionInputParameter("q")
+            .getValueFormatted());
+  }
+
+  @Test
+  public void testLinkToMethodInvocationUsesFactoryOptionsResolver() {
+    final Object[] possibleValues = {"resolved"};
+    AffordanceBuilderFactory customFactory = new AffordanceBuilderFactory();
+    customFactory.setOptionsResolver(
+        new OptionsResolver() {
+          @Override
+          public Object[] getPossibleValues(
+              Class<? extends Options> optionsClass, String[] value, Object[] args) {
+            return possibleValues;
+          }
+        });
+
+    final Affordance affordance =
+        customFactory
+            .linkTo(AffordanceBuilder.methodOn(EventControllerSample.class).selectQueryEvent(null))
+            .rel("foo")
+            .build();
+
+    ActionDescriptor actionDescriptor = affordance.getActionDescriptors().get(0);
+    assertArrayEquals(
+        possibleValues,
+        actionDescriptor.getActionInputParameter("q").getPossibleValues(actionDescriptor));
+  }
 }
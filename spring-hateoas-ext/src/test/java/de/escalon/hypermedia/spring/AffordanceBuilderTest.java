@@ -242,4 +242,42 @@ public class AffordanceBuilderTest {
                 .rel(null)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBuildsWithCapturedContextOnOtherThread() throws Exception {
+        final LinkBuildingContext context = LinkBuildingContext.fromCurrentRequest();
+        final Affordance[] affordance = new Affordance[1];
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                affordance[0] = AffordanceBuilder.linkTo(context, AffordanceBuilder.methodOn(DummyController.class)
+                        .createThing(new Thing()))
+                        .rel("next")
+                        .build();
+            }
+        });
+        worker.start();
+        worker.join();
+        Assert.assertEquals("Link: <http://example.com/things>; rel=\"next\"", affordance[0].toString());
+    }
+
+    @Test
+    public void testBuildsWithBaseUriOutsideRequest() throws Exception {
+        RequestContextHolder.resetRequestAttributes();
+        LinkBuildingContext context = LinkBuildingContext.fromBaseUri("http://internal:8080/app")
+                .withScheme("https")
+                .withHost("api.example.com")
+                .withPort(-1);
+
+        Affordance affordance = AffordanceBuilder.linkTo(context, AffordanceBuilder.methodOn(DummyController.class)
+                .createThing(new Thing()))
+                .rel("next")
+                .build();
+        Assert.assertEquals("Link: <https://api.example.com/app/things>; rel=\"next\"", affordance.toString());
+
+        Affordance classAffordance = AffordanceBuilder.linkTo(context, DummyController.class)
+                .slash("things")
+                .withSelfRel();
+        Assert.assertEquals("https://api.example.com/app/things", classAffordance.getHref());
+    }
+}
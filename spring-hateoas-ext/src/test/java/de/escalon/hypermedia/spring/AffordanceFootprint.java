@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2014. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.affordance.ActionDescriptor;
+import de.escalon.hypermedia.affordance.Affordance;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the retained heap size per {@link Affordance} and per {@link SpringActionDescriptor}, once with the
+ * current compact maps and once with the same graphs converted to the {@link LinkedHashMap} and {@link
+ * LinkedMultiValueMap} fields they had before. Not part of the test run, since heap usage depends on the JVM, its
+ * flags and the collector. Run the main method with the test classpath, e.g. from the IDE, preferably with a fixed
+ * heap such as {@code -Xms512m -Xmx512m -XX:+UseSerialGC}.
+ */
+public class AffordanceFootprint {
+
+    private static final int INSTANCES = 20000;
+    private static final int ROUNDS = 7;
+
+    private static final AffordanceBuilderFactory FACTORY = new AffordanceBuilderFactory();
+
+    /**
+     * Keeps measured instances reachable until the heap has been measured.
+     */
+    private static volatile Object[] retained;
+
+    @Controller
+    @RequestMapping("/events")
+    static class EventController {
+
+        @GetMapping("/{eventId}/reviews")
+        public @ResponseBody CollectionModel<Object> findReviews(@PathVariable String eventId,
+                                                                 @RequestParam("q") String query,
+                                                                 @RequestParam("offset") Long offset) {
+            return null;
+        }
+    }
+
+    enum Layout {
+        /**
+         * Maps as built by the current code.
+         */
+        COMPACT,
+        /**
+         * Maps converted to the linked hash maps used before.
+         */
+        LINKED
+    }
+
+    public static void main(String[] args) throws Exception {
+        MockHttpServletRequest request = MockMvcRequestBuilders.get("http://example.com/")
+                .buildRequest(new MockServletContext());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // warm up shared caches such as method parameter descriptors and uri templates
+        build(INSTANCES, Layout.LINKED, false);
+
+        System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", " + INSTANCES + " instances, median of " + ROUNDS + " rounds");
+        for (Layout layout : Layout.values()) {
+            long affordance = measure(layout, false);
+            long descriptor = measure(layout, true);
+            System.out.println(String.format("%-8s retained bytes per affordance: %5d, per action descriptor: %5d",
+                    layout, affordance, descriptor));
+        }
+    }
+
+    private static long measure(Layout layout, boolean descriptorsOnly) throws Exception {
+        long[] sizes = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            retained = null;
+            long before = usedHeap();
+            retained = build(INSTANCES, layout, descriptorsOnly);
+            long after = usedHeap();
+            sizes[i] = (after - before) / retained.length;
+        }
+        retained = null;
+        Arrays.sort(sizes);
+        return sizes[ROUNDS / 2];
+    }
+
+    /**
+     * Builds an affordance with path variable, two request params, a link param and a rel, similar to the
+     * affordances of a collection item.
+     */
+    private static Object[] build(int count, Layout layout, boolean descriptorsOnly) throws Exception {
+        Object[] ret = new Object[count];
+        for (int i = 0; i < count; i++) {
+            Affordance affordance = FACTORY.linkTo(AffordanceBuilder.methodOn(EventController.class)
+                    .findReviews(Integer.toString(i), null, null))
+                    .withTitle("Reviews")
+                    .rel("reviews")
+                    .build();
+            if (layout == Layout.LINKED) {
+                toLinkedLayout(affordance);
+            }
+            ret[i] = descriptorsOnly ? affordance.getActionDescriptors().get(0) : affordance;
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void toLinkedLayout(Affordance affordance) throws Exception {
+        Field linkParamsField = Affordance.class.getDeclaredField("linkParams");
+        linkParamsField.setAccessible(true);
+        MultiValueMap<String, String> linkParams = (MultiValueMap<String, String>) linkParamsField.get(affordance);
+        LinkedMultiValueMap<String, String> linkedParams = new LinkedMultiValueMap<String, String>();
+        for (Map.Entry<String, List<String>> entry : linkParams.entrySet()) {
+            for (String value : entry.getValue()) {
+                linkedParams.add(entry.getKey(), value);
+            }
+        }
+        linkParamsField.set(affordance, linkedParams);
+
+        for (ActionDescriptor actionDescriptor : affordance.getActionDescriptors()) {
+            for (String fieldName : new String[]{"requestParams", "pathVariables", "requestHeaders",
+                    "inputParams"}) {
+                Field field = SpringActionDescriptor.class.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(actionDescriptor, new LinkedHashMap<Object, Object>((Map<?, ?>) field.get(actionDescriptor)));
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
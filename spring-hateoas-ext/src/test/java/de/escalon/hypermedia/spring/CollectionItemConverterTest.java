@@ -0,0 +1,106 @@
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import de.escalon.hypermedia.spring.siren.SirenMessageConverter;
+import de.escalon.hypermedia.spring.uber.UberJackson2HttpMessageConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CollectionItemConverterTest {
+
+    private ExecutorService executor;
+    private CollectionItemConverter itemConverter;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        itemConverter = new CollectionItemConverter(executor, 5, 3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void convertsInOrder() {
+        List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        List<String> converted = itemConverter.convert(items,
+                new CollectionItemConverter.ItemConversion<String>() {
+                    @Override
+                    public String convert(Object item) {
+                        return "item " + item;
+                    }
+                });
+        assertEquals(100, converted.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("item " + i, converted.get(i));
+        }
+    }
+
+    @Test
+    public void propagatesConversionFailure() {
+        try {
+            itemConverter.convert(Arrays.asList(1, 2, 3, 4, 5, 6),
+                    new CollectionItemConverter.ItemConversion<Object>() {
+                        @Override
+                        public Object convert(Object item) {
+                            if (item.equals(5)) {
+                                throw new IllegalStateException("item 5");
+                            }
+                            return item;
+                        }
+                    });
+            fail("conversion failure expected");
+        } catch (IllegalStateException e) {
+            assertEquals("item 5", e.getMessage());
+        }
+    }
+
+    @Test
+    public void convertsSirenAndUberSameAsSequential() throws Exception {
+        List<EntityModel<Event>> events = new ArrayList<EntityModel<Event>>();
+        EventStatusType[] statusTypes = EventStatusType.values();
+        for (int i = 0; i < 40; i++) {
+            Event event = new Event(i, "performer " + i, new CreativeWork("work " + i), "location " + i,
+                    statusTypes[i % statusTypes.length]);
+            events.add(EntityModel.of(event, Link.of("http://localhost/events/" + i)));
+        }
+        CollectionModel<EntityModel<Event>> collection = CollectionModel.of(events,
+                Link.of("http://localhost/events"));
+
+        SirenMessageConverter parallelSiren = new SirenMessageConverter();
+        parallelSiren.setCollectionItemConverter(itemConverter);
+        assertEquals(write(new SirenMessageConverter(), collection), write(parallelSiren, collection));
+
+        UberJackson2HttpMessageConverter parallelUber = new UberJackson2HttpMessageConverter();
+        parallelUber.setCollectionItemConverter(itemConverter);
+        assertEquals(write(new UberJackson2HttpMessageConverter(), collection), write(parallelUber, collection));
+    }
+
+    private String write(HttpMessageConverter<Object> converter, Object object) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, null, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+}
@@ -0,0 +1,198 @@
+package de.escalon.hypermedia.spring;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class EtagSupportTest {
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private EtagSupport etagSupport;
+    private CountingBodyWriter bodyWriter;
+
+    @Before
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/events/1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        response = new MockHttpServletResponse();
+        etagSupport = new EtagSupport();
+        bodyWriter = new CountingBodyWriter();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void rendersOnceWithoutEtagByDefault() throws Exception {
+        write();
+
+        assertFalse(response.containsHeader("ETag"));
+        assertEquals("{\"name\":\"Walk off the Earth\"}", response.getContentAsString());
+        assertEquals(1, bodyWriter.count);
+    }
+
+    @Test
+    public void computesEtagFromRenderedBytes() throws Exception {
+        etagSupport.setComputeDigest(true);
+        write();
+
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\"0"));
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"name\":\"Walk off the Earth\"}", response.getContentAsString());
+        assertEquals(2, bodyWriter.count);
+    }
+
+    @Test
+    public void answersNotModifiedForMatchingDigest() throws Exception {
+        etagSupport.setComputeDigest(true);
+        write();
+        String etag = response.getHeader("ETag");
+
+        response = new MockHttpServletResponse();
+        request.addHeader("If-None-Match", "W/" + etag);
+        write();
+
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    public void answersNotModifiedForKnownVersionWithoutRendering() throws Exception {
+        etagSupport.setResourceVersionProvider(new ResourceVersionProvider() {
+            @Override
+            public String getVersion(Object resource) {
+                return "42";
+            }
+        });
+        write();
+        String etag = response.getHeader("ETag");
+        assertTrue(etag, etag.startsWith("\"42-"));
+
+        response = new MockHttpServletResponse();
+        request.addHeader("If-None-Match", "\"41\", " + etag);
+        write();
+
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals(1, bodyWriter.count);
+    }
+
+    @Test
+    public void rendersOnceForKnownVersion() throws Exception {
+        etagSupport.setResourceVersionProvider(new ResourceVersionProvider() {
+            @Override
+            public String getVersion(Object resource) {
+                return "42";
+            }
+        });
+        request.addHeader("If-None-Match", "\"41\"");
+        write();
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getHeader("ETag")
+                .startsWith("\"42-"));
+        assertEquals(1, bodyWriter.count);
+    }
+
+    @Test
+    public void distinguishesVariantsOfKnownVersion() throws Exception {
+        etagSupport.setResourceVersionProvider(new ResourceVersionProvider() {
+            @Override
+            public String getVersion(Object resource) {
+                return "42";
+            }
+        });
+        Set<String> etags = new HashSet<String>();
+        etags.add(writeVariant(MediaType.APPLICATION_JSON, null));
+        etags.add(writeVariant(MediaType.APPLICATION_XML, null));
+        etags.add(writeVariant(MediaType.APPLICATION_JSON, "fields=name"));
+        request = new MockHttpServletRequest("GET", "/events/1");
+        request.addHeader("Prefer", "return=minimal");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        etags.add(writeVariant(MediaType.APPLICATION_JSON, null));
+
+        assertEquals(4, etags.size());
+        assertEquals(writeVariant(MediaType.APPLICATION_JSON, null), writeVariant(MediaType.APPLICATION_JSON, null));
+    }
+
+    @Test
+    public void skipsEtagForUnsafeMethods() throws Exception {
+        request.setMethod("POST");
+        write();
+
+        assertFalse(response.containsHeader("ETag"));
+        assertEquals(1, bodyWriter.count);
+    }
+
+    @Test
+    public void writesOtherOutputMessagesUnchanged() throws Exception {
+        etagSupport.setComputeDigest(true);
+        etagSupport.setResourceVersionProvider(new ResourceVersionProvider() {
+            @Override
+            public String getVersion(Object resource) {
+                return "42";
+            }
+        });
+        request.addHeader("If-None-Match", "\"42\"");
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        etagSupport.write("event", outputMessage, bodyWriter);
+
+        assertFalse(outputMessage.getHeaders()
+                .containsKey("ETag"));
+        assertEquals("{\"name\":\"Walk off the Earth\"}", outputMessage.getBodyAsString());
+        assertEquals(1, bodyWriter.count);
+    }
+
+    private String writeVariant(MediaType contentType, String variant) throws IOException {
+        response = new MockHttpServletResponse();
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+        outputMessage.getHeaders()
+                .setContentType(contentType);
+        etagSupport.write("event", variant, outputMessage, bodyWriter);
+        return outputMessage.getHeaders()
+                .getETag();
+    }
+
+    private void write() throws IOException {
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+        etagSupport.write("event", outputMessage, bodyWriter);
+        outputMessage.getBody()
+                .flush();
+    }
+
+    static class CountingBodyWriter implements EtagSupport.BodyWriter {
+
+        int count;
+
+        @Override
+        public void write(HttpOutputMessage outputMessage) throws IOException {
+            count++;
+            outputMessage.getBody()
+                    .write("{\"name\":\"Walk off the Earth\"}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.CachedOptions;
+import de.escalon.hypermedia.action.Options;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OptionsResolverTest {
+
+    private OptionsResolver optionsResolver;
+
+    @Before
+    public void setUp() {
+        optionsResolver = new OptionsResolver();
+        CountingOptions.calls = 0;
+        ExpiringOptions.calls = 0;
+    }
+
+    public static class CountingOptions implements Options {
+
+        static int calls;
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            calls++;
+            return new Object[]{value[0] + args[0] + calls};
+        }
+    }
+
+    @CachedOptions(timeToLive = 1, timeUnit = TimeUnit.HOURS)
+    public static class CachingOptions extends CountingOptions {
+
+    }
+
+    @CachedOptions(timeToLive = 0, staleWhileRevalidate = true)
+    public static class ExpiringOptions implements Options {
+
+        static int calls;
+
+        @Override
+        public Object[] get(String[] value, Object... args) {
+            calls++;
+            return new Object[]{calls};
+        }
+    }
+
+    @Test
+    public void callsUncachedOptionsEveryTime() {
+        assertArrayEquals(new Object[]{"a11"}, optionsResolver.getPossibleValues(CountingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+        assertArrayEquals(new Object[]{"a12"}, optionsResolver.getPossibleValues(CountingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+    }
+
+    @Test
+    public void cachesByValueAndArgs() {
+        assertArrayEquals(new Object[]{"a11"}, optionsResolver.getPossibleValues(CachingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+        assertArrayEquals(new Object[]{"a11"}, optionsResolver.getPossibleValues(CachingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+        assertArrayEquals(new Object[]{"a22"}, optionsResolver.getPossibleValues(CachingOptions.class,
+                new String[]{"a"}, new Object[]{2}));
+        assertArrayEquals(new Object[]{"b13"}, optionsResolver.getPossibleValues(CachingOptions.class,
+                new String[]{"b"}, new Object[]{1}));
+        assertEquals(3, CountingOptions.calls);
+    }
+
+    @Test
+    public void servesStaleValuesWhileRefreshing() {
+        final List<Runnable> refreshes = new ArrayList<Runnable>();
+        optionsResolver.setRefreshExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+            }
+        });
+        String[] value = new String[0];
+        Object[] args = new Object[0];
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertEquals("one refresh at a time", 1, refreshes.size());
+
+        refreshes.get(0)
+                .run();
+        assertArrayEquals(new Object[]{2}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertEquals(2, refreshes.size());
+    }
+
+    @Test
+    public void retriesRejectedRefresh() {
+        final List<Runnable> refreshes = new ArrayList<Runnable>();
+        optionsResolver.setRefreshExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+                if (refreshes.size() == 1) {
+                    throw new RejectedExecutionException("queue full");
+                }
+            }
+        });
+        String[] value = new String[0];
+        Object[] args = new Object[0];
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertArrayEquals(new Object[]{1}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+        assertEquals("rejected refresh is tried again", 2, refreshes.size());
+
+        refreshes.get(1)
+                .run();
+        assertArrayEquals(new Object[]{2}, optionsResolver.getPossibleValues(ExpiringOptions.class, value, args));
+    }
+
+    @Test
+    public void returnsCopiesOfCachedValues() {
+        Object[] possibleValues = optionsResolver.getPossibleValues(CachingOptions.class, new String[]{"a"},
+                new Object[]{1});
+        possibleValues[0] = "changed";
+
+        assertArrayEquals(new Object[]{"a11"}, optionsResolver.getPossibleValues(CachingOptions.class,
+                new String[]{"a"}, new Object[]{1}));
+    }
+
+    @Test
+    public void usesOptionsBean() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("options", new Options() {
+            @Override
+            public Object[] get(String[] value, Object... args) {
+                return new Object[]{"from bean"};
+            }
+        });
+        optionsResolver.setBeanFactory(beanFactory);
+
+        assertArrayEquals(new Object[]{"from bean"}, optionsResolver.getPossibleValues(Options.class,
+                new String[0], new Object[0]));
+    }
+}
@@ -0,0 +1,159 @@
+package de.escalon.hypermedia.spring;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import de.escalon.hypermedia.spring.sample.test.EventStatusType;
+import de.escalon.hypermedia.spring.siren.SirenMessageConverter;
+import de.escalon.hypermedia.spring.uber.UberJackson2HttpMessageConverter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PooledJsonFactoryTest {
+
+    private CountingBufferRecycler bufferRecycler;
+    private ObjectMapper objectMapper;
+
+    static class CountingBufferRecycler extends PooledBufferRecycler {
+
+        final AtomicInteger allocations = new AtomicInteger();
+
+        CountingBufferRecycler(int maxBuffersPerType) {
+            super(maxBuffersPerType);
+        }
+
+        @Override
+        protected byte[] balloc(int size) {
+            allocations.incrementAndGet();
+            return super.balloc(size);
+        }
+
+        @Override
+        protected char[] calloc(int size) {
+            allocations.incrementAndGet();
+            return super.calloc(size);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        bufferRecycler = new CountingBufferRecycler(4);
+        objectMapper = new ObjectMapper(new PooledJsonFactory(bufferRecycler));
+    }
+
+    @Test
+    public void reusesBuffersWithThreadPerResponse() throws Exception {
+        final Event event = new Event(1, "performer", new CreativeWork("work"), "location",
+                EventStatusType.EVENT_SCHEDULED);
+        final String[] json = new String[1];
+        Runnable response = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    objectMapper.writeValue(out, event);
+                    json[0] = out.toString("UTF-8");
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        runOnNewThread(response);
+        int allocationsOfFirstResponse = bufferRecycler.allocations.get();
+        assertTrue(allocationsOfFirstResponse > 0);
+
+        for (int i = 0; i < 100; i++) {
+            runOnNewThread(response);
+        }
+
+        assertEquals(allocationsOfFirstResponse, bufferRecycler.allocations.get());
+        assertTrue(json[0].contains("\"performer\":\"performer\""));
+    }
+
+    @Test
+    public void reusesBuffersOfSirenMessageConverter() throws Exception {
+        SirenMessageConverter converter = new SirenMessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        assertConverterReusesBuffers(converter, HypermediaTypes.SIREN_JSON, "\"performer\":\"performer\"");
+    }
+
+    @Test
+    public void reusesBuffersOfUberMessageConverter() throws Exception {
+        UberJackson2HttpMessageConverter converter = new UberJackson2HttpMessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        assertConverterReusesBuffers(converter, HypermediaTypes.UBER_JSON, "\"value\":\"performer\"");
+    }
+
+    private void assertConverterReusesBuffers(final HttpMessageConverter<Object> converter,
+                                              final MediaType mediaType, String expected) throws Exception {
+        final EntityModel<Event> model = EntityModel.of(new Event(1, "performer", new CreativeWork("work"),
+                "location", EventStatusType.EVENT_SCHEDULED), Link.of("http://example.com/events/1"));
+        final String[] json = new String[1];
+        Runnable response = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+                    converter.write(model, mediaType, outputMessage);
+                    json[0] = outputMessage.getBodyAsString();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        runOnNewThread(response);
+        int allocationsOfFirstResponse = bufferRecycler.allocations.get();
+        assertTrue(allocationsOfFirstResponse > 0);
+
+        for (int i = 0; i < 100; i++) {
+            runOnNewThread(response);
+        }
+
+        assertEquals(allocationsOfFirstResponse, bufferRecycler.allocations.get());
+        assertTrue(json[0], json[0].contains(expected));
+    }
+
+    @Test
+    public void dropsBuffersBeyondPoolSize() {
+        PooledBufferRecycler recycler = new PooledBufferRecycler(1);
+        char[] first = recycler.allocCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER);
+        char[] second = recycler.allocCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER);
+        recycler.releaseCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER, first);
+        recycler.releaseCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER, second);
+
+        assertSame(first, recycler.allocCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER));
+        char[] third = recycler.allocCharBuffer(BufferRecycler.CHAR_TEXT_BUFFER);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+    }
+
+    @Test
+    public void keepsRecyclerOnCopy() {
+        ObjectMapper copy = objectMapper.copy();
+        assertTrue(copy.getFactory() instanceof PooledJsonFactory);
+        assertSame(bufferRecycler, copy.getFactory()
+                ._getBufferRecycler());
+    }
+
+    private void runOnNewThread(Runnable runnable) throws InterruptedException {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        thread.join();
+    }
+}
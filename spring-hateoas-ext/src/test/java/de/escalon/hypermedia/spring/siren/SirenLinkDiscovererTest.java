@@ -0,0 +1,46 @@
+package de.escalon.hypermedia.spring.siren;
+
+import org.junit.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SirenLinkDiscovererTest {
+
+    private static final String SIREN = "{\"class\":[\"event\"],\"properties\":{\"name\":\"Concert\"}," +
+            "\"entities\":[" +
+            "{\"class\":[\"review\"],\"rel\":[\"review\"],\"properties\":{\"rating\":5}," +
+            "\"links\":[{\"rel\":[\"self\"],\"href\":\"http://example.com/reviews/1\"}]}," +
+            "{\"rel\":[\"location\"],\"href\":\"http://example.com/places/1\"}]," +
+            "\"actions\":[{\"name\":\"update\",\"href\":\"http://example.com/events/1\",\"method\":\"PUT\"}]," +
+            "\"links\":[{\"rel\":[\"self\"],\"href\":\"http://example.com/events/1\"}," +
+            "{\"rel\":[\"next\",\"related\"],\"href\":\"http://example.com/events/2\",\"title\":\"Next event\"}]}";
+
+    private final SirenLinkDiscoverer discoverer = new SirenLinkDiscoverer();
+
+    @Test
+    public void findsLinksAndEmbeddedLinks() {
+        assertEquals("http://example.com/events/1", discoverer.findRequiredLinkWithRel(IanaLinkRelations.SELF, SIREN)
+                .getHref());
+        assertEquals("http://example.com/places/1", discoverer.findRequiredLinkWithRel(LinkRelation.of("location"),
+                SIREN)
+                .getHref());
+        Link next = discoverer.findRequiredLinkWithRel(IanaLinkRelations.NEXT, SIREN);
+        assertEquals("http://example.com/events/2", next.getHref());
+        assertEquals("Next event", next.getTitle());
+        assertEquals(next.getHref(), discoverer.findRequiredLinkWithRel(IanaLinkRelations.RELATED, SIREN)
+                .getHref());
+    }
+
+    @Test
+    public void ignoresLinksOfEmbeddedRepresentations() {
+        assertEquals(1, discoverer.findLinksWithRel(IanaLinkRelations.SELF, SIREN)
+                .toList()
+                .size());
+        assertFalse(discoverer.findLinkWithRel(LinkRelation.of("review"), SIREN)
+                .isPresent());
+    }
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.matchers.JsonPathMatchers;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.spring.HypermediaTypes;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,6 +24,8 @@ import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.server.core.Relation;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.AnnotationConfigWebContextLoader;
@@ -29,11 +33,15 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.jayway.jsonassert.JsonAssert.with;
@@ -43,6 +51,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertFalse;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
 
 /**
@@ -267,4 +276,75 @@ public class SirenMessageConverterTest {
                 "missing action for foo-query uri template");
         with(json).assertThat("$.actions[2].fields[0].type", equalTo("text"));
     }
+
+    @Test
+    public void testMinimalRepresentationRendersAffordancesAsLinks() {
+        Order order = new Order();
+        order.add(linkTo(methodOn(DummyOrderController.class)
+                .addOrderItems(42, new OrderItem(42, null, null)))
+                .withRel("order-items"));
+        order.add(linkTo(methodOn(DummyOrderController.class)
+                .getOrder(42))
+                .withSelfRel());
+
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, order, EmbeddingDepth.UNLIMITED, true);
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+
+        assertThat(json, JsonPathMatchers.hasNoJsonPath("$.actions"));
+        with(json).assertThat("$.entities[0].rel[0]", equalTo("order-items"));
+        with(json).assertThat("$.entities[0].href", equalTo("http://localhost/orders/42/items"));
+        with(json).assertThat("$.links[0].href", equalTo("http://localhost/orders/42"));
+    }
+
+    @Test
+    public void testConverterHonoursPreferReturnMinimal() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/42");
+        request.addHeader("Prefer", "return=minimal");
+
+        MockHttpOutputMessage outputMessage = writeOrder(request);
+
+        assertThat(outputMessage.getBodyAsString(), JsonPathMatchers.hasNoJsonPath("$.actions"));
+        assertThat(outputMessage.getHeaders()
+                .getVary(), equalTo(Arrays.asList("Prefer", "Accept")));
+        assertThat(outputMessage.getHeaders()
+                .getFirst("Preference-Applied"), equalTo("return=minimal"));
+    }
+
+    @Test
+    public void testConverterHonoursMinimalProfile() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/42");
+        request.addHeader("Accept", "application/vnd.siren+json; profile=\"urn:escalon:hypermedia:minimal\"");
+
+        MockHttpOutputMessage outputMessage = writeOrder(request);
+
+        assertThat(outputMessage.getBodyAsString(), JsonPathMatchers.hasNoJsonPath("$.actions"));
+        assertThat(outputMessage.getHeaders()
+                .getVary(), equalTo(Arrays.asList("Prefer", "Accept")));
+        assertFalse(outputMessage.getHeaders()
+                .containsKey("Preference-Applied"));
+    }
+
+    @Test
+    public void testConverterVariesFullRepresentationByPreference() throws IOException {
+        MockHttpOutputMessage outputMessage = writeOrder(new MockHttpServletRequest("GET", "/orders/42"));
+
+        with(outputMessage.getBodyAsString()).assertThat("$.actions[0].method", equalTo("POST"));
+        assertThat(outputMessage.getHeaders()
+                .getVary(), equalTo(Arrays.asList("Prefer", "Accept")));
+        assertFalse(outputMessage.getHeaders()
+                .containsKey("Preference-Applied"));
+    }
+
+    private MockHttpOutputMessage writeOrder(MockHttpServletRequest request) throws IOException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Order order = new Order();
+        order.add(linkTo(methodOn(DummyOrderController.class)
+                .addOrderItems(42, new OrderItem(42, null, null)))
+                .withRel("order-items"));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new SirenMessageConverter().write(order, HypermediaTypes.SIREN_JSON, outputMessage);
+        return outputMessage;
+    }
 }
@@ -4,9 +4,14 @@ import static com.jayway.jsonassert.JsonAssert.with;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
 
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.RenderingBudget;
+import de.escalon.hypermedia.RenderingBudgetListener;
+import de.escalon.hypermedia.spring.sample.test.Person;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -568,5 +573,83 @@ public class SirenUtilsTest {
                 equalTo("74199"));
     }
 
+    public static class Order {
+
+        private final EntityModel<Person> customer = EntityModel.of(new Person("Peter Joseph"),
+                Link.of("http://example.com/customers/pj123"));
+        private final EntityModel<Person> seller = EntityModel.of(new Person("Hans"));
+
+        public EntityModel<Person> getCustomer() {
+            return customer;
+        }
+
+        public EntityModel<Person> getSeller() {
+            return seller;
+        }
+    }
+
+    @Test
+    public void testNestedResourcesBeyondEmbeddingDepthToEmbeddedLinks() {
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, new Order(), EmbeddingDepth.of(0));
+
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+
+        with(json).assertThat("$.entities", hasSize(2));
+        with(json).assertThat("$.entities[?(@.rel[0] == 'customer')].href",
+                contains("http://example.com/customers/pj123"));
+        with(json).assertThat("$.entities[?(@.rel[0] == 'customer')].properties", hasSize(0));
+        // resources without self link are embedded regardless of depth
+        with(json).assertThat("$.entities[?(@.rel[0] == 'seller')].properties.name", contains("Hans"));
+    }
+
+    @Test
+    public void testNestedResourcesWithinEmbeddingDepthOfTypeToSubEntities() {
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, new Order(), EmbeddingDepth.of(0)
+                .withMaxDepth(Person.class, 1));
+
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+
+        with(json).assertThat("$.entities[?(@.rel[0] == 'customer')].properties.name",
+                contains("Peter Joseph"));
+    }
+
+    @Test
+    public void testNestedResourcesBeyondRenderingBudgetToEmbeddedLinksOrOmitted() {
+        final List<RenderingBudget.Limit> exceeded = new ArrayList<RenderingBudget.Limit>();
+        sirenUtils.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxDepth(0));
+        sirenUtils.setRenderingBudgetListener(new RenderingBudgetListener() {
+            @Override
+            public void budgetExceeded(RenderingBudget.Limit limit, Class<?> resourceType, int depth) {
+                exceeded.add(limit);
+            }
+        });
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, new Order());
+
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+
+        with(json).assertThat("$.entities", hasSize(1));
+        with(json).assertThat("$.entities[0].href", equalTo("http://example.com/customers/pj123"));
+        assertEquals(Arrays.asList(RenderingBudget.Limit.DEPTH), exceeded);
+    }
+
+    @Test
+    public void testCollectionBeyondRenderingBudgetTruncated() {
+        sirenUtils.setRenderingBudget(RenderingBudget.UNLIMITED.withMaxItems(2));
+        SirenEntity entity = new SirenEntity();
+        sirenUtils.toSirenEntity(entity, CollectionModel.of(Arrays.asList(new Person("Alice"), new Person("Bob"),
+                new Person("Carol"))));
+
+        String json = objectMapper.valueToTree(entity)
+                .toString();
+
+        with(json).assertThat("$.entities[*].properties.name", contains("Alice", "Bob"));
+    }
+
     // TODO beans with setters, non-specific input parameter types
 }
\ No newline at end of file
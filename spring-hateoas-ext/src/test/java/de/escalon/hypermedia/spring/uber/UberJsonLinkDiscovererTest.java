@@ -0,0 +1,66 @@
+package de.escalon.hypermedia.spring.uber;
+
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.LinkIndex;
+import org.junit.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UberJsonLinkDiscovererTest {
+
+    private static final String UBER = "{\"uber\":{\"version\":\"1.0\",\"data\":[" +
+            "{\"rel\":[\"self\"],\"url\":\"http://example.com/events/1\"}," +
+            "{\"name\":\"event\",\"data\":[" +
+            "{\"name\":\"performer\",\"value\":\"Cornelia Bielefeldt\"}," +
+            "{\"rel\":[\"review\",\"item\"],\"url\":\"http://example.com/reviews/1\",\"data\":[" +
+            "{\"rel\":[\"item\"],\"url\":\"http://example.com/reviews/2\"}]}]}," +
+            "{\"rel\":[\"search\"],\"url\":\"http://example.com/events{?name}\",\"templated\":true}]}}";
+
+    private final UberJsonLinkDiscoverer discoverer = new UberJsonLinkDiscoverer();
+
+    @Test
+    public void findsLinksAtAnyDepth() {
+        assertEquals("http://example.com/events/1", discoverer.findRequiredLinkWithRel(IanaLinkRelations.SELF, UBER)
+                .getHref());
+        assertEquals("http://example.com/reviews/1", discoverer.findRequiredLinkWithRel(LinkRelation.of("review"),
+                UBER)
+                .getHref());
+        assertEquals(2, discoverer.findLinksWithRel(IanaLinkRelations.ITEM, UBER)
+                .toList()
+                .size());
+        assertEquals("http://example.com/reviews/1", discoverer.findRequiredLinkWithRel(IanaLinkRelations.ITEM, UBER)
+                .getHref());
+        assertTrue(discoverer.findRequiredLinkWithRel(IanaLinkRelations.SEARCH, UBER)
+                .isTemplated());
+        assertFalse(discoverer.findLinkWithRel(IanaLinkRelations.NEXT, UBER)
+                .isPresent());
+    }
+
+    @Test
+    public void reusesIndexOfSameRepresentation() {
+        LinkIndex index = discoverer.index(UBER);
+
+        assertSame(index, discoverer.index(UBER));
+        assertEquals(5, index.getLinks()
+                .toList()
+                .size());
+    }
+
+    @Test
+    public void readsInputStream() {
+        assertEquals("http://example.com/events/1", discoverer.findRequiredLinkWithRel(IanaLinkRelations.SELF,
+                new ByteArrayInputStream(UBER.getBytes(StandardCharsets.UTF_8)))
+                .getHref());
+        assertTrue(discoverer.supports(HypermediaTypes.UBER_JSON));
+        assertFalse(discoverer.supports(MediaType.APPLICATION_JSON));
+    }
+}
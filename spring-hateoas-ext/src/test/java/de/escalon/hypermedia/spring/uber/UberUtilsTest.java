@@ -14,6 +14,8 @@
 package de.escalon.hypermedia.spring.uber;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.EmbeddingDepth;
+import de.escalon.hypermedia.spring.CollectionItemConverter;
 import de.escalon.hypermedia.spring.SpringActionDescriptor;
 import de.escalon.hypermedia.spring.SpringActionInputParameter;
 import org.hamcrest.Matchers;
@@ -231,6 +233,39 @@ public class UberUtilsTest {
         assertEquals(canonicalUrl, selfRel.getUrl());
     }
 
+    public class Order {
+
+        private final EntityModel<Bean> item = EntityModel.of(new Bean(),
+                Link.of("http://www.example.com/bean/1"));
+
+        public EntityModel<Bean> getItem() {
+            return item;
+        }
+    }
+
+    @Test
+    public void nestedResourceBeyondEmbeddingDepthToUrlNode() throws Exception {
+        UberNode node = new UberNode();
+        UberUtils.toUberData(node, EntityModel.of(new Order()), CollectionItemConverter.SEQUENTIAL,
+                EmbeddingDepth.of(0));
+
+        UberNode item = node.getFirstByName("item");
+        assertEquals("http://www.example.com/bean/1", item.getUrl());
+        assertTrue(item.getData()
+                .isEmpty());
+    }
+
+    @Test
+    public void nestedResourceWithinEmbeddingDepthToUberData() throws Exception {
+        UberNode node = new UberNode();
+        UberUtils.toUberData(node, new Order(), CollectionItemConverter.SEQUENTIAL, EmbeddingDepth.of(1));
+
+        UberNode item = node.getFirstByName("item");
+        assertNull(item.getUrl());
+        assertEquals(FOO_VALUE, item.getFirstByName("foo")
+                .getValue());
+    }
+
     @Test
     public void resourceSupportToUberNode() throws Exception {
         BeanResource bean = new BeanResource();
@@ -0,0 +1,47 @@
+package de.escalon.hypermedia.spring.xhtml;
+
+import de.escalon.hypermedia.spring.sample.test.CreativeWork;
+import de.escalon.hypermedia.spring.sample.test.Event;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BeanFormTemplateTest {
+
+    @Test
+    public void compilesConstructorArgumentsOnce() {
+        BeanFormTemplate template = BeanFormTemplate.forConstructor(Event.class);
+
+        assertSame(template, BeanFormTemplate.forConstructor(Event.class));
+        assertEquals(Arrays.asList("performer", "workPerformed", "location", "eventStatus", "typicalAgeRange"),
+                names(template));
+        BeanFormTemplate.Field workPerformed = template.getFields()
+                .get(1);
+        assertEquals(BeanFormTemplate.Kind.BEAN, workPerformed.kind);
+        assertEquals(CreativeWork.class, workPerformed.type);
+        assertEquals(1, workPerformed.methodParameter.getParameterIndex());
+    }
+
+    @Test
+    public void compilesWritableProperties() {
+        BeanFormTemplate template = BeanFormTemplate.forSetters(Event.class);
+
+        assertSame(template, BeanFormTemplate.forSetters(Event.class));
+        assertEquals(Arrays.asList("eventStatus", "typicalAgeRange"), names(template));
+        assertEquals(BeanFormTemplate.Kind.SINGLE_VALUE, template.getFields()
+                .get(0).kind);
+    }
+
+    private List<String> names(BeanFormTemplate template) {
+        List<String> ret = new ArrayList<String>();
+        for (BeanFormTemplate.Field field : template.getFields()) {
+            ret.add(field.name);
+        }
+        return ret;
+    }
+}
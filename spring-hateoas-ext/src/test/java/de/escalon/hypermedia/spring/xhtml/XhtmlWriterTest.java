@@ -224,4 +224,18 @@ public class XhtmlWriterTest {
         XMLAssert.assertXpathNotExists("//select[@name='typicalAgeRange']", xml);
         XMLAssert.assertXpathNotExists("//input[@name='location']", xml);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEscapesAttributesAndText() throws Exception {
+        xhtml.writeLinks(Links.of(Link.of("http://localhost/events?q=\"a\"&page=2", "next")));
+        xhtml.beginDiv();
+        xhtml.writeSpan("<b>Tom & Jerry</b>");
+        xhtml.endDiv();
+
+        String xml = "<html>" + writer.toString() + "</html>";
+
+        XMLAssert.assertXpathEvaluatesTo("http://localhost/events?q=\"a\"&page=2", "//a/@href", xml);
+        XMLAssert.assertXpathEvaluatesTo("<b>Tom & Jerry</b>", "//span/text()", xml);
+        XMLAssert.assertXpathNotExists("//b", xml);
+    }
+}